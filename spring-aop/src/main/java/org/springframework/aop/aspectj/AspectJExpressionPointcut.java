@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -117,7 +117,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	private transient ClassLoader pointcutClassLoader;
 
 	@Nullable
-	private transient PointcutExpression pointcutExpression;
+	private transient volatile PointcutExpression pointcutExpression;
 
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
 
@@ -193,11 +193,13 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		if (getExpression() == null) {
 			throw new IllegalStateException("Must set property 'expression' before attempting to match");
 		}
-		if (this.pointcutExpression == null) {
+		PointcutExpression pointcutExpression = this.pointcutExpression;
+		if (pointcutExpression == null) {
 			this.pointcutClassLoader = determinePointcutClassLoader();
-			this.pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			this.pointcutExpression = pointcutExpression;
 		}
-		return this.pointcutExpression;
+		return pointcutExpression;
 	}
 
 	/**
@@ -452,69 +454,75 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// Avoid lock contention for known Methods through concurrent access...
 		ShadowMatch shadowMatch = this.shadowMatchCache.get(targetMethod);
 		if (shadowMatch == null) {
-			synchronized (this.shadowMatchCache) {
-				// Not found - now check again with full lock...
-				PointcutExpression fallbackExpression = null;
-				shadowMatch = this.shadowMatchCache.get(targetMethod);
-				if (shadowMatch == null) {
-					Method methodToMatch = targetMethod;
+			// Not found - match without holding a lock, so that different beans can be
+			// matched against this pointcut concurrently. The same method may get matched
+			// more than once in case of a race, with the first result being retained.
+			shadowMatch = matchShadow(targetMethod, originalMethod);
+			ShadowMatch existing = this.shadowMatchCache.putIfAbsent(targetMethod, shadowMatch);
+			if (existing != null) {
+				shadowMatch = existing;
+			}
+		}
+		return shadowMatch;
+	}
+
+	private ShadowMatch matchShadow(Method targetMethod, Method originalMethod) {
+		PointcutExpression fallbackExpression = null;
+		ShadowMatch shadowMatch = null;
+		Method methodToMatch = targetMethod;
+		try {
+			try {
+				shadowMatch = obtainPointcutExpression().matchesMethodExecution(methodToMatch);
+			}
+			catch (ReflectionWorldException ex) {
+				// Failed to introspect target method, probably because it has been loaded
+				// in a special ClassLoader. Let's try the declaring ClassLoader instead...
+				try {
+					fallbackExpression = getFallbackPointcutExpression(methodToMatch.getDeclaringClass());
+					if (fallbackExpression != null) {
+						shadowMatch = fallbackExpression.matchesMethodExecution(methodToMatch);
+					}
+				}
+				catch (ReflectionWorldException ex2) {
+					fallbackExpression = null;
+				}
+			}
+			if (targetMethod != originalMethod && (shadowMatch == null ||
+					(shadowMatch.neverMatches() && Proxy.isProxyClass(targetMethod.getDeclaringClass())))) {
+				// Fall back to the plain original method in case of no resolvable match or a
+				// negative match on a proxy class (which doesn't carry any annotations on its
+				// redeclared methods).
+				methodToMatch = originalMethod;
+				try {
+					shadowMatch = obtainPointcutExpression().matchesMethodExecution(methodToMatch);
+				}
+				catch (ReflectionWorldException ex) {
+					// Could neither introspect the target class nor the proxy class ->
+					// let's try the original method's declaring class before we give up...
 					try {
-						try {
-							shadowMatch = obtainPointcutExpression().matchesMethodExecution(methodToMatch);
-						}
-						catch (ReflectionWorldException ex) {
-							// Failed to introspect target method, probably because it has been loaded
-							// in a special ClassLoader. Let's try the declaring ClassLoader instead...
-							try {
-								fallbackExpression = getFallbackPointcutExpression(methodToMatch.getDeclaringClass());
-								if (fallbackExpression != null) {
-									shadowMatch = fallbackExpression.matchesMethodExecution(methodToMatch);
-								}
-							}
-							catch (ReflectionWorldException ex2) {
-								fallbackExpression = null;
-							}
-						}
-						if (targetMethod != originalMethod && (shadowMatch == null ||
-								(shadowMatch.neverMatches() && Proxy.isProxyClass(targetMethod.getDeclaringClass())))) {
-							// Fall back to the plain original method in case of no resolvable match or a
-							// negative match on a proxy class (which doesn't carry any annotations on its
-							// redeclared methods).
-							methodToMatch = originalMethod;
-							try {
-								shadowMatch = obtainPointcutExpression().matchesMethodExecution(methodToMatch);
-							}
-							catch (ReflectionWorldException ex) {
-								// Could neither introspect the target class nor the proxy class ->
-								// let's try the original method's declaring class before we give up...
-								try {
-									fallbackExpression = getFallbackPointcutExpression(methodToMatch.getDeclaringClass());
-									if (fallbackExpression != null) {
-										shadowMatch = fallbackExpression.matchesMethodExecution(methodToMatch);
-									}
-								}
-								catch (ReflectionWorldException ex2) {
-									fallbackExpression = null;
-								}
-							}
+						fallbackExpression = getFallbackPointcutExpression(methodToMatch.getDeclaringClass());
+						if (fallbackExpression != null) {
+							shadowMatch = fallbackExpression.matchesMethodExecution(methodToMatch);
 						}
 					}
-					catch (Throwable ex) {
-						// Possibly AspectJ 1.8.10 encountering an invalid signature
-						logger.debug("PointcutExpression matching rejected target method", ex);
+					catch (ReflectionWorldException ex2) {
 						fallbackExpression = null;
 					}
-					if (shadowMatch == null) {
-						shadowMatch = new ShadowMatchImpl(org.aspectj.util.FuzzyBoolean.NO, null, null, null);
-					}
-					else if (shadowMatch.maybeMatches() && fallbackExpression != null) {
-						shadowMatch = new DefensiveShadowMatch(shadowMatch,
-								fallbackExpression.matchesMethodExecution(methodToMatch));
-					}
-					this.shadowMatchCache.put(targetMethod, shadowMatch);
 				}
 			}
 		}
+		catch (Throwable ex) {
+			// Possibly AspectJ 1.8.10 encountering an invalid signature
+			logger.debug("PointcutExpression matching rejected target method", ex);
+			fallbackExpression = null;
+		}
+		if (shadowMatch == null) {
+			shadowMatch = new ShadowMatchImpl(org.aspectj.util.FuzzyBoolean.NO, null, null, null);
+		}
+		else if (shadowMatch.maybeMatches() && fallbackExpression != null) {
+			shadowMatch = new DefensiveShadowMatch(shadowMatch,
+					fallbackExpression.matchesMethodExecution(methodToMatch));
+		}
 		return shadowMatch;
 	}
 
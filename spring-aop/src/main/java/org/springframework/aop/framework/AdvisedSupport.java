@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -83,6 +83,9 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	/** Cache with Method as key and advisor chain List as value */
 	private transient Map<MethodCacheKey, List<Object>> methodCache;
 
+	/** Cache with Method as key and compiled invocation chain as value, used once frozen */
+	private transient Map<Method, CompiledInvocationChain> compiledChainCache;
+
 	/**
 	 * Interfaces to be implemented by the proxy. Held in List to keep the order
 	 * of registration, to create JDK proxy with specified order of interfaces.
@@ -107,6 +110,7 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	 */
 	public AdvisedSupport() {
 		this.methodCache = new ConcurrentHashMap<>(32);
+		this.compiledChainCache = new ConcurrentHashMap<>(32);
 	}
 
 	/**
@@ -487,11 +491,32 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 		return cached;
 	}
 
+	/**
+	 * Determine the {@link CompiledInvocationChain} for the given method,
+	 * resolving the interceptor chain and the target invoker on first access.
+	 * <p>Only to be used with a {@link #isFrozen() frozen} configuration, since
+	 * the compiled chain is not re-validated against the advisors per call.
+	 * @param method the proxied method
+	 * @param targetClass the target class
+	 * @return the compiled invocation chain for the method
+	 * @since 5.0.15
+	 */
+	CompiledInvocationChain getCompiledInvocationChain(Method method, @Nullable Class<?> targetClass) {
+		CompiledInvocationChain compiled = this.compiledChainCache.get(method);
+		if (compiled == null || compiled.getTargetClass() != targetClass) {
+			compiled = new CompiledInvocationChain(method, targetClass,
+					getInterceptorsAndDynamicInterceptionAdvice(method, targetClass));
+			this.compiledChainCache.put(method, compiled);
+		}
+		return compiled;
+	}
+
 	/**
 	 * Invoked when advice has changed.
 	 */
 	protected void adviceChanged() {
 		this.methodCache.clear();
+		this.compiledChainCache.clear();
 	}
 
 	/**
@@ -552,6 +577,7 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 
 		// Initialize transient fields.
 		this.methodCache = new ConcurrentHashMap<>(32);
+		this.compiledChainCache = new ConcurrentHashMap<>(32);
 	}
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -671,7 +671,11 @@ class CglibAopProxy implements AopProxy, Serializable {
 				// Get as late as possible to minimize the time we "own" the target, in case it comes from a pool...
 				target = targetSource.getTarget();
 				Class<?> targetClass = (target != null ? target.getClass() : null);
-				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				// A frozen configuration keeps its chain per Method, avoiding a cache key per call;
+				// the target itself is still invoked through the CGLIB MethodProxy.
+				List<Object> chain = (this.advised.isFrozen() ?
+						this.advised.getCompiledInvocationChain(method, targetClass).getChain() :
+						this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass));
 				Object retVal;
 				// Check whether we only have one InvokerInterceptor: that is,
 				// no real advice, but just reflective invocation of the target.
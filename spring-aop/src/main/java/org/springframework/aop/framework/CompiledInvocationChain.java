@@ -0,0 +1,183 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Invocation chain for a single method of a proxy with a frozen configuration,
+ * resolved once per method: holds the interceptor chain along with a method
+ * handle which invokes the target method directly instead of via reflection.
+ *
+ * <p>Since a frozen configuration cannot change its advice, the chain stays
+ * valid for the lifetime of the configuration, and invocations neither need
+ * to look up the chain per call nor go through reflection for the target.
+ *
+ * @since 5.0.15
+ * @see AdvisedSupport#getCompiledInvocationChain
+ * @see ProxyConfig#isFrozen()
+ */
+final class CompiledInvocationChain {
+
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+
+	private final Method method;
+
+	@Nullable
+	private final Class<?> targetClass;
+
+	private final List<Object> chain;
+
+	private final boolean varArgs;
+
+	private final Class<?>[] parameterTypes;
+
+	@Nullable
+	private final MethodHandle targetInvoker;
+
+
+	CompiledInvocationChain(Method method, @Nullable Class<?> targetClass, List<Object> chain) {
+		this.method = BridgeMethodResolver.findBridgedMethod(method);
+		this.targetClass = targetClass;
+		this.chain = chain;
+		this.varArgs = method.isVarArgs();
+		this.parameterTypes = this.method.getParameterTypes();
+		this.targetInvoker = createTargetInvoker(this.method);
+	}
+
+	@Nullable
+	private static MethodHandle createTargetInvoker(Method method) {
+		if (Modifier.isStatic(method.getModifiers())) {
+			return null;
+		}
+		try {
+			ReflectionUtils.makeAccessible(method);
+			return MethodHandles.lookup().unreflect(method)
+					.asSpreader(Object[].class, method.getParameterCount())
+					.asType(INVOKER_TYPE);
+		}
+		catch (Throwable ex) {
+			// E.g. IllegalAccessException or SecurityException -> fall back to reflection
+			return null;
+		}
+	}
+
+
+	/**
+	 * Return the target class that the chain has been resolved for.
+	 */
+	@Nullable
+	public Class<?> getTargetClass() {
+		return this.targetClass;
+	}
+
+	/**
+	 * Return the interceptor chain for the method
+	 * (may also include InterceptorAndDynamicMethodMatchers).
+	 */
+	public List<Object> getChain() {
+		return this.chain;
+	}
+
+	/**
+	 * Invoke the interceptor chain, ending in an invocation of the target.
+	 * @param proxy the proxy that the invocation was made on
+	 * @param target the target object to invoke the method on
+	 * @param args the arguments as passed to the proxy
+	 * @param targetClass the target class
+	 * @return the return value of the invocation
+	 */
+	@Nullable
+	public Object invoke(Object proxy, @Nullable Object target, @Nullable Object[] args,
+			@Nullable Class<?> targetClass) throws Throwable {
+
+		if (this.chain.isEmpty()) {
+			// We can skip creating a MethodInvocation: just invoke the target directly.
+			return invokeTarget(target, (this.varArgs ? AopProxyUtils.adaptArgumentsIfNecessary(this.method, args) : args));
+		}
+		return new CompiledMethodInvocation(proxy, target, this.method, args, targetClass, this.chain, this).proceed();
+	}
+
+	/**
+	 * Invoke the target method through the pre-built method handle if the given
+	 * target and arguments match the method signature, falling back to reflection
+	 * (with its exception translation) otherwise.
+	 */
+	@Nullable
+	Object invokeTarget(@Nullable Object target, @Nullable Object[] args) throws Throwable {
+		MethodHandle targetInvoker = this.targetInvoker;
+		if (targetInvoker != null && this.method.getDeclaringClass().isInstance(target) && isDirectlyInvocable(args)) {
+			return (Object) targetInvoker.invokeExact(target, args);
+		}
+		return AopUtils.invokeJoinpointUsingReflection(target, this.method, args);
+	}
+
+	private boolean isDirectlyInvocable(@Nullable Object[] args) {
+		Class<?>[] parameterTypes = this.parameterTypes;
+		if (args == null) {
+			return (parameterTypes.length == 0);
+		}
+		if (args.length != parameterTypes.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			Class<?> parameterType = parameterTypes[i];
+			if (arg == null ? parameterType.isPrimitive() :
+					(!parameterType.isInstance(arg) && !ClassUtils.isAssignableValue(parameterType, arg))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * MethodInvocation which invokes the target through the pre-built
+	 * method handle of its {@link CompiledInvocationChain}.
+	 */
+	private static class CompiledMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final CompiledInvocationChain compiledChain;
+
+		public CompiledMethodInvocation(Object proxy, @Nullable Object target, Method method,
+				@Nullable Object[] arguments, @Nullable Class<?> targetClass,
+				List<Object> interceptorsAndDynamicMethodMatchers, CompiledInvocationChain compiledChain) {
+
+			super(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers);
+			this.compiledChain = compiledChain;
+		}
+
+		@Override
+		protected Object invokeJoinpoint() throws Throwable {
+			return this.compiledChain.invokeTarget(this.target, this.arguments);
+		}
+	}
+
+}
@@ -208,21 +208,29 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			//获取我们目标对象的class
 			Class<?> targetClass = (target != null ? target.getClass() : null);
 
-			//把我们的aop的advisor 全部转化为拦截器， 通过责任链模式 依此调用
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-
-			//加入我们的拦截器链为空
-			if (chain.isEmpty()) {
-				//通过反射直接调用执行
-				Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
-				retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+			if (this.advised.isFrozen()) {
+				// Frozen configuration: use the chain resolved once for this method,
+				// invoking the target through a pre-built method handle.
+				retVal = this.advised.getCompiledInvocationChain(method, targetClass)
+						.invoke(proxy, target, args, targetClass);
 			}
 			else {
-				//创建一个方法调用对象
-				MethodInvocation invocation =
-						new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
-				//调用执行
-				retVal = invocation.proceed();
+				//把我们的aop的advisor 全部转化为拦截器， 通过责任链模式 依此调用
+				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+
+				//加入我们的拦截器链为空
+				if (chain.isEmpty()) {
+					//通过反射直接调用执行
+					Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
+					retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+				}
+				else {
+					//创建一个方法调用对象
+					MethodInvocation invocation =
+							new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
+					//调用执行
+					retVal = invocation.proceed();
+				}
 			}
 
 			// Massage return value if necessary.
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Base class for interceptors which admit or reject invocations based on
+ * the current load, shedding excess load instead of blocking callers
+ * indefinitely.
+ *
+ * <p>Subclasses decide in {@link #acquirePermit} whether an invocation may
+ * proceed, and are notified in {@link #releasePermit} once an admitted
+ * invocation has completed, along with its elapsed time. Rejected invocations
+ * result in an {@link InvocationRejectedException}.
+ *
+ * <p>Keeps track of the number of admitted and rejected invocations,
+ * exposed through {@link #getAdmittedCount()} and {@link #getRejectedCount()}.
+ *
+ * @since 5.0.15
+ * @see SemaphoreBulkheadInterceptor
+ * @see TokenBucketRateLimitInterceptor
+ * @see AdaptiveConcurrencyLimitInterceptor
+ */
+@SuppressWarnings("serial")
+public abstract class AbstractThrottlingInterceptor implements MethodInterceptor, Serializable {
+
+	/** Transient to optimize serialization */
+	protected transient Log logger = LogFactory.getLog(getClass());
+
+	private final LongAdder admittedCount = new LongAdder();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!acquirePermit(invocation)) {
+			this.rejectedCount.increment();
+			String msg = getRejectionMessage(invocation);
+			if (logger.isDebugEnabled()) {
+				logger.debug(msg);
+			}
+			throw new InvocationRejectedException(msg);
+		}
+		this.admittedCount.increment();
+		long startTime = System.nanoTime();
+		try {
+			return invocation.proceed();
+		}
+		finally {
+			releasePermit(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Return the number of invocations admitted so far.
+	 */
+	public long getAdmittedCount() {
+		return this.admittedCount.sum();
+	}
+
+	/**
+	 * Return the number of invocations rejected so far.
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.sum();
+	}
+
+
+	/**
+	 * Determine whether the given invocation may proceed, potentially
+	 * waiting for a bounded amount of time.
+	 * <p>Implementations which wait should restore the thread's interrupt
+	 * status and return {@code false} when interrupted while waiting.
+	 * @param invocation the invocation about to proceed
+	 * @return {@code true} if the invocation is admitted,
+	 * or {@code false} if it is to be rejected
+	 */
+	protected abstract boolean acquirePermit(MethodInvocation invocation);
+
+	/**
+	 * Template method called once an admitted invocation has completed,
+	 * whether successfully or with an exception.
+	 * <p>The default implementation is empty.
+	 * @param elapsedNanos the elapsed time of the invocation, in nanoseconds
+	 */
+	protected void releasePermit(long elapsedNanos) {
+	}
+
+	/**
+	 * Build the message for the {@link InvocationRejectedException}
+	 * thrown for the given rejected invocation.
+	 * @param invocation the rejected invocation
+	 * @return the exception message
+	 */
+	protected String getRejectionMessage(MethodInvocation invocation) {
+		return "Invocation of method '" + invocation.getMethod().getName() + "' rejected by " + this;
+	}
+
+
+	//---------------------------------------------------------------------
+	// Serialization support
+	//---------------------------------------------------------------------
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		// Rely on default serialization, just initialize state after deserialization.
+		ois.defaultReadObject();
+
+		// Initialize transient fields.
+		this.logger = LogFactory.getLog(getClass());
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * Interceptor that limits concurrent invocations to a limit which adapts to
+ * the observed latency, following an additive-increase/multiplicative-decrease
+ * scheme: every invocation completing within the {@link #setLatencyThreshold
+ * latency threshold} while the limit was at least half utilized raises the
+ * limit by one, whereas every slower invocation reduces it by the
+ * {@link #setBackoffRatio backoff ratio}. The limit stays within the
+ * configured {@link #setMinLimit minimum} and {@link #setMaxLimit maximum}.
+ *
+ * <p>Invocations exceeding the current limit are rejected right away with an
+ * {@link InvocationRejectedException}, so that a dependency that slows down
+ * under load receives fewer concurrent invocations until it recovers.
+ * Admission and limit updates are lock-free.
+ *
+ * <p>The limits may be configured in any order; {@link #afterPropertiesSet()}
+ * checks that {@code minLimit <= initialLimit <= maxLimit}, so it needs to be
+ * called explicitly when the interceptor is not managed by a bean factory.
+ *
+ * @since 5.0.15
+ * @see SemaphoreBulkheadInterceptor
+ */
+@SuppressWarnings("serial")
+public class AdaptiveConcurrencyLimitInterceptor extends AbstractThrottlingInterceptor
+		implements InitializingBean {
+
+	private int initialLimit = 20;
+
+	private int minLimit = 1;
+
+	private int maxLimit = 200;
+
+	private long latencyThresholdNanos = TimeUnit.SECONDS.toNanos(1);
+
+	private double backoffRatio = 0.9;
+
+	private final AtomicInteger limit = new AtomicInteger(this.initialLimit);
+
+	private final AtomicInteger inFlightCount = new AtomicInteger();
+
+
+	/**
+	 * Set the initial concurrency limit.
+	 * <p>Default is 20.
+	 */
+	public void setInitialLimit(int initialLimit) {
+		Assert.isTrue(initialLimit > 0, "'initialLimit' must be positive");
+		this.initialLimit = initialLimit;
+		this.limit.set(initialLimit);
+	}
+
+	/**
+	 * Set the minimum concurrency limit that slow invocations may reduce the limit to.
+	 * <p>Default is 1.
+	 */
+	public void setMinLimit(int minLimit) {
+		Assert.isTrue(minLimit > 0, "'minLimit' must be positive");
+		this.minLimit = minLimit;
+	}
+
+	/**
+	 * Return the minimum concurrency limit.
+	 */
+	public int getMinLimit() {
+		return this.minLimit;
+	}
+
+	/**
+	 * Set the maximum concurrency limit that fast invocations may raise the limit to.
+	 * <p>Default is 200.
+	 */
+	public void setMaxLimit(int maxLimit) {
+		Assert.isTrue(maxLimit > 0, "'maxLimit' must be positive");
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * Return the maximum concurrency limit.
+	 */
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	/**
+	 * Set the latency (in milliseconds) beyond which an invocation is
+	 * considered slow, reducing the concurrency limit.
+	 * <p>Default is 1000.
+	 */
+	public void setLatencyThreshold(long latencyThreshold) {
+		Assert.isTrue(latencyThreshold > 0, "'latencyThreshold' must be positive");
+		this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+	}
+
+	/**
+	 * Return the latency (in milliseconds) beyond which an invocation is considered slow.
+	 */
+	public long getLatencyThreshold() {
+		return TimeUnit.NANOSECONDS.toMillis(this.latencyThresholdNanos);
+	}
+
+	/**
+	 * Set the ratio that the concurrency limit is multiplied with after a slow
+	 * invocation, between 0 and 1 (exclusive).
+	 * <p>Default is 0.9.
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "'backoffRatio' must be between 0 and 1");
+		this.backoffRatio = backoffRatio;
+	}
+
+	/**
+	 * Return the ratio that the concurrency limit is multiplied with after a slow invocation.
+	 */
+	public double getBackoffRatio() {
+		return this.backoffRatio;
+	}
+
+	/**
+	 * Return the current concurrency limit.
+	 */
+	public int getLimit() {
+		return this.limit.get();
+	}
+
+	/**
+	 * Return the number of invocations currently in progress.
+	 */
+	public int getInFlightCount() {
+		return this.inFlightCount.get();
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.isTrue(this.minLimit <= this.maxLimit, () -> "'minLimit' (" + this.minLimit +
+				") must not be greater than 'maxLimit' (" + this.maxLimit + ")");
+		Assert.isTrue(this.initialLimit >= this.minLimit && this.initialLimit <= this.maxLimit,
+				() -> "'initialLimit' (" + this.initialLimit + ") must be between 'minLimit' (" +
+						this.minLimit + ") and 'maxLimit' (" + this.maxLimit + ")");
+	}
+
+	@Override
+	protected boolean acquirePermit(MethodInvocation invocation) {
+		AtomicInteger inFlightCount = this.inFlightCount;
+		while (true) {
+			int current = inFlightCount.get();
+			if (current >= this.limit.get()) {
+				return false;
+			}
+			if (inFlightCount.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	@Override
+	protected void releasePermit(long elapsedNanos) {
+		int inFlight = this.inFlightCount.getAndDecrement();
+		int currentLimit = this.limit.get();
+		int newLimit;
+		if (elapsedNanos > this.latencyThresholdNanos) {
+			newLimit = Math.max((int) (currentLimit * this.backoffRatio), this.minLimit);
+		}
+		else if (inFlight * 2 >= currentLimit) {
+			newLimit = Math.min(currentLimit + 1, this.maxLimit);
+		}
+		else {
+			// Limit not utilized enough to tell whether it could be raised.
+			return;
+		}
+		if (newLimit != currentLimit) {
+			// A failed update means that a concurrent invocation adjusted the limit already.
+			this.limit.compareAndSet(currentLimit, newLimit);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "AdaptiveConcurrencyLimitInterceptor: limit=" + getLimit() + ", inFlight=" + getInFlightCount() +
+				", minLimit=" + this.minLimit + ", maxLimit=" + this.maxLimit;
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import org.springframework.aop.AopInvocationException;
+
+/**
+ * Exception thrown when a throttling interceptor rejects an invocation,
+ * e.g. because a concurrency limit or rate limit has been exceeded.
+ *
+ * @since 5.0.15
+ * @see AbstractThrottlingInterceptor
+ */
+@SuppressWarnings("serial")
+public class InvocationRejectedException extends AopInvocationException {
+
+	/**
+	 * Constructor for InvocationRejectedException.
+	 * @param msg the detail message
+	 */
+	public InvocationRejectedException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory histogram of latency values in nanoseconds, using log-linear
+ * buckets in the style of HdrHistogram: values are grouped into buckets per
+ * power of two, each of which is divided into 16 linear sub-buckets, keeping
+ * the relative error of reported values within about 6% (3% on average) up
+ * to a maximum trackable value of about 18 minutes.
+ *
+ * <p>Values are recorded without locking into a single shared set of counts.
+ * Only when an update of a shared count fails due to contention, the value is
+ * recorded into one of a few striped sets of counts instead, in the style of
+ * {@link LongAdder}; these are created on first contention and merged into a
+ * {@link Snapshot} on read. Memory is therefore bounded by the number of
+ * processors rather than by the number of threads recording into the histogram.
+ *
+ * @since 5.0.15
+ * @see LatencyHistogramInterceptor
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+	/**
+	 * Number of bits of the highest trackable value (2^40 ns, about 18 minutes).
+	 */
+	private static final int MAX_VALUE_BITS = 40;
+
+	private static final int MAX_BUCKET_INDEX = MAX_VALUE_BITS - SUB_BUCKET_BITS;
+
+	private static final int COUNTS_LENGTH = (MAX_BUCKET_INDEX + 2) * SUB_BUCKET_HALF_COUNT;
+
+	/**
+	 * Number of striped sets of counts: the number of processors, rounded up
+	 * to a power of two and capped at 16.
+	 */
+	private static final int STRIPE_COUNT =
+			Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), 16);
+
+
+	private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+
+	private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+	private final LongAdder sum = new LongAdder();
+
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+
+	/**
+	 * Record the given latency value.
+	 * @param nanos the latency in nanoseconds (negative values count as 0)
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		int index = countsIndex(value);
+		long count = this.counts.get(index);
+		if (!this.counts.compareAndSet(index, count, count + 1)) {
+			getStripe().incrementAndGet(index);
+		}
+		this.sum.add(value);
+		this.max.accumulate(value);
+	}
+
+	/**
+	 * Merge the values recorded so far into an immutable snapshot.
+	 * <p>Values recorded concurrently may or may not be included.
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[COUNTS_LENGTH];
+		addTo(this.counts, counts);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			AtomicLongArray stripe = this.stripes.get(i);
+			if (stripe != null) {
+				addTo(stripe, counts);
+			}
+		}
+		return new Snapshot(counts, this.sum.sum(), this.max.get());
+	}
+
+	private AtomicLongArray getStripe() {
+		int hash = Long.hashCode(Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+		int stripeIndex = (hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1);
+		AtomicLongArray stripe = this.stripes.get(stripeIndex);
+		if (stripe == null) {
+			this.stripes.compareAndSet(stripeIndex, null, new AtomicLongArray(COUNTS_LENGTH));
+			stripe = this.stripes.get(stripeIndex);
+		}
+		return stripe;
+	}
+
+	private static void addTo(AtomicLongArray source, long[] target) {
+		for (int i = 0; i < COUNTS_LENGTH; i++) {
+			target[i] += source.get(i);
+		}
+	}
+
+
+	static int countsIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int bucketIndex = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+		if (bucketIndex > MAX_BUCKET_INDEX) {
+			return COUNTS_LENGTH - 1;
+		}
+		return (bucketIndex * SUB_BUCKET_HALF_COUNT) + (int) (value >>> bucketIndex);
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int bucketIndex = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucketIndex = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		return ((subBucketIndex + 1) << bucketIndex) - 1;
+	}
+
+
+	/**
+	 * Immutable snapshot of a {@link LatencyHistogram}, with all values in nanoseconds.
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+
+		private final long totalCount;
+
+		private final long sum;
+
+		private final long max;
+
+		Snapshot(long[] counts, long sum, long max) {
+			this.counts = counts;
+			long totalCount = 0;
+			for (long count : counts) {
+				totalCount += count;
+			}
+			this.totalCount = totalCount;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * Return the number of recorded values.
+		 */
+		public long getCount() {
+			return this.totalCount;
+		}
+
+		/**
+		 * Return the highest recorded value, or 0 if none.
+		 */
+		public long getMax() {
+			return this.max;
+		}
+
+		/**
+		 * Return the mean of the recorded values, or 0 if none.
+		 */
+		public double getMean() {
+			return (this.totalCount > 0 ? (double) this.sum / this.totalCount : 0);
+		}
+
+		/**
+		 * Return the value at the given percentile: a value that the given
+		 * percentage of recorded values are lower than or equivalent to.
+		 * @param percentile the percentile, between 0 and 100
+		 * @return the value at the percentile, or 0 if no values were recorded
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (this.totalCount == 0) {
+				return 0;
+			}
+			double requested = Math.min(Math.max(percentile, 0), 100);
+			long countAtPercentile = Math.max((long) Math.ceil(requested / 100 * this.totalCount), 1);
+			long cumulativeCount = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				cumulativeCount += this.counts[i];
+				if (cumulativeCount >= countAtPercentile) {
+					return Math.min(highestEquivalentValue(i), this.max);
+				}
+			}
+			return this.max;
+		}
+	}
+
+}
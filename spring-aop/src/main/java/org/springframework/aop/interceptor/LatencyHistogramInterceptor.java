@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * AOP Alliance {@code MethodInterceptor} that records the latency of each
+ * intercepted method into a {@link LatencyHistogram}, providing percentiles
+ * at a fixed memory footprint and without locking on the invocation path.
+ * Cheap enough to stay enabled in production, in contrast to
+ * {@link PerformanceMonitorInterceptor} which logs every single invocation.
+ *
+ * <p>Latencies are tracked per method, identified by the qualified name of
+ * the intercepted method (overloaded methods share a histogram). All public
+ * accessors report latencies in milliseconds and use JMX-compatible types,
+ * so that an instance can be registered with Spring's
+ * {@code org.springframework.jmx.export.MBeanExporter} as-is:
+ *
+ * <pre class="code">
+ * &lt;bean class="org.springframework.jmx.export.MBeanExporter"&gt;
+ *   &lt;property name="beans"&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key="myapp:name=latency" value-ref="latencyInterceptor"/&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * @since 5.0.15
+ * @see LatencyHistogram
+ * @see PerformanceMonitorInterceptor
+ */
+public class LatencyHistogramInterceptor implements MethodInterceptor {
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+
+	private double[] summaryPercentiles = {50, 90, 99, 99.9};
+
+	private final Map<Method, LatencyHistogram> histogramsByMethod = new ConcurrentHashMap<>(64);
+
+	private final Map<String, LatencyHistogram> histogramsByName = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Set the percentiles to include in the {@link #getLatencySummary() summary}.
+	 * <p>Default is 50, 90, 99 and 99.9.
+	 */
+	public void setSummaryPercentiles(double... summaryPercentiles) {
+		Assert.isTrue(summaryPercentiles.length > 0, "At least one percentile required");
+		this.summaryPercentiles = summaryPercentiles;
+	}
+
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		Method method = invocation.getMethod();
+		LatencyHistogram histogram = this.histogramsByMethod.get(method);
+		if (histogram == null) {
+			histogram = this.histogramsByMethod.computeIfAbsent(method, key ->
+					this.histogramsByName.computeIfAbsent(ClassUtils.getQualifiedMethodName(key),
+							name -> new LatencyHistogram()));
+		}
+		long startTime = System.nanoTime();
+		try {
+			return invocation.proceed();
+		}
+		finally {
+			histogram.record(System.nanoTime() - startTime);
+		}
+	}
+
+
+	/**
+	 * Return the qualified names of all methods with recorded latencies, sorted by name.
+	 */
+	public String[] getMonitoredMethods() {
+		String[] names = StringUtils.toStringArray(this.histogramsByName.keySet());
+		Arrays.sort(names);
+		return names;
+	}
+
+	/**
+	 * Return the number of recorded invocations of the given method.
+	 * @param methodName the qualified method name
+	 * @return the invocation count, or 0 if no invocations have been recorded
+	 */
+	public long getInvocationCount(String methodName) {
+		LatencyHistogram histogram = this.histogramsByName.get(methodName);
+		return (histogram != null ? histogram.snapshot().getCount() : 0);
+	}
+
+	/**
+	 * Return the latency of the given method at the given percentile.
+	 * @param methodName the qualified method name
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency in milliseconds, or 0 if no invocations have been recorded
+	 */
+	public double getLatencyAtPercentile(String methodName, double percentile) {
+		LatencyHistogram histogram = this.histogramsByName.get(methodName);
+		return (histogram != null ? toMillis(histogram.snapshot().getValueAtPercentile(percentile)) : 0);
+	}
+
+	/**
+	 * Return the highest recorded latency of the given method.
+	 * @param methodName the qualified method name
+	 * @return the latency in milliseconds, or 0 if no invocations have been recorded
+	 */
+	public double getMaxLatency(String methodName) {
+		LatencyHistogram histogram = this.histogramsByName.get(methodName);
+		return (histogram != null ? toMillis(histogram.snapshot().getMax()) : 0);
+	}
+
+	/**
+	 * Return a summary line per monitored method, sorted by method name,
+	 * with the invocation count, the mean latency, the latency at each of the
+	 * {@link #setSummaryPercentiles summary percentiles} and the maximum latency.
+	 */
+	public String[] getLatencySummary() {
+		String[] names = getMonitoredMethods();
+		String[] summary = new String[names.length];
+		for (int i = 0; i < names.length; i++) {
+			LatencyHistogram.Snapshot snapshot = this.histogramsByName.get(names[i]).snapshot();
+			StringBuilder sb = new StringBuilder(names[i]);
+			sb.append(": count=").append(snapshot.getCount());
+			sb.append(", mean=").append(formatMillis(snapshot.getMean()));
+			for (double percentile : this.summaryPercentiles) {
+				sb.append(", p").append(formatPercentile(percentile)).append('=');
+				sb.append(formatMillis(snapshot.getValueAtPercentile(percentile)));
+			}
+			sb.append(", max=").append(formatMillis(snapshot.getMax()));
+			summary[i] = sb.toString();
+		}
+		return summary;
+	}
+
+	/**
+	 * Discard all recorded latencies.
+	 */
+	public void reset() {
+		this.histogramsByMethod.clear();
+		this.histogramsByName.clear();
+	}
+
+
+	private static double toMillis(double nanos) {
+		return nanos / NANOS_PER_MILLI;
+	}
+
+	private static String formatMillis(double nanos) {
+		return String.format("%.3fms", toMillis(nanos));
+	}
+
+	private static String formatPercentile(double percentile) {
+		return (percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile));
+	}
+
+}
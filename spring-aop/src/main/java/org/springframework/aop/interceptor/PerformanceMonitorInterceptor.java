@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,12 +26,15 @@ import org.springframework.util.StopWatch;
  * This interceptor has no effect on the intercepted method call.
  *
  * <p>Uses a {@code StopWatch} for the actual performance measuring.
+ * Consider {@link LatencyHistogramInterceptor} for aggregated latency
+ * percentiles instead of a log statement per invocation.
  *
  * @author Rod Johnson
  * @author Dmitriy Kopylenko
  * @author Rob Harrop
  * @see org.springframework.util.StopWatch
  * @see JamonPerformanceMonitorInterceptor
+ * @see LatencyHistogramInterceptor
  */
 @SuppressWarnings("serial")
 public class PerformanceMonitorInterceptor extends AbstractMonitoringInterceptor {
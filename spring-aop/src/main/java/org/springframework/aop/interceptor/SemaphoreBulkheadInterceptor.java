@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.util.Assert;
+
+/**
+ * Interceptor that isolates a service behind a bulkhead: a fixed number of
+ * concurrent invocations backed by a {@link Semaphore}. Excess invocations
+ * wait for at most the configured {@link #setMaxWaitTime maximum wait time}
+ * and are rejected with an {@link InvocationRejectedException} if no permit
+ * became available in the meantime.
+ *
+ * <p>In contrast to {@link ConcurrencyThrottleInterceptor}, callers never
+ * block indefinitely and there is no shared monitor: by default, excess
+ * invocations fail fast, letting an overloaded dependency shed load instead
+ * of piling up threads. Waiting callers may be served in arrival order
+ * through the "fair" constructor flag.
+ *
+ * @since 5.0.15
+ * @see #setMaxWaitTime
+ * @see ConcurrencyThrottleInterceptor
+ */
+@SuppressWarnings("serial")
+public class SemaphoreBulkheadInterceptor extends AbstractThrottlingInterceptor {
+
+	private final int maxConcurrentCalls;
+
+	private final Semaphore semaphore;
+
+	private long maxWaitTime = 0;
+
+	private final AtomicInteger waitingCount = new AtomicInteger();
+
+
+	/**
+	 * Create a new {@code SemaphoreBulkheadInterceptor} with a non-fair semaphore.
+	 * @param maxConcurrentCalls the maximum number of concurrent invocations
+	 */
+	public SemaphoreBulkheadInterceptor(int maxConcurrentCalls) {
+		this(maxConcurrentCalls, false);
+	}
+
+	/**
+	 * Create a new {@code SemaphoreBulkheadInterceptor}.
+	 * @param maxConcurrentCalls the maximum number of concurrent invocations
+	 * @param fair whether waiting invocations should be admitted in arrival
+	 * order, at the expense of throughput
+	 * @see Semaphore#Semaphore(int, boolean)
+	 */
+	public SemaphoreBulkheadInterceptor(int maxConcurrentCalls, boolean fair) {
+		Assert.isTrue(maxConcurrentCalls > 0, "'maxConcurrentCalls' must be positive");
+		this.maxConcurrentCalls = maxConcurrentCalls;
+		this.semaphore = new Semaphore(maxConcurrentCalls, fair);
+	}
+
+
+	/**
+	 * Set the maximum time (in milliseconds) that an invocation waits for a
+	 * permit before getting rejected.
+	 * <p>Default is 0, rejecting excess invocations right away.
+	 */
+	public void setMaxWaitTime(long maxWaitTime) {
+		Assert.isTrue(maxWaitTime >= 0, "'maxWaitTime' must not be negative");
+		this.maxWaitTime = maxWaitTime;
+	}
+
+	/**
+	 * Return the maximum time (in milliseconds) that an invocation waits for a permit.
+	 */
+	public long getMaxWaitTime() {
+		return this.maxWaitTime;
+	}
+
+	/**
+	 * Return the maximum number of concurrent invocations.
+	 */
+	public int getMaxConcurrentCalls() {
+		return this.maxConcurrentCalls;
+	}
+
+	/**
+	 * Return the number of invocations currently in progress.
+	 */
+	public int getConcurrentCalls() {
+		return this.maxConcurrentCalls - this.semaphore.availablePermits();
+	}
+
+	/**
+	 * Return the number of invocations currently waiting for a permit.
+	 */
+	public int getWaitingCount() {
+		return this.waitingCount.get();
+	}
+
+
+	@Override
+	protected boolean acquirePermit(MethodInvocation invocation) {
+		Semaphore semaphore = this.semaphore;
+		boolean fair = semaphore.isFair();
+		if (!fair && semaphore.tryAcquire()) {
+			// Fast path without queueing, possibly barging in ahead of waiting invocations.
+			return true;
+		}
+		long maxWaitTime = this.maxWaitTime;
+		if (maxWaitTime == 0 && !fair) {
+			return false;
+		}
+		this.waitingCount.incrementAndGet();
+		try {
+			return semaphore.tryAcquire(maxWaitTime, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException ex) {
+			// Re-interrupt current thread, to allow other threads to react.
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		finally {
+			this.waitingCount.decrementAndGet();
+		}
+	}
+
+	@Override
+	protected void releasePermit(long elapsedNanos) {
+		this.semaphore.release();
+	}
+
+	@Override
+	public String toString() {
+		return "SemaphoreBulkheadInterceptor: maxConcurrentCalls=" + this.maxConcurrentCalls +
+				", concurrentCalls=" + getConcurrentCalls() + ", waiting=" + getWaitingCount() +
+				", maxWaitTime=" + this.maxWaitTime + "ms";
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.util.Assert;
+
+/**
+ * Interceptor that limits the rate of invocations according to a token bucket:
+ * tokens are replenished at a steady rate of permits per second, up to the
+ * bucket's burst capacity, and each invocation consumes one token. Invocations
+ * finding the bucket empty are rejected right away with an
+ * {@link InvocationRejectedException}.
+ *
+ * <p>The bucket is kept as a single atomic timestamp - the time at which the
+ * bucket would be full again - and updated through compare-and-set, so that
+ * admitting an invocation neither locks nor allocates.
+ *
+ * @since 5.0.15
+ * @see SemaphoreBulkheadInterceptor
+ */
+@SuppressWarnings("serial")
+public class TokenBucketRateLimitInterceptor extends AbstractThrottlingInterceptor {
+
+	private final double permitsPerSecond;
+
+	private final int burstCapacity;
+
+	private final long intervalNanos;
+
+	private final long capacityNanos;
+
+	/**
+	 * The time (as per {@link System#nanoTime()}) at which the bucket is full
+	 * again; bucket tokens are available as long as it is less than one full
+	 * capacity ahead of the current time. Transient since based on the
+	 * nanosecond time of the current JVM.
+	 */
+	private transient AtomicLong refillTime = new AtomicLong(System.nanoTime());
+
+
+	/**
+	 * Create a new {@code TokenBucketRateLimitInterceptor} with a burst
+	 * capacity of a single permit.
+	 * @param permitsPerSecond the steady rate of invocations per second
+	 */
+	public TokenBucketRateLimitInterceptor(double permitsPerSecond) {
+		this(permitsPerSecond, 1);
+	}
+
+	/**
+	 * Create a new {@code TokenBucketRateLimitInterceptor}.
+	 * @param permitsPerSecond the steady rate of invocations per second
+	 * @param burstCapacity the maximum number of invocations that may be
+	 * admitted at once after a period of inactivity
+	 */
+	public TokenBucketRateLimitInterceptor(double permitsPerSecond, int burstCapacity) {
+		Assert.isTrue(permitsPerSecond > 0, "'permitsPerSecond' must be positive");
+		Assert.isTrue(burstCapacity > 0, "'burstCapacity' must be positive");
+		this.permitsPerSecond = permitsPerSecond;
+		this.burstCapacity = burstCapacity;
+		this.intervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond), 1);
+		this.capacityNanos = this.intervalNanos * burstCapacity;
+	}
+
+
+	/**
+	 * Return the steady rate of invocations per second.
+	 */
+	public double getPermitsPerSecond() {
+		return this.permitsPerSecond;
+	}
+
+	/**
+	 * Return the maximum number of invocations admitted at once.
+	 */
+	public int getBurstCapacity() {
+		return this.burstCapacity;
+	}
+
+	/**
+	 * Return the number of tokens currently available in the bucket.
+	 */
+	public int getAvailablePermits() {
+		long backlog = this.refillTime.get() - System.nanoTime();
+		if (backlog <= 0) {
+			return this.burstCapacity;
+		}
+		return (int) Math.max((this.capacityNanos - backlog) / this.intervalNanos, 0);
+	}
+
+
+	@Override
+	protected boolean acquirePermit(MethodInvocation invocation) {
+		AtomicLong refillTime = this.refillTime;
+		long now = System.nanoTime();
+		while (true) {
+			long current = refillTime.get();
+			long next = (current - now > 0 ? current : now) + this.intervalNanos;
+			if (next - now > this.capacityNanos) {
+				return false;
+			}
+			if (refillTime.compareAndSet(current, next)) {
+				return true;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "TokenBucketRateLimitInterceptor: permitsPerSecond=" + this.permitsPerSecond +
+				", burstCapacity=" + this.burstCapacity + ", availablePermits=" + getAvailablePermits();
+	}
+
+
+	//---------------------------------------------------------------------
+	// Serialization support
+	//---------------------------------------------------------------------
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		// Rely on default serialization, just initialize state after deserialization.
+		ois.defaultReadObject();
+
+		// Initialize transient fields.
+		this.refillTime = new AtomicLong(System.nanoTime());
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,8 +21,10 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.aop.Advisor;
@@ -232,13 +234,17 @@ public abstract class AopUtils {
 			// No need to iterate the methods if we're matching any method anyway...
 			return true;
 		}
+		return matchesAnyMethod(methodMatcher, getCandidateMethods(targetClass), targetClass, hasIntroductions);
+	}
 
-		//判断匹配器是不是IntroductionAwareMethodMatcher  只有AspectJExpressionPointCut才会实现这个接口
-		IntroductionAwareMethodMatcher introductionAwareMethodMatcher = null;
-		if (methodMatcher instanceof IntroductionAwareMethodMatcher) {
-			introductionAwareMethodMatcher = (IntroductionAwareMethodMatcher) methodMatcher;
-		}
-
+	/**
+	 * Determine the methods that a pointcut needs to be matched against in order
+	 * to find out whether it applies to the given class at all: all methods declared
+	 * on the user class and its superclasses, as well as on all of its interfaces.
+	 * @param targetClass the class to introspect
+	 * @return the candidate methods, in the order of their declaring classes
+	 */
+	private static Method[] getCandidateMethods(Class<?> targetClass) {
 		//创建一个集合用于保存targetClass 的class对象
 		Set<Class<?>> classes = new LinkedHashSet<>();
 		//判断当前class是不是代理的class对象
@@ -249,24 +255,46 @@ public abstract class AopUtils {
 		//获取到targetClass所实现的接口的class对象，然后加入到集合中
 		classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
 
-		//循环所有的class对象
+		List<Method> candidateMethods = new ArrayList<>();
 		for (Class<?> clazz : classes) {
 			//通过class获取到所有的方法
-			Method[] methods = ReflectionUtils.getAllDeclaredMethods(clazz);
-			//循环我们的方法
-			for (Method method : methods) {
-				//通过methodMatcher.matches来匹配我们的方法
-				if (introductionAwareMethodMatcher != null ?
-						// 通过切点表达式进行匹配 AspectJ方式
-						introductionAwareMethodMatcher.matches(method, targetClass, hasIntroductions) :
-						// 通过方法匹配器进行匹配 内置aop接口方式
-						methodMatcher.matches(method, targetClass)) {
-					// 只要有1个方法匹配上了就创建代理
-					return true;
-				}
+			for (Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+				candidateMethods.add(method);
 			}
 		}
+		return candidateMethods.toArray(new Method[0]);
+	}
+
+	/**
+	 * Check whether the given method matcher matches any of the candidate methods.
+	 * @param methodMatcher the method matcher of the pointcut to check
+	 * @param candidateMethods the methods to match, as determined by {@link #getCandidateMethods}
+	 * @param targetClass the class to test
+	 * @param hasIntroductions whether or not the advisor chain
+	 * for this bean includes any introductions
+	 * @return whether the method matcher matches any method
+	 */
+	private static boolean matchesAnyMethod(MethodMatcher methodMatcher, Method[] candidateMethods,
+			Class<?> targetClass, boolean hasIntroductions) {
 
+		//判断匹配器是不是IntroductionAwareMethodMatcher  只有AspectJExpressionPointCut才会实现这个接口
+		IntroductionAwareMethodMatcher introductionAwareMethodMatcher = null;
+		if (methodMatcher instanceof IntroductionAwareMethodMatcher) {
+			introductionAwareMethodMatcher = (IntroductionAwareMethodMatcher) methodMatcher;
+		}
+
+		//循环我们的方法
+		for (Method method : candidateMethods) {
+			//通过methodMatcher.matches来匹配我们的方法
+			if (introductionAwareMethodMatcher != null ?
+					// 通过切点表达式进行匹配 AspectJ方式
+					introductionAwareMethodMatcher.matches(method, targetClass, hasIntroductions) :
+					// 通过方法匹配器进行匹配 内置aop接口方式
+					methodMatcher.matches(method, targetClass)) {
+				// 只要有1个方法匹配上了就创建代理
+				return true;
+			}
+		}
 		return false;
 	}
 
@@ -332,18 +360,43 @@ public abstract class AopUtils {
 		}
 		//不为空
 		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+		// Within this call, the candidate methods are collected once, and equal MethodMatchers
+		// (e.g. the same pointcut expression shared by several advice methods) are matched once.
+		Map<MethodMatcher, Boolean> methodMatcherResults = new HashMap<>();
+		Method[] candidateMethods = null;
 		for (Advisor candidate : candidateAdvisors) {
 			//判断我们的增强器对象是不是实现了IntroductionAdvisor (很明显我们事务的没有实现 所以不会走下面的逻辑)
 			if (candidate instanceof IntroductionAdvisor) {
 				//在上面已经处理过 ，不需要处理
 				continue;
 			}
+			if (!(candidate instanceof PointcutAdvisor)) {
+				// It doesn't have a pointcut so we assume it applies.
+				eligibleAdvisors.add(candidate);
+				continue;
+			}
 			/**
 			 * 真正的判断我们的事务增强器是不是我们合适的
 			 */
-			if (canApply(candidate, clazz, hasIntroductions)) {
-				eligibleAdvisors.add(candidate);
+			Pointcut pc = ((PointcutAdvisor) candidate).getPointcut();
+			if (!pc.getClassFilter().matches(clazz)) {
+				continue;
+			}
+			MethodMatcher methodMatcher = pc.getMethodMatcher();
+			if (methodMatcher != MethodMatcher.TRUE) {
+				Boolean methodMatch = methodMatcherResults.get(methodMatcher);
+				if (methodMatch == null) {
+					if (candidateMethods == null) {
+						candidateMethods = getCandidateMethods(clazz);
+					}
+					methodMatch = matchesAnyMethod(methodMatcher, candidateMethods, clazz, hasIntroductions);
+					methodMatcherResults.put(methodMatcher, methodMatch);
+				}
+				if (!methodMatch) {
+					continue;
+				}
 			}
+			eligibleAdvisors.add(candidate);
 		}
 		return eligibleAdvisors;
 	}
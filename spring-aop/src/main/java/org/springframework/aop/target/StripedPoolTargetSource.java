@@ -0,0 +1,454 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.target;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Pooling {@link org.springframework.aop.TargetSource} implementation without
+ * locks or an external pool library, intended for targets which are expensive
+ * to create but not thread-safe, such as parsers or cipher instances.
+ *
+ * <p>Idle targets are kept in an array of striped slots, one idle target per
+ * slot, with every thread preferring a slot derived from its thread id: a
+ * thread that keeps invoking the proxy therefore usually gets back the very
+ * target it released before, without contending with other threads. Idle
+ * targets beyond the slots go onto a shared lock-free stack. Targets are
+ * taken and returned through compare-and-set operations only.
+ *
+ * <p>The pool creates new targets on demand up to the {@link #setMaxSize
+ * maximum size}; once exhausted, callers wait for up to {@link #setMaxWait
+ * maxWait} milliseconds for a target to be released, and a
+ * {@link NoSuchElementException} is thrown after that. Idle targets are
+ * evicted after {@link #setMinEvictableIdleTimeMillis minEvictableIdleTimeMillis};
+ * eviction runs piggyback on releasing threads at most every
+ * {@link #setTimeBetweenEvictionRunsMillis timeBetweenEvictionRunsMillis},
+ * so no separate evictor thread is needed.
+ *
+ * <p>In contrast to {@link ThreadLocalTargetSource}, the number of targets
+ * is bounded by the peak concurrency (and the maximum size) rather than by
+ * the number of threads ever invoking the proxy.
+ *
+ * @since 5.0.15
+ * @see #setMaxSize
+ * @see #setStripes
+ * @see CommonsPool2TargetSource
+ */
+@SuppressWarnings("serial")
+public class StripedPoolTargetSource extends AbstractPoolingTargetSource {
+
+	private int stripes = Runtime.getRuntime().availableProcessors();
+
+	private long maxWait = -1;
+
+	private long timeBetweenEvictionRunsMillis = TimeUnit.SECONDS.toMillis(30);
+
+	private long minEvictableIdleTimeMillis = TimeUnit.MINUTES.toMillis(30);
+
+	@Nullable
+	private AtomicReferenceArray<Object> slots;
+
+	@Nullable
+	private AtomicLongArray slotIdleSince;
+
+	private int slotMask;
+
+	private final AtomicReference<Node> overflow = new AtomicReference<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	private final AtomicLong lastEvictionRun = new AtomicLong(System.nanoTime());
+
+	private final LongAdder borrowCount = new LongAdder();
+
+	private final LongAdder affinityHitCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private volatile boolean closed;
+
+
+	/**
+	 * Set the number of striped slots for idle targets, rounded up to a power of two.
+	 * <p>Default is the number of available processors.
+	 */
+	public void setStripes(int stripes) {
+		Assert.isTrue(stripes > 0, "'stripes' must be positive");
+		this.stripes = stripes;
+	}
+
+	/**
+	 * Return the number of striped slots for idle targets.
+	 */
+	public int getStripes() {
+		return this.stripes;
+	}
+
+	/**
+	 * Set the maximum waiting time (in milliseconds) for fetching a target
+	 * from an exhausted pool.
+	 * <p>Default is -1, waiting indefinitely.
+	 */
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * Return the maximum waiting time (in milliseconds) for fetching a target.
+	 */
+	public long getMaxWait() {
+		return this.maxWait;
+	}
+
+	/**
+	 * Set the minimum time (in milliseconds) between runs of evicting idle targets.
+	 * <p>Default is 30 seconds.
+	 */
+	public void setTimeBetweenEvictionRunsMillis(long timeBetweenEvictionRunsMillis) {
+		this.timeBetweenEvictionRunsMillis = timeBetweenEvictionRunsMillis;
+	}
+
+	/**
+	 * Return the minimum time (in milliseconds) between runs of evicting idle targets.
+	 */
+	public long getTimeBetweenEvictionRunsMillis() {
+		return this.timeBetweenEvictionRunsMillis;
+	}
+
+	/**
+	 * Set the minimum time (in milliseconds) that a target may sit idle in the
+	 * pool before it is eligible for eviction. A value of 0 or below turns off
+	 * eviction.
+	 * <p>Default is 30 minutes.
+	 */
+	public void setMinEvictableIdleTimeMillis(long minEvictableIdleTimeMillis) {
+		this.minEvictableIdleTimeMillis = minEvictableIdleTimeMillis;
+	}
+
+	/**
+	 * Return the minimum time (in milliseconds) that a target may sit idle in the pool.
+	 */
+	public long getMinEvictableIdleTimeMillis() {
+		return this.minEvictableIdleTimeMillis;
+	}
+
+
+	/**
+	 * Creates the striped slots for idle targets.
+	 * @see #setStripes
+	 */
+	@Override
+	protected final void createPool() {
+		int slotCount = 1;
+		while (slotCount < this.stripes) {
+			slotCount <<= 1;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating striped object pool with " + slotCount + " slots");
+		}
+		this.slots = new AtomicReferenceArray<>(slotCount);
+		this.slotIdleSince = new AtomicLongArray(slotCount);
+		this.slotMask = slotCount - 1;
+	}
+
+	/**
+	 * Takes an idle target from the pool, preferring the current thread's own
+	 * slot, or creates a new target if none is idle and the pool is not exhausted.
+	 */
+	@Override
+	public Object getTarget() throws Exception {
+		AtomicReferenceArray<Object> slots = this.slots;
+		Assert.state(slots != null && !this.closed, "Pool not active");
+		this.borrowCount.increment();
+		int home = homeSlot();
+		Object target = takeFromSlot(slots, home);
+		if (target != null) {
+			this.affinityHitCount.increment();
+			return target;
+		}
+		long deadline = (this.maxWait > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.maxWait) : 0);
+		long parkNanos = TimeUnit.MICROSECONDS.toNanos(50);
+		while (true) {
+			target = takeIdle(slots, home);
+			if (target != null) {
+				return target;
+			}
+			if (reserveCapacity()) {
+				try {
+					return newPrototypeInstance();
+				}
+				catch (RuntimeException | Error ex) {
+					this.size.decrementAndGet();
+					throw ex;
+				}
+			}
+			if (this.maxWait == 0 || (this.maxWait > 0 && System.nanoTime() - deadline >= 0)) {
+				throw new NoSuchElementException("Pool exhausted: all " + getMaxSize() + " targets in use");
+			}
+			if (this.closed) {
+				throw new IllegalStateException("Pool closed while waiting for a target");
+			}
+			// Exhausted: back off and check again for a released target.
+			LockSupport.parkNanos(parkNanos);
+			parkNanos = Math.min(parkNanos * 2, TimeUnit.MILLISECONDS.toNanos(1));
+			if (Thread.interrupted()) {
+				throw new InterruptedException("Interrupted while waiting for a pooled target");
+			}
+		}
+	}
+
+	/**
+	 * Returns the given target to the current thread's own slot, or to the
+	 * shared stack if that slot is occupied.
+	 */
+	@Override
+	public void releaseTarget(Object target) {
+		AtomicReferenceArray<Object> slots = this.slots;
+		if (slots == null || this.closed) {
+			destroyTarget(target);
+			return;
+		}
+		long now = System.nanoTime();
+		int home = homeSlot();
+		this.idleCount.incrementAndGet();
+		boolean inSlot = false;
+		if (slots.get(home) == null) {
+			this.slotIdleSince.set(home, now);
+			inSlot = slots.compareAndSet(home, null, target);
+		}
+		if (!inSlot) {
+			push(new Node(target, now));
+		}
+		if (this.closed) {
+			// Closed concurrently: make sure that the target does not linger in the pool.
+			destroy();
+			return;
+		}
+		evictIfDue(slots, now);
+	}
+
+	@Override
+	public int getActiveCount() {
+		return Math.max(this.size.get() - this.idleCount.get(), 0);
+	}
+
+	@Override
+	public int getIdleCount() {
+		return this.idleCount.get();
+	}
+
+	/**
+	 * Return the number of targets currently held by the pool, whether active or idle.
+	 */
+	public int getSize() {
+		return this.size.get();
+	}
+
+	/**
+	 * Return the number of targets fetched from the pool so far.
+	 */
+	public long getBorrowCount() {
+		return this.borrowCount.sum();
+	}
+
+	/**
+	 * Return the number of targets fetched from the current thread's own slot,
+	 * i.e. without touching any state shared with other threads.
+	 */
+	public long getAffinityHitCount() {
+		return this.affinityHitCount.sum();
+	}
+
+	/**
+	 * Return the number of idle targets evicted so far.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+
+	/**
+	 * Destroys all idle targets; active targets get destroyed once released.
+	 */
+	@Override
+	public void destroy() {
+		logger.debug("Closing striped object pool");
+		this.closed = true;
+		AtomicReferenceArray<Object> slots = this.slots;
+		if (slots != null) {
+			for (int i = 0; i < slots.length(); i++) {
+				Object target = slots.getAndSet(i, null);
+				if (target != null) {
+					this.idleCount.decrementAndGet();
+					destroyTarget(target);
+				}
+			}
+		}
+		for (Node node = this.overflow.getAndSet(null); node != null; node = node.next) {
+			this.idleCount.decrementAndGet();
+			destroyTarget(node.target);
+		}
+	}
+
+
+	private int homeSlot() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & this.slotMask;
+	}
+
+	@Nullable
+	private Object takeFromSlot(AtomicReferenceArray<Object> slots, int index) {
+		Object target = slots.get(index);
+		if (target != null && slots.compareAndSet(index, target, null)) {
+			this.idleCount.decrementAndGet();
+			return target;
+		}
+		return null;
+	}
+
+	@Nullable
+	private Object takeIdle(AtomicReferenceArray<Object> slots, int home) {
+		Node node = pop();
+		if (node != null) {
+			this.idleCount.decrementAndGet();
+			return node.target;
+		}
+		for (int i = 1; i <= this.slotMask; i++) {
+			Object target = takeFromSlot(slots, (home + i) & this.slotMask);
+			if (target != null) {
+				return target;
+			}
+		}
+		return takeFromSlot(slots, home);
+	}
+
+	private boolean reserveCapacity() {
+		int maxSize = getMaxSize();
+		while (true) {
+			int current = this.size.get();
+			if (maxSize >= 0 && current >= maxSize) {
+				return false;
+			}
+			if (this.size.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private void push(Node node) {
+		while (true) {
+			Node head = this.overflow.get();
+			node.next = head;
+			if (this.overflow.compareAndSet(head, node)) {
+				return;
+			}
+		}
+	}
+
+	@Nullable
+	private Node pop() {
+		while (true) {
+			Node head = this.overflow.get();
+			if (head == null) {
+				return null;
+			}
+			if (this.overflow.compareAndSet(head, head.next)) {
+				return head;
+			}
+		}
+	}
+
+	/**
+	 * Evict idle targets if the eviction interval has elapsed,
+	 * with only one thread performing each eviction run.
+	 */
+	private void evictIfDue(AtomicReferenceArray<Object> slots, long now) {
+		long minEvictableIdleNanos = TimeUnit.MILLISECONDS.toNanos(this.minEvictableIdleTimeMillis);
+		if (minEvictableIdleNanos <= 0) {
+			return;
+		}
+		long lastRun = this.lastEvictionRun.get();
+		if (now - lastRun < TimeUnit.MILLISECONDS.toNanos(this.timeBetweenEvictionRunsMillis) ||
+				!this.lastEvictionRun.compareAndSet(lastRun, now)) {
+			return;
+		}
+		for (int i = 0; i < slots.length(); i++) {
+			Object target = slots.get(i);
+			if (target != null && now - this.slotIdleSince.get(i) >= minEvictableIdleNanos &&
+					slots.compareAndSet(i, target, null)) {
+				evict(target);
+			}
+		}
+		// Detach the stack, keeping targets which have not been idle long enough.
+		Node node = this.overflow.getAndSet(null);
+		while (node != null) {
+			Node next = node.next;
+			if (now - node.idleSince >= minEvictableIdleNanos) {
+				evict(node.target);
+			}
+			else {
+				// Never re-push a detached node: a fresh node avoids ABA issues with concurrent pops.
+				push(new Node(node.target, node.idleSince));
+			}
+			node = next;
+		}
+	}
+
+	private void evict(Object target) {
+		this.idleCount.decrementAndGet();
+		this.evictionCount.increment();
+		destroyTarget(target);
+	}
+
+	private void destroyTarget(Object target) {
+		this.size.decrementAndGet();
+		destroyPrototypeInstance(target);
+	}
+
+
+	/**
+	 * Node of the lock-free stack of idle targets beyond the striped slots.
+	 */
+	private static final class Node {
+
+		final Object target;
+
+		final long idleSince;
+
+		@Nullable
+		Node next;
+
+		Node(Object target, long idleSince) {
+			this.target = target;
+			this.idleSince = idleSince;
+		}
+	}
+
+}
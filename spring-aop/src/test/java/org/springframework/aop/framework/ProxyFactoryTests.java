@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -379,6 +379,70 @@ public class ProxyFactoryTests {
 		assertEquals("tb", proxy.getName());
 	}
 
+	@Test
+	public void testFrozenInterfaceProxyWithAdvice() {
+		doTestFrozenProxyWithAdvice(false);
+	}
+
+	@Test
+	public void testFrozenClassProxyWithAdvice() {
+		doTestFrozenProxyWithAdvice(true);
+	}
+
+	private void doTestFrozenProxyWithAdvice(boolean proxyTargetClass) {
+		TestBean target = new TestBean("tb", 30);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setProxyTargetClass(proxyTargetClass);
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvice(nop);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		proxy.setAge(31);
+		assertEquals(31, proxy.getAge());
+		assertEquals(31, proxy.haveBirthday());
+		assertEquals(3, nop.getCount());
+		assertEquals(32, target.getAge());
+	}
+
+	@Test
+	public void testFrozenProxyWithoutAdvice() {
+		TestBean target = new TestBean("tb", 30);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		proxy.setName("tb2");
+		assertEquals("tb2", proxy.getName());
+		assertEquals(30, proxy.haveBirthday());
+		assertEquals("tb2", target.getName());
+	}
+
+	@Test
+	public void testFrozenProxyPropagatesTargetException() throws Throwable {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice(new NopInterceptor());
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		IllegalStateException unchecked = new IllegalStateException();
+		try {
+			proxy.exceptional(unchecked);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertSame(unchecked, ex);
+		}
+		Exception checked = new Exception();
+		try {
+			proxy.exceptional(checked);
+			fail("Should have thrown Exception");
+		}
+		catch (Exception ex) {
+			assertSame(checked, ex);
+		}
+	}
+
 
 	@SuppressWarnings("serial")
 	private static class TimestampIntroductionInterceptor extends DelegatingIntroductionInterceptor
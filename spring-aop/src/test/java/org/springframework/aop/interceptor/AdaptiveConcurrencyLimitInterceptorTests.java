@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimitInterceptor}.
+ */
+public class AdaptiveConcurrencyLimitInterceptorTests {
+
+	@Test
+	public void raisesLimitForFastInvocations() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setInitialLimit(1);
+		interceptor.setMaxLimit(5);
+		interceptor.afterPropertiesSet();
+		ITestBean proxy = createProxy(interceptor, 0);
+
+		// Sequential invocations keep raising the limit while it is at least half utilized
+		for (int i = 0; i < 5; i++) {
+			proxy.getAge();
+		}
+		assertEquals(3, interceptor.getLimit());
+		assertEquals(0, interceptor.getInFlightCount());
+	}
+
+	@Test
+	public void reducesLimitForSlowInvocations() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setInitialLimit(10);
+		interceptor.setMinLimit(8);
+		interceptor.setLatencyThreshold(1);
+		interceptor.setBackoffRatio(0.5);
+		interceptor.afterPropertiesSet();
+		ITestBean proxy = createProxy(interceptor, 5);
+
+		proxy.getAge();
+		assertEquals(8, interceptor.getLimit());
+		proxy.getAge();
+		assertEquals(8, interceptor.getLimit());
+	}
+
+	@Test
+	public void rejectsBeyondLimit() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setInitialLimit(1);
+		interceptor.afterPropertiesSet();
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice(interceptor);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+		// Re-enter the proxy while the single permit is taken
+		TestBean reentrant = new TestBean() {
+			@Override
+			public int getAge() {
+				return proxy.getAge();
+			}
+		};
+		ProxyFactory outer = new ProxyFactory(reentrant);
+		outer.addAdvice(interceptor);
+		ITestBean outerProxy = (ITestBean) outer.getProxy();
+
+		try {
+			outerProxy.getAge();
+			fail("Should have thrown InvocationRejectedException");
+		}
+		catch (InvocationRejectedException ex) {
+			// expected
+		}
+		assertEquals(1, interceptor.getAdmittedCount());
+		assertEquals(1, interceptor.getRejectedCount());
+		assertEquals(0, interceptor.getInFlightCount());
+	}
+
+	@Test
+	public void limitsMayBeSetInAnyOrder() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setInitialLimit(300);
+		interceptor.setMinLimit(250);
+		interceptor.setMaxLimit(400);
+		interceptor.afterPropertiesSet();
+		assertEquals(300, interceptor.getLimit());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInitialLimitAboveMaxLimit() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setMaxLimit(10);
+		interceptor.setInitialLimit(20);
+		interceptor.afterPropertiesSet();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInitialLimitBelowMinLimit() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setMinLimit(30);
+		interceptor.afterPropertiesSet();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMinLimitAboveMaxLimit() {
+		AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor();
+		interceptor.setInitialLimit(5);
+		interceptor.setMinLimit(5);
+		interceptor.setMaxLimit(4);
+		interceptor.afterPropertiesSet();
+	}
+
+
+	private ITestBean createProxy(AdaptiveConcurrencyLimitInterceptor interceptor, long latency) {
+		TestBean target = new TestBean() {
+			@Override
+			public int getAge() {
+				if (latency > 0) {
+					try {
+						Thread.sleep(latency);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.getAge();
+			}
+		};
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(interceptor);
+		return (ITestBean) pf.getProxy();
+	}
+
+}
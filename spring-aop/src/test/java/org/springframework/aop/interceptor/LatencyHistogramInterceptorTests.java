@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LatencyHistogramInterceptor}.
+ */
+public class LatencyHistogramInterceptorTests {
+
+	private static final String GET_AGE = methodName("getAge");
+
+	private static final String SET_AGE = methodName("setAge", int.class);
+
+
+	@Test
+	public void recordsLatencyPerMethod() {
+		LatencyHistogramInterceptor interceptor = new LatencyHistogramInterceptor();
+		// Inner advice that delays invocations
+		ITestBean proxy = createProxy(interceptor, invocation -> {
+			Thread.sleep(2);
+			return invocation.proceed();
+		});
+
+		proxy.setAge(5);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(5, proxy.getAge());
+		}
+		assertArrayEquals(new String[] {GET_AGE, SET_AGE}, interceptor.getMonitoredMethods());
+		assertEquals(3, interceptor.getInvocationCount(GET_AGE));
+		assertEquals(1, interceptor.getInvocationCount(SET_AGE));
+		assertTrue(interceptor.getLatencyAtPercentile(GET_AGE, 50) >= 1.8);
+		assertTrue(interceptor.getMaxLatency(GET_AGE) >= interceptor.getLatencyAtPercentile(GET_AGE, 99));
+		assertEquals(0, interceptor.getInvocationCount("unknown"));
+		assertEquals(0, interceptor.getLatencyAtPercentile("unknown", 50), 0);
+	}
+
+	@Test
+	public void recordsLatencyOfFailedInvocations() {
+		LatencyHistogramInterceptor interceptor = new LatencyHistogramInterceptor();
+		ITestBean proxy = createProxy(interceptor);
+		try {
+			proxy.exceptional(new IllegalStateException());
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (Throwable ex) {
+			assertTrue(ex instanceof IllegalStateException);
+		}
+		assertEquals(1, interceptor.getInvocationCount(methodName("exceptional", Throwable.class)));
+	}
+
+	@Test
+	public void latencySummary() {
+		LatencyHistogramInterceptor interceptor = new LatencyHistogramInterceptor();
+		interceptor.setSummaryPercentiles(50, 99.9);
+		ITestBean proxy = createProxy(interceptor);
+		proxy.getAge();
+
+		String[] summary = interceptor.getLatencySummary();
+		assertEquals(1, summary.length);
+		assertTrue(summary[0], summary[0].startsWith(GET_AGE + ": count=1, mean="));
+		assertTrue(summary[0], summary[0].contains(", p50="));
+		assertTrue(summary[0], summary[0].contains(", p99.9="));
+		assertTrue(summary[0], summary[0].contains(", max="));
+
+		interceptor.reset();
+		assertEquals(0, interceptor.getLatencySummary().length);
+	}
+
+	@Test
+	public void resetDiscardsRecordedLatencies() {
+		LatencyHistogramInterceptor interceptor = new LatencyHistogramInterceptor();
+		ITestBean proxy = createProxy(interceptor);
+		proxy.getAge();
+		interceptor.reset();
+		assertEquals(0, interceptor.getMonitoredMethods().length);
+		assertEquals(0, interceptor.getInvocationCount(GET_AGE));
+
+		proxy.getAge();
+		assertEquals(1, interceptor.getInvocationCount(GET_AGE));
+	}
+
+
+	private static String methodName(String name, Class<?>... paramTypes) {
+		return ClassUtils.getQualifiedMethodName(ClassUtils.getMethod(ITestBean.class, name, paramTypes));
+	}
+
+	private ITestBean createProxy(LatencyHistogramInterceptor interceptor, MethodInterceptor... innerAdvice) {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.setInterfaces(ITestBean.class);
+		pf.addAdvice(interceptor);
+		for (MethodInterceptor advice : innerAdvice) {
+			pf.addAdvice(advice);
+		}
+		return (ITestBean) pf.getProxy();
+	}
+
+}
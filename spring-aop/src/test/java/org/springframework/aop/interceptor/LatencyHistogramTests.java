@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	public void emptySnapshot() {
+		LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+		assertEquals(0, snapshot.getCount());
+		assertEquals(0, snapshot.getMax());
+		assertEquals(0, snapshot.getMean(), 0);
+		assertEquals(0, snapshot.getValueAtPercentile(99));
+	}
+
+	@Test
+	public void percentilesWithinPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 10000; i++) {
+			histogram.record(i * 1000);
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(10000, snapshot.getCount());
+		assertEquals(10000000, snapshot.getMax());
+		assertEquals(5000500, snapshot.getMean(), 0.5);
+		assertWithinPrecision(5000000, snapshot.getValueAtPercentile(50));
+		assertWithinPrecision(9900000, snapshot.getValueAtPercentile(99));
+		assertEquals(10000000, snapshot.getValueAtPercentile(100));
+		assertWithinPrecision(1000, snapshot.getValueAtPercentile(0));
+	}
+
+	@Test
+	public void smallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 32; i++) {
+			histogram.record(i);
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(15, snapshot.getValueAtPercentile(50));
+		assertEquals(31, snapshot.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void countsIndexIsContiguousAndMonotonic() {
+		int previous = -1;
+		for (long value = 0; value < (1L << 20); value++) {
+			int index = LatencyHistogram.countsIndex(value);
+			assertTrue(index == previous || index == previous + 1);
+			assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+			previous = index;
+		}
+	}
+
+	@Test
+	public void valuesBeyondTrackableRangeAreClamped() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(-1);
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(2, snapshot.getCount());
+		assertEquals(Long.MAX_VALUE, snapshot.getMax());
+		assertEquals(0, snapshot.getValueAtPercentile(50));
+	}
+
+	@Test
+	public void recordsFromMultipleThreads() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			long value = i * 1000;
+			executor.execute(() -> {
+				for (int j = 0; j < 10000; j++) {
+					histogram.record(value);
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(80000, snapshot.getCount());
+		assertEquals(7000, snapshot.getMax());
+		assertEquals(3500, snapshot.getMean(), 0);
+		histogram.record(100);
+		assertEquals(80001, histogram.snapshot().getCount());
+	}
+
+	private static void assertWithinPrecision(long expected, long actual) {
+		assertEquals(expected, actual, expected / 16.0);
+	}
+
+}
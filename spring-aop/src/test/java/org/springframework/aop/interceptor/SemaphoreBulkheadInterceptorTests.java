@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SemaphoreBulkheadInterceptor}.
+ */
+public class SemaphoreBulkheadInterceptorTests {
+
+	private final CountDownLatch entered = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+
+	@After
+	public void shutdown() {
+		this.release.countDown();
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	public void admitsUpToMaxConcurrentCalls() {
+		SemaphoreBulkheadInterceptor interceptor = new SemaphoreBulkheadInterceptor(2);
+		ITestBean proxy = createProxy(interceptor);
+		proxy.setName("tb");
+		assertEquals("tb", proxy.getName());
+		assertEquals(2, interceptor.getAdmittedCount());
+		assertEquals(0, interceptor.getRejectedCount());
+		assertEquals(0, interceptor.getConcurrentCalls());
+	}
+
+	@Test
+	public void rejectsRightAwayWhenFull() throws Exception {
+		SemaphoreBulkheadInterceptor interceptor = new SemaphoreBulkheadInterceptor(1);
+		ITestBean proxy = createProxy(interceptor);
+		Future<?> blocked = occupy(proxy);
+
+		try {
+			proxy.getName();
+			fail("Should have thrown InvocationRejectedException");
+		}
+		catch (InvocationRejectedException ex) {
+			assertTrue(ex.getMessage().contains("getName"));
+		}
+		assertEquals(1, interceptor.getConcurrentCalls());
+		assertEquals(1, interceptor.getRejectedCount());
+
+		this.release.countDown();
+		blocked.get(5, TimeUnit.SECONDS);
+		assertEquals(0, interceptor.getConcurrentCalls());
+		assertEquals("tb", proxy.getName());
+	}
+
+	@Test
+	public void rejectsAfterMaxWaitTime() throws Exception {
+		SemaphoreBulkheadInterceptor interceptor = new SemaphoreBulkheadInterceptor(1, true);
+		interceptor.setMaxWaitTime(50);
+		ITestBean proxy = createProxy(interceptor);
+		occupy(proxy);
+
+		long start = System.nanoTime();
+		try {
+			proxy.getName();
+			fail("Should have thrown InvocationRejectedException");
+		}
+		catch (InvocationRejectedException ex) {
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		}
+		assertEquals(0, interceptor.getWaitingCount());
+		assertEquals(1, interceptor.getRejectedCount());
+	}
+
+	@Test
+	public void admitsWaitingInvocationOncePermitReleased() throws Exception {
+		SemaphoreBulkheadInterceptor interceptor = new SemaphoreBulkheadInterceptor(1);
+		interceptor.setMaxWaitTime(5000);
+		ITestBean proxy = createProxy(interceptor);
+		occupy(proxy);
+
+		Thread releaser = new Thread(() -> {
+			while (interceptor.getWaitingCount() == 0) {
+				Thread.yield();
+			}
+			this.release.countDown();
+		});
+		releaser.start();
+		assertEquals("tb", proxy.getName());
+		releaser.join();
+		assertEquals(0, interceptor.getRejectedCount());
+	}
+
+
+	private ITestBean createProxy(SemaphoreBulkheadInterceptor interceptor) {
+		TestBean target = new TestBean("tb") {
+			@Override
+			public int getAge() {
+				entered.countDown();
+				try {
+					release.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getAge();
+			}
+		};
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(interceptor);
+		return (ITestBean) pf.getProxy();
+	}
+
+	private Future<?> occupy(ITestBean proxy) throws InterruptedException {
+		Future<?> future = this.executor.submit(proxy::getAge);
+		assertTrue(this.entered.await(5, TimeUnit.SECONDS));
+		return future;
+	}
+
+}
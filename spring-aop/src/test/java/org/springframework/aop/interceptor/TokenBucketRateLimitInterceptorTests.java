@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link TokenBucketRateLimitInterceptor}.
+ */
+public class TokenBucketRateLimitInterceptorTests {
+
+	@Test
+	public void admitsBurstAndRejectsBeyond() {
+		// One permit per hour: no refill within the test
+		TokenBucketRateLimitInterceptor interceptor = new TokenBucketRateLimitInterceptor(1.0 / 3600, 3);
+		ITestBean proxy = createProxy(interceptor);
+		assertEquals(3, interceptor.getAvailablePermits());
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals("tb", proxy.getName());
+		}
+		assertEquals(0, interceptor.getAvailablePermits());
+		try {
+			proxy.getName();
+			fail("Should have thrown InvocationRejectedException");
+		}
+		catch (InvocationRejectedException ex) {
+			// expected
+		}
+		assertEquals(3, interceptor.getAdmittedCount());
+		assertEquals(1, interceptor.getRejectedCount());
+	}
+
+	@Test
+	public void refillsOverTime() throws Exception {
+		TokenBucketRateLimitInterceptor interceptor = new TokenBucketRateLimitInterceptor(100);
+		ITestBean proxy = createProxy(interceptor);
+		proxy.getName();
+
+		Thread.sleep(50);
+		assertEquals(1, interceptor.getAvailablePermits());
+		assertEquals("tb", proxy.getName());
+		assertEquals(0, interceptor.getRejectedCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveRate() {
+		new TokenBucketRateLimitInterceptor(0);
+	}
+
+
+	private ITestBean createProxy(TokenBucketRateLimitInterceptor interceptor) {
+		ProxyFactory pf = new ProxyFactory(new TestBean("tb"));
+		pf.addAdvice(interceptor);
+		return (ITestBean) pf.getProxy();
+	}
+
+}
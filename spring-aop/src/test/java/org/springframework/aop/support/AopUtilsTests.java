@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,13 @@
 package org.springframework.aop.support;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import org.springframework.aop.Advisor;
 import org.springframework.aop.ClassFilter;
 import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.Pointcut;
@@ -72,6 +76,41 @@ public class AopUtilsTests {
 		assertTrue(AopUtils.canApply(pc, Object.class));
 	}
 
+	@Test
+	public void testFindAdvisorsThatCanApplyMatchesSharedMethodMatcherOncePerCall() {
+		AtomicInteger classFilterCount = new AtomicInteger();
+		AtomicInteger methodMatcherCount = new AtomicInteger();
+		ClassFilter classFilter = clazz -> {
+			classFilterCount.incrementAndGet();
+			return TestBean.class.isAssignableFrom(clazz);
+		};
+		MethodMatcher methodMatcher = new StaticMethodMatcher() {
+			@Override
+			public boolean matches(Method method, @Nullable Class<?> targetClass) {
+				methodMatcherCount.incrementAndGet();
+				return method.getName().equals("getAge");
+			}
+		};
+		Pointcut pc = new ComposablePointcut(classFilter, methodMatcher);
+		Advisor advisor1 = new DefaultPointcutAdvisor(pc, new NopInterceptor());
+		Advisor advisor2 = new DefaultPointcutAdvisor(pc, new NopInterceptor());
+
+		List<Advisor> eligible = AopUtils.findAdvisorsThatCanApply(Arrays.asList(advisor1, advisor2), TestBean.class);
+		assertEquals(Arrays.asList(advisor1, advisor2), eligible);
+		assertEquals(2, classFilterCount.get());
+		int methodMatches = methodMatcherCount.get();
+		assertTrue(methodMatches > 0);
+
+		eligible = AopUtils.findAdvisorsThatCanApply(Arrays.asList(advisor1, advisor2), TestBean.class);
+		assertEquals(Arrays.asList(advisor1, advisor2), eligible);
+		assertEquals(2 * methodMatches, methodMatcherCount.get());
+
+		eligible = AopUtils.findAdvisorsThatCanApply(Arrays.asList(advisor1, advisor2), Object.class);
+		assertTrue(eligible.isEmpty());
+		assertEquals(6, classFilterCount.get());
+		assertEquals(2 * methodMatches, methodMatcherCount.get());
+	}
+
 	/**
 	 * Test that when we serialize and deserialize various canonical instances
 	 * of AOP classes, they return the same instance, not a new instance
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.target;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.tests.sample.beans.SideEffectBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link StripedPoolTargetSource}.
+ */
+public class StripedPoolTargetSourceTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final StripedPoolTargetSource targetSource = new StripedPoolTargetSource();
+
+
+	@Before
+	public void setup() {
+		RootBeanDefinition bd = new RootBeanDefinition(SideEffectBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		this.beanFactory.registerBeanDefinition("target", bd);
+		this.targetSource.setTargetBeanName("target");
+	}
+
+	@After
+	public void tearDown() {
+		this.targetSource.destroy();
+	}
+
+
+	@Test
+	public void reusesTargetOfSameThread() throws Exception {
+		this.targetSource.setBeanFactory(this.beanFactory);
+		SideEffectBean proxy = createProxy();
+		proxy.doWork();
+		proxy.doWork();
+		assertEquals(2, proxy.getCount());
+
+		assertEquals(1, this.targetSource.getSize());
+		assertEquals(1, this.targetSource.getIdleCount());
+		assertEquals(0, this.targetSource.getActiveCount());
+		assertEquals(3, this.targetSource.getBorrowCount());
+		assertEquals(2, this.targetSource.getAffinityHitCount());
+	}
+
+	@Test
+	public void createsTargetsUpToMaxSize() throws Exception {
+		this.targetSource.setMaxSize(2);
+		this.targetSource.setMaxWait(0);
+		this.targetSource.setBeanFactory(this.beanFactory);
+
+		Object target1 = this.targetSource.getTarget();
+		Object target2 = this.targetSource.getTarget();
+		assertNotSame(target1, target2);
+		assertEquals(2, this.targetSource.getActiveCount());
+		try {
+			this.targetSource.getTarget();
+			fail("Should have thrown NoSuchElementException");
+		}
+		catch (NoSuchElementException ex) {
+			// expected
+		}
+
+		this.targetSource.releaseTarget(target2);
+		assertSame(target2, this.targetSource.getTarget());
+		this.targetSource.releaseTarget(target1);
+		this.targetSource.releaseTarget(target2);
+		assertEquals(2, this.targetSource.getIdleCount());
+		assertEquals(2, this.targetSource.getSize());
+	}
+
+	@Test
+	public void waitsForReleasedTarget() throws Exception {
+		this.targetSource.setMaxSize(1);
+		this.targetSource.setMaxWait(5000);
+		this.targetSource.setBeanFactory(this.beanFactory);
+		Object target = this.targetSource.getTarget();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.execute(() -> {
+				try {
+					Thread.sleep(20);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				this.targetSource.releaseTarget(target);
+			});
+			assertSame(target, this.targetSource.getTarget());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void evictsIdleTargets() throws Exception {
+		this.targetSource.setMinEvictableIdleTimeMillis(1);
+		this.targetSource.setTimeBetweenEvictionRunsMillis(1);
+		this.targetSource.setBeanFactory(this.beanFactory);
+
+		Object target1 = this.targetSource.getTarget();
+		Object target2 = this.targetSource.getTarget();
+		this.targetSource.releaseTarget(target1);
+		Thread.sleep(10);
+		this.targetSource.releaseTarget(target2);
+
+		assertEquals(1, this.targetSource.getEvictionCount());
+		assertEquals(1, this.targetSource.getSize());
+		assertSame(target2, this.targetSource.getTarget());
+	}
+
+	@Test
+	public void concurrentUseNeverSharesTarget() throws Exception {
+		this.targetSource.setMaxSize(4);
+		this.targetSource.setStripes(2);
+		this.targetSource.setBeanFactory(this.beanFactory);
+		SideEffectBean proxy = createProxy();
+		AtomicInteger failures = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			executor.execute(() -> {
+				for (int j = 0; j < 1000; j++) {
+					try {
+						Object target = this.targetSource.getTarget();
+						SideEffectBean bean = (SideEffectBean) target;
+						int count = bean.getCount();
+						bean.doWork();
+						if (bean.getCount() != count + 1) {
+							failures.incrementAndGet();
+						}
+						this.targetSource.releaseTarget(target);
+					}
+					catch (Exception ex) {
+						failures.incrementAndGet();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(0, failures.get());
+		assertTrue(this.targetSource.getSize() <= 4);
+		assertEquals(this.targetSource.getSize(), this.targetSource.getIdleCount());
+		proxy.doWork();
+	}
+
+	@Test
+	public void destroyDisposesIdleTargets() throws Exception {
+		this.targetSource.setBeanFactory(this.beanFactory);
+		Object target = this.targetSource.getTarget();
+		this.targetSource.releaseTarget(target);
+		this.targetSource.destroy();
+		assertEquals(0, this.targetSource.getSize());
+		assertEquals(0, this.targetSource.getIdleCount());
+	}
+
+
+	private SideEffectBean createProxy() {
+		ProxyFactory pf = new ProxyFactory();
+		pf.setTargetSource(this.targetSource);
+		pf.setProxyTargetClass(true);
+		return (SideEffectBean) pf.getProxy();
+	}
+
+}
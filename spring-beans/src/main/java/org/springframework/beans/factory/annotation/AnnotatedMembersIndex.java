@@ -0,0 +1,323 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.annotation;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of the annotated fields and methods of classes, as generated at compile
+ * time by the {@code spring-context-indexer} annotation processor. Allows the
+ * annotation-driven bean post-processors to only introspect the members that
+ * may be injection points or lifecycle callbacks, instead of looking for
+ * annotations on every field and method of every class in a bean's hierarchy.
+ *
+ * <p>The index is only used if enabled through the {@value #USE_INDEX_PROPERTY_NAME}
+ * property, and not at all if the {@value #IGNORE_INDEX} property is set, just like
+ * for the index of candidate components.
+ *
+ * <p>Classes not present in the index are introspected reflectively. For indexed
+ * classes, the index is trusted: the post-processors only get to see the listed
+ * members, without the annotations of any other member being read. To detect
+ * entries that are out of date (e.g. a class recompiled without the annotation
+ * processor), each entry carries the number of fields and methods declared in
+ * source, which is compared with the non-synthetic members of the class; the
+ * class is introspected reflectively as well if the counts differ, if a listed
+ * member does not exist anymore, or if the entry has no such fingerprint.
+ * An annotation added to or removed from an existing member without a rebuild
+ * of the index is not detected, so the index needs to be regenerated along with
+ * the classes it describes.
+ *
+ * @since 5.0.15
+ * @see AutowiredAnnotationBeanPostProcessor
+ * @see InitDestroyAnnotationBeanPostProcessor
+ */
+public final class AnnotatedMembersIndex {
+
+	/**
+	 * The location to look for annotated members.
+	 * <p>Can be present in multiple JAR files.
+	 */
+	public static final String ANNOTATED_MEMBERS_RESOURCE_LOCATION = "META-INF/spring.annotated-members";
+
+	/**
+	 * System property that instructs Spring to use the index of annotated members,
+	 * if present: "spring.index.annotatedMembers".
+	 * <p>The default is "false", introspecting every class reflectively.
+	 */
+	public static final String USE_INDEX_PROPERTY_NAME = "spring.index.annotatedMembers";
+
+	/**
+	 * System property that instructs Spring to ignore the index, shared with the
+	 * index of candidate components.
+	 */
+	public static final String IGNORE_INDEX = "spring.index.ignore";
+
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
+
+	private static final Log logger = LogFactory.getLog(AnnotatedMembersIndex.class);
+
+	private static final AnnotatedMembersIndex EMPTY = new AnnotatedMembersIndex(Collections.emptyList());
+
+	private static final ConcurrentMap<ClassLoader, AnnotatedMembersIndex> cache =
+			new ConcurrentReferenceHashMap<>();
+
+
+	private final Map<String, IndexedType> indexedTypes = new HashMap<>();
+
+
+	AnnotatedMembersIndex(List<Properties> content) {
+		for (Properties entry : content) {
+			entry.forEach((type, members) ->
+					this.indexedTypes.put((String) type, new IndexedType((String) members)));
+		}
+	}
+
+
+	/**
+	 * Invoke the given callback on the annotated fields declared by the given class,
+	 * or on all locally declared fields if the class is not indexed.
+	 * @param clazz the class to introspect
+	 * @param fc the callback to invoke for each field
+	 * @throws IllegalStateException if introspection fails
+	 * @see ReflectionUtils#doWithLocalFields
+	 */
+	public void doWithLocalFields(Class<?> clazz, ReflectionUtils.FieldCallback fc) {
+		IndexedType indexedType = this.indexedTypes.get(clazz.getName());
+		if (indexedType == null || indexedType.fieldCount < 0) {
+			ReflectionUtils.doWithLocalFields(clazz, fc);
+			return;
+		}
+		List<Field> fields = new ArrayList<>(indexedType.fieldNames.size());
+		int[] fieldCount = new int[1];
+		ReflectionUtils.doWithLocalFields(clazz, field -> {
+			if (!field.isSynthetic()) {
+				fieldCount[0]++;
+				if (indexedType.fieldNames.contains(field.getName())) {
+					fields.add(field);
+				}
+			}
+		});
+		if (fieldCount[0] != indexedType.fieldCount || fields.size() != indexedType.fieldNames.size()) {
+			handleStaleEntry(clazz);
+			ReflectionUtils.doWithLocalFields(clazz, fc);
+			return;
+		}
+		for (Field field : fields) {
+			try {
+				fc.doWith(field);
+			}
+			catch (IllegalAccessException ex) {
+				throw new IllegalStateException("Not allowed to access field '" + field.getName() + "': " + ex);
+			}
+		}
+	}
+
+	/**
+	 * Invoke the given callback on the annotated methods declared by the given class
+	 * as well as on default methods inherited from its interfaces, or on all locally
+	 * declared methods if the class is not indexed.
+	 * @param clazz the class to introspect
+	 * @param mc the callback to invoke for each method
+	 * @throws IllegalStateException if introspection fails
+	 * @see ReflectionUtils#doWithLocalMethods
+	 */
+	public void doWithLocalMethods(Class<?> clazz, ReflectionUtils.MethodCallback mc) {
+		IndexedType indexedType = this.indexedTypes.get(clazz.getName());
+		if (indexedType == null || indexedType.methodCount < 0) {
+			ReflectionUtils.doWithLocalMethods(clazz, mc);
+			return;
+		}
+		List<Method> methods = new ArrayList<>();
+		int[] methodCount = new int[1];
+		int[] matchCount = new int[1];
+		ReflectionUtils.doWithLocalMethods(clazz, method -> {
+			if (method.getDeclaringClass() != clazz) {
+				// Interface default method, not covered by the index of the class itself
+				methods.add(method);
+			}
+			else if (!method.isBridge() && !method.isSynthetic()) {
+				methodCount[0]++;
+				if (indexedType.containsMethod(method)) {
+					methods.add(method);
+					matchCount[0]++;
+				}
+			}
+		});
+		if (methodCount[0] != indexedType.methodCount || matchCount[0] != indexedType.annotatedMethodCount) {
+			handleStaleEntry(clazz);
+			ReflectionUtils.doWithLocalMethods(clazz, mc);
+			return;
+		}
+		for (Method method : methods) {
+			try {
+				mc.doWith(method);
+			}
+			catch (IllegalAccessException ex) {
+				throw new IllegalStateException("Not allowed to access method '" + method.getName() + "': " + ex);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the given class is present in this index.
+	 */
+	public boolean isIndexed(Class<?> clazz) {
+		return this.indexedTypes.containsKey(clazz.getName());
+	}
+
+	private void handleStaleEntry(Class<?> clazz) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Index entry for " + clazz + " does not match its declared members - " +
+					"introspecting it reflectively instead");
+		}
+	}
+
+
+	/**
+	 * Load the {@code AnnotatedMembersIndex} from {@value #ANNOTATED_MEMBERS_RESOURCE_LOCATION},
+	 * using the given class loader. If no index is available or the index is not enabled,
+	 * an empty index is returned, introspecting every class reflectively.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the index to use (never {@code null})
+	 * @throws IllegalStateException if any module index cannot be loaded
+	 */
+	public static AnnotatedMembersIndex loadIndex(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = AnnotatedMembersIndex.class.getClassLoader();
+		}
+		return cache.computeIfAbsent(classLoaderToUse, AnnotatedMembersIndex::doLoadIndex);
+	}
+
+	private static AnnotatedMembersIndex doLoadIndex(ClassLoader classLoader) {
+		if (shouldIgnoreIndex || !SpringProperties.getFlag(USE_INDEX_PROPERTY_NAME)) {
+			return EMPTY;
+		}
+
+		try {
+			Enumeration<URL> urls = classLoader.getResources(ANNOTATED_MEMBERS_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return EMPTY;
+			}
+			List<Properties> result = new ArrayList<>();
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				result.add(PropertiesLoaderUtils.loadProperties(new UrlResource(url)));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + result.size() + " annotated members index(es)");
+			}
+			return new AnnotatedMembersIndex(result);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location [" +
+					ANNOTATED_MEMBERS_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+
+	/**
+	 * Annotated members of an indexed type: fields by name, methods by name
+	 * and erased parameter types, e.g. {@code setService(com.example.Service;int)},
+	 * along with the number of fields and methods declared by the type in the
+	 * form {@code #fieldCount:methodCount}, e.g. {@code #2:5}.
+	 */
+	private static class IndexedType {
+
+		final Set<String> fieldNames = new HashSet<>();
+
+		final Map<String, List<String>> methodParameterTypes = new HashMap<>();
+
+		int annotatedMethodCount;
+
+		int fieldCount = -1;
+
+		int methodCount = -1;
+
+		IndexedType(String members) {
+			for (String member : StringUtils.commaDelimitedListToStringArray(members)) {
+				int parenIndex = member.indexOf('(');
+				if (member.startsWith("#")) {
+					int separatorIndex = member.indexOf(':');
+					if (separatorIndex != -1) {
+						try {
+							this.fieldCount = Integer.parseInt(member.substring(1, separatorIndex));
+							this.methodCount = Integer.parseInt(member.substring(separatorIndex + 1));
+						}
+						catch (NumberFormatException ex) {
+							// Malformed fingerprint: do not trust the entry
+							this.fieldCount = -1;
+							this.methodCount = -1;
+						}
+					}
+				}
+				else if (parenIndex == -1) {
+					if (!member.isEmpty()) {
+						this.fieldNames.add(member);
+					}
+				}
+				else {
+					this.methodParameterTypes.computeIfAbsent(member.substring(0, parenIndex), name -> new ArrayList<>(1))
+							.add(member.substring(parenIndex + 1, member.length() - 1));
+					this.annotatedMethodCount++;
+				}
+			}
+		}
+
+		boolean containsMethod(Method method) {
+			List<String> candidates = this.methodParameterTypes.get(method.getName());
+			if (candidates == null) {
+				return false;
+			}
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			StringBuilder sb = new StringBuilder();
+			for (Class<?> parameterType : parameterTypes) {
+				if (sb.length() > 0) {
+					sb.append(';');
+				}
+				sb.append(parameterType.getTypeName());
+			}
+			return candidates.contains(sb.toString());
+		}
+	}
+
+}
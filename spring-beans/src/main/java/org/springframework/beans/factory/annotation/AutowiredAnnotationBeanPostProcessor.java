@@ -474,12 +474,13 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 
 	private InjectionMetadata buildAutowiringMetadata(final Class<?> clazz) {
 		List<InjectionMetadata.InjectedElement> elements = new ArrayList<>();
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.loadIndex(clazz.getClassLoader());
 		Class<?> targetClass = clazz;
 		// 1. 通过do while循环，递归的往直接继承的父类寻找@Autowired
 		do {
 			final List<InjectionMetadata.InjectedElement> currElements = new ArrayList<>();
 			// 2. 通过反射，获取所有属性，doWithLocalFields则是循环的对每个属性应用以下匿名方法
-			ReflectionUtils.doWithLocalFields(targetClass, field -> {
+			index.doWithLocalFields(targetClass, field -> {
 				// 判断当前field属性是否含有@Autowired、@Value、@Inject的注解
 				AnnotationAttributes ann = findAutowiredAnnotation(field);
 				if (ann != null) {
@@ -497,7 +498,7 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 				}
 			});
 			// 4. @Autowired可以注解在方法上
-			ReflectionUtils.doWithLocalMethods(targetClass, method -> {
+			index.doWithLocalMethods(targetClass, method -> {
 				Method bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
 				if (!BridgeMethodResolver.isVisibilityBridgeMethodPair(method, bridgedMethod)) {
 					return;
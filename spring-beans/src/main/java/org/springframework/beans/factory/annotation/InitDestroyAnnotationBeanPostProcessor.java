@@ -199,13 +199,14 @@ public class InitDestroyAnnotationBeanPostProcessor
 		final boolean debug = logger.isDebugEnabled();
 		List<LifecycleElement> initMethods = new ArrayList<>();
 		List<LifecycleElement> destroyMethods = new ArrayList<>();
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.loadIndex(clazz.getClassLoader());
 		Class<?> targetClass = clazz;
 
 		do {
 			final List<LifecycleElement> currInitMethods = new ArrayList<>();
 			final List<LifecycleElement> currDestroyMethods = new ArrayList<>();
 
-			ReflectionUtils.doWithLocalMethods(targetClass, method -> {
+			index.doWithLocalMethods(targetClass, method -> {
 				if (this.initAnnotationType != null && method.isAnnotationPresent(this.initAnnotationType)) {
 					LifecycleElement element = new LifecycleElement(method);
 					currInitMethods.add(element);
@@ -21,6 +21,7 @@ import org.springframework.beans.*;
 import org.springframework.beans.factory.*;
 import org.springframework.beans.factory.config.*;
 import org.springframework.core.*;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.*;
 
@@ -372,7 +373,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		//获取我们容器中的所有的bean的后置处理器
 		for (BeanPostProcessor processor : getBeanPostProcessors()) {
 			//挨个调用我们的bean的后置处理器的postProcessBeforeInitialization
-			Object current = processor.postProcessBeforeInitialization(result, beanName);
+			Object current;
+			StartupStep postProcess = startPostProcessStep(processor, beanName, "before-initialization");
+			try {
+				current = processor.postProcessBeforeInitialization(result, beanName);
+			}
+			finally {
+				postProcess.end();
+			}
 			//若只有有一个返回null 那么直接返回原始的
 			if (current == null) {
 				return result;
@@ -398,7 +406,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			 * 都是实现了我们的 BeanPostProcessor接口,InstantiationAwareBeanPostProcessor,
 			 * 在这里实现的是BeanPostProcessor接口的postProcessAfterInitialization来生成我们的代理对象
 			 */
-			Object current = processor.postProcessAfterInitialization(result, beanName);
+			Object current;
+			StartupStep postProcess = startPostProcessStep(processor, beanName, "after-initialization");
+			try {
+				current = processor.postProcessAfterInitialization(result, beanName);
+			}
+			finally {
+				postProcess.end();
+			}
 			//若只要有一个返回null 那么直接返回原始的
 			if (current == null) {
 				return result;
@@ -410,7 +425,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 	@Override
 	public void destroyBean(Object existingBean) {
-		new DisposableBeanAdapter(existingBean, getBeanPostProcessors(), getAccessControlContext()).destroy();
+		new DisposableBeanAdapter(existingBean, getBeanPostProcessorCache().destructionAware,
+				getAccessControlContext()).destroy();
 	}
 
 
@@ -517,7 +533,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 		if (instanceWrapper == null) {
 			//创建bean实例化 使用合适的实例化策略来创建新的实例：工厂方法、构造函数自动注入、简单初始化 该方法很复杂也很重要
-			instanceWrapper = createBeanInstance(beanName, mbd, args);
+			StartupStep instantiation = getApplicationStartup().start("spring.beans.instantiate.create-instance")
+					.tag("beanName", beanName);
+			try {
+				instanceWrapper = createBeanInstance(beanName, mbd, args);
+			}
+			finally {
+				instantiation.end();
+			}
 		}
 		//从beanWrapper中获取我们的早期对象
 		final Object bean = instanceWrapper.getWrappedInstance();
@@ -565,7 +588,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		Object exposedObject = bean;
 		try {
 			//属性赋值 给我们的属性进行赋值(调用set方法进行赋值)
-			populateBean(beanName, mbd, instanceWrapper);
+			StartupStep population = getApplicationStartup().start("spring.beans.instantiate.populate")
+					.tag("beanName", beanName);
+			try {
+				populateBean(beanName, mbd, instanceWrapper);
+			}
+			finally {
+				population.end();
+			}
 			//进行对象初始化操作(在这里可能生成代理对象)
 			exposedObject = initializeBean(beanName, exposedObject, mbd);
 		}
@@ -635,14 +665,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		// Apply SmartInstantiationAwareBeanPostProcessors to predict the
 		// eventual type after a before-instantiation shortcut.
 		if (targetType != null && !mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors()) {
-			for (BeanPostProcessor bp : getBeanPostProcessors()) {
-				if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
-					SmartInstantiationAwareBeanPostProcessor ibp = (SmartInstantiationAwareBeanPostProcessor) bp;
-					Class<?> predicted = ibp.predictBeanType(targetType, beanName);
-					if (predicted != null && (typesToMatch.length != 1 || FactoryBean.class != typesToMatch[0] ||
-							FactoryBean.class.isAssignableFrom(predicted))) {
-						return predicted;
-					}
+			for (SmartInstantiationAwareBeanPostProcessor ibp : getBeanPostProcessorCache().smartInstantiationAware) {
+				Class<?> predicted = ibp.predictBeanType(targetType, beanName);
+				if (predicted != null && (typesToMatch.length != 1 || FactoryBean.class != typesToMatch[0] ||
+						FactoryBean.class.isAssignableFrom(predicted))) {
+					return predicted;
 				}
 			}
 		}
@@ -905,15 +932,10 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		Object exposedObject = bean;
 		//判读我们容器中是否有InstantiationAwareBeanPostProcessors类型的后置处理器
 		if (!mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors()) {
-			//获取我们所有的后置处理器
-			for (BeanPostProcessor bp : getBeanPostProcessors()) {
-				//判断我们的后置处理器是不是实现了SmartInstantiationAwareBeanPostProcessor接口
-				if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
-					//进行强制转换
-					SmartInstantiationAwareBeanPostProcessor ibp = (SmartInstantiationAwareBeanPostProcessor) bp;
-					//挨个调用SmartInstantiationAwareBeanPostProcessor的getEarlyBeanReference
-					exposedObject = ibp.getEarlyBeanReference(exposedObject, beanName);
-				}
+			//获取我们所有的SmartInstantiationAwareBeanPostProcessor后置处理器
+			for (SmartInstantiationAwareBeanPostProcessor ibp : getBeanPostProcessorCache().smartInstantiationAware) {
+				//挨个调用SmartInstantiationAwareBeanPostProcessor的getEarlyBeanReference
+				exposedObject = ibp.getEarlyBeanReference(exposedObject, beanName);
 			}
 		}
 		return exposedObject;
@@ -1022,11 +1044,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 * @see MergedBeanDefinitionPostProcessor#postProcessMergedBeanDefinition
 	 */
 	protected void applyMergedBeanDefinitionPostProcessors(RootBeanDefinition mbd, Class<?> beanType, String beanName) {
-		for (BeanPostProcessor bp : getBeanPostProcessors()) {
-			if (bp instanceof MergedBeanDefinitionPostProcessor) {
-				MergedBeanDefinitionPostProcessor bdp = (MergedBeanDefinitionPostProcessor) bp;
-				bdp.postProcessMergedBeanDefinition(mbd, beanType, beanName);
-			}
+		for (MergedBeanDefinitionPostProcessor bdp : getBeanPostProcessorCache().mergedDefinition) {
+			bdp.postProcessMergedBeanDefinition(mbd, beanType, beanName);
 		}
 	}
 
@@ -1083,24 +1102,19 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	@Nullable
 	protected Object applyBeanPostProcessorsBeforeInstantiation(Class<?> beanClass, String beanName) {
 		/**
-		 * 获取容器中的所有后置处理器
+		 * 获取容器中的所有InstantiationAwareBeanPostProcessor后置处理器
 		 */
-		for (BeanPostProcessor bp : getBeanPostProcessors()) {
-			//判断后置处理器是不是InstantiationAwareBeanPostProcessor
-			if (bp instanceof InstantiationAwareBeanPostProcessor) {
-				//把我们的BeanPostProcessor强制转为InstantiationAwareBeanPostProcessor
-				InstantiationAwareBeanPostProcessor ibp = (InstantiationAwareBeanPostProcessor) bp;
-				/**
-				 * 【很重要】
-				 * 我们AOP @EnableAspectJAutoProxy 为我们容器中导入了 AnnotationAwareAspectJAutoProxyCreator
-				 * 我们事务注解@EnableTransactionManagement 为我们的容器导入了 InfrastructureAdvisorAutoProxyCreator
-				 * 都是实现了我们的 BeanPostProcessor接口,InstantiationAwareBeanPostProcessor,
-				 * 进行后置处理解析切面
-				 */
-				Object result = ibp.postProcessBeforeInstantiation(beanClass, beanName);
-				if (result != null) {
-					return result;
-				}
+		for (InstantiationAwareBeanPostProcessor ibp : getBeanPostProcessorCache().instantiationAware) {
+			/**
+			 * 【很重要】
+			 * 我们AOP @EnableAspectJAutoProxy 为我们容器中导入了 AnnotationAwareAspectJAutoProxyCreator
+			 * 我们事务注解@EnableTransactionManagement 为我们的容器导入了 InfrastructureAdvisorAutoProxyCreator
+			 * 都是实现了我们的 BeanPostProcessor接口,InstantiationAwareBeanPostProcessor,
+			 * 进行后置处理解析切面
+			 */
+			Object result = ibp.postProcessBeforeInstantiation(beanClass, beanName);
+			if (result != null) {
+				return result;
 			}
 		}
 		return null;
@@ -1279,17 +1293,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			throws BeansException {
 		//beanClass对象不为空 且 ioc容器中有InstantiationAwareBeanPostProcessors的后置处理器
 		if (beanClass != null && hasInstantiationAwareBeanPostProcessors()) {
-			//获取到容器中所有的后置处理器BeanPostProcessors
-			for (BeanPostProcessor bp : getBeanPostProcessors()) {
-				//判断我们的后置处理器是否为SmartInstantiationAwareBeanPostProcessor
-				if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
-					//强行转化我们的后置处理器SmartInstantiationAwareBeanPostProcessor是他的BeanPostProcessors实现
-					SmartInstantiationAwareBeanPostProcessor ibp = (SmartInstantiationAwareBeanPostProcessor) bp;
-						//调用我们后置处理器的determineCandidateConstructors 来决定我们的构造方法
-						Constructor<?>[] ctors = ibp.determineCandidateConstructors(beanClass, beanName);
-						if (ctors != null) {
-						return ctors;
-					}
+			//获取到容器中所有的SmartInstantiationAwareBeanPostProcessor后置处理器
+			for (SmartInstantiationAwareBeanPostProcessor ibp : getBeanPostProcessorCache().smartInstantiationAware) {
+				//调用我们后置处理器的determineCandidateConstructors 来决定我们的构造方法
+				Constructor<?>[] ctors = ibp.determineCandidateConstructors(beanClass, beanName);
+				if (ctors != null) {
+					return ctors;
 				}
 			}
 		}
@@ -1393,21 +1402,16 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		boolean continueWithPropertyPopulation = true;
 		//是否持有 InstantiationAwareBeanPostProcessor
 		if (!mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors()) {
-			//获取容器中的所有的BeanPostProcessor
-			for (BeanPostProcessor bp : getBeanPostProcessors()) {
-				//判断我们的后置处理器是不是InstantiationAwareBeanPostProcessor
-				if (bp instanceof InstantiationAwareBeanPostProcessor) {
-					//进行强制转化
-					InstantiationAwareBeanPostProcessor ibp = (InstantiationAwareBeanPostProcessor) bp;
-					//若存在后置处理器给我们属性赋值了，那么返回false 可以来修改我们的开关变量，就不会走下面的逻辑了
-					if (!ibp.postProcessAfterInstantiation(bw.getWrappedInstance(), beanName)) {
-						// 返回值为是否继续填充 bean
-						// postProcessAfterInstantiation：如果应该在 bean上面设置属性则返回 true，否则返回 false
-						// 一般情况下，应该是返回true 。
-						// 返回 false 的话，将会阻止在此 Bean 实例上调用任何后续的 InstantiationAwareBeanPostProcessor 实
-						continueWithPropertyPopulation = false;
-						break;
-					}
+			//获取容器中的所有的InstantiationAwareBeanPostProcessor
+			for (InstantiationAwareBeanPostProcessor ibp : getBeanPostProcessorCache().instantiationAware) {
+				//若存在后置处理器给我们属性赋值了，那么返回false 可以来修改我们的开关变量，就不会走下面的逻辑了
+				if (!ibp.postProcessAfterInstantiation(bw.getWrappedInstance(), beanName)) {
+					// 返回值为是否继续填充 bean
+					// postProcessAfterInstantiation：如果应该在 bean上面设置属性则返回 true，否则返回 false
+					// 一般情况下，应该是返回true 。
+					// 返回 false 的话，将会阻止在此 Bean 实例上调用任何后续的 InstantiationAwareBeanPostProcessor 实
+					continueWithPropertyPopulation = false;
+					break;
 				}
 			}
 		}
@@ -1457,14 +1461,17 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			PropertyDescriptor[] filteredPds = filterPropertyDescriptorsForDependencyCheck(bw, mbd.allowCaching);
 			if (hasInstAwareBpps) {
 				//获取所有的后置处理器
-				for (BeanPostProcessor bp : getBeanPostProcessors()) {
-					if (bp instanceof InstantiationAwareBeanPostProcessor) {
-						InstantiationAwareBeanPostProcessor ibp = (InstantiationAwareBeanPostProcessor) bp;
-						//对依赖对象进行后置处理
+				for (InstantiationAwareBeanPostProcessor ibp : getBeanPostProcessorCache().instantiationAware) {
+					//对依赖对象进行后置处理
+					StartupStep postProcess = startPostProcessStep(ibp, beanName, "property-values");
+					try {
 						pvs = ibp.postProcessPropertyValues(pvs, filteredPds, bw.getWrappedInstance(), beanName);
-						if (pvs == null) {
-							return;
-						}
+					}
+					finally {
+						postProcess.end();
+					}
+					if (pvs == null) {
+						return;
 					}
 				}
 			}
@@ -1873,6 +1880,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			wrappedBean = applyBeanPostProcessorsBeforeInitialization(wrappedBean, beanName);
 		}
 
+		StartupStep initialization = getApplicationStartup().start("spring.beans.instantiate.init")
+				.tag("beanName", beanName);
 		try {
 			//调用初始化方法
 			invokeInitMethods(beanName, wrappedBean, mbd);
@@ -1882,6 +1891,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 					(mbd != null ? mbd.getResourceDescription() : null),
 					beanName, "Invocation of init method failed", ex);
 		}
+		finally {
+			initialization.end();
+		}
 		if (mbd == null || !mbd.isSynthetic()) {
 			//调用我们bean的后置处理器的PostProcessorsAfterInitialization方法
 			wrappedBean = applyBeanPostProcessorsAfterInitialization(wrappedBean, beanName);
@@ -1890,6 +1902,19 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		return wrappedBean;
 	}
 
+	/**
+	 * Start a {@link StartupStep} for the invocation of the given post-processor.
+	 * @param processor the BeanPostProcessor to invoke
+	 * @param beanName the name of the bean being post-processed
+	 * @param phase the post-processing phase, e.g. "before-initialization"
+	 */
+	private StartupStep startPostProcessStep(BeanPostProcessor processor, String beanName, String phase) {
+		return getApplicationStartup().start("spring.beans.instantiate.post-process")
+				.tag("beanName", beanName)
+				.tag("postProcessor", processor.getClass().getName())
+				.tag("phase", phase);
+	}
+
 	private void invokeAwareMethods(final String beanName, final Object bean) {
 		if (bean instanceof Aware) {
 			//我们的bean实现了BeanNameAware
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Index of bean names by the types that the corresponding beans may match,
+ * used by {@link DefaultListableBeanFactory} to narrow down by-type lookups
+ * once its configuration has been frozen.
+ *
+ * <p>Each bean is registered with its known types, i.e. its predicted type and
+ * the type of its singleton instance (if created already), and is indexed under
+ * every superclass and interface of those types. Beans with a type that cannot
+ * be determined upfront (e.g. FactoryBeans, whose object type may only become
+ * available once initialized) are kept as unresolved and returned as candidates
+ * for every type. The index is only guaranteed not to miss any matching bean:
+ * candidates still need to be checked against the actual type matching rules.
+ *
+ * <p>Types are only ever added to an existing entry, with the entry being replaced
+ * as a whole when the corresponding bean definition changes.
+ *
+ * @since 5.0.15
+ * @see DefaultListableBeanFactory#getBeanNamesForType
+ */
+final class BeanTypeIndex {
+
+	private final int beanPostProcessorCount;
+
+	/** Map from bean name to index entry, for all indexed beans */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>(256);
+
+	/** Map from type to the names of the beans that may match it */
+	private final Map<Class<?>, Set<String>> beanNamesByType = new ConcurrentHashMap<>(256);
+
+	/** Names of the beans that may match any type */
+	private final Set<String> unresolvedBeanNames = Collections.newSetFromMap(new ConcurrentHashMap<>(16));
+
+	private long nextOrder;
+
+
+	/**
+	 * Create a new index for the given bean post-processor state.
+	 * @param beanPostProcessorCount the number of bean post-processors at the time
+	 * of building the index (which may influence the predicted bean types)
+	 */
+	BeanTypeIndex(int beanPostProcessorCount) {
+		this.beanPostProcessorCount = beanPostProcessorCount;
+	}
+
+
+	/**
+	 * Return the number of bean post-processors that this index was built for.
+	 */
+	int getBeanPostProcessorCount() {
+		return this.beanPostProcessorCount;
+	}
+
+	/**
+	 * Register the given bean with the given types, replacing any previous entry
+	 * but retaining its position in the registration order.
+	 * @param beanName the name of the bean
+	 * @param types the types that the bean may match, or {@code null} if not determinable
+	 */
+	synchronized void putBean(String beanName, @Nullable Collection<Class<?>> types) {
+		Entry existing = this.entries.get(beanName);
+		if (existing != null) {
+			unregister(beanName, existing);
+		}
+		Entry entry = new Entry(existing != null ? existing.order : this.nextOrder++);
+		this.entries.put(beanName, entry);
+		if (types != null) {
+			for (Class<?> type : types) {
+				addType(beanName, entry, type);
+			}
+		}
+		else {
+			entry.unresolved = true;
+			this.unresolvedBeanNames.add(beanName);
+		}
+	}
+
+	/**
+	 * Add the given type to the entry of the given bean, if indexed.
+	 * @param beanName the name of the bean
+	 * @param type the additional type that the bean may match,
+	 * or {@code null} if any type may match from now on
+	 */
+	synchronized void addType(String beanName, @Nullable Class<?> type) {
+		Entry entry = this.entries.get(beanName);
+		if (entry != null && !entry.unresolved) {
+			if (type != null) {
+				addType(beanName, entry, type);
+			}
+			else {
+				entry.unresolved = true;
+				this.unresolvedBeanNames.add(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Remove the given bean from the index.
+	 * @param beanName the name of the bean
+	 */
+	synchronized void removeBean(String beanName) {
+		Entry entry = this.entries.remove(beanName);
+		if (entry != null) {
+			unregister(beanName, entry);
+		}
+	}
+
+	/**
+	 * Determine whether the given bean is indexed.
+	 * @param beanName the name of the bean
+	 */
+	boolean containsBean(String beanName) {
+		return this.entries.containsKey(beanName);
+	}
+
+	/**
+	 * Determine whether the given bean may match the given type.
+	 * @param beanName the name of the bean
+	 * @param type the type to check
+	 * @return {@code false} if the bean is known not to match the type,
+	 * {@code true} if it may match (or is not indexed at all)
+	 */
+	boolean mayMatch(String beanName, Class<?> type) {
+		Entry entry = this.entries.get(beanName);
+		return (entry == null || entry.unresolved || !isIndexable(type) || entry.types.contains(type));
+	}
+
+	/**
+	 * Return the names of all beans that may match the given type,
+	 * in registration order.
+	 * @param type the type to match (must be {@link #isIndexable indexable})
+	 * @return the candidate bean names (never {@code null})
+	 */
+	List<String> getBeanNames(Class<?> type) {
+		Set<String> beanNames = this.beanNamesByType.get(type);
+		List<String> result = new ArrayList<>(
+				(beanNames != null ? beanNames.size() : 0) + this.unresolvedBeanNames.size());
+		if (beanNames != null) {
+			result.addAll(beanNames);
+		}
+		result.addAll(this.unresolvedBeanNames);
+		result.sort(Comparator.comparingLong(this::getOrder));
+		return result;
+	}
+
+	private long getOrder(String beanName) {
+		Entry entry = this.entries.get(beanName);
+		return (entry != null ? entry.order : Long.MAX_VALUE);
+	}
+
+	private void addType(String beanName, Entry entry, Class<?> type) {
+		if (!isIndexable(type)) {
+			// Primitive and array types follow their own assignability rules...
+			entry.unresolved = true;
+			this.unresolvedBeanNames.add(beanName);
+			return;
+		}
+		addTypeHierarchy(beanName, entry, type);
+	}
+
+	private void addTypeHierarchy(String beanName, Entry entry, Class<?> type) {
+		if (type == Object.class || !entry.types.add(type)) {
+			return;
+		}
+		this.beanNamesByType.computeIfAbsent(type, key -> Collections.newSetFromMap(new ConcurrentHashMap<>(8)))
+				.add(beanName);
+		Class<?> superclass = type.getSuperclass();
+		if (superclass != null) {
+			addTypeHierarchy(beanName, entry, superclass);
+		}
+		for (Class<?> ifc : type.getInterfaces()) {
+			addTypeHierarchy(beanName, entry, ifc);
+		}
+	}
+
+	private void unregister(String beanName, Entry entry) {
+		if (entry.unresolved) {
+			this.unresolvedBeanNames.remove(beanName);
+		}
+		for (Class<?> type : entry.types) {
+			Set<String> beanNames = this.beanNamesByType.get(type);
+			if (beanNames != null) {
+				beanNames.remove(beanName);
+			}
+		}
+	}
+
+
+	/**
+	 * Determine whether lookups for the given type can be served by the index.
+	 * <p>{@code Object} is matched by any bean anyway, whereas primitive and
+	 * array types are subject to special assignability rules.
+	 * @param type the type to check
+	 */
+	static boolean isIndexable(Class<?> type) {
+		return (type != Object.class && !type.isPrimitive() && !type.isArray());
+	}
+
+
+	/**
+	 * Index entry for a specific bean.
+	 */
+	private static class Entry {
+
+		final long order;
+
+		final Set<Class<?>> types = Collections.newSetFromMap(new ConcurrentHashMap<>(16));
+
+		volatile boolean unresolved;
+
+		Entry(long order) {
+			this.order = order;
+		}
+	}
+
+}
@@ -42,6 +42,7 @@ import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.InjectionPoint;
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
@@ -774,12 +775,15 @@ class ConstructorResolver {
 							"] - did you specify the correct bean references as arguments?");
 				}
 				try {
+					Set<String> paramBeanNames = new LinkedHashSet<>(2);
 					Object autowiredArgument =
-							resolveAutowiredArgument(methodParam, beanName, autowiredBeanNames, converter);
+							resolveAutowiredArgument(methodParam, beanName, paramBeanNames, converter);
 					args.rawArguments[paramIndex] = autowiredArgument;
 					args.arguments[paramIndex] = autowiredArgument;
-					args.preparedArguments[paramIndex] = new AutowiredArgumentMarker();
+					args.preparedArguments[paramIndex] =
+							new AutowiredArgumentMarker(determineShortcut(autowiredArgument, paramBeanNames, paramType));
 					args.resolveNecessary = true;
+					autowiredBeanNames.addAll(paramBeanNames);
 				}
 				catch (BeansException ex) {
 					throw new UnsatisfiedDependencyException(
@@ -800,6 +804,29 @@ class ConstructorResolver {
 		return args;
 	}
 
+	/**
+	 * Determine the name of the single bean that an autowired argument resolved to,
+	 * allowing for subsequent creations (e.g. of prototypes) to skip the lookup of
+	 * autowire candidates.
+	 * @param autowiredArgument the resolved argument value
+	 * @param autowiredBeanNames the names of the beans that the argument was resolved to
+	 * @param paramType the type of the parameter
+	 * @return the bean name to use as a shortcut, or {@code null} if none
+	 */
+	@Nullable
+	private String determineShortcut(
+			@Nullable Object autowiredArgument, Set<String> autowiredBeanNames, Class<?> paramType) {
+
+		if (autowiredArgument != null && autowiredBeanNames.size() == 1) {
+			String autowiredBeanName = autowiredBeanNames.iterator().next();
+			if (this.beanFactory.containsBean(autowiredBeanName) &&
+					this.beanFactory.isTypeMatch(autowiredBeanName, paramType)) {
+				return autowiredBeanName;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Resolve the prepared arguments stored in the given bean definition.
 	 */
@@ -822,7 +849,15 @@ class ConstructorResolver {
 			MethodParameter methodParam = MethodParameter.forExecutable(executable, argIndex);
 			GenericTypeResolver.resolveParameterType(methodParam, executable.getDeclaringClass());
 			if (argValue instanceof AutowiredArgumentMarker) {
-				argValue = resolveAutowiredArgument(methodParam, beanName, null, converter);
+				String shortcut = ((AutowiredArgumentMarker) argValue).shortcut;
+				if (shortcut != null) {
+					argValue = this.beanFactory.resolveDependency(
+							new ShortcutDependencyDescriptor(methodParam, shortcut, paramTypes[argIndex]),
+							beanName, null, converter);
+				}
+				else {
+					argValue = resolveAutowiredArgument(methodParam, beanName, null, converter);
+				}
 			}
 			else if (argValue instanceof BeanMetadataElement) {
 				argValue = valueResolver.resolveValueIfNecessary("constructor argument", argValue);
@@ -954,9 +989,45 @@ class ConstructorResolver {
 
 
 	/**
-	 * Marker for autowired arguments in a cached argument array.
+	 * Marker for autowired arguments in a cached argument array,
+	 * optionally carrying the name of the bean that the argument resolved to.
  	 */
 	private static class AutowiredArgumentMarker {
+
+		@Nullable
+		final String shortcut;
+
+		AutowiredArgumentMarker(@Nullable String shortcut) {
+			this.shortcut = shortcut;
+		}
+	}
+
+
+	/**
+	 * DependencyDescriptor variant with a pre-resolved target bean name,
+	 * falling back to regular resolution if that bean is not available anymore.
+	 */
+	@SuppressWarnings("serial")
+	private static class ShortcutDependencyDescriptor extends DependencyDescriptor {
+
+		private final String shortcut;
+
+		private final Class<?> requiredType;
+
+		public ShortcutDependencyDescriptor(MethodParameter methodParameter, String shortcut, Class<?> requiredType) {
+			super(methodParameter, true);
+			this.shortcut = shortcut;
+			this.requiredType = requiredType;
+		}
+
+		@Override
+		@Nullable
+		public Object resolveShortcut(BeanFactory beanFactory) {
+			if (!beanFactory.containsBean(this.shortcut)) {
+				return null;
+			}
+			return beanFactory.getBean(this.shortcut, this.requiredType);
+		}
 	}
 
 
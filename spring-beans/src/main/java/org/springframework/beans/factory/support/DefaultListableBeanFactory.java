@@ -37,6 +37,8 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Spring's default implementation of the {@link ConfigurableListableBeanFactory}
@@ -136,6 +138,17 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans */
 	private volatile boolean configurationFrozen = false;
 
+	/** Index of bean names by type, built on demand in case of frozen configuration */
+	@Nullable
+	private volatile BeanTypeIndex beanTypeIndex;
+
+	/** Whether the bean type index is currently being built */
+	private final AtomicBoolean beanTypeIndexBuilding = new AtomicBoolean();
+
+	/** Optional Executor for pre-instantiating independent singletons in parallel */
+	@Nullable
+	private Executor bootstrapExecutor;
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -267,6 +280,36 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Set an {@link Executor} for pre-instantiating singletons in parallel.
+	 * <p>If specified, {@link #preInstantiateSingletons()} derives a dependency
+	 * graph from the registered bean definitions (bean references in property
+	 * values and constructor arguments, factory beans and "depends-on" declarations)
+	 * and creates independent singletons concurrently on the given executor, with
+	 * a singleton only being submitted once all of its declared dependencies have
+	 * been created. Dependencies that can only be discovered at creation time
+	 * (e.g. autowired fields) are created on demand by the requesting thread,
+	 * with concurrent requests for the same singleton waiting for each other.
+	 * <p>The executor determines the degree of parallelism and should therefore
+	 * be bounded, e.g. a fixed-size thread pool. Default is none, pre-instantiating
+	 * all singletons one after the other on the calling thread.
+	 * @since 5.0.15
+	 * @see #preInstantiateSingletons()
+	 * @see #setSingletonCreationConcurrent
+	 */
+	public void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for pre-instantiating singletons in parallel, if any.
+	 * @since 5.0.15
+	 */
+	@Nullable
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -276,6 +319,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(BeanUtils.instantiateClass(getAutowireCandidateResolver().getClass()));
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well...
@@ -364,8 +408,25 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();
 
+		// Narrow down the beans to check through the type index, if available.
+		Collection<String> beanDefinitionNames = this.beanDefinitionNames;
+		Collection<String> manualSingletonNames = this.manualSingletonNames;
+		List<String> candidateNames = getIndexedBeanNamesForType(type);
+		if (candidateNames != null) {
+			beanDefinitionNames = new ArrayList<>(candidateNames.size());
+			manualSingletonNames = new ArrayList<>();
+			for (String candidateName : candidateNames) {
+				if (this.beanDefinitionMap.containsKey(candidateName)) {
+					beanDefinitionNames.add(candidateName);
+				}
+				else if (this.manualSingletonNames.contains(candidateName)) {
+					manualSingletonNames.add(candidateName);
+				}
+			}
+		}
+
 		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
+		for (String beanName : beanDefinitionNames) {
 			// Only consider bean as eligible if the bean name
 			// is not defined as alias for some other bean.
 			if (!isAlias(beanName)) {
@@ -418,7 +479,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 
 		// Check manually registered singletons too.
-		for (String beanName : this.manualSingletonNames) {
+		for (String beanName : manualSingletonNames) {
 			try {
 				// In case of FactoryBean, match object created by FactoryBean.
 				if (isFactoryBean(beanName)) {
@@ -457,6 +518,158 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return (factoryBeanName != null && isFactoryBean(factoryBeanName) && !containsSingleton(factoryBeanName));
 	}
 
+	/**
+	 * Determine the names of the beans that may match the given type,
+	 * as far as the bean type index is able to tell.
+	 * @param type the type to match
+	 * @return the candidate bean names in registration order, or {@code null}
+	 * if all beans need to be checked
+	 */
+	@Nullable
+	private List<String> getIndexedBeanNamesForType(ResolvableType type) {
+		Class<?> clazz = type.resolve();
+		if (clazz == null || !BeanTypeIndex.isIndexable(clazz)) {
+			return null;
+		}
+		BeanTypeIndex index = obtainBeanTypeIndex();
+		return (index != null ? index.getBeanNames(clazz) : null);
+	}
+
+	/**
+	 * Obtain the bean type index, building it on demand.
+	 * <p>The index is only available in case of frozen configuration, since bean
+	 * definitions may still be modified and their types may not be determinable yet
+	 * before. It is not available while being built either, e.g. for lookups
+	 * triggered by a {@code SmartInstantiationAwareBeanPostProcessor}.
+	 * @return the index, or {@code null} if not available
+	 * @see #freezeConfiguration()
+	 */
+	@Nullable
+	private BeanTypeIndex obtainBeanTypeIndex() {
+		if (!isConfigurationFrozen() || getTempClassLoader() != null) {
+			return null;
+		}
+		BeanTypeIndex index = this.beanTypeIndex;
+		int beanPostProcessorCount = getBeanPostProcessorCount();
+		if (index != null && index.getBeanPostProcessorCount() == beanPostProcessorCount) {
+			return index;
+		}
+		if (!this.beanTypeIndexBuilding.compareAndSet(false, true)) {
+			return null;
+		}
+		try {
+			index = new BeanTypeIndex(beanPostProcessorCount);
+			for (String beanName : this.beanDefinitionNames) {
+				index.putBean(beanName, determineIndexedTypes(beanName));
+			}
+			for (String beanName : this.manualSingletonNames) {
+				index.putBean(beanName, determineIndexedTypes(beanName));
+			}
+			this.beanTypeIndex = index;
+			// Catch up with singletons that have been created while building the index.
+			for (String beanName : getSingletonNames()) {
+				Object singletonObject = getSingleton(beanName, false);
+				if (singletonObject != null) {
+					addSingletonType(index, beanName, singletonObject);
+				}
+			}
+			return index;
+		}
+		finally {
+			this.beanTypeIndexBuilding.set(false);
+		}
+	}
+
+	/**
+	 * Determine the types that the given bean may match, following the rules of
+	 * {@link #doGetBeanNamesForType} and {@link #isTypeMatch(String, ResolvableType)}.
+	 * <p>Types are only predicted for beans that could be type-checked without eager
+	 * initialization. The type of a FactoryBean's object may change once initialized,
+	 * so FactoryBeans are not resolved upfront at all.
+	 * @param beanName the name of the bean
+	 * @return the types to index the bean with, or {@code null} if the bean needs
+	 * to be checked for any type
+	 */
+	@Nullable
+	private List<Class<?>> determineIndexedTypes(String beanName) {
+		List<Class<?>> types = new ArrayList<>(4);
+		try {
+			Object beanInstance = getSingleton(beanName, false);
+			if (beanInstance instanceof FactoryBean) {
+				return null;
+			}
+			if (beanInstance != null && beanInstance.getClass() != NullBean.class) {
+				types.add(beanInstance.getClass());
+			}
+			if (!containsBeanDefinition(beanName)) {
+				return types;
+			}
+			RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+			if (mbd.isAbstract()) {
+				return types;
+			}
+			if ((!mbd.hasBeanClass() && mbd.isLazyInit() && !isAllowEagerClassLoading()) ||
+					requiresEagerInitForType(mbd.getFactoryBeanName()) || isFactoryBean(beanName, mbd)) {
+				return null;
+			}
+			BeanDefinitionHolder dbd = mbd.getDecoratedDefinition();
+			if (dbd != null) {
+				RootBeanDefinition tbd = getMergedBeanDefinition(dbd.getBeanName(), dbd.getBeanDefinition(), mbd);
+				Class<?> targetClass = predictBeanType(dbd.getBeanName(), tbd);
+				if (targetClass != null && !FactoryBean.class.isAssignableFrom(targetClass)) {
+					types.add(targetClass);
+				}
+			}
+			Class<?> beanType = predictBeanType(beanName, mbd);
+			if (beanType == null) {
+				return null;
+			}
+			types.add(beanType);
+			// Generic type matching may also apply to the declared target or factory method return type.
+			Class<?> targetType = mbd.getTargetType();
+			if (targetType != null) {
+				types.add(targetType);
+			}
+			ResolvableType resolvableType = mbd.targetType;
+			if (resolvableType != null && resolvableType.resolve() != null) {
+				types.add(resolvableType.resolve());
+			}
+			resolvableType = mbd.factoryMethodReturnType;
+			if (resolvableType != null && resolvableType.resolve() != null) {
+				types.add(resolvableType.resolve());
+			}
+			return types;
+		}
+		catch (BeansException ex) {
+			// Leave it up to the actual type check to handle or ignore the exception.
+			return null;
+		}
+	}
+
+	/**
+	 * Update the type index for the given bean after a change to its bean definition,
+	 * and remove any by-type mappings that it may have been part of.
+	 * @param beanName the name of the bean
+	 */
+	private void updateBeanTypeIndex(String beanName) {
+		BeanTypeIndex index = this.beanTypeIndex;
+		if (index == null) {
+			clearByTypeCache();
+			return;
+		}
+		if (index.containsBean(beanName)) {
+			// Remove mappings for the previously known types first...
+			clearByTypeCache(beanName);
+		}
+		if (containsBeanDefinition(beanName)) {
+			index.putBean(beanName, determineIndexedTypes(beanName));
+			clearByTypeCache(beanName);
+		}
+		else {
+			index.removeBean(beanName);
+		}
+	}
+
 	@Override
 	public <T> Map<String, T> getBeansOfType(@Nullable Class<T> type) throws BeansException {
 		return getBeansOfType(type, true, true);
@@ -662,6 +875,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	@Override
 	public void clearMetadataCache() {
 		super.clearMetadataCache();
+		this.beanTypeIndex = null;
 		clearByTypeCache();
 	}
 
@@ -695,39 +909,17 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		//获取我们容器中所有bean定义的名称
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
+		Executor executor = getBootstrapExecutor();
+		if (executor != null) {
+			// Create independent singletons in parallel, then pick up the remaining ones
+			// (e.g. within circular references) in registration order below.
+			new ParallelSingletonInstantiator(this, executor).preInstantiateSingletons(beanNames);
+		}
+
 		//循环我们所有的bean定义名称
 		for (String beanName : beanNames) {
-			//合并我们的bean定义，转换为统一的RootBeanDefinition类型(在)， 方便后续处理
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			/**
-			 * 根据bean定义判断是不是抽象的&& 不是单例的 &&不是懒加载的
-			 */
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				//是不是工厂bean
-				if (isFactoryBean(beanName)) {
-					// 是factoryBean会先生成实际的bean  &beanName 是用来获取实际bean的
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						final FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
-											((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						//调用真正的getBean的流程
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {//非工厂Bean 就是普通的bean
-					getBean(beanName);
-				}
+			if (isPreInstantiationCandidate(beanName)) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -753,6 +945,59 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Determine whether the given bean needs to be eagerly instantiated
+	 * by {@link #preInstantiateSingletons()}.
+	 * @param beanName the name of the bean
+	 * @return whether the bean is a non-abstract, non-lazy singleton
+	 * @since 5.0.15
+	 */
+	protected boolean isPreInstantiationCandidate(String beanName) {
+		//合并我们的bean定义，转换为统一的RootBeanDefinition类型(在)， 方便后续处理
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		/**
+		 * 根据bean定义判断是不是抽象的&& 不是单例的 &&不是懒加载的
+		 */
+		return (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit());
+	}
+
+	/**
+	 * Eagerly instantiate the given singleton, including the object exposed
+	 * by a {@link SmartFactoryBean} that asks for eager initialization.
+	 * @param beanName the name of the bean
+	 * @throws BeansException if the singleton could not be created
+	 * @since 5.0.15
+	 * @see #isPreInstantiationCandidate
+	 */
+	protected void preInstantiateSingleton(String beanName) throws BeansException {
+		//是不是工厂bean
+		if (isFactoryBean(beanName)) {
+			// 是factoryBean会先生成实际的bean  &beanName 是用来获取实际bean的
+			Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof FactoryBean) {
+				final FactoryBean<?> factory = (FactoryBean<?>) bean;
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
+									((SmartFactoryBean<?>) factory)::isEagerInit,
+							getAccessControlContext());
+				}
+				else {
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				//调用真正的getBean的流程
+				if (isEagerInit) {
+					getBean(beanName);
+				}
+			}
+		}
+		else {//非工厂Bean 就是普通的bean
+			getBean(beanName);
+		}
+	}
+
+
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
 	//---------------------------------------------------------------------
@@ -831,11 +1076,21 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				this.manualSingletonNames.remove(beanName);
 			}
 			this.frozenBeanDefinitionNames = null;
+
+			// Re-index a former manual singleton at the end of the registration order.
+			BeanTypeIndex index = this.beanTypeIndex;
+			if (index != null && index.containsBean(beanName)) {
+				clearByTypeCache(beanName);
+				index.removeBean(beanName);
+			}
 		}
 
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			resetBeanDefinition(beanName);
 		}
+		else {
+			updateBeanTypeIndex(beanName);
+		}
 	}
 
 	@Override
@@ -881,6 +1136,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// (e.g. the default StaticMessageSource in a StaticApplicationContext).
 		destroySingleton(beanName);
 
+		// Re-determine the types that the bean may match.
+		updateBeanTypeIndex(beanName);
+
 		// Reset all bean definitions that have the given bean as parent (recursively).
 		for (String bdName : this.beanDefinitionNames) {
 			if (!beanName.equals(bdName)) {
@@ -922,18 +1180,46 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			}
 		}
 
-		clearByTypeCache();
+		BeanTypeIndex index = this.beanTypeIndex;
+		if (index != null && !containsBeanDefinition(beanName)) {
+			index.putBean(beanName, determineIndexedTypes(beanName));
+		}
+		clearByTypeCache(beanName);
+	}
+
+	/**
+	 * Also registers the type of the singleton instance with the bean type index,
+	 * since type matching is based on the actual instance once available.
+	 */
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		BeanTypeIndex index = this.beanTypeIndex;
+		if (index != null) {
+			addSingletonType(index, beanName, singletonObject);
+		}
+	}
+
+	private void addSingletonType(BeanTypeIndex index, String beanName, Object singletonObject) {
+		if (singletonObject.getClass() != NullBean.class) {
+			index.addType(beanName, (singletonObject instanceof FactoryBean ? null : singletonObject.getClass()));
+		}
 	}
 
 	@Override
 	public void destroySingleton(String beanName) {
 		super.destroySingleton(beanName);
 		this.manualSingletonNames.remove(beanName);
-		clearByTypeCache();
+		clearByTypeCache(beanName);
+		BeanTypeIndex index = this.beanTypeIndex;
+		if (index != null && !containsBeanDefinition(beanName)) {
+			index.removeBean(beanName);
+		}
 	}
 
 	@Override
 	public void destroySingletons() {
+		this.beanTypeIndex = null;
 		super.destroySingletons();
 		this.manualSingletonNames.clear();
 		clearByTypeCache();
@@ -947,6 +1233,22 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.singletonBeanNamesByType.clear();
 	}
 
+	/**
+	 * Remove any assumptions about by-type mappings that the given bean
+	 * may be part of, as far as the bean type index is able to tell.
+	 * @param beanName the name of the bean
+	 */
+	private void clearByTypeCache(String beanName) {
+		BeanTypeIndex index = this.beanTypeIndex;
+		if (index != null) {
+			this.allBeanNamesByType.keySet().removeIf(type -> index.mayMatch(beanName, type));
+			this.singletonBeanNamesByType.keySet().removeIf(type -> index.mayMatch(beanName, type));
+		}
+		else {
+			clearByTypeCache();
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Dependency resolution functionality
@@ -18,6 +18,7 @@ package org.springframework.beans.factory.support;
 
 import org.springframework.beans.factory.*;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -86,6 +87,19 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Flag that indicates whether we're currently within destroySingletons */
 	private boolean singletonsCurrentlyInDestruction = false;
 
+	/** Whether singletons may currently be created on several threads concurrently */
+	private volatile boolean singletonCreationConcurrent = false;
+
+	/** Threads currently creating a singleton in concurrent mode: bean name to creating thread */
+	private final Map<String, Thread> singletonCreationThreads = new ConcurrentHashMap<>(16);
+
+	/** Threads waiting for a singleton in concurrent mode: waiting thread to awaited bean name */
+	private final Map<Thread, String> singletonWaitingThreads = new ConcurrentHashMap<>(16);
+
+	/** Suppressed Exceptions per creating thread in concurrent mode */
+	private final ThreadLocal<Set<Exception>> concurrentSuppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of concurrent singleton creation");
+
 	/** 用户缓存记录实现了DisposableBean 接口的实例 */
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
 
@@ -201,6 +215,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		 */
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
 			synchronized (this.singletonObjects) {
+				// In concurrent mode, early references are only visible to the creating thread
+				// itself or to threads which would otherwise deadlock on a circular reference.
+				if (this.singletonCreationConcurrent && !isEarlySingletonReferenceAllowed(beanName)) {
+					return null;
+				}
 				/**
 				 * 尝试去二级缓存中获取对象(二级缓存中的对象是一个早期对象)
 				 * 何为早期对象:就是bean刚刚调用了构造方法，还来不及给bean的属性进行赋值的对象(纯净态)
@@ -246,6 +265,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.singletonCreationConcurrent) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
 		//加锁
 		synchronized (this.singletonObjects) {
 			//尝试从单例缓存池中获取对象
@@ -308,12 +330,242 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for concurrent mode:
+	 * the singleton is created without holding the singleton mutex, with threads
+	 * requesting the same singleton waiting for the creating thread to finish.
+	 * <p>A thread that would deadlock by waiting (since the creating thread waits
+	 * for a singleton that the current thread is creating in turn) receives the
+	 * early singleton reference instead, just like for a circular reference
+	 * within a single thread.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton with
+	 * @return the registered singleton object
+	 * @see #setSingletonCreationConcurrent
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		Thread currentThread = Thread.currentThread();
+		boolean registeredCreation;
+		synchronized (this.singletonObjects) {
+			while (true) {
+				Object singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject != null) {
+					return singletonObject;
+				}
+				if (this.singletonsCurrentlyInDestruction) {
+					throw new BeanCreationNotAllowedException(beanName,
+							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+				}
+				Thread creatingThread = this.singletonCreationThreads.get(beanName);
+				if (creatingThread == null || creatingThread == currentThread) {
+					registeredCreation = (creatingThread == null);
+					break;
+				}
+				boolean circular = isWaitingForCurrentThread(creatingThread);
+				if (circular) {
+					Object earlyReference = getEarlySingletonReference(beanName);
+					if (earlyReference != null) {
+						return earlyReference;
+					}
+					if (!isEarlySingletonReferenceAwaited(creatingThread)) {
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation on another thread: " +
+								"Is there an unresolvable circular reference?");
+					}
+				}
+				this.singletonWaitingThreads.put(currentThread, beanName);
+				try {
+					if (circular) {
+						// Let another thread in the cycle pick up the early reference it is waiting for
+						this.singletonObjects.notifyAll();
+					}
+					this.singletonObjects.wait();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new BeanCreationException(beanName,
+							"Interrupted while waiting for singleton creation on another thread", ex);
+				}
+				finally {
+					this.singletonWaitingThreads.remove(currentThread);
+				}
+			}
+			if (registeredCreation) {
+				this.singletonCreationThreads.put(beanName, currentThread);
+			}
+		}
+
+		try {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+			}
+			beforeSingletonCreation(beanName);
+			Object singletonObject;
+			boolean newSingleton = false;
+			Set<Exception> suppressedExceptions = this.concurrentSuppressedExceptions.get();
+			boolean recordSuppressedExceptions = (suppressedExceptions == null);
+			if (recordSuppressedExceptions) {
+				suppressedExceptions = new LinkedHashSet<>();
+				this.concurrentSuppressedExceptions.set(suppressedExceptions);
+			}
+			try {
+				singletonObject = singletonFactory.getObject();
+				newSingleton = true;
+			}
+			catch (IllegalStateException ex) {
+				// Has the singleton object implicitly appeared in the meantime ->
+				// if yes, proceed with it since the exception indicates that state.
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject == null) {
+					throw ex;
+				}
+			}
+			catch (BeanCreationException ex) {
+				if (recordSuppressedExceptions) {
+					for (Exception suppressedException : suppressedExceptions) {
+						ex.addRelatedCause(suppressedException);
+					}
+				}
+				throw ex;
+			}
+			finally {
+				if (recordSuppressedExceptions) {
+					this.concurrentSuppressedExceptions.remove();
+				}
+				afterSingletonCreation(beanName);
+			}
+			if (newSingleton) {
+				addSingleton(beanName, singletonObject);
+			}
+			return singletonObject;
+		}
+		finally {
+			if (registeredCreation) {
+				synchronized (this.singletonObjects) {
+					this.singletonCreationThreads.remove(beanName);
+					this.singletonObjects.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the current thread may see the early reference for the
+	 * given singleton in concurrent mode. Needs to be called with the singleton
+	 * mutex held.
+	 * @param beanName the name of the singleton currently in creation
+	 */
+	private boolean isEarlySingletonReferenceAllowed(String beanName) {
+		Thread creatingThread = this.singletonCreationThreads.get(beanName);
+		return (creatingThread == null || creatingThread == Thread.currentThread() ||
+				isWaitingForCurrentThread(creatingThread));
+	}
+
+	/**
+	 * Determine whether the given thread is (transitively) waiting for a singleton
+	 * that the current thread is creating, i.e. whether waiting for the given thread
+	 * would deadlock. Needs to be called with the singleton mutex held.
+	 * @param thread the thread currently creating a requested singleton
+	 */
+	private boolean isWaitingForCurrentThread(Thread thread) {
+		Thread currentThread = Thread.currentThread();
+		Set<Thread> visited = new HashSet<>();
+		Thread candidate = thread;
+		while (candidate != null && visited.add(candidate)) {
+			if (candidate == currentThread) {
+				return true;
+			}
+			String awaitedBeanName = this.singletonWaitingThreads.get(candidate);
+			candidate = (awaitedBeanName != null ? this.singletonCreationThreads.get(awaitedBeanName) : null);
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether any thread in the waiting cycle starting at the given
+	 * thread awaits a singleton with an early reference available, which allows
+	 * that thread to resolve the circular reference. Needs to be called with the
+	 * singleton mutex held.
+	 * @param thread the thread currently creating a requested singleton
+	 * @see #isWaitingForCurrentThread
+	 */
+	private boolean isEarlySingletonReferenceAwaited(Thread thread) {
+		Thread currentThread = Thread.currentThread();
+		Set<Thread> visited = new HashSet<>();
+		Thread candidate = thread;
+		while (candidate != null && candidate != currentThread && visited.add(candidate)) {
+			String awaitedBeanName = this.singletonWaitingThreads.get(candidate);
+			if (awaitedBeanName == null) {
+				return false;
+			}
+			if (this.earlySingletonObjects.containsKey(awaitedBeanName) ||
+					this.singletonFactories.containsKey(awaitedBeanName)) {
+				return true;
+			}
+			candidate = this.singletonCreationThreads.get(awaitedBeanName);
+		}
+		return false;
+	}
+
+	/**
+	 * Obtain the early reference for the given singleton, if exposed already.
+	 * Needs to be called with the singleton mutex held.
+	 * @param beanName the name of the singleton currently in creation
+	 * @return the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		Object singletonObject = this.earlySingletonObjects.get(beanName);
+		if (singletonObject == null) {
+			ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory != null) {
+				singletonObject = singletonFactory.getObject();
+				this.earlySingletonObjects.put(beanName, singletonObject);
+				this.singletonFactories.remove(beanName);
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Specify whether singletons may be created on several threads concurrently,
+	 * e.g. during parallel pre-instantiation of singletons.
+	 * <p>In concurrent mode, a singleton is created without holding the
+	 * {@link #getSingletonMutex() singleton mutex}. Other threads requesting the
+	 * same singleton wait for its creation to complete, and early references for
+	 * circular reference resolution are only exposed within the creating thread
+	 * or to threads that would deadlock otherwise.
+	 * <p>Default is "false", creating all singletons under the singleton mutex.
+	 * @since 5.0.15
+	 * @see DefaultListableBeanFactory#setBootstrapExecutor
+	 */
+	protected void setSingletonCreationConcurrent(boolean singletonCreationConcurrent) {
+		synchronized (this.singletonObjects) {
+			this.singletonCreationConcurrent = singletonCreationConcurrent;
+		}
+	}
+
+	/**
+	 * Return whether singletons may currently be created on several threads concurrently.
+	 * @since 5.0.15
+	 */
+	protected boolean isSingletonCreationConcurrent() {
+		return this.singletonCreationConcurrent;
+	}
+
 	/**
 	 * Register an Exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
 	 * @param ex the Exception to register
 	 */
 	protected void onSuppressedException(Exception ex) {
+		Set<Exception> concurrentSuppressedExceptions = this.concurrentSuppressedExceptions.get();
+		if (concurrentSuppressedExceptions != null) {
+			// Singleton currently in creation on this thread in concurrent mode
+			concurrentSuppressedExceptions.add(ex);
+			return;
+		}
 		synchronized (this.singletonObjects) {
 			if (this.suppressedExceptions != null) {
 				this.suppressedExceptions.add(ex);
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanReference;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.lang.Nullable;
+
+/**
+ * Helper for pre-instantiating the singletons of a {@link DefaultListableBeanFactory}
+ * in parallel, driven by the dependency graph of the registered bean definitions.
+ *
+ * <p>The graph consists of the bean references declared in property values and
+ * constructor arguments (including inner bean definitions and managed collections),
+ * factory bean references and "depends-on" declarations. A singleton is submitted
+ * to the executor once all of its declared dependencies among the pre-instantiated
+ * singletons have been created, so independent subgraphs are created concurrently.
+ *
+ * <p>Singleton creation happens in the bean factory's
+ * {@link DefaultSingletonBeanRegistry#setSingletonCreationConcurrent concurrent mode}
+ * for the duration of this phase. Singletons that cannot be scheduled (since they
+ * are part of a declared circular reference) or that failed due to a circular
+ * reference across threads are left to the subsequent sequential pass of
+ * {@link DefaultListableBeanFactory#preInstantiateSingletons()}.
+ *
+ * @since 5.0.15
+ * @see DefaultListableBeanFactory#setBootstrapExecutor
+ */
+class ParallelSingletonInstantiator {
+
+	private static final Log logger = LogFactory.getLog(ParallelSingletonInstantiator.class);
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final Executor executor;
+
+	private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+	private int running;
+
+	@Nullable
+	private Throwable failure;
+
+
+	/**
+	 * Create a new ParallelSingletonInstantiator for the given bean factory.
+	 * @param beanFactory the bean factory to pre-instantiate singletons for
+	 * @param executor the executor to create independent singletons on
+	 */
+	public ParallelSingletonInstantiator(DefaultListableBeanFactory beanFactory, Executor executor) {
+		this.beanFactory = beanFactory;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Pre-instantiate all eligible singletons among the given bean names in parallel,
+	 * blocking until all of them have been processed.
+	 * @param beanNames the bean definition names, in registration order
+	 * @throws BeansException if a singleton could not be created
+	 */
+	public void preInstantiateSingletons(List<String> beanNames) throws BeansException {
+		for (String beanName : beanNames) {
+			if (this.beanFactory.isPreInstantiationCandidate(beanName)) {
+				this.nodes.put(beanName, new Node(beanName));
+			}
+		}
+		List<Node> ready = new ArrayList<>();
+		for (Node node : this.nodes.values()) {
+			for (String dependency : determineDependencies(node.beanName)) {
+				Node dependencyNode = this.nodes.get(dependency);
+				if (dependencyNode != null && dependencyNode != node) {
+					dependencyNode.dependents.add(node);
+					node.pendingDependencies++;
+				}
+			}
+		}
+		for (Node node : this.nodes.values()) {
+			if (node.pendingDependencies == 0) {
+				ready.add(node);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + this.nodes.size() + " singletons in parallel, starting with " +
+					ready.size() + " independent ones");
+		}
+
+		this.beanFactory.setSingletonCreationConcurrent(true);
+		try {
+			synchronized (this) {
+				this.running += ready.size();
+			}
+			submit(ready);
+			synchronized (this) {
+				while (this.running > 0) {
+					try {
+						wait();
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new FatalBeanException("Interrupted while pre-instantiating singletons in parallel", ex);
+					}
+				}
+			}
+		}
+		finally {
+			this.beanFactory.setSingletonCreationConcurrent(false);
+		}
+
+		Throwable failure = this.failure;
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw new FatalBeanException("Failed to pre-instantiate singletons in parallel", failure);
+		}
+	}
+
+	private void submit(List<Node> ready) {
+		for (Node node : ready) {
+			try {
+				this.executor.execute(() -> instantiate(node));
+			}
+			catch (RejectedExecutionException ex) {
+				// Saturated executor: create the singleton on the submitting thread instead
+				instantiate(node);
+			}
+		}
+	}
+
+	private void instantiate(Node node) {
+		try {
+			this.beanFactory.preInstantiateSingleton(node.beanName);
+		}
+		catch (Throwable ex) {
+			if (ex instanceof BeanCreationException &&
+					((BeanCreationException) ex).contains(BeanCurrentlyInCreationException.class)) {
+				// Circular reference across threads: retried in the sequential pass
+				if (logger.isDebugEnabled()) {
+					logger.debug("Deferring pre-instantiation of singleton '" + node.beanName +
+							"' to sequential pass: " + ex.getMessage());
+				}
+			}
+			else {
+				synchronized (this) {
+					if (this.failure == null) {
+						this.failure = ex;
+					}
+				}
+			}
+		}
+		finally {
+			List<Node> ready = new ArrayList<>();
+			synchronized (this) {
+				if (this.failure == null) {
+					for (Node dependent : node.dependents) {
+						if (--dependent.pendingDependencies == 0) {
+							ready.add(dependent);
+						}
+					}
+				}
+				this.running += ready.size() - 1;
+				notifyAll();
+			}
+			submit(ready);
+		}
+	}
+
+	/**
+	 * Determine the names of the beans that the given bean declares dependencies on.
+	 * @param beanName the name of the bean
+	 * @return the (canonical) names of the declared dependencies
+	 */
+	private Set<String> determineDependencies(String beanName) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		collectDependencies(this.beanFactory.getMergedLocalBeanDefinition(beanName), dependencies);
+		Set<String> result = new LinkedHashSet<>(dependencies.size());
+		for (String dependency : dependencies) {
+			result.add(this.beanFactory.transformedBeanName(dependency));
+		}
+		return result;
+	}
+
+	private void collectDependencies(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof RuntimeBeanReference && ((RuntimeBeanReference) value).isToParent()) {
+			return;
+		}
+		if (value instanceof BeanReference) {
+			dependencies.add(((BeanReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDependencies(((BeanDefinitionHolder) value).getBeanDefinition(), dependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			BeanDefinition bd = (BeanDefinition) value;
+			String[] dependsOn = bd.getDependsOn();
+			if (dependsOn != null) {
+				for (String dependency : dependsOn) {
+					dependencies.add(dependency);
+				}
+			}
+			if (bd.getFactoryBeanName() != null) {
+				dependencies.add(bd.getFactoryBeanName());
+			}
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				collectDependencies(pv.getValue(), dependencies);
+			}
+			ConstructorArgumentValues cav = bd.getConstructorArgumentValues();
+			for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getIndexedArgumentValues().values()) {
+				collectDependencies(valueHolder.getValue(), dependencies);
+			}
+			for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getGenericArgumentValues()) {
+				collectDependencies(valueHolder.getValue(), dependencies);
+			}
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectDependencies(element, dependencies);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectDependencies(entry.getKey(), dependencies);
+				collectDependencies(entry.getValue(), dependencies);
+			}
+		}
+	}
+
+
+	/**
+	 * A singleton in the dependency graph, guarded by the enclosing instance's monitor.
+	 */
+	private static class Node {
+
+		final String beanName;
+
+		final List<Node> dependents = new ArrayList<>();
+
+		int pendingDependencies;
+
+		Node(String beanName) {
+			this.beanName = beanName;
+		}
+	}
+
+}
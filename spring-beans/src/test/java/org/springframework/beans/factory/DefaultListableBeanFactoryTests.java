@@ -758,6 +758,52 @@ public class DefaultListableBeanFactoryTests {
 		assertEquals(DerivedTestBean.class, factory.getType("child"));
 	}
 
+	@Test
+	public void testGetBeanNamesForTypeWithFrozenConfigurationAndLateRegistrations() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(DummyFactory.class));
+		lbf.freezeConfiguration();
+
+		assertArrayEquals(new String[] {"tb1", "factory"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"nested"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.registerSingleton("manual", new DerivedTestBean());
+		assertArrayEquals(new String[] {"tb1", "factory", "manual"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"manual"}, lbf.getBeanNamesForType(Serializable.class));
+		assertArrayEquals(new String[] {"nested"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+		assertArrayEquals(new String[] {"tb1", "factory", "tb2", "manual"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"tb1", "factory", "tb2", "manual"},
+				lbf.getBeanNamesForType(ResolvableType.forClass(ITestBean.class)));
+
+		lbf.destroySingleton("manual");
+		lbf.removeBeanDefinition("tb1");
+		assertArrayEquals(new String[] {"factory", "tb2"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertEquals(0, lbf.getBeanNamesForType(Serializable.class).length);
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(NestedTestBean.class));
+		assertArrayEquals(new String[] {"factory"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"nested", "tb2"}, lbf.getBeanNamesForType(NestedTestBean.class));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithFrozenConfigurationMatchesCreatedInstance() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("factoryBean", new RootBeanDefinition(BeanWithFactoryMethod.class));
+		RootBeanDefinition rbd = new RootBeanDefinition();
+		rbd.setFactoryBeanName("factoryBean");
+		rbd.setFactoryMethodName("createGeneric");
+		lbf.registerBeanDefinition("bean", rbd);
+		lbf.freezeConfiguration();
+
+		assertEquals(0, lbf.getBeanNamesForType(TestBean.class).length);
+		lbf.getBean("bean");
+		assertArrayEquals(new String[] {"bean"}, lbf.getBeanNamesForType(ITestBean.class));
+	}
+
 	@Test
 	public void testNameAlreadyBound() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
@@ -2409,6 +2455,67 @@ public class DefaultListableBeanFactoryTests {
 		assertTrue("Prototype creation took too long: " + sw.getTotalTimeMillis(), sw.getTotalTimeMillis() < 4000);
 	}
 
+	@Test
+	public void testPrototypeCreationWithAutowiredConstructorArgumentsIsFastEnough() {
+		Assume.group(TestGroup.PERFORMANCE);
+		Assume.notLogging(factoryLog);
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition rbd = new RootBeanDefinition(ConstructorDependency.class);
+		rbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		rbd.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+		lbf.registerBeanDefinition("test", rbd);
+		for (int i = 0; i < 100; i++) {
+			lbf.registerBeanDefinition("other" + i, new RootBeanDefinition(NestedTestBean.class));
+		}
+		lbf.registerBeanDefinition("spouse", new RootBeanDefinition(TestBean.class));
+		TestBean spouse = (TestBean) lbf.getBean("spouse");
+		StopWatch sw = new StopWatch();
+		sw.start("prototype");
+		for (int i = 0; i < 100000; i++) {
+			ConstructorDependency bean = (ConstructorDependency) lbf.getBean("test");
+			assertSame(spouse, bean.spouse);
+		}
+		sw.stop();
+		// System.out.println(sw.getTotalTimeMillis());
+		assertTrue("Prototype creation took too long: " + sw.getTotalTimeMillis(), sw.getTotalTimeMillis() < 4000);
+	}
+
+	@Test
+	public void testPrototypeWithAutowiredConstructorArgumentAfterDependencyReplacement() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition rbd = new RootBeanDefinition(ConstructorDependency.class);
+		rbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		rbd.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+		lbf.registerBeanDefinition("test", rbd);
+		lbf.registerBeanDefinition("spouse", new RootBeanDefinition(TestBean.class));
+		TestBean spouse = (TestBean) lbf.getBean("spouse");
+		assertSame(spouse, ((ConstructorDependency) lbf.getBean("test")).spouse);
+		assertSame(spouse, ((ConstructorDependency) lbf.getBean("test")).spouse);
+
+		lbf.removeBeanDefinition("spouse");
+		lbf.registerBeanDefinition("otherSpouse", new RootBeanDefinition(TestBean.class));
+		TestBean otherSpouse = (TestBean) lbf.getBean("otherSpouse");
+		assertSame(otherSpouse, ((ConstructorDependency) lbf.getBean("test")).spouse);
+	}
+
+	@Test
+	public void testBeanPostProcessorRemovedThroughList() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("test", bd);
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			@Override
+			public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+				return new NestedTestBean("shortcut");
+			}
+		});
+		assertTrue(lbf.getBean("test") instanceof NestedTestBean);
+
+		lbf.getBeanPostProcessors().removeIf(bp -> bp instanceof InstantiationAwareBeanPostProcessorAdapter);
+		assertTrue(lbf.getBean("test") instanceof TestBean);
+	}
+
 	@Test
 	public void testBeanPostProcessorWithWrappedObjectAndDisposableBean() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.annotation;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link AnnotatedMembersIndex}.
+ *
+ * @since 5.0.15
+ */
+public class AnnotatedMembersIndexTests {
+
+	private AnnotatedMembersIndex index;
+
+
+	@Before
+	public void loadIndex() {
+		SpringProperties.setFlag(AnnotatedMembersIndex.USE_INDEX_PROPERTY_NAME);
+		this.index = AnnotatedMembersIndex.loadIndex(new IndexClassLoader(getClass()));
+	}
+
+	@After
+	public void resetFlag() {
+		SpringProperties.setProperty(AnnotatedMembersIndex.USE_INDEX_PROPERTY_NAME, null);
+	}
+
+
+	@Test
+	public void indexedFields() {
+		assertTrue(this.index.isIndexed(IndexedBean.class));
+		assertEquals(Collections.singletonList("service"), getFieldNames(IndexedBean.class));
+	}
+
+	@Test
+	public void indexedMethods() {
+		List<String> methodNames = getMethodNames(IndexedBean.class);
+		assertEquals(3, methodNames.size());
+		assertTrue(methodNames.contains("setName"));
+		assertTrue(methodNames.contains("setValues"));
+		// Interface default methods are not part of the index entry of the class
+		assertTrue(methodNames.contains("setDefault"));
+	}
+
+	@Test
+	public void indexedBeanWithoutAnnotatedMembers() {
+		assertTrue(this.index.isIndexed(EmptyBean.class));
+		assertTrue(getFieldNames(EmptyBean.class).isEmpty());
+		assertTrue(getMethodNames(EmptyBean.class).isEmpty());
+	}
+
+	@Test
+	public void staleEntryFallsBackToReflection() {
+		assertTrue(this.index.isIndexed(StaleBean.class));
+		List<String> fieldNames = getFieldNames(StaleBean.class);
+		assertEquals(2, fieldNames.size());
+		assertTrue(fieldNames.contains("service"));
+		assertTrue(fieldNames.contains("plain"));
+	}
+
+	@Test
+	public void addedFieldFallsBackToReflection() {
+		assertTrue(this.index.isIndexed(UnindexedFieldBean.class));
+		List<String> fieldNames = getFieldNames(UnindexedFieldBean.class);
+		assertEquals(3, fieldNames.size());
+		assertTrue(fieldNames.contains("service"));
+		assertTrue(fieldNames.contains("addedService"));
+	}
+
+	@Test
+	public void addedMethodFallsBackToReflection() {
+		assertTrue(this.index.isIndexed(UnindexedMethodBean.class));
+		List<String> methodNames = getMethodNames(UnindexedMethodBean.class);
+		assertEquals(2, methodNames.size());
+		assertTrue(methodNames.contains("setName"));
+		assertTrue(methodNames.contains("init"));
+	}
+
+	@Test
+	public void entryWithoutFingerprintFallsBackToReflection() {
+		assertTrue(this.index.isIndexed(NoFingerprintBean.class));
+		assertEquals(2, getFieldNames(NoFingerprintBean.class).size());
+	}
+
+	@Test
+	public void entryMatchingMemberCountsIsTrusted() {
+		// An annotation added to an existing member is only seen once the index is regenerated
+		assertEquals(Collections.singletonList("service"), getFieldNames(TrustedBean.class));
+	}
+
+	@Test
+	public void nonIndexedClassUsesReflection() {
+		assertFalse(this.index.isIndexed(NonIndexedBean.class));
+		assertEquals(Collections.singletonList("plain"), getFieldNames(NonIndexedBean.class));
+		assertEquals(Collections.singletonList("setPlain"), getMethodNames(NonIndexedBean.class));
+	}
+
+	@Test
+	public void indexNotUsedByDefault() {
+		SpringProperties.setProperty(AnnotatedMembersIndex.USE_INDEX_PROPERTY_NAME, null);
+		AnnotatedMembersIndex defaultIndex = AnnotatedMembersIndex.loadIndex(new IndexClassLoader(getClass()));
+		assertFalse(defaultIndex.isIndexed(IndexedBean.class));
+	}
+
+	@Test
+	public void noIndexAvailable() {
+		AnnotatedMembersIndex emptyIndex = AnnotatedMembersIndex.loadIndex(new IndexClassLoader(null));
+		assertFalse(emptyIndex.isIndexed(IndexedBean.class));
+		assertSame(emptyIndex, AnnotatedMembersIndex.loadIndex(new IndexClassLoader(null)));
+	}
+
+
+	private List<String> getFieldNames(Class<?> clazz) {
+		List<String> names = new ArrayList<>();
+		this.index.doWithLocalFields(clazz, field -> names.add(field.getName()));
+		return names;
+	}
+
+	private List<String> getMethodNames(Class<?> clazz) {
+		List<String> names = new ArrayList<>();
+		this.index.doWithLocalMethods(clazz, method -> names.add(method.getName()));
+		return names;
+	}
+
+
+	private static class IndexClassLoader extends ClassLoader {
+
+		private final Class<?> testClass;
+
+		IndexClassLoader(Class<?> testClass) {
+			super(AnnotatedMembersIndexTests.class.getClassLoader());
+			this.testClass = testClass;
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			if (AnnotatedMembersIndex.ANNOTATED_MEMBERS_RESOURCE_LOCATION.equals(name)) {
+				if (this.testClass == null) {
+					return Collections.emptyEnumeration();
+				}
+				URL url = new ClassPathResource("spring.annotated-members", this.testClass).getURL();
+				return Collections.enumeration(Collections.singletonList(url));
+			}
+			return super.getResources(name);
+		}
+	}
+
+
+	public interface DefaultSetter {
+
+		default void setDefault(String value) {
+		}
+	}
+
+
+	public static class IndexedBean implements DefaultSetter {
+
+		@Autowired
+		private Object service;
+
+		private String plain;
+
+		@Autowired
+		public void setName(String name) {
+		}
+
+		@Autowired
+		public void setValues(String[] values, int count) {
+		}
+
+		public void setValues(String[] values) {
+		}
+
+		public void setPlain(String plain) {
+			this.plain = plain;
+		}
+	}
+
+
+	public static class StaleBean {
+
+		@Autowired
+		private Object service;
+
+		private String plain;
+	}
+
+
+	public static class UnindexedFieldBean {
+
+		@Autowired
+		private Object service;
+
+		@Autowired
+		private Object addedService;
+
+		private String plain;
+	}
+
+
+	public static class UnindexedMethodBean {
+
+		@Autowired
+		public void setName(String name) {
+		}
+
+		@PostConstruct
+		public void init() {
+		}
+	}
+
+
+	public static class TrustedBean {
+
+		@Autowired
+		private Object service;
+
+		@Autowired
+		private Object other;
+	}
+
+
+	public static class NoFingerprintBean {
+
+		@Autowired
+		private Object service;
+
+		private String plain;
+	}
+
+
+	public static class EmptyBean {
+
+		private String plain;
+
+		public void setPlain(String plain) {
+			this.plain = plain;
+		}
+	}
+
+
+	public static class NonIndexedBean {
+
+		private String plain;
+
+		public void setPlain(String plain) {
+			this.plain = plain;
+		}
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for parallel singleton pre-instantiation through
+ * {@link DefaultListableBeanFactory#setBootstrapExecutor}.
+ *
+ * @since 5.0.15
+ */
+public class ParallelSingletonInstantiatorTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private ExecutorService executor;
+
+
+	@Before
+	public void setup() {
+		this.executor = Executors.newFixedThreadPool(4);
+		this.beanFactory.setBootstrapExecutor(this.executor);
+	}
+
+	@After
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test(timeout = 10000)
+	public void independentSingletonsCreatedConcurrently() {
+		CyclicBarrier barrier = new CyclicBarrier(3);
+		for (int i = 0; i < 3; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(BarrierBean.class);
+			bd.getConstructorArgumentValues().addGenericArgumentValue(barrier);
+			this.beanFactory.registerBeanDefinition("bean" + i, bd);
+		}
+		this.beanFactory.preInstantiateSingletons();
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(this.beanFactory.getBean("bean" + i, BarrierBean.class).initialized);
+		}
+		assertFalse(this.beanFactory.isSingletonCreationConcurrent());
+	}
+
+	@Test(timeout = 10000)
+	public void declaredDependenciesCreatedFirst() {
+		List<String> creationOrder = new CopyOnWriteArrayList<>();
+		RootBeanDefinition dependent = new RootBeanDefinition(RecordingBean.class);
+		dependent.getConstructorArgumentValues().addGenericArgumentValue(creationOrder);
+		dependent.getPropertyValues().add("other", new RuntimeBeanReference("dependency"));
+		this.beanFactory.registerBeanDefinition("dependent", dependent);
+		RootBeanDefinition dependency = new RootBeanDefinition(RecordingBean.class);
+		dependency.getConstructorArgumentValues().addGenericArgumentValue(creationOrder);
+		this.beanFactory.registerBeanDefinition("dependency", dependency);
+		RootBeanDefinition dependsOn = new RootBeanDefinition(RecordingBean.class);
+		dependsOn.getConstructorArgumentValues().addGenericArgumentValue(creationOrder);
+		dependsOn.setDependsOn("dependent");
+		this.beanFactory.registerBeanDefinition("dependsOn", dependsOn);
+		this.beanFactory.preInstantiateSingletons();
+
+		assertEquals(3, creationOrder.size());
+		assertTrue(creationOrder.indexOf("dependency") < creationOrder.indexOf("dependent"));
+		assertTrue(creationOrder.indexOf("dependent") < creationOrder.indexOf("dependsOn"));
+		RecordingBean bean = this.beanFactory.getBean("dependent", RecordingBean.class);
+		assertSame(this.beanFactory.getBean("dependency"), bean.getOther());
+	}
+
+	@Test(timeout = 10000)
+	public void undeclaredDependencyOnSingletonInCreationReceivesInitializedInstance() {
+		for (int i = 0; i < 8; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(AutowiringBean.class);
+			bd.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE);
+			this.beanFactory.registerBeanDefinition("autowiring" + i, bd);
+		}
+		this.beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(SlowBean.class));
+		this.beanFactory.preInstantiateSingletons();
+
+		SlowBean slow = this.beanFactory.getBean(SlowBean.class);
+		for (int i = 0; i < 8; i++) {
+			AutowiringBean bean = this.beanFactory.getBean("autowiring" + i, AutowiringBean.class);
+			assertSame(slow, bean.getSlow());
+			assertTrue(bean.initializedOnInjection);
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void declaredCircularReference() {
+		RootBeanDefinition bd1 = new RootBeanDefinition(RecordingBean.class);
+		bd1.getConstructorArgumentValues().addGenericArgumentValue(new CopyOnWriteArrayList<>());
+		bd1.getPropertyValues().add("other", new RuntimeBeanReference("bean2"));
+		this.beanFactory.registerBeanDefinition("bean1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(RecordingBean.class);
+		bd2.getConstructorArgumentValues().addGenericArgumentValue(new CopyOnWriteArrayList<>());
+		bd2.getPropertyValues().add("other", new RuntimeBeanReference("bean1"));
+		this.beanFactory.registerBeanDefinition("bean2", bd2);
+		this.beanFactory.preInstantiateSingletons();
+
+		RecordingBean bean1 = this.beanFactory.getBean("bean1", RecordingBean.class);
+		RecordingBean bean2 = this.beanFactory.getBean("bean2", RecordingBean.class);
+		assertSame(bean2, bean1.getOther());
+		assertSame(bean1, bean2.getOther());
+	}
+
+	@Test(timeout = 10000)
+	public void undeclaredCircularReferenceAcrossThreads() {
+		for (int i = 0; i < 20; i++) {
+			DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+			beanFactory.setBootstrapExecutor(this.executor);
+			RootBeanDefinition bd1 = new RootBeanDefinition(CircularBean1.class);
+			bd1.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE);
+			beanFactory.registerBeanDefinition("bean1", bd1);
+			RootBeanDefinition bd2 = new RootBeanDefinition(CircularBean2.class);
+			bd2.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE);
+			beanFactory.registerBeanDefinition("bean2", bd2);
+			beanFactory.preInstantiateSingletons();
+
+			CircularBean1 bean1 = beanFactory.getBean(CircularBean1.class);
+			CircularBean2 bean2 = beanFactory.getBean(CircularBean2.class);
+			assertSame(bean2, bean1.getBean2());
+			assertSame(bean1, bean2.getBean1());
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void creationFailurePropagated() {
+		this.beanFactory.registerBeanDefinition("ok", new RootBeanDefinition(SlowBean.class));
+		this.beanFactory.registerBeanDefinition("failing", new RootBeanDefinition(FailingBean.class));
+		try {
+			this.beanFactory.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("failing", ex.getBeanName());
+		}
+		assertFalse(this.beanFactory.isSingletonCreationConcurrent());
+	}
+
+	@Test(timeout = 10000)
+	public void suppressedExceptionsRecordedAsRelatedCauses() {
+		this.beanFactory.registerBeanDefinition("ok", new RootBeanDefinition(SlowBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(UnsatisfiableBean.class);
+		bd.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+		this.beanFactory.registerBeanDefinition("unsatisfiable", bd);
+		try {
+			this.beanFactory.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("unsatisfiable", ex.getBeanName());
+			assertNotNull(ex.getRelatedCauses());
+			assertEquals(1, ex.getRelatedCauses().length);
+			assertTrue(ex.getRelatedCauses()[0] instanceof UnsatisfiedDependencyException);
+		}
+		assertFalse(this.beanFactory.isSingletonCreationConcurrent());
+	}
+
+
+	public static class BarrierBean implements InitializingBean {
+
+		private final CyclicBarrier barrier;
+
+		boolean initialized;
+
+		public BarrierBean(CyclicBarrier barrier) {
+			this.barrier = barrier;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			// Only passes if all beans are being initialized at the same time
+			this.barrier.await(5, TimeUnit.SECONDS);
+			this.initialized = true;
+		}
+	}
+
+
+	public static class RecordingBean implements BeanNameAware, InitializingBean {
+
+		private final List<String> creationOrder;
+
+		private RecordingBean other;
+
+		private String beanName;
+
+		public RecordingBean(List<String> creationOrder) {
+			this.creationOrder = creationOrder;
+		}
+
+		public void setOther(RecordingBean other) {
+			this.other = other;
+		}
+
+		public RecordingBean getOther() {
+			return this.other;
+		}
+
+		@Override
+		public void setBeanName(String beanName) {
+			this.beanName = beanName;
+		}
+
+		@Override
+		public void afterPropertiesSet() {
+			this.creationOrder.add(String.valueOf(this.beanName));
+		}
+	}
+
+
+	public static class SlowBean implements InitializingBean {
+
+		volatile boolean initialized;
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			Thread.sleep(100);
+			this.initialized = true;
+		}
+	}
+
+
+	public static class AutowiringBean {
+
+		private SlowBean slow;
+
+		boolean initializedOnInjection;
+
+		public void setSlow(SlowBean slow) {
+			this.slow = slow;
+			this.initializedOnInjection = slow.initialized;
+		}
+
+		public SlowBean getSlow() {
+			return this.slow;
+		}
+	}
+
+
+	public static class CircularBean1 {
+
+		private CircularBean2 bean2;
+
+		public void setBean2(CircularBean2 bean2) {
+			this.bean2 = bean2;
+		}
+
+		public CircularBean2 getBean2() {
+			return this.bean2;
+		}
+	}
+
+
+	public static class CircularBean2 {
+
+		private CircularBean1 bean1;
+
+		public void setBean1(CircularBean1 bean1) {
+			this.bean1 = bean1;
+		}
+
+		public CircularBean1 getBean1() {
+			return this.bean1;
+		}
+	}
+
+
+	public static class FailingBean implements InitializingBean {
+
+		@Override
+		public void afterPropertiesSet() {
+			throw new IllegalStateException("Expected failure");
+		}
+	}
+
+
+	public static class UnsatisfiableBean {
+
+		public UnsatisfiableBean(Runnable runnable) {
+		}
+
+		public UnsatisfiableBean(Thread thread) {
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for method invocation through {@link JdkDynamicAopProxy} and
+ * {@link CglibAopProxy}, with a configurable number of pass-through interceptors.
+ *
+ * @since 5.0.15
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AopProxyBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"jdk", "cglib"})
+		public String proxyType;
+
+		@Param({"1", "4"})
+		public int interceptors;
+
+		@Param({"false", "true"})
+		public boolean frozen;
+
+		public Service proxy;
+
+		@Setup
+		public void setup() {
+			ProxyFactory proxyFactory = new ProxyFactory(new DefaultService());
+			if ("jdk".equals(this.proxyType)) {
+				proxyFactory.addInterface(Service.class);
+			}
+			else {
+				proxyFactory.setProxyTargetClass(true);
+			}
+			for (int i = 0; i < this.interceptors; i++) {
+				proxyFactory.addAdvice(new PassThroughInterceptor());
+			}
+			proxyFactory.setFrozen(this.frozen);
+			this.proxy = (Service) proxyFactory.getProxy();
+		}
+	}
+
+
+	@Benchmark
+	public void invokeWithArgument(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.proxy.echo("spring"));
+	}
+
+	@Benchmark
+	public void invokeWithoutArgument(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.proxy.count());
+	}
+
+
+	public interface Service {
+
+		String echo(String value);
+
+		int count();
+	}
+
+
+	public static class DefaultService implements Service {
+
+		private int count;
+
+		@Override
+		public String echo(String value) {
+			return value;
+		}
+
+		@Override
+		public int count() {
+			return this.count++;
+		}
+	}
+
+
+	private static class PassThroughInterceptor implements MethodInterceptor {
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			return invocation.proceed();
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.context.support.SimpleThreadScope;
+
+/**
+ * Benchmarks for {@link DefaultListableBeanFactory#getBean} against singleton,
+ * prototype and custom-scoped bean definitions, each with a bean reference and
+ * a plain property to populate.
+ *
+ * @since 5.0.15
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"singleton", "prototype", "thread"})
+		public String scope;
+
+		/**
+		 * Number of unrelated bean definitions registered next to the benchmarked ones.
+		 */
+		@Param({"0", "1000"})
+		public int additionalBeans;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			this.beanFactory.registerScope("thread", new SimpleThreadScope());
+
+			RootBeanDefinition dependency = new RootBeanDefinition(Dependency.class);
+			this.beanFactory.registerBeanDefinition("dependency", dependency);
+
+			RootBeanDefinition target = new RootBeanDefinition(TargetBean.class);
+			target.setScope(this.scope);
+			target.getPropertyValues().add("name", "target");
+			target.getPropertyValues().add("dependency", new RuntimeBeanReference("dependency"));
+			this.beanFactory.registerBeanDefinition("target", target);
+
+			for (int i = 0; i < this.additionalBeans; i++) {
+				RootBeanDefinition other = new RootBeanDefinition(Dependency.class);
+				other.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+				this.beanFactory.registerBeanDefinition("other" + i, other);
+			}
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	@Benchmark
+	public void getBeanByName(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean("target"));
+	}
+
+	@Benchmark
+	public void getBeanByType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBean(TargetBean.class));
+	}
+
+
+	public static class Dependency {
+	}
+
+
+	public static class TargetBean {
+
+		private String name;
+
+		private Dependency dependency;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Dependency getDependency() {
+			return this.dependency;
+		}
+
+		public void setDependency(Dependency dependency) {
+			this.dependency = dependency;
+		}
+	}
+
+}
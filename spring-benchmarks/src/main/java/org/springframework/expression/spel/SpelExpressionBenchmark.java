@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks for {@link org.springframework.expression.spel.standard.SpelExpression#getValue}
+ * in interpreted and compiled mode.
+ *
+ * @since 5.0.15
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelExpressionBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		@Param({"name", "address.city", "age > 18 and name.length() > 3", "'Hello ' + name"})
+		public String expressionString;
+
+		public Expression expression;
+
+		public EvaluationContext context;
+
+		public Person root;
+
+		@Setup
+		public void setup() {
+			SpelParserConfiguration configuration =
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader());
+			this.expression = new SpelExpressionParser(configuration).parseExpression(this.expressionString);
+			this.root = new Person("Juergen", 42, new Address("Linz"));
+			this.context = new StandardEvaluationContext(this.root);
+			// Warm up the expression so that IMMEDIATE mode compiles it before measurement
+			this.expression.getValue(this.context);
+		}
+	}
+
+
+	@Benchmark
+	public void getValueWithContext(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.expression.getValue(state.context));
+	}
+
+	@Benchmark
+	public void getValueWithRootObject(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.expression.getValue(state.root));
+	}
+
+
+	public static class Person {
+
+		private final String name;
+
+		private final int age;
+
+		private final Address address;
+
+		public Person(String name, int age, Address address) {
+			this.name = name;
+			this.age = age;
+			this.address = address;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+	}
+
+
+	public static class Address {
+
+		private final String city;
+
+		public Address(String city) {
+			this.city = city;
+		}
+
+		public String getCity() {
+			return this.city;
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Benchmarks for {@link DispatcherServlet} request dispatching to annotated
+ * controller methods through
+ * {@link org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter}.
+ *
+ * @since 5.0.15
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DispatcherServletBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public DispatcherServlet servlet;
+
+		@Setup
+		public void setup() throws Exception {
+			MockServletContext servletContext = new MockServletContext();
+			AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+			context.setServletContext(servletContext);
+			context.register(WebConfig.class);
+			context.refresh();
+			this.servlet = new DispatcherServlet(context);
+			this.servlet.init(new MockServletConfig(servletContext));
+		}
+
+		@TearDown
+		public void tearDown() {
+			this.servlet.destroy();
+		}
+	}
+
+
+	@Benchmark
+	public void plainRequest(BenchmarkState state, Blackhole bh) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		state.servlet.service(request, response);
+		bh.consume(response.getContentAsString());
+	}
+
+	@Benchmark
+	public void requestWithPathVariableAndParameter(BenchmarkState state, Blackhole bh) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/people/42");
+		request.addParameter("format", "short");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		state.servlet.service(request, response);
+		bh.consume(response.getContentAsString());
+	}
+
+
+	@Configuration
+	@EnableWebMvc
+	static class WebConfig {
+
+		@Bean
+		public BenchmarkController benchmarkController() {
+			return new BenchmarkController();
+		}
+	}
+
+
+	@RestController
+	static class BenchmarkController {
+
+		@GetMapping("/hello")
+		public String hello() {
+			return "Hello World";
+		}
+
+		@GetMapping("/people/{id}")
+		public String person(@PathVariable("id") int id, @RequestParam("format") String format) {
+			return format + ":" + id;
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Provide the fields and methods of a class that carry annotations, i.e. the
+ * only members that may be injection points or lifecycle callbacks for the bean
+ * post-processors at runtime. Annotations with {@code SOURCE} retention are
+ * not taken into account since they are not visible at runtime.
+ *
+ * <p>A field is described by its name; a method by its name and its erased
+ * parameter types, e.g. {@code setService(com.example.Service;int)}. The
+ * members are followed by the total number of fields and methods declared by
+ * the type, e.g. {@code #2:5}, which allows the runtime to detect entries that
+ * are out of date without looking at the annotations of every member.
+ *
+ * @since 5.0.15
+ */
+class AnnotatedMembersProvider {
+
+	private final ProcessingEnvironment env;
+
+
+	AnnotatedMembersProvider(ProcessingEnvironment env) {
+		this.env = env;
+	}
+
+
+	/**
+	 * Return the binary name of the given type, as returned by {@code Class#getName()}.
+	 */
+	public String getType(TypeElement element) {
+		return this.env.getElementUtils().getBinaryName(element).toString();
+	}
+
+	/**
+	 * Return the descriptors of the annotated members declared by the given type,
+	 * followed by the number of fields and methods it declares.
+	 * @param element the type to handle
+	 * @return the member descriptors and the member counts
+	 */
+	public Set<String> getAnnotatedMembers(TypeElement element) {
+		Set<String> members = new LinkedHashSet<>();
+		int fieldCount = 0;
+		int methodCount = 0;
+		for (Element member : element.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.FIELD) {
+				fieldCount++;
+				if (hasRetainedAnnotation(member)) {
+					members.add(member.getSimpleName().toString());
+				}
+			}
+			else if (member.getKind() == ElementKind.METHOD) {
+				methodCount++;
+				if (hasRetainedAnnotation(member)) {
+					members.add(getMethodDescriptor((ExecutableElement) member));
+				}
+			}
+		}
+		members.add("#" + fieldCount + ":" + methodCount);
+		return members;
+	}
+
+	private boolean hasRetainedAnnotation(Element member) {
+		for (AnnotationMirror annotation : member.getAnnotationMirrors()) {
+			Retention retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+			if (retention == null || retention.value() != RetentionPolicy.SOURCE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String getMethodDescriptor(ExecutableElement method) {
+		StringJoiner parameterTypes = new StringJoiner(";", method.getSimpleName() + "(", ")");
+		List<? extends VariableElement> parameters = method.getParameters();
+		for (VariableElement parameter : parameters) {
+			parameterTypes.add(getErasedTypeName(parameter.asType()));
+		}
+		return parameterTypes.toString();
+	}
+
+	private String getErasedTypeName(TypeMirror type) {
+		TypeMirror erasure = this.env.getTypeUtils().erasure(type);
+		if (erasure.getKind() == TypeKind.ARRAY) {
+			return getErasedTypeName(((ArrayType) erasure).getComponentType()) + "[]";
+		}
+		if (erasure.getKind() == TypeKind.DECLARED) {
+			return getType((TypeElement) ((DeclaredType) erasure).asElement());
+		}
+		return erasure.toString();
+	}
+
+}
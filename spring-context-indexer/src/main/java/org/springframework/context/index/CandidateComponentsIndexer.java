@@ -39,6 +39,10 @@ import javax.lang.model.element.TypeElement;
  * Annotation {@link Processor} that writes {@link CandidateComponentsMetadata}
  * file for spring components.
  *
+ * <p>Also writes the annotated fields and methods of every class to
+ * {@code META-INF/spring.annotated-members}, allowing the injection metadata
+ * of the bean post-processors to be built without reflective introspection.
+ *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
  * @since 5.0
@@ -52,6 +56,12 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private MetadataCollector metadataCollector;
 
+	private MetadataStore annotatedMembersStore;
+
+	private MetadataCollector annotatedMembersCollector;
+
+	private AnnotatedMembersProvider annotatedMembersProvider;
+
 	private TypeHelper typeHelper;
 
 	private List<StereotypesProvider> stereotypesProviders;
@@ -78,11 +88,15 @@ public class CandidateComponentsIndexer implements Processor {
 		this.typeHelper = new TypeHelper(env);
 		this.metadataStore = new MetadataStore(env);
 		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
+		this.annotatedMembersStore = new MetadataStore(env, MetadataStore.ANNOTATED_MEMBERS_PATH);
+		this.annotatedMembersCollector = new MetadataCollector(env, this.annotatedMembersStore.readMetadata());
+		this.annotatedMembersProvider = new AnnotatedMembersProvider(env);
 	}
 
 	@Override
 	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
 		this.metadataCollector.processing(roundEnv);
+		this.annotatedMembersCollector.processing(roundEnv);
 		roundEnv.getRootElements().forEach(this::processElement);
 		if (roundEnv.processingOver()) {
 			writeMetaData();
@@ -109,6 +123,7 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private void processElement(Element element) {
 		addMetadataFor(element);
+		addAnnotatedMembersFor(element);
 		staticTypesIn(element.getEnclosedElements()).forEach(this::processElement);
 	}
 
@@ -120,11 +135,28 @@ public class CandidateComponentsIndexer implements Processor {
 		}
 	}
 
+	/**
+	 * Record the annotated members of every class, including the ones without
+	 * any, allowing bean post-processors to skip reflective introspection.
+	 */
+	private void addAnnotatedMembersFor(Element element) {
+		if (element.getKind() == ElementKind.CLASS) {
+			TypeElement type = (TypeElement) element;
+			this.annotatedMembersCollector.add(new ItemMetadata(this.annotatedMembersProvider.getType(type),
+					this.annotatedMembersProvider.getAnnotatedMembers(type)));
+		}
+	}
+
 	private void writeMetaData() {
-		CandidateComponentsMetadata metadata = this.metadataCollector.getMetadata();
+		writeMetaData(this.metadataCollector, this.metadataStore);
+		writeMetaData(this.annotatedMembersCollector, this.annotatedMembersStore);
+	}
+
+	private void writeMetaData(MetadataCollector collector, MetadataStore store) {
+		CandidateComponentsMetadata metadata = collector.getMetadata();
 		if (!metadata.getItems().isEmpty()) {
 			try {
-				this.metadataStore.writeMetadata(metadata);
+				store.writeMetadata(metadata);
 			}
 			catch (IOException ex) {
 				throw new IllegalStateException("Failed to write metadata", ex);
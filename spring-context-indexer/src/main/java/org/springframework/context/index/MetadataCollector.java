@@ -72,6 +72,8 @@ class MetadataCollector {
 
 	public void add(ItemMetadata metadata) {
 		this.metadataItems.add(metadata);
+		// Nested types are not root elements but supersede previous metadata as well
+		this.processedSourceTypes.add(metadata.getType());
 	}
 
 	public CandidateComponentsMetadata getMetadata() {
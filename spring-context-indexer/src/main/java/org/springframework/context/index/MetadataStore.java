@@ -33,11 +33,20 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String ANNOTATED_MEMBERS_PATH = "META-INF/spring.annotated-members";
+
 	private final ProcessingEnvironment environment;
 
+	private final String path;
+
 
 	public MetadataStore(ProcessingEnvironment environment) {
+		this(environment, METADATA_PATH);
+	}
+
+	public MetadataStore(ProcessingEnvironment environment, String path) {
 		this.environment = environment;
+		this.path = path;
 	}
 
 
@@ -70,11 +79,11 @@ class MetadataStore {
 	}
 
 	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", this.path);
 	}
 
 	private FileObject createMetadataResource() throws IOException {
-		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", this.path);
 	}
 
 }
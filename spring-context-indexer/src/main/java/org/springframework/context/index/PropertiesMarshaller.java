@@ -19,8 +19,7 @@ package org.springframework.context.index;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Properties;
 import java.util.Set;
 
@@ -43,7 +42,12 @@ abstract class PropertiesMarshaller {
 		Properties props = new Properties();
 		props.load(in);
 		props.forEach((type, value) -> {
-			Set<String> candidates = new HashSet<>(Arrays.asList(((String) value).split(",")));
+			Set<String> candidates = new LinkedHashSet<>();
+			for (String candidate : ((String) value).split(",")) {
+				if (!candidate.isEmpty()) {
+					candidates.add(candidate);
+				}
+			}
 			result.add(new ItemMetadata((String) type, candidates));
 		});
 		return result;
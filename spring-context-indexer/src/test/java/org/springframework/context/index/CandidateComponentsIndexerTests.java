@@ -47,6 +47,7 @@ import org.springframework.context.index.sample.cdi.SampleNamed;
 import org.springframework.context.index.sample.jpa.SampleConverter;
 import org.springframework.context.index.sample.jpa.SampleEmbeddable;
 import org.springframework.context.index.sample.SampleEmbedded;
+import org.springframework.context.index.sample.SampleInjectionPoints;
 import org.springframework.context.index.sample.jpa.SampleEntity;
 import org.springframework.context.index.sample.jpa.SampleMappedSuperClass;
 import org.springframework.context.index.sample.type.Repo;
@@ -222,6 +223,32 @@ public class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems(), hasSize(0));
 	}
 
+	@Test
+	public void annotatedMembersAreDetected() throws IOException {
+		CandidateComponentsMetadata metadata = compileAnnotatedMembers(SampleInjectionPoints.class);
+		assertThat(metadata, hasComponent(SampleInjectionPoints.class.getName(),
+				"service", "name",
+				"setRepository(org.springframework.context.index.sample.SampleRepository;int)",
+				"setItems(java.util.List;java.lang.CharSequence[];" +
+						"org.springframework.context.index.sample.SampleEmbedded$Another$AnotherPublicCandidate)",
+				"init()", "#3:5"));
+		assertThat(metadata, hasComponent(SampleInjectionPoints.NoAnnotatedMembers.class.getName(), "#1:1"));
+		assertThat(metadata.getItems(), hasSize(2));
+	}
+
+	@Test
+	public void annotatedMembersOfNonCandidate() throws IOException {
+		CandidateComponentsMetadata metadata = compileAnnotatedMembers(SampleNone.class);
+		assertThat(metadata, hasComponent(SampleNone.class.getName(), "#0:0"));
+		assertThat(metadata.getItems(), hasSize(1));
+	}
+
+	@Test
+	public void annotatedMembersOfInterfaceAreIgnored() throws IOException {
+		CandidateComponentsMetadata metadata = compileAnnotatedMembers(Repo.class);
+		assertThat(metadata.getItems(), hasSize(0));
+	}
+
 	private void testComponent(Class<?>... classes) throws IOException {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -248,10 +275,19 @@ public class CandidateComponentsIndexerTests {
 		return readGeneratedMetadata(this.compiler.getOutputLocation());
 	}
 
+	private CandidateComponentsMetadata compileAnnotatedMembers(Class<?>... types) throws IOException {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(types).call(processor);
+		return readGeneratedMetadata(this.compiler.getOutputLocation(), MetadataStore.ANNOTATED_MEMBERS_PATH);
+	}
+
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
+		return readGeneratedMetadata(outputLocation, MetadataStore.METADATA_PATH);
+	}
+
+	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation, String path) {
 		try {
-			File metadataFile = new File(outputLocation,
-					MetadataStore.METADATA_PATH);
+			File metadataFile = new File(outputLocation, path);
 			if (metadataFile.isFile()) {
 				return PropertiesMarshaller.read(new FileInputStream(metadataFile));
 			}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample;
+
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Test candidate with annotated fields and methods.
+ *
+ * @since 5.0.15
+ */
+@Component
+public class SampleInjectionPoints<T extends CharSequence> {
+
+	@Autowired
+	private SampleService service;
+
+	@Value("${sample.name}")
+	private String name;
+
+	private String plain;
+
+	@Inject
+	public void setRepository(SampleRepository repository, int order) {
+	}
+
+	@Autowired
+	public void setItems(List<T> items, T[] array, SampleEmbedded.Another.AnotherPublicCandidate nested) {
+	}
+
+	@PostConstruct
+	public void init() {
+	}
+
+	public void setPlain(String plain) {
+		this.plain = plain;
+	}
+
+	@Override
+	public String toString() {
+		return this.plain;
+	}
+
+
+	public static class NoAnnotatedMembers {
+
+		private String plain;
+
+		public void setPlain(String plain) {
+			this.plain = plain;
+		}
+	}
+
+}
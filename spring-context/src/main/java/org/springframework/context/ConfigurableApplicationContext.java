@@ -66,6 +66,24 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	 */
 	String LOAD_TIME_WEAVER_BEAN_NAME = "loadTimeWeaver";
 
+	/**
+	 * Name of the bootstrap Executor bean in the factory. If such a bean is
+	 * supplied, the context will pre-instantiate independent singletons in
+	 * parallel on that executor.
+	 * @since 5.0.15
+	 * @see java.util.concurrent.Executor
+	 * @see org.springframework.beans.factory.support.DefaultListableBeanFactory#setBootstrapExecutor
+	 */
+	String BOOTSTRAP_EXECUTOR_BEAN_NAME = "bootstrapExecutor";
+
+	/**
+	 * Name of the {@link org.springframework.core.metrics.ApplicationStartup}
+	 * bean in the factory, as registered by the context during refresh.
+	 * @since 5.0.15
+	 * @see org.springframework.context.support.AbstractApplicationContext#setApplicationStartup
+	 */
+	String APPLICATION_STARTUP_BEAN_NAME = "applicationStartup";
+
 	/**
 	 * Name of the {@link Environment} bean in the factory.
 	 * @since 3.1
@@ -18,11 +18,17 @@ package org.springframework.context.annotation;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +42,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -58,8 +65,10 @@ import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Indexed;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -89,6 +98,20 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that instructs Spring to scan the classpath in parallel
+	 * on the {@link ForkJoinPool#commonPool() common pool} by default, for
+	 * component providers and scanners that have not been given a specific
+	 * scanning pool: e.g. for {@code @ComponentScan} and
+	 * {@code <context:component-scan>}.
+	 * <p>The default is "false", scanning the classpath on the calling thread.
+	 * @since 5.0.15
+	 * @see #setScanningPool
+	 */
+	public static final String PARALLEL_SCAN_PROPERTY_NAME = "spring.classpath.parallelScan";
+
+	private static final PathMatcher pathMatcher = new AntPathMatcher();
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +136,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	@Nullable
+	private ForkJoinPool scanningPool =
+			(SpringProperties.getFlag(PARALLEL_SCAN_PROPERTY_NAME) ? ForkJoinPool.commonPool() : null);
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -301,6 +328,36 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set a {@link ForkJoinPool} for scanning the classpath in parallel.
+	 * <p>If specified, the classpath roots of a base package (typically one per
+	 * jar file) get searched for matching resources concurrently, and the class
+	 * files found get parsed concurrently as well. Type filters and conditions
+	 * are still applied on the calling thread, in the order of the resources
+	 * as resolved by a sequential scan, so the resulting candidate components
+	 * are the same as without parallel scanning.
+	 * <p>Default is none, scanning the classpath on the calling thread, unless
+	 * the {@value #PARALLEL_SCAN_PROPERTY_NAME} property has been set to "true",
+	 * in which case the {@link ForkJoinPool#commonPool() common pool} is used.
+	 * Note that the configured {@link MetadataReaderFactory} needs to be
+	 * thread-safe for parallel scanning, as is the case for the default
+	 * {@link CachingMetadataReaderFactory}.
+	 * @since 5.0.15
+	 * @see ForkJoinPool#commonPool()
+	 */
+	public void setScanningPool(@Nullable ForkJoinPool scanningPool) {
+		this.scanningPool = scanningPool;
+	}
+
+	/**
+	 * Return the {@link ForkJoinPool} for scanning the classpath in parallel, if any.
+	 * @since 5.0.15
+	 */
+	@Nullable
+	public ForkJoinPool getScanningPool() {
+		return this.scanningPool;
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -416,21 +473,30 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		Set<BeanDefinition> candidates = new LinkedHashSet<>();
 		try {
 			//把我们的包路径转为资源路径 cn/tulingxueyuan/MainConfig
+			String basePackagePath = resolveBasePackage(basePackage);
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
-					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
+					basePackagePath + '/' + this.resourcePattern;
 			//扫描指定包路径下面的所有.class文件
-			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			ForkJoinPool scanningPool = this.scanningPool;
+			Resource[] resources = (scanningPool != null ?
+					getResourcesInParallel(basePackagePath, packageSearchPath, scanningPool) :
+					getResourcePatternResolver().getResources(packageSearchPath));
+			Object[] metadataReaders = (scanningPool != null ?
+					getMetadataReadersInParallel(resources, scanningPool) : null);
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
 			//需要我们的resources集合
-			for (Resource resource : resources) {
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
 				//判断当的是不是可读的
-				if (resource.isReadable()) {
+				if (metadataReaders != null ? metadataReaders[i] != null : resource.isReadable()) {
 					try {
-						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						MetadataReader metadataReader = (metadataReaders != null ?
+								obtainMetadataReader(metadataReaders[i]) :
+								getMetadataReaderFactory().getMetadataReader(resource));
 						//是不是候选的组件
 						if (isCandidateComponent(metadataReader)) {
 							//包装成为一个ScannedGenericBeanDefinition
@@ -476,6 +542,95 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Resolve the resources for the given package search path, searching each
+	 * classpath root of the base package in parallel.
+	 * <p>Falls back to a regular resolution of the package search path if the
+	 * base package is a pattern itself or if a root is not URL-based, ensuring
+	 * the same resources in the same order as a sequential scan in any case.
+	 */
+	private Resource[] getResourcesInParallel(String basePackagePath, String packageSearchPath,
+			ForkJoinPool scanningPool) throws IOException {
+
+		ResourcePatternResolver resolver = getResourcePatternResolver();
+		if (pathMatcher.isPattern(basePackagePath)) {
+			return resolver.getResources(packageSearchPath);
+		}
+		Resource[] rootDirResources = resolver.getResources(
+				ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + basePackagePath + '/');
+		List<Callable<Resource[]>> tasks = new ArrayList<>(rootDirResources.length);
+		for (Resource rootDirResource : rootDirResources) {
+			String rootDirUrl;
+			try {
+				rootDirUrl = rootDirResource.getURL().toString();
+			}
+			catch (IOException ex) {
+				return resolver.getResources(packageSearchPath);
+			}
+			tasks.add(() -> resolver.getResources(rootDirUrl + this.resourcePattern));
+		}
+		Set<Resource> result = new LinkedHashSet<>(16);
+		for (Future<Resource[]> future : scanningPool.invokeAll(tasks)) {
+			Collections.addAll(result, getScanningResult(future));
+		}
+		return result.toArray(new Resource[0]);
+	}
+
+	/**
+	 * Read the metadata of the given resources in parallel.
+	 * @return an array with a {@link MetadataReader} for each readable resource,
+	 * the {@code Throwable} raised when reading it, or {@code null} if not readable
+	 */
+	private Object[] getMetadataReadersInParallel(Resource[] resources, ForkJoinPool scanningPool) {
+		MetadataReaderFactory metadataReaderFactory = getMetadataReaderFactory();
+		List<Callable<Object>> tasks = new ArrayList<>(resources.length);
+		for (Resource resource : resources) {
+			tasks.add(() -> (resource.isReadable() ? metadataReaderFactory.getMetadataReader(resource) : null));
+		}
+		List<Future<Object>> futures = scanningPool.invokeAll(tasks);
+		Object[] metadataReaders = new Object[futures.size()];
+		for (int i = 0; i < metadataReaders.length; i++) {
+			try {
+				metadataReaders[i] = getScanningResult(futures.get(i));
+			}
+			catch (Throwable ex) {
+				metadataReaders[i] = ex;
+			}
+		}
+		return metadataReaders;
+	}
+
+	@Nullable
+	private static <T> T getScanningResult(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Unexpected exception during classpath scanning", cause);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanDefinitionStoreException("Interrupted during classpath scanning", ex);
+		}
+	}
+
+	private static MetadataReader obtainMetadataReader(Object metadataReader) throws Throwable {
+		if (metadataReader instanceof Throwable) {
+			throw (Throwable) metadataReader;
+		}
+		return (MetadataReader) metadataReader;
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -135,6 +135,8 @@ class ConfigurationClassParser {
 
 	private final List<String> propertySourceNames = new ArrayList<>();
 
+	private final List<AnnotationAttributes> processedPropertySources = new ArrayList<>();
+
 	private final ImportStack importStack = new ImportStack();
 
 	@Nullable
@@ -455,7 +457,8 @@ class ConfigurationClassParser {
 	 * @param propertySource metadata for the <code>@PropertySource</code> annotation found
 	 * @throws IOException if loading a property source failed
 	 */
-	private void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+	void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+		this.processedPropertySources.add(propertySource);
 		String name = propertySource.getString("name");
 		if (!StringUtils.hasLength(name)) {
 			name = null;
@@ -707,6 +710,24 @@ class ConfigurationClassParser {
 		return this.importStack;
 	}
 
+	/**
+	 * Return the names of the classes which imported other classes,
+	 * keyed by the name of the imported class.
+	 * @since 5.0.15
+	 */
+	Map<String, String> getImportingClassNames() {
+		return this.importStack.getImportingClassNames();
+	}
+
+	/**
+	 * Return the attributes of all {@code @PropertySource} annotations
+	 * processed so far, in the order of processing.
+	 * @since 5.0.15
+	 */
+	List<AnnotationAttributes> getProcessedPropertySources() {
+		return this.processedPropertySources;
+	}
+
 
 	/**
 	 * Factory method to obtain a {@link SourceClass} from a {@link ConfigurationClass}.
@@ -786,6 +807,17 @@ class ConfigurationClassParser {
 			return CollectionUtils.lastElement(this.imports.get(importedClass));
 		}
 
+		public Map<String, String> getImportingClassNames() {
+			Map<String, String> importingClassNames = new LinkedHashMap<>(this.imports.size());
+			this.imports.forEach((importedClass, importingClasses) -> {
+				AnnotationMetadata importingClass = CollectionUtils.lastElement(importingClasses);
+				if (importingClass != null) {
+					importingClassNames.put(importedClass, importingClass.getClassName());
+				}
+			});
+			return importingClassNames;
+		}
+
 		@Override
 		public void removeImportingClass(String importingClass) {
 			for (List<AnnotationMetadata> list : this.imports.values()) {
@@ -17,8 +17,11 @@
 package org.springframework.context.annotation;
 
 import java.beans.PropertyDescriptor;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -45,6 +48,7 @@ import org.springframework.beans.factory.parsing.PassThroughSourceExtractor;
 import org.springframework.beans.factory.parsing.ProblemReporter;
 import org.springframework.beans.factory.parsing.SourceExtractor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
@@ -53,16 +57,22 @@ import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 import static org.springframework.context.annotation.AnnotationConfigUtils.CONFIGURATION_BEAN_NAME_GENERATOR;
 
@@ -87,6 +97,15 @@ import static org.springframework.context.annotation.AnnotationConfigUtils.CONFI
 public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPostProcessor,
 		PriorityOrdered, ResourceLoaderAware, BeanClassLoaderAware, EnvironmentAware {
 
+	/**
+	 * System property that specifies a directory for snapshots of the bean definitions
+	 * derived from configuration classes, to be reused on subsequent starts.
+	 * Not set by default, i.e. configuration classes being processed on every start.
+	 * @since 5.0.15
+	 * @see #setSnapshotDirectory
+	 */
+	public static final String SNAPSHOT_DIRECTORY_PROPERTY_NAME = "spring.context.snapshot.dir";
+
 	private static final String IMPORT_REGISTRY_BEAN_NAME =
 			ConfigurationClassPostProcessor.class.getName() + ".importRegistry";
 
@@ -109,6 +128,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 	private boolean setMetadataReaderFactoryCalled = false;
 
+	@Nullable
+	private File snapshotDirectory;
+
 	private final Set<Integer> registriesPostProcessed = new HashSet<>();
 
 	private final Set<Integer> factoriesPostProcessed = new HashSet<>();
@@ -190,6 +212,26 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		this.importBeanNameGenerator = beanNameGenerator;
 	}
 
+	/**
+	 * Specify a directory for storing a snapshot of the bean definitions derived from
+	 * configuration classes. The snapshot is reused on subsequent starts as long as the
+	 * previously registered bean definitions, the class path and the active and default
+	 * profiles remain the same, skipping configuration class parsing, component scanning
+	 * and condition evaluation entirely.
+	 * <p>Note that conditions and {@link ImportBeanDefinitionRegistrar registrars}
+	 * depending on further state, e.g. on system properties, are not reevaluated
+	 * when a snapshot is reused. Restored scanned, imported and {@link Bean @Bean}
+	 * method definitions remain {@code AnnotatedBeanDefinitions}, with their
+	 * metadata read from the class files on first access, but are not instances
+	 * of the original definition classes.
+	 * <p>Default is the directory specified through the
+	 * {@value #SNAPSHOT_DIRECTORY_PROPERTY_NAME} property, if any.
+	 * @since 5.0.15
+	 */
+	public void setSnapshotDirectory(@Nullable File snapshotDirectory) {
+		this.snapshotDirectory = snapshotDirectory;
+	}
+
 	@Override
 	public void setEnvironment(Environment environment) {
 		Assert.notNull(environment, "Environment must not be null");
@@ -229,8 +271,14 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 					"postProcessBeanFactory already called on this post-processor against " + registry);
 		}
 		this.registriesPostProcessed.add(registryId);
-		//真正的解析我们的bean定义
-		processConfigBeanDefinitions(registry);
+		File snapshotDirectory = getSnapshotDirectory();
+		if (snapshotDirectory != null) {
+			processConfigBeanDefinitions(registry, snapshotDirectory);
+		}
+		else {
+			//真正的解析我们的bean定义
+			processConfigBeanDefinitions(registry);
+		}
 	}
 
 	/**
@@ -260,6 +308,65 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * {@link Configuration} classes.
 	 */
 	public void processConfigBeanDefinitions(BeanDefinitionRegistry registry) {
+		doProcessConfigBeanDefinitions(registry);
+	}
+
+	/**
+	 * Restore the bean definitions derived from configuration classes from a snapshot
+	 * in the given directory if up-to-date, or process the configuration classes and
+	 * write a snapshot of the resulting registry otherwise.
+	 */
+	private void processConfigBeanDefinitions(BeanDefinitionRegistry registry, File snapshotDirectory) {
+		if (this.environment == null) {
+			this.environment = new StandardEnvironment();
+		}
+		ConfigurationClassSnapshot snapshot = new ConfigurationClassSnapshot(snapshotDirectory, registry,
+				this.environment, this.beanClassLoader, this.metadataReaderFactory);
+
+		StartupStep restore = getApplicationStartup(registry).start("spring.context.config-classes.restore");
+		ConfigurationClassSnapshot.Content content;
+		try {
+			content = snapshot.restore(registry);
+			restore.tag("restored", String.valueOf(content != null));
+		}
+		finally {
+			restore.end();
+		}
+
+		if (content != null) {
+			if (!content.getPropertySources().isEmpty() && this.environment instanceof ConfigurableEnvironment) {
+				ConfigurationClassParser parser = new ConfigurationClassParser(
+						this.metadataReaderFactory, this.problemReporter, this.environment,
+						this.resourceLoader, this.componentScanBeanNameGenerator, registry);
+				for (AnnotationAttributes propertySource : content.getPropertySources()) {
+					try {
+						parser.processPropertySource(propertySource);
+					}
+					catch (IOException ex) {
+						throw new BeanDefinitionStoreException(
+								"Failed to process @PropertySource from configuration class snapshot", ex);
+					}
+				}
+			}
+			registerImportRegistry(registry, content.getImportRegistry(this.metadataReaderFactory));
+			return;
+		}
+
+		ConfigurationClassParser parser = doProcessConfigBeanDefinitions(registry);
+		if (parser != null) {
+			snapshot.write(registry, parser.getImportingClassNames(), parser.getProcessedPropertySources());
+		}
+		else {
+			snapshot.write(registry, Collections.emptyMap(), Collections.emptyList());
+		}
+	}
+
+	/**
+	 * Process the configuration classes in the given registry.
+	 * @return the parser used, or {@code null} if no configuration classes were found
+	 */
+	@Nullable
+	private ConfigurationClassParser doProcessConfigBeanDefinitions(BeanDefinitionRegistry registry) {
 		List<BeanDefinitionHolder> configCandidates = new ArrayList<>();
 		//获取IOC 容器中目前所有bean定义的名称
 		String[] candidateNames = registry.getBeanDefinitionNames();
@@ -284,7 +391,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 		// 若没有找到配置类 直接返回
 		if (configCandidates.isEmpty()) {
-			return;
+			return null;
 		}
 
 		//对我们的配置类进行Order排序
@@ -324,9 +431,17 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		//用于保存我们的已经解析的配置类，长度默认为解析出来默认的配置类的集合长度
 		Set<ConfigurationClass> alreadyParsed = new HashSet<>(configCandidates.size());
 		//do while 会进行第一次解析
+		ApplicationStartup applicationStartup = getApplicationStartup(registry);
 		do {
-			//真正的解析我们的配置类
-			parser.parse(candidates);
+			StartupStep processConfig = applicationStartup.start("spring.context.config-classes.parse")
+					.tag("classCount", String.valueOf(candidates.size()));
+			try {
+				//真正的解析我们的配置类
+				parser.parse(candidates);
+			}
+			finally {
+				processConfig.end();
+			}
 			parser.validate();
 
 			//解析出来的配置类
@@ -340,7 +455,14 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 						this.importBeanNameGenerator, parser.getImportRegistry());
 			}
 			// 此处才把@Bean的方法和@Import 注册到BeanDefinitionMap中
-			this.reader.loadBeanDefinitions(configClasses);
+			StartupStep loadBeanDefinitions = applicationStartup.start("spring.context.config-classes.load")
+					.tag("classCount", String.valueOf(configClasses.size()));
+			try {
+				this.reader.loadBeanDefinitions(configClasses);
+			}
+			finally {
+				loadBeanDefinitions.end();
+			}
 			//加入到已经解析的集合中
 			alreadyParsed.addAll(configClasses);
 
@@ -375,15 +497,32 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		while (!candidates.isEmpty());
 
 		// Register the ImportRegistry as a bean in order to support ImportAware @Configuration classes
-		if (sbr != null && !sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
-			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, parser.getImportRegistry());
-		}
+		registerImportRegistry(registry, parser.getImportRegistry());
 
 		if (this.metadataReaderFactory instanceof CachingMetadataReaderFactory) {
 			// Clear cache in externally provided MetadataReaderFactory; this is a no-op
 			// for a shared cache since it'll be cleared by the ApplicationContext.
 			((CachingMetadataReaderFactory) this.metadataReaderFactory).clearCache();
 		}
+		return parser;
+	}
+
+	private void registerImportRegistry(BeanDefinitionRegistry registry, ImportRegistry importRegistry) {
+		if (registry instanceof SingletonBeanRegistry) {
+			SingletonBeanRegistry sbr = (SingletonBeanRegistry) registry;
+			if (!sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+				sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, importRegistry);
+			}
+		}
+	}
+
+	@Nullable
+	private File getSnapshotDirectory() {
+		if (this.snapshotDirectory != null) {
+			return this.snapshotDirectory;
+		}
+		String directory = SpringProperties.getProperty(SNAPSHOT_DIRECTORY_PROPERTY_NAME);
+		return (StringUtils.hasText(directory) ? new File(directory.trim()) : null);
 	}
 
 	/**
@@ -421,6 +560,17 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			return;
 		}
 
+		StartupStep enhanceConfigClasses = getApplicationStartup(beanFactory).start("spring.context.config-classes.enhance")
+				.tag("classCount", String.valueOf(configBeanDefs.size()));
+		try {
+			doEnhanceConfigurationClasses(configBeanDefs);
+		}
+		finally {
+			enhanceConfigClasses.end();
+		}
+	}
+
+	private void doEnhanceConfigurationClasses(Map<String, AbstractBeanDefinition> configBeanDefs) {
 		ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer();
 		for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
 			AbstractBeanDefinition beanDef = entry.getValue();
@@ -448,6 +598,15 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	}
 
 
+	/**
+	 * Determine the {@link ApplicationStartup} of the given bean factory, if any.
+	 */
+	private static ApplicationStartup getApplicationStartup(Object beanFactory) {
+		return (beanFactory instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
+
 	private static class ImportAwareBeanPostProcessor extends InstantiationAwareBeanPostProcessorAdapter {
 
 		private final BeanFactory beanFactory;
@@ -0,0 +1,1137 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Snapshot of the bean definitions derived from configuration classes, allowing
+ * {@link ConfigurationClassPostProcessor} to skip configuration class parsing,
+ * component scanning and condition evaluation on subsequent starts.
+ *
+ * <p>A snapshot captures the registry as left by configuration class processing:
+ * all bean definitions and aliases, the attributes added to pre-existing bean
+ * definitions, the {@link PropertySource @PropertySource} declarations and the
+ * importing classes for {@link ImportAware} configuration classes. It is only
+ * reused as long as its fingerprint matches, consisting of the bean definitions
+ * registered before processing, the active and default profiles, and the size
+ * and last-modified timestamp of every class path entry (for directories, of
+ * every file within them).
+ *
+ * <p>Definitions that were {@link AnnotatedBeanDefinition AnnotatedBeanDefinitions},
+ * i.e. scanned, imported and {@link Bean @Bean} method definitions, are restored
+ * as such, with their {@link AnnotatedBeanDefinition#getMetadata() metadata} and
+ * {@link AnnotatedBeanDefinition#getFactoryMethodMetadata() factory method metadata}
+ * read lazily from the class files through a {@link MetadataReaderFactory}. They
+ * are not restored as instances of the original definition classes though, e.g.
+ * not as {@link ScannedGenericBeanDefinition} or {@link AnnotatedGenericBeanDefinition}.
+ *
+ * <p>No snapshot is written if any bean definition cannot be represented, e.g.
+ * due to an instance supplier, qualifiers, method overrides or values other than
+ * plain strings, bean references, inner beans and managed collections. Snapshots
+ * are stored in a compact binary format without any use of Java serialization.
+ *
+ * @since 5.0.15
+ * @see ConfigurationClassPostProcessor#setSnapshotDirectory
+ */
+final class ConfigurationClassSnapshot {
+
+	private static final String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+
+	private static final int SNAPSHOT_FILE_MAGIC = 0x53504353;
+
+	private static final int SNAPSHOT_FILE_VERSION = 2;
+
+	private static final byte GENERIC_DEFINITION = 1;
+
+	private static final byte ROOT_DEFINITION = 2;
+
+	private static final byte BEAN_METHOD_DEFINITION = 3;
+
+	private static final byte NULL_VALUE = 0;
+
+	private static final byte STRING_VALUE = 1;
+
+	private static final byte BOOLEAN_VALUE = 2;
+
+	private static final byte INTEGER_VALUE = 3;
+
+	private static final byte LONG_VALUE = 4;
+
+	private static final byte CLASS_VALUE = 5;
+
+	private static final byte TYPED_STRING_VALUE = 6;
+
+	private static final byte BEAN_REFERENCE = 7;
+
+	private static final byte BEAN_NAME_REFERENCE = 8;
+
+	private static final byte INNER_BEAN = 9;
+
+	private static final byte LIST_VALUE = 10;
+
+	private static final byte SET_VALUE = 11;
+
+	private static final byte MAP_VALUE = 12;
+
+	private static final Log logger = LogFactory.getLog(ConfigurationClassSnapshot.class);
+
+
+	private final File file;
+
+	private final String fingerprint;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final MetadataReaderFactory metadataReaderFactory;
+
+	private final Map<String, BeanDefinition> initialDefinitions = new HashMap<>();
+
+
+	/**
+	 * Create a snapshot for the current state of the given registry,
+	 * to be called before configuration class processing.
+	 * @param directory the directory to store snapshots in
+	 * @param registry the registry to process
+	 * @param environment the environment to take the profiles from
+	 * @param classLoader the ClassLoader to derive the class path from
+	 * @param metadataReaderFactory the factory to read the metadata of restored
+	 * annotated bean definitions with
+	 */
+	ConfigurationClassSnapshot(File directory, BeanDefinitionRegistry registry, Environment environment,
+			@Nullable ClassLoader classLoader, MetadataReaderFactory metadataReaderFactory) {
+
+		this.classLoader = classLoader;
+		this.metadataReaderFactory = metadataReaderFactory;
+		StringBuilder registryState = new StringBuilder();
+		for (String beanName : registry.getBeanDefinitionNames()) {
+			BeanDefinition bd = registry.getBeanDefinition(beanName);
+			this.initialDefinitions.put(beanName, bd);
+			registryState.append(beanName).append('=').append(bd.getBeanClassName()).append(',')
+					.append(bd.getFactoryBeanName()).append(',').append(bd.getFactoryMethodName()).append(';');
+		}
+		byte[] registryKey = registryState.toString().getBytes(StandardCharsets.UTF_8);
+		File snapshotDirectory = directory.getAbsoluteFile();
+		this.file = new File(snapshotDirectory, "context-" + DigestUtils.md5DigestAsHex(registryKey) + SNAPSHOT_FILE_SUFFIX);
+		this.fingerprint = computeFingerprint(registryKey, environment, classLoader, snapshotDirectory);
+	}
+
+
+	/**
+	 * Return the file that this snapshot is stored in.
+	 */
+	File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Apply this snapshot to the given registry, if present and up-to-date.
+	 * @param registry the registry to restore bean definitions into
+	 * @return the restored content, or {@code null} if no applicable snapshot
+	 * is available (with the registry remaining untouched)
+	 */
+	@Nullable
+	Content restore(BeanDefinitionRegistry registry) {
+		if (!this.file.isFile()) {
+			return null;
+		}
+		Content content;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+			content = readContent(in);
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable configuration class snapshot " + this.file + ": " + ex);
+			}
+			return null;
+		}
+		if (content == null) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring outdated configuration class snapshot " + this.file);
+			}
+			return null;
+		}
+		content.applyTo(registry);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Restored " + content.beanNames.size() +
+					" bean definitions from configuration class snapshot " + this.file);
+		}
+		return content;
+	}
+
+	/**
+	 * Write a snapshot of the given registry after configuration class processing.
+	 * <p>Failures are logged but not propagated, since the snapshot is an
+	 * optimization only: configuration classes will simply be processed again
+	 * on the next start.
+	 * @param registry the processed registry
+	 * @param importingClassNames the names of importing classes, keyed by imported class name
+	 * @param propertySources the {@code @PropertySource} attributes processed
+	 */
+	void write(BeanDefinitionRegistry registry, Map<String, String> importingClassNames,
+			List<AnnotationAttributes> propertySources) {
+
+		byte[] content;
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(8192);
+			DataOutputStream out = new DataOutputStream(bos);
+			writeContent(out, registry, importingClassNames, propertySources);
+			out.flush();
+			content = bos.toByteArray();
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Not writing configuration class snapshot: " + ex.getMessage());
+			}
+			if (this.file.exists() && !this.file.delete() && logger.isDebugEnabled()) {
+				logger.debug("Could not delete outdated configuration class snapshot " + this.file);
+			}
+			return;
+		}
+		try {
+			writeFile(content);
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Failed to write configuration class snapshot to " + this.file + ": " + ex);
+			}
+		}
+	}
+
+	private void writeFile(byte[] content) throws IOException {
+		File directory = this.file.getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("Could not create snapshot directory");
+		}
+		File tempFile = File.createTempFile(this.file.getName(), ".tmp", directory);
+		try {
+			try (FileOutputStream out = new FileOutputStream(tempFile)) {
+				out.write(content);
+			}
+			try {
+				Files.move(tempFile.toPath(), this.file.toPath(),
+						StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			if (tempFile.exists()) {
+				tempFile.delete();
+			}
+		}
+	}
+
+
+	// Writing
+
+	private void writeContent(DataOutputStream out, BeanDefinitionRegistry registry,
+			Map<String, String> importingClassNames, List<AnnotationAttributes> propertySources) throws IOException {
+
+		out.writeInt(SNAPSHOT_FILE_MAGIC);
+		out.writeInt(SNAPSHOT_FILE_VERSION);
+		out.writeUTF(this.fingerprint);
+
+		String[] beanNames = registry.getBeanDefinitionNames();
+		out.writeInt(beanNames.length);
+		for (String beanName : beanNames) {
+			BeanDefinition bd = registry.getBeanDefinition(beanName);
+			out.writeUTF(beanName);
+			boolean original = (this.initialDefinitions.get(beanName) == bd);
+			out.writeBoolean(original);
+			if (original) {
+				writeAttributes(out, beanName, bd, false);
+			}
+			else {
+				writeDefinition(out, beanName, bd);
+			}
+		}
+
+		List<String> aliases = new ArrayList<>();
+		for (String beanName : beanNames) {
+			for (String alias : registry.getAliases(beanName)) {
+				aliases.add(alias);
+				aliases.add(beanName);
+			}
+		}
+		out.writeInt(aliases.size() / 2);
+		for (String name : aliases) {
+			out.writeUTF(name);
+		}
+
+		out.writeInt(importingClassNames.size());
+		for (Map.Entry<String, String> entry : importingClassNames.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeUTF(entry.getValue());
+		}
+
+		out.writeInt(propertySources.size());
+		for (AnnotationAttributes propertySource : propertySources) {
+			out.writeUTF(propertySource.getString("name"));
+			writeStringArray(out, propertySource.getStringArray("value"));
+			out.writeBoolean(propertySource.getBoolean("ignoreResourceNotFound"));
+			out.writeUTF(propertySource.getString("encoding"));
+			Object factory = propertySource.get("factory");
+			out.writeUTF(factory instanceof Class ? ((Class<?>) factory).getName() : String.valueOf(factory));
+		}
+	}
+
+	private void writeDefinition(DataOutputStream out, String beanName, BeanDefinition bd) throws IOException {
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw new UnsupportedContentException(beanName, "custom BeanDefinition implementation");
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			throw new UnsupportedContentException(beanName, "instance supplier");
+		}
+		if (!abd.getQualifiers().isEmpty()) {
+			throw new UnsupportedContentException(beanName, "qualifiers");
+		}
+		if (!abd.getMethodOverrides().isEmpty()) {
+			throw new UnsupportedContentException(beanName, "method overrides");
+		}
+
+		RootBeanDefinition rbd = null;
+		if (abd instanceof RootBeanDefinition) {
+			rbd = (RootBeanDefinition) abd;
+			if (rbd.getQualifiedElement() != null || rbd.getTargetType() != null) {
+				throw new UnsupportedContentException(beanName, "target type");
+			}
+			if (rbd instanceof AnnotatedBeanDefinition) {
+				MethodMetadata factoryMethodMetadata = ((AnnotatedBeanDefinition) rbd).getFactoryMethodMetadata();
+				if (factoryMethodMetadata == null) {
+					throw new UnsupportedContentException(beanName, "annotated root bean definition");
+				}
+				out.writeByte(BEAN_METHOD_DEFINITION);
+				out.writeUTF(((AnnotatedBeanDefinition) rbd).getMetadata().getClassName());
+				out.writeUTF(factoryMethodMetadata.getDeclaringClassName());
+			}
+			else {
+				out.writeByte(ROOT_DEFINITION);
+			}
+		}
+		else {
+			out.writeByte(GENERIC_DEFINITION);
+			writeNullableString(out, abd.getParentName());
+			String annotatedClassName = null;
+			if (abd instanceof AnnotatedBeanDefinition) {
+				if (((AnnotatedBeanDefinition) abd).getFactoryMethodMetadata() != null) {
+					throw new UnsupportedContentException(beanName, "factory method metadata");
+				}
+				annotatedClassName = ((AnnotatedBeanDefinition) abd).getMetadata().getClassName();
+			}
+			writeNullableString(out, annotatedClassName);
+		}
+
+		writeNullableString(out, abd.getBeanClassName());
+		writeNullableString(out, abd.getScope());
+		out.writeBoolean(abd.isAbstract());
+		out.writeBoolean(abd.isLazyInit());
+		out.writeInt(abd.getAutowireMode());
+		out.writeInt(abd.getDependencyCheck());
+		writeStringArray(out, abd.getDependsOn());
+		out.writeBoolean(abd.isAutowireCandidate());
+		out.writeBoolean(abd.isPrimary());
+		out.writeBoolean(abd.isNonPublicAccessAllowed());
+		out.writeBoolean(abd.isLenientConstructorResolution());
+		writeNullableString(out, abd.getFactoryBeanName());
+		writeNullableString(out, abd.getFactoryMethodName());
+		writeNullableString(out, abd.getInitMethodName());
+		writeNullableString(out, abd.getDestroyMethodName());
+		out.writeBoolean(abd.isEnforceInitMethod());
+		out.writeBoolean(abd.isEnforceDestroyMethod());
+		out.writeBoolean(abd.isSynthetic());
+		out.writeInt(abd.getRole());
+		writeNullableString(out, abd.getDescription());
+		writeNullableString(out, abd.getResourceDescription());
+
+		ConstructorArgumentValues cav = abd.getConstructorArgumentValues();
+		out.writeInt(cav.getIndexedArgumentValues().size());
+		for (Map.Entry<Integer, ValueHolder> entry : cav.getIndexedArgumentValues().entrySet()) {
+			out.writeInt(entry.getKey());
+			writeValueHolder(out, beanName, entry.getValue());
+		}
+		out.writeInt(cav.getGenericArgumentValues().size());
+		for (ValueHolder valueHolder : cav.getGenericArgumentValues()) {
+			writeValueHolder(out, beanName, valueHolder);
+		}
+
+		PropertyValue[] pvs = abd.getPropertyValues().getPropertyValues();
+		out.writeInt(pvs.length);
+		for (PropertyValue pv : pvs) {
+			out.writeUTF(pv.getName());
+			writeValue(out, beanName, pv.getValue());
+		}
+
+		writeAttributes(out, beanName, abd, true);
+
+		if (rbd != null) {
+			writeValue(out, beanName, rbd.getDecoratedDefinition());
+		}
+	}
+
+	private void writeValueHolder(DataOutputStream out, String beanName, ValueHolder valueHolder) throws IOException {
+		writeValue(out, beanName, valueHolder.getValue());
+		writeNullableString(out, valueHolder.getType());
+		writeNullableString(out, valueHolder.getName());
+	}
+
+	private void writeAttributes(DataOutputStream out, String beanName, BeanDefinition bd, boolean strict)
+			throws IOException {
+
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		for (String name : bd.attributeNames()) {
+			Object value = bd.getAttribute(name);
+			if (value instanceof String || value instanceof Boolean || value instanceof Integer ||
+					value instanceof Long || value instanceof Class) {
+				attributes.put(name, value);
+			}
+			else if (strict) {
+				throw new UnsupportedContentException(beanName, "attribute '" + name + "'");
+			}
+		}
+		out.writeInt(attributes.size());
+		for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+			out.writeUTF(entry.getKey());
+			writeValue(out, beanName, entry.getValue());
+		}
+	}
+
+	private void writeValue(DataOutputStream out, String beanName, @Nullable Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL_VALUE);
+		}
+		else if (value instanceof String) {
+			out.writeByte(STRING_VALUE);
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN_VALUE);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INTEGER_VALUE);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG_VALUE);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Class) {
+			out.writeByte(CLASS_VALUE);
+			out.writeUTF(((Class<?>) value).getName());
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedStringValue = (TypedStringValue) value;
+			out.writeByte(TYPED_STRING_VALUE);
+			writeNullableString(out, typedStringValue.getValue());
+			writeNullableString(out, typedStringValue.getTargetTypeName());
+			writeNullableString(out, typedStringValue.getSpecifiedTypeName());
+			out.writeBoolean(typedStringValue.isDynamic());
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			out.writeByte(BEAN_REFERENCE);
+			out.writeUTF(reference.getBeanName());
+			out.writeBoolean(reference.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			out.writeByte(BEAN_NAME_REFERENCE);
+			out.writeUTF(((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+			out.writeByte(INNER_BEAN);
+			out.writeUTF(holder.getBeanName());
+			writeStringArray(out, holder.getAliases());
+			writeDefinition(out, beanName, holder.getBeanDefinition());
+		}
+		else if (value instanceof ManagedList) {
+			ManagedList<?> list = (ManagedList<?>) value;
+			out.writeByte(LIST_VALUE);
+			writeNullableString(out, list.getElementTypeName());
+			out.writeBoolean(list.isMergeEnabled());
+			out.writeInt(list.size());
+			for (Object element : list) {
+				writeValue(out, beanName, element);
+			}
+		}
+		else if (value instanceof ManagedSet) {
+			ManagedSet<?> set = (ManagedSet<?>) value;
+			out.writeByte(SET_VALUE);
+			writeNullableString(out, set.getElementTypeName());
+			out.writeBoolean(set.isMergeEnabled());
+			out.writeInt(set.size());
+			for (Object element : set) {
+				writeValue(out, beanName, element);
+			}
+		}
+		else if (value instanceof ManagedMap) {
+			ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+			out.writeByte(MAP_VALUE);
+			writeNullableString(out, map.getKeyTypeName());
+			writeNullableString(out, map.getValueTypeName());
+			out.writeBoolean(map.isMergeEnabled());
+			out.writeInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(out, beanName, entry.getKey());
+				writeValue(out, beanName, entry.getValue());
+			}
+		}
+		else {
+			throw new UnsupportedContentException(beanName, "value of type [" + value.getClass().getName() + "]");
+		}
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static void writeStringArray(DataOutputStream out, @Nullable String[] values) throws IOException {
+		out.writeInt(values != null ? values.length : -1);
+		if (values != null) {
+			for (String value : values) {
+				out.writeUTF(value);
+			}
+		}
+	}
+
+
+	// Reading
+
+	@Nullable
+	private Content readContent(DataInputStream in) throws IOException {
+		if (in.readInt() != SNAPSHOT_FILE_MAGIC || in.readInt() != SNAPSHOT_FILE_VERSION ||
+				!this.fingerprint.equals(in.readUTF())) {
+			return null;
+		}
+		Content content = new Content();
+
+		int beanCount = in.readInt();
+		for (int i = 0; i < beanCount; i++) {
+			String beanName = in.readUTF();
+			content.beanNames.add(beanName);
+			if (in.readBoolean()) {
+				content.originalAttributes.put(beanName, readAttributes(in));
+			}
+			else {
+				content.definitions.put(beanName, readDefinition(in));
+			}
+		}
+
+		int aliasCount = in.readInt();
+		for (int i = 0; i < aliasCount; i++) {
+			content.aliases.put(in.readUTF(), in.readUTF());
+		}
+
+		int importCount = in.readInt();
+		for (int i = 0; i < importCount; i++) {
+			content.importingClassNames.put(in.readUTF(), in.readUTF());
+		}
+
+		int propertySourceCount = in.readInt();
+		for (int i = 0; i < propertySourceCount; i++) {
+			AnnotationAttributes propertySource = new AnnotationAttributes(PropertySource.class);
+			propertySource.put("name", in.readUTF());
+			propertySource.put("value", readStringArray(in));
+			propertySource.put("ignoreResourceNotFound", in.readBoolean());
+			propertySource.put("encoding", in.readUTF());
+			propertySource.put("factory", resolveClass(in.readUTF()));
+			content.propertySources.add(propertySource);
+		}
+		return content;
+	}
+
+	private AbstractBeanDefinition readDefinition(DataInputStream in) throws IOException {
+		byte kind = in.readByte();
+		AbstractBeanDefinition bd;
+		if (kind == GENERIC_DEFINITION) {
+			String parentName = readNullableString(in);
+			String annotatedClassName = readNullableString(in);
+			GenericBeanDefinition gbd = (annotatedClassName != null ?
+					new AnnotatedSnapshotDefinition(new LazyAnnotationMetadata(annotatedClassName, this.metadataReaderFactory)) :
+					new GenericBeanDefinition());
+			gbd.setParentName(parentName);
+			bd = gbd;
+		}
+		else if (kind == ROOT_DEFINITION) {
+			bd = new RootBeanDefinition();
+		}
+		else if (kind == BEAN_METHOD_DEFINITION) {
+			bd = new BeanMethodDefinition(new LazyAnnotationMetadata(in.readUTF(), this.metadataReaderFactory),
+					new LazyAnnotationMetadata(in.readUTF(), this.metadataReaderFactory));
+		}
+		else {
+			throw new IOException("Unknown bean definition kind: " + kind);
+		}
+
+		bd.setBeanClassName(readNullableString(in));
+		bd.setScope(readNullableString(in));
+		bd.setAbstract(in.readBoolean());
+		bd.setLazyInit(in.readBoolean());
+		bd.setAutowireMode(in.readInt());
+		bd.setDependencyCheck(in.readInt());
+		bd.setDependsOn(readStringArray(in));
+		bd.setAutowireCandidate(in.readBoolean());
+		bd.setPrimary(in.readBoolean());
+		bd.setNonPublicAccessAllowed(in.readBoolean());
+		bd.setLenientConstructorResolution(in.readBoolean());
+		bd.setFactoryBeanName(readNullableString(in));
+		String factoryMethodName = readNullableString(in);
+		if (kind == BEAN_METHOD_DEFINITION && bd.getFactoryBeanName() != null && factoryMethodName != null) {
+			// Instance @Bean method, as registered by ConfigurationClassBeanDefinitionReader
+			((RootBeanDefinition) bd).setUniqueFactoryMethodName(factoryMethodName);
+		}
+		else {
+			bd.setFactoryMethodName(factoryMethodName);
+		}
+		bd.setInitMethodName(readNullableString(in));
+		bd.setDestroyMethodName(readNullableString(in));
+		bd.setEnforceInitMethod(in.readBoolean());
+		bd.setEnforceDestroyMethod(in.readBoolean());
+		bd.setSynthetic(in.readBoolean());
+		bd.setRole(in.readInt());
+		bd.setDescription(readNullableString(in));
+		bd.setResourceDescription(readNullableString(in));
+
+		ConstructorArgumentValues cav = bd.getConstructorArgumentValues();
+		int indexedCount = in.readInt();
+		for (int i = 0; i < indexedCount; i++) {
+			int index = in.readInt();
+			cav.addIndexedArgumentValue(index, readValueHolder(in));
+		}
+		int genericCount = in.readInt();
+		for (int i = 0; i < genericCount; i++) {
+			cav.addGenericArgumentValue(readValueHolder(in));
+		}
+
+		MutablePropertyValues pvs = bd.getPropertyValues();
+		int propertyCount = in.readInt();
+		for (int i = 0; i < propertyCount; i++) {
+			pvs.addPropertyValue(in.readUTF(), readValue(in));
+		}
+
+		readAttributes(in).forEach(bd::setAttribute);
+
+		if (bd instanceof RootBeanDefinition) {
+			Object decoratedDefinition = readValue(in);
+			if (decoratedDefinition != null) {
+				if (!(decoratedDefinition instanceof BeanDefinitionHolder)) {
+					throw new IOException("Invalid decorated definition: " + decoratedDefinition);
+				}
+				((RootBeanDefinition) bd).setDecoratedDefinition((BeanDefinitionHolder) decoratedDefinition);
+			}
+		}
+		return bd;
+	}
+
+	private ValueHolder readValueHolder(DataInputStream in) throws IOException {
+		Object value = readValue(in);
+		return new ValueHolder(value, readNullableString(in), readNullableString(in));
+	}
+
+	private Map<String, Object> readAttributes(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		Map<String, Object> attributes = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			Object value = readValue(in);
+			if (value == null) {
+				throw new IOException("Invalid attribute value for '" + name + "'");
+			}
+			attributes.put(name, value);
+		}
+		return attributes;
+	}
+
+	@Nullable
+	private Object readValue(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+			case NULL_VALUE:
+				return null;
+			case STRING_VALUE:
+				return in.readUTF();
+			case BOOLEAN_VALUE:
+				return in.readBoolean();
+			case INTEGER_VALUE:
+				return in.readInt();
+			case LONG_VALUE:
+				return in.readLong();
+			case CLASS_VALUE:
+				return resolveClass(in.readUTF());
+			case TYPED_STRING_VALUE:
+				TypedStringValue typedStringValue = new TypedStringValue(readNullableString(in));
+				typedStringValue.setTargetTypeName(readNullableString(in));
+				typedStringValue.setSpecifiedTypeName(readNullableString(in));
+				if (in.readBoolean()) {
+					typedStringValue.setDynamic();
+				}
+				return typedStringValue;
+			case BEAN_REFERENCE:
+				return new RuntimeBeanReference(in.readUTF(), in.readBoolean());
+			case BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(in.readUTF());
+			case INNER_BEAN:
+				String innerBeanName = in.readUTF();
+				String[] aliases = readStringArray(in);
+				return new BeanDefinitionHolder(readDefinition(in), innerBeanName, aliases);
+			case LIST_VALUE:
+				ManagedList<Object> list = new ManagedList<>();
+				list.setElementTypeName(readNullableString(in));
+				list.setMergeEnabled(in.readBoolean());
+				int listSize = in.readInt();
+				for (int i = 0; i < listSize; i++) {
+					list.add(readValue(in));
+				}
+				return list;
+			case SET_VALUE:
+				ManagedSet<Object> set = new ManagedSet<>();
+				set.setElementTypeName(readNullableString(in));
+				set.setMergeEnabled(in.readBoolean());
+				int setSize = in.readInt();
+				for (int i = 0; i < setSize; i++) {
+					set.add(readValue(in));
+				}
+				return set;
+			case MAP_VALUE:
+				ManagedMap<Object, Object> map = new ManagedMap<>();
+				map.setKeyTypeName(readNullableString(in));
+				map.setValueTypeName(readNullableString(in));
+				map.setMergeEnabled(in.readBoolean());
+				int mapSize = in.readInt();
+				for (int i = 0; i < mapSize; i++) {
+					map.put(readValue(in), readValue(in));
+				}
+				return map;
+			default:
+				throw new IOException("Unknown value tag: " + tag);
+		}
+	}
+
+	private Class<?> resolveClass(String className) throws IOException {
+		try {
+			return ClassUtils.forName(className, this.classLoader);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			throw new IOException("Unresolvable class [" + className + "]", ex);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	@Nullable
+	private static String[] readStringArray(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+
+	// Fingerprint
+
+	private static String computeFingerprint(byte[] registryKey, Environment environment,
+			@Nullable ClassLoader classLoader, File snapshotDirectory) {
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+		}
+		digest.update(registryKey);
+		update(digest, "profiles=" + StringUtils.arrayToCommaDelimitedString(environment.getActiveProfiles()) +
+				";" + StringUtils.arrayToCommaDelimitedString(environment.getDefaultProfiles()));
+		for (File entry : getClassPathEntries(classLoader)) {
+			addToFingerprint(digest, entry, snapshotDirectory);
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	private static void addToFingerprint(MessageDigest digest, File file, File snapshotDirectory) {
+		if (file.isDirectory()) {
+			if (file.equals(snapshotDirectory)) {
+				// Snapshot directory within a class path directory: changes with every snapshot written
+				return;
+			}
+			update(digest, file.getPath() + File.separator);
+			File[] children = file.listFiles();
+			if (children != null) {
+				Arrays.sort(children);
+				for (File child : children) {
+					addToFingerprint(digest, child, snapshotDirectory);
+				}
+			}
+		}
+		else {
+			update(digest, file.getPath() + ':' + file.length() + ':' + file.lastModified());
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+
+	private static Set<File> getClassPathEntries(@Nullable ClassLoader classLoader) {
+		Set<File> entries = new LinkedHashSet<>();
+		ClassLoader current = classLoader;
+		while (current != null) {
+			if (current instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) current).getURLs()) {
+					if (ResourceUtils.isFileURL(url)) {
+						try {
+							entries.add(ResourceUtils.getFile(url).getAbsoluteFile());
+						}
+						catch (FileNotFoundException ex) {
+							// Not resolvable in the file system -> not part of the fingerprint
+						}
+					}
+				}
+			}
+			current = current.getParent();
+		}
+		String classPath = System.getProperty("java.class.path");
+		if (classPath != null) {
+			for (String entry : StringUtils.delimitedListToStringArray(classPath, File.pathSeparator)) {
+				if (StringUtils.hasLength(entry)) {
+					entries.add(new File(entry).getAbsoluteFile());
+				}
+			}
+		}
+		return entries;
+	}
+
+
+	/**
+	 * Content of a snapshot, as read from a snapshot file.
+	 */
+	static final class Content {
+
+		private final List<String> beanNames = new ArrayList<>();
+
+		private final Map<String, AbstractBeanDefinition> definitions = new HashMap<>();
+
+		private final Map<String, Map<String, Object>> originalAttributes = new HashMap<>();
+
+		private final Map<String, String> aliases = new LinkedHashMap<>();
+
+		private final Map<String, String> importingClassNames = new ConcurrentHashMap<>();
+
+		private final List<AnnotationAttributes> propertySources = new ArrayList<>();
+
+		void applyTo(BeanDefinitionRegistry registry) {
+			Set<String> beanNamesToKeep = new LinkedHashSet<>(this.beanNames);
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				if (!beanNamesToKeep.contains(beanName)) {
+					// Removed during processing, e.g. due to a condition
+					registry.removeBeanDefinition(beanName);
+				}
+			}
+			for (String beanName : this.beanNames) {
+				Map<String, Object> attributes = this.originalAttributes.get(beanName);
+				if (attributes != null) {
+					BeanDefinition bd = registry.getBeanDefinition(beanName);
+					attributes.forEach(bd::setAttribute);
+				}
+				else {
+					registry.registerBeanDefinition(beanName, this.definitions.get(beanName));
+				}
+			}
+			this.aliases.forEach((alias, beanName) -> {
+				if (!registry.isAlias(alias)) {
+					registry.registerAlias(beanName, alias);
+				}
+			});
+		}
+
+		/**
+		 * Return the {@code @PropertySource} attributes to process against the environment.
+		 */
+		List<AnnotationAttributes> getPropertySources() {
+			return this.propertySources;
+		}
+
+		/**
+		 * Return an {@link ImportRegistry} for {@link ImportAware} configuration classes,
+		 * lazily reading the metadata of importing classes through the given factory.
+		 */
+		ImportRegistry getImportRegistry(MetadataReaderFactory metadataReaderFactory) {
+			return new SnapshotImportRegistry(this.importingClassNames, metadataReaderFactory);
+		}
+	}
+
+
+	/**
+	 * {@link ImportRegistry} based on the importing class names in a snapshot.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClassNames;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		SnapshotImportRegistry(Map<String, String> importingClassNames, MetadataReaderFactory metadataReaderFactory) {
+			this.importingClassNames = importingClassNames;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.importingClassNames.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			try {
+				return this.metadataReaderFactory.getMetadataReader(importingClass).getAnnotationMetadata();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read metadata for importing class [" +
+						importingClass + "]", ex);
+			}
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.importingClassNames.values().removeIf(importingClass::equals);
+		}
+	}
+
+
+	/**
+	 * Annotation metadata of a class in a snapshot, read on first access.
+	 */
+	private static final class LazyAnnotationMetadata {
+
+		private final String className;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		@Nullable
+		private volatile AnnotationMetadata metadata;
+
+		LazyAnnotationMetadata(String className, MetadataReaderFactory metadataReaderFactory) {
+			this.className = className;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		AnnotationMetadata get() {
+			AnnotationMetadata metadata = this.metadata;
+			if (metadata == null) {
+				try {
+					metadata = this.metadataReaderFactory.getMetadataReader(this.className).getAnnotationMetadata();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Failed to read metadata for class [" + this.className + "]", ex);
+				}
+				this.metadata = metadata;
+			}
+			return metadata;
+		}
+	}
+
+
+	/**
+	 * Restored definition for a scanned or imported component, exposing the
+	 * annotation metadata of its class like the original definition did.
+	 */
+	@SuppressWarnings("serial")
+	private static class AnnotatedSnapshotDefinition extends GenericBeanDefinition implements AnnotatedBeanDefinition {
+
+		private final LazyAnnotationMetadata metadata;
+
+		AnnotatedSnapshotDefinition(LazyAnnotationMetadata metadata) {
+			this.metadata = metadata;
+		}
+
+		AnnotatedSnapshotDefinition(AnnotatedSnapshotDefinition original) {
+			super(original);
+			this.metadata = original.metadata;
+		}
+
+		@Override
+		public AnnotationMetadata getMetadata() {
+			return this.metadata.get();
+		}
+
+		@Override
+		@Nullable
+		public MethodMetadata getFactoryMethodMetadata() {
+			return null;
+		}
+
+		@Override
+		public AnnotatedSnapshotDefinition cloneBeanDefinition() {
+			return new AnnotatedSnapshotDefinition(this);
+		}
+	}
+
+
+	/**
+	 * Restored definition for a {@link Bean @Bean} method: only considers
+	 * {@code @Bean}-annotated methods as factory methods and exposes the metadata
+	 * of the configuration class and of the {@code @Bean} method, just like the
+	 * definitions registered by {@link ConfigurationClassBeanDefinitionReader}.
+	 */
+	@SuppressWarnings("serial")
+	private static class BeanMethodDefinition extends RootBeanDefinition implements AnnotatedBeanDefinition {
+
+		private final LazyAnnotationMetadata configClassMetadata;
+
+		private final LazyAnnotationMetadata declaringClassMetadata;
+
+		@Nullable
+		private volatile MethodMetadata factoryMethodMetadata;
+
+		BeanMethodDefinition(LazyAnnotationMetadata configClassMetadata, LazyAnnotationMetadata declaringClassMetadata) {
+			this.configClassMetadata = configClassMetadata;
+			this.declaringClassMetadata = declaringClassMetadata;
+		}
+
+		BeanMethodDefinition(BeanMethodDefinition original) {
+			super(original);
+			this.configClassMetadata = original.configClassMetadata;
+			this.declaringClassMetadata = original.declaringClassMetadata;
+			this.factoryMethodMetadata = original.factoryMethodMetadata;
+		}
+
+		@Override
+		public AnnotationMetadata getMetadata() {
+			return this.configClassMetadata.get();
+		}
+
+		@Override
+		public MethodMetadata getFactoryMethodMetadata() {
+			MethodMetadata factoryMethodMetadata = this.factoryMethodMetadata;
+			if (factoryMethodMetadata == null) {
+				AnnotationMetadata declaringClass = this.declaringClassMetadata.get();
+				for (MethodMetadata beanMethod : declaringClass.getAnnotatedMethods(Bean.class.getName())) {
+					if (beanMethod.getMethodName().equals(getFactoryMethodName())) {
+						factoryMethodMetadata = beanMethod;
+						break;
+					}
+				}
+				if (factoryMethodMetadata == null) {
+					throw new IllegalStateException("No @Bean method '" + getFactoryMethodName() +
+							"' found in class [" + declaringClass.getClassName() + "]");
+				}
+				this.factoryMethodMetadata = factoryMethodMetadata;
+			}
+			return factoryMethodMetadata;
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate));
+		}
+
+		@Override
+		public BeanMethodDefinition cloneBeanDefinition() {
+			return new BeanMethodDefinition(this);
+		}
+	}
+
+
+	/**
+	 * Signals bean definition content that cannot be stored in a snapshot.
+	 */
+	@SuppressWarnings("serial")
+	private static class UnsupportedContentException extends IOException {
+
+		UnsupportedContentException(String beanName, String reason) {
+			super("Bean definition '" + beanName + "' has unsupported content: " + reason);
+		}
+	}
+
+}
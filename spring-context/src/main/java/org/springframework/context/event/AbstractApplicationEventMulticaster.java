@@ -53,6 +53,10 @@ import org.springframework.util.ObjectUtils;
  * all events to all registered listeners, invoking them in the calling thread.
  * Alternative implementations could be more sophisticated in those respects.
  *
+ * <p>As of 5.0.15, the pre-filtered listeners per event type are updated in place
+ * when a listener instance gets added or removed, rather than being evicted and
+ * re-evaluated against every registered listener on the next event.
+ *
  * @author Juergen Hoeller
  * @author Stephane Nicoll
  * @since 1.2.3
@@ -111,7 +115,10 @@ public abstract class AbstractApplicationEventMulticaster
 				this.defaultRetriever.applicationListeners.remove(singletonTarget);
 			}
 			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
+			if (!this.retrieverCache.isEmpty()) {
+				this.retrieverCache.replaceAll((cacheKey, retriever) ->
+						addToRetriever(retriever, cacheKey, listener, singletonTarget));
+			}
 		}
 	}
 
@@ -119,7 +126,12 @@ public abstract class AbstractApplicationEventMulticaster
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
 			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
-			this.retrieverCache.clear();
+			if (!this.retrieverCache.isEmpty()) {
+				// Only evict the event types that the listener bean may be interested in
+				Class<?> listenerType = determineListenerType(listenerBeanName);
+				this.retrieverCache.keySet().removeIf(cacheKey ->
+						(listenerType == null || supportsEvent(listenerType, cacheKey.eventType)));
+			}
 		}
 	}
 
@@ -127,7 +139,8 @@ public abstract class AbstractApplicationEventMulticaster
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.retrievalMutex) {
 			this.defaultRetriever.applicationListeners.remove(listener);
-			this.retrieverCache.clear();
+			// Only evict the event types that the listener has been registered for
+			this.retrieverCache.values().removeIf(retriever -> retriever.applicationListeners.contains(listener));
 		}
 	}
 
@@ -149,6 +162,55 @@ public abstract class AbstractApplicationEventMulticaster
 	}
 
 
+	/**
+	 * Create an updated copy of the given cached retriever, including the given
+	 * listener if it supports the retriever's event type. Cached retrievers are
+	 * never modified in place since they may be accessed without synchronization.
+	 */
+	private ListenerRetriever addToRetriever(ListenerRetriever retriever, ListenerCacheKey cacheKey,
+			ApplicationListener<?> listener, @Nullable Object singletonTarget) {
+
+		boolean supported = supportsEvent(listener, cacheKey.eventType, cacheKey.sourceType);
+		boolean containsTarget = (singletonTarget != null && retriever.applicationListeners.contains(singletonTarget));
+		if (!supported && !containsTarget) {
+			return retriever;
+		}
+		ListenerRetriever updated = new ListenerRetriever(true);
+		updated.applicationListeners.addAll(retriever.applicationListeners);
+		updated.applicationListenerBeans.addAll(retriever.applicationListenerBeans);
+		if (containsTarget) {
+			updated.applicationListeners.remove(singletonTarget);
+		}
+		if (supported) {
+			updated.applicationListeners.add(listener);
+		}
+		if (updated.applicationListenerBeans.isEmpty()) {
+			// Keep pre-sorted listeners, just like a newly built retriever
+			List<ApplicationListener<?>> sortedListeners = new ArrayList<>(updated.applicationListeners);
+			AnnotationAwareOrderComparator.sort(sortedListeners);
+			updated.applicationListeners.clear();
+			updated.applicationListeners.addAll(sortedListeners);
+		}
+		return updated;
+	}
+
+	/**
+	 * Determine the type of the given listener bean, if possible.
+	 * @return the listener type, or {@code null} if not determinable
+	 */
+	@Nullable
+	private Class<?> determineListenerType(String listenerBeanName) {
+		if (this.beanFactory == null) {
+			return null;
+		}
+		try {
+			return this.beanFactory.getType(listenerBeanName);
+		}
+		catch (NoSuchBeanDefinitionException ex) {
+			return null;
+		}
+	}
+
 	/**
 	 * Return a Collection containing all ApplicationListeners.
 	 * @return a Collection of ApplicationListeners
@@ -16,8 +16,12 @@
 
 package org.springframework.context.event;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
@@ -39,6 +43,7 @@ import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -53,6 +58,9 @@ import org.springframework.util.StringUtils;
  * to define any arbitrary event type. If a condition is defined, it is
  * evaluated prior to invoking the underlying method.
  *
+ * <p>As of 5.0.15, the underlying method is invoked through a {@link MethodHandle}
+ * prepared once per listener method, rather than through reflection on every event.
+ *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -77,6 +85,12 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 
 	private final int order;
 
+	@Nullable
+	private final MethodHandle methodHandle;
+
+	@Nullable
+	private final Class<?> parameterType;
+
 	@Nullable
 	private ApplicationContext applicationContext;
 
@@ -95,6 +109,9 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		this.declaredEventTypes = resolveDeclaredEventTypes(method, ann);
 		this.condition = (ann != null ? ann.condition() : null);
 		this.order = resolveOrder(this.targetMethod);
+		this.methodHandle = createMethodHandle(this.method);
+		this.parameterType = (this.method.getParameterCount() > 0 ?
+				ClassUtils.resolvePrimitiveIfNecessary(this.method.getParameterTypes()[0]) : null);
 	}
 
 	private static List<ResolvableType> resolveDeclaredEventTypes(Method method, @Nullable EventListener ann) {
@@ -127,6 +144,30 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		return (ann != null ? ann.value() : 0);
 	}
 
+	/**
+	 * Create a {@link MethodHandle} for the given listener method, adapted to a
+	 * uniform {@code (Object target, Object event)Object} signature.
+	 * @return the method handle, or {@code null} if not accessible
+	 */
+	@Nullable
+	private static MethodHandle createMethodHandle(Method method) {
+		try {
+			ReflectionUtils.makeAccessible(method);
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			if (method.getParameterCount() == 0) {
+				handle = MethodHandles.dropArguments(handle, 1, Object.class);
+			}
+			return handle.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+		}
+		catch (Throwable ex) {
+			// E.g. IllegalAccessException or SecurityException -> fall back to reflection
+			return null;
+		}
+	}
+
 
 	/**
 	 * Initialize this instance.
@@ -257,6 +298,19 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 	@Nullable
 	protected Object doInvoke(Object... args) {
 		Object bean = getTargetBean();
+		MethodHandle methodHandle = this.methodHandle;
+		if (methodHandle != null && isDirectlyInvocable(bean, args)) {
+			try {
+				return (Object) methodHandle.invokeExact(bean, (args.length > 0 ? args[0] : null));
+			}
+			catch (RuntimeException ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				String msg = getInvocationErrorMessage(bean, "Failed to invoke event listener method", args);
+				throw new UndeclaredThrowableException(ex, msg);
+			}
+		}
 		ReflectionUtils.makeAccessible(this.method);
 		try {
 			return this.method.invoke(bean, args);
@@ -281,6 +335,20 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		}
 	}
 
+	/**
+	 * Determine whether the given bean and arguments match the listener method,
+	 * letting reflective invocation report any mismatch otherwise.
+	 */
+	private boolean isDirectlyInvocable(Object bean, Object[] args) {
+		if (args.length != this.method.getParameterCount()) {
+			return false;
+		}
+		if (!Modifier.isStatic(this.method.getModifiers()) && !this.method.getDeclaringClass().isInstance(bean)) {
+			return false;
+		}
+		return (this.parameterType == null || this.parameterType.isInstance(args[0]));
+	}
+
 	/**
 	 * Return the target bean instance to use.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,7 +26,11 @@ import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 
 /**
@@ -39,9 +43,35 @@ import org.springframework.lang.Nullable;
  */
 class EventExpressionEvaluator extends CachedExpressionEvaluator {
 
+	private static final String COMPILER_MODE_PROPERTY_NAME = "spring.expression.compiler.mode";
+
+
 	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Create a new evaluator with a default {@link SpelExpressionParser}.
+	 */
+	public EventExpressionEvaluator() {
+		super();
+	}
+
+	/**
+	 * Create a new evaluator that compiles frequently evaluated conditions,
+	 * unless a compiler mode has been set globally through the
+	 * "spring.expression.compiler.mode" property.
+	 * <p>Conditions are compiled in {@link SpelCompilerMode#MIXED} mode, i.e.
+	 * falling back to interpretation if a compiled condition fails at runtime.
+	 * @param classLoader the ClassLoader to use as the basis for compilation
+	 * @since 5.0.15
+	 */
+	public EventExpressionEvaluator(@Nullable ClassLoader classLoader) {
+		super(new SpelExpressionParser(new SpelParserConfiguration(
+				(SpringProperties.getProperty(COMPILER_MODE_PROPERTY_NAME) == null ? SpelCompilerMode.MIXED : null),
+				classLoader)));
+	}
+
+
 	/**
 	 * Specify if the condition defined by the specified expression matches.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,7 +58,9 @@ public class EventListenerMethodProcessor implements SmartInitializingSingleton,
 	@Nullable
 	private ConfigurableApplicationContext applicationContext;
 
-	private final EventExpressionEvaluator evaluator = new EventExpressionEvaluator();
+	@Nullable
+	private EventExpressionEvaluator evaluator;
+
 	// 没有@EventListener的类
 	private final Set<Class<?>> nonAnnotatedClasses = Collections.newSetFromMap(new ConcurrentHashMap<>(64));
 
@@ -68,6 +70,7 @@ public class EventListenerMethodProcessor implements SmartInitializingSingleton,
 		Assert.isTrue(applicationContext instanceof ConfigurableApplicationContext,
 				"ApplicationContext does not implement ConfigurableApplicationContext");
 		this.applicationContext = (ConfigurableApplicationContext) applicationContext;
+		this.evaluator = new EventExpressionEvaluator(applicationContext.getClassLoader());
 	}
 
 	private ConfigurableApplicationContext getApplicationContext() {
@@ -75,6 +78,11 @@ public class EventListenerMethodProcessor implements SmartInitializingSingleton,
 		return this.applicationContext;
 	}
 
+	private EventExpressionEvaluator getEvaluator() {
+		Assert.state(this.evaluator != null, "No EventExpressionEvaluator set");
+		return this.evaluator;
+	}
+
 
 	@Override
 	public void afterSingletonsInstantiated() {
@@ -173,7 +181,7 @@ public class EventListenerMethodProcessor implements SmartInitializingSingleton,
 							ApplicationListener<?> applicationListener =
 									factory.createApplicationListener(beanName, targetType, methodToUse);
 							if (applicationListener instanceof ApplicationListenerMethodAdapter) {
-								((ApplicationListenerMethodAdapter) applicationListener).init(context, this.evaluator);
+								((ApplicationListenerMethodAdapter) applicationListener).init(context, getEvaluator());
 							}
 							//②注册事件到Context中
 							context.addApplicationListener(applicationListener);
@@ -16,6 +16,13 @@
 
 package org.springframework.context.event;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
@@ -24,6 +31,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ResolvableType;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ErrorHandler;
@@ -41,6 +49,12 @@ import org.springframework.util.ErrorHandler;
  * but adds minimal overhead. Specify an alternative task executor to have
  * listeners executed in different threads, for example from a thread pool.
  *
+ * <p>With a task executor, each listener is by default invoked in a separate task
+ * per event. Alternatively, a {@linkplain #setListenerQueueCapacity listener queue
+ * capacity} can be specified for high event rates: events are then queued per
+ * listener and delivered in batches, with publishers blocking while the queue
+ * of a listener is full.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -48,12 +62,23 @@ import org.springframework.util.ErrorHandler;
  */
 public class SimpleApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
 
+	/**
+	 * The listener queue delivering events in the current thread, if any,
+	 * across all multicasters.
+	 */
+	private static final ThreadLocal<Object> currentListenerQueue =
+			new NamedThreadLocal<>("Current listener queue");
+
 	@Nullable
 	private Executor taskExecutor;
 
 	@Nullable
 	private ErrorHandler errorHandler;
 
+	private int listenerQueueCapacity = 0;
+
+	private final Map<ApplicationListener<?>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>(64);
+
 
 	/**
 	 * Create a new SimpleApplicationEventMulticaster.
@@ -121,6 +146,76 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return this.errorHandler;
 	}
 
+	/**
+	 * Set the capacity of the event queue per listener, switching asynchronous
+	 * multicasting from one task per listener and event to queued delivery.
+	 * <p>Default is 0, submitting a separate task to the {@linkplain #setTaskExecutor
+	 * task executor} for every listener and every event. With a positive capacity,
+	 * events are queued per listener instead, and at most one task per listener
+	 * is active at any time, delivering up to the given number of queued events
+	 * in publication order before yielding the thread. Publishers block while the
+	 * queue of a listener is full, i.e. until the listener has caught up; a publisher
+	 * interrupted while waiting discards the event for that listener. Events still
+	 * queued for a listener are discarded when the listener gets removed.
+	 * <p>A listener that publishes events while being delivered to never blocks:
+	 * the listener it would wait for may only get delivered to by the very same
+	 * executor threads, e.g. with a single-threaded or saturated executor, so its
+	 * events are queued beyond the capacity instead. Other tasks running on the
+	 * executor are not covered by this and should not publish events to listeners
+	 * with a full queue, since they may block the threads needed for delivery.
+	 * <p>Only applies when a task executor has been specified. Listener exceptions
+	 * are passed to the {@linkplain #setErrorHandler error handler}, if any, and
+	 * logged otherwise, without affecting the delivery of subsequent events.
+	 * @since 5.0.15
+	 */
+	public void setListenerQueueCapacity(int listenerQueueCapacity) {
+		this.listenerQueueCapacity = listenerQueueCapacity;
+	}
+
+	/**
+	 * Return the capacity of the event queue per listener, or 0 if events are
+	 * not queued.
+	 * @since 5.0.15
+	 */
+	public int getListenerQueueCapacity() {
+		return this.listenerQueueCapacity;
+	}
+
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		super.removeApplicationListener(listener);
+		discardListenerQueue(listener);
+	}
+
+	@Override
+	public void removeApplicationListenerBean(String listenerBeanName) {
+		super.removeApplicationListenerBean(listenerBeanName);
+		if (!this.listenerQueues.isEmpty()) {
+			Collection<ApplicationListener<?>> listeners = getApplicationListeners();
+			for (ApplicationListener<?> listener : this.listenerQueues.keySet()) {
+				if (!listeners.contains(listener)) {
+					discardListenerQueue(listener);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void removeAllListeners() {
+		super.removeAllListeners();
+		for (ApplicationListener<?> listener : this.listenerQueues.keySet()) {
+			discardListenerQueue(listener);
+		}
+	}
+
+	private void discardListenerQueue(ApplicationListener<?> listener) {
+		ListenerQueue queue = this.listenerQueues.remove(listener);
+		if (queue != null) {
+			queue.discard();
+		}
+	}
+
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
@@ -136,7 +231,12 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 			Executor executor = getTaskExecutor();
 			if (executor != null) {
 				//异步播发事件
-				executor.execute(() -> invokeListener(listener, event));
+				if (this.listenerQueueCapacity > 0) {
+					enqueueEvent(listener, event);
+				}
+				else {
+					executor.execute(() -> invokeListener(listener, event));
+				}
 			}
 			else {//同步播发
 				invokeListener(listener, event);
@@ -148,6 +248,21 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return ResolvableType.forInstance(event);
 	}
 
+	/**
+	 * Add the given event to the queue of the given listener, scheduling
+	 * the delivery of queued events if necessary.
+	 */
+	private void enqueueEvent(ApplicationListener<?> listener, ApplicationEvent event) {
+		while (true) {
+			ListenerQueue queue = this.listenerQueues.computeIfAbsent(listener,
+					key -> new ListenerQueue(key, this.listenerQueueCapacity));
+			if (queue.add(event)) {
+				return;
+			}
+			// Queue retired in the meantime -> retry with a new one
+		}
+	}
+
 	/**
 	 * Invoke the given listener with the given event.
 	 * @param listener the ApplicationListener to invoke
@@ -206,4 +321,170 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		// Assuming an unrelated class cast failure...
 	}
 
+
+	/**
+	 * Bounded queue of events for a specific listener, delivered in batches by at
+	 * most one task at a time. Retires itself once empty so that queues do not
+	 * accumulate for listeners that are not in use anymore, and gets retired
+	 * along with its pending events when the listener is removed.
+	 */
+	private class ListenerQueue implements Runnable {
+
+		private final ApplicationListener<?> listener;
+
+		// Guarded by this queue's monitor
+		private final Deque<ApplicationEvent> events = new ArrayDeque<>();
+
+		private final int capacity;
+
+		// Guarded by this queue's monitor
+		private boolean scheduled;
+
+		// Guarded by this queue's monitor
+		private int waitingPublishers;
+
+		// Modified within this queue's monitor, also checked between deliveries
+		private volatile boolean retired;
+
+		public ListenerQueue(ApplicationListener<?> listener, int capacity) {
+			this.listener = listener;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Add the given event, blocking while the queue is full unless called
+		 * from a listener delivery.
+		 * @return {@code true} if added or discarded, {@code false} if this queue
+		 * has been retired before
+		 */
+		public boolean add(ApplicationEvent event) {
+			boolean schedule;
+			synchronized (this) {
+				if (this.retired) {
+					return false;
+				}
+				if (currentListenerQueue.get() == null && !awaitCapacity()) {
+					if (!this.retired) {
+						Log logger = LogFactory.getLog(SimpleApplicationEventMulticaster.class);
+						if (logger.isWarnEnabled()) {
+							logger.warn("Interrupted while waiting for queue space - discarding event " + event +
+									" for listener " + this.listener);
+						}
+					}
+					// else: listener removed in the meantime
+					return true;
+				}
+				this.events.add(event);
+				schedule = !this.scheduled;
+				this.scheduled = true;
+			}
+			if (schedule) {
+				schedule();
+			}
+			return true;
+		}
+
+		/**
+		 * Wait until the queue has space or is retired, within this queue's monitor.
+		 * @return {@code true} if there is space, {@code false} if retired or interrupted
+		 */
+		private boolean awaitCapacity() {
+			this.waitingPublishers++;
+			try {
+				while (this.events.size() >= this.capacity && !this.retired) {
+					wait();
+				}
+				return !this.retired;
+			}
+			catch (InterruptedException ex) {
+				// Invoking the listener right away would break its serial delivery
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			finally {
+				this.waitingPublishers--;
+			}
+		}
+
+		/**
+		 * Retire this queue, discarding pending events and releasing blocked publishers.
+		 */
+		public synchronized void discard() {
+			this.retired = true;
+			this.events.clear();
+			notifyAll();
+		}
+
+		private void schedule() {
+			Executor executor = getTaskExecutor();
+			if (executor != null) {
+				try {
+					executor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					// E.g. rejected by the executor: allow for scheduling on the next event
+					synchronized (this) {
+						this.scheduled = false;
+					}
+					throw ex;
+				}
+			}
+			else {
+				run();
+			}
+		}
+
+		@Override
+		public void run() {
+			List<ApplicationEvent> batch;
+			synchronized (this) {
+				int batchSize = Math.min(this.capacity, this.events.size());
+				batch = new ArrayList<>(batchSize);
+				for (int i = 0; i < batchSize; i++) {
+					batch.add(this.events.poll());
+				}
+				notifyAll();
+			}
+			Object previousQueue = currentListenerQueue.get();
+			currentListenerQueue.set(this);
+			try {
+				for (ApplicationEvent event : batch) {
+					if (this.retired) {
+						// Listener removed: discard the rest of the batch
+						break;
+					}
+					try {
+						invokeListener(this.listener, event);
+					}
+					catch (Throwable ex) {
+						LogFactory.getLog(SimpleApplicationEventMulticaster.class).error(
+								"Unexpected exception from listener " + this.listener + " for event " + event, ex);
+					}
+				}
+			}
+			finally {
+				if (previousQueue != null) {
+					currentListenerQueue.set(previousQueue);
+				}
+				else {
+					currentListenerQueue.remove();
+				}
+				boolean reschedule;
+				synchronized (this) {
+					reschedule = (!this.retired && !this.events.isEmpty());
+					if (!reschedule) {
+						this.scheduled = false;
+						if (this.waitingPublishers == 0) {
+							this.retired = true;
+							listenerQueues.remove(this.listener, this);
+						}
+					}
+				}
+				if (reschedule) {
+					schedule();
+				}
+			}
+		}
+	}
+
 }
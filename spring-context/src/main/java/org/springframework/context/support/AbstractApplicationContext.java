@@ -25,6 +25,8 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.support.ResourceEditorRegistrar;
 import org.springframework.context.*;
 import org.springframework.context.event.*;
@@ -42,6 +44,9 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -50,6 +55,7 @@ import org.springframework.util.ReflectionUtils;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -190,6 +196,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Nullable
 	private Set<ApplicationEvent> earlyApplicationEvents;
 
+	/** Startup instrumentation for the refresh phases and bean creation */
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -298,6 +307,30 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return new StandardEnvironment();
 	}
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics during startup:
+	 * for the refresh phases, for every bean factory post-processor and for the
+	 * creation phases of every bean. A {@link BufferingApplicationStartup} will
+	 * have its report of the most expensive steps logged at info level once
+	 * the refresh has completed.
+	 * <p>The default is a no-op {@link ApplicationStartup#DEFAULT} instance.
+	 * Needs to be set <em>before</em> {@link #refresh()}.
+	 * @since 5.0.15
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * @since 5.0.15
+	 */
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
 	/**
 	 * Return this context's internal bean factory as AutowireCapableBeanFactory,
 	 * if already available.
@@ -493,64 +526,80 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Override
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
-			//1:准备刷新上下文环境
-			prepareRefresh();
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
+			try {
+				//1:准备刷新上下文环境
+				prepareRefresh();
 
-			//2:获取告诉子类初始化Bean工厂  不同工厂不同实现
-			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+				//2:获取告诉子类初始化Bean工厂  不同工厂不同实现
+				ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
 
-			//3:对bean工厂进行填充属性
-			prepareBeanFactory(beanFactory);
+				//3:对bean工厂进行填充属性
+				prepareBeanFactory(beanFactory);
 
-			try {
-				// 第四:留个子类去实现该接口
-				postProcessBeanFactory(beanFactory);
+				try {
+					StartupStep beanPostProcess = this.applicationStartup.start("spring.context.beans.post-process");
+					try {
+						// 第四:留个子类去实现该接口
+						postProcessBeanFactory(beanFactory);
 
-				// 调用我们的bean工厂的后置处理器. 1. 会在此将class扫描成beanDefinition  2.bean工厂的后置处理器调用
-				invokeBeanFactoryPostProcessors(beanFactory);
+						// 调用我们的bean工厂的后置处理器. 1. 会在此将class扫描成beanDefinition  2.bean工厂的后置处理器调用
+						invokeBeanFactoryPostProcessors(beanFactory);
 
-				// 注册我们bean的后置处理器
-				registerBeanPostProcessors(beanFactory);
+						// 注册我们bean的后置处理器
+						registerBeanPostProcessors(beanFactory);
+					}
+					finally {
+						beanPostProcess.end();
+					}
 
-				// 初始化国际化资源处理器.
-				initMessageSource();
+					// 初始化国际化资源处理器.
+					initMessageSource();
 
-				// 创建事件多播器
-				initApplicationEventMulticaster();
+					// 创建事件多播器
+					initApplicationEventMulticaster();
 
-				// 这个方法同样也是留个子类实现的springboot也是从这个方法进行启动tomcat的.
-				onRefresh();
+					// 这个方法同样也是留个子类实现的springboot也是从这个方法进行启动tomcat的.
+					onRefresh();
 
-				//把我们的事件监听器注册到多播器上
-				registerListeners();
+					//把我们的事件监听器注册到多播器上
+					registerListeners();
 
-				// 实例化我们剩余的单实例bean.
-				finishBeanFactoryInitialization(beanFactory);
+					// 实例化我们剩余的单实例bean.
+					finishBeanFactoryInitialization(beanFactory);
 
-				// 最后容器刷新 发布刷新事件(Spring cloud也是从这里启动的)
-				finishRefresh();
-			}
-
-			catch (BeansException ex) {
-				if (logger.isWarnEnabled()) {
-					logger.warn("Exception  encountered during context initialization - " +
-							"cancelling refresh attempt: " + ex);
+					// 最后容器刷新 发布刷新事件(Spring cloud也是从这里启动的)
+					finishRefresh();
 				}
 
-				// Destroy already created singletons to avoid dangling resources.
-				destroyBeans();
+				catch (BeansException ex) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Exception  encountered during context initialization - " +
+								"cancelling refresh attempt: " + ex);
+					}
 
-				// Reset 'active' flag.
-				cancelRefresh(ex);
+					// Destroy already created singletons to avoid dangling resources.
+					destroyBeans();
 
-				// Propagate exception to caller.
-				throw ex;
-			}
+					// Reset 'active' flag.
+					cancelRefresh(ex);
 
+					// Propagate exception to caller.
+					throw ex;
+				}
+
+				finally {
+					// Reset common introspection caches in Spring's core, since we
+					// might not ever need metadata for singleton beans anymore...
+					resetCommonCaches();
+				}
+			}
 			finally {
-				// Reset common introspection caches in Spring's core, since we
-				// might not ever need metadata for singleton beans anymore...
-				resetCommonCaches();
+				contextRefresh.end();
+			}
+
+			if (this.applicationStartup instanceof BufferingApplicationStartup && logger.isInfoEnabled()) {
+				logger.info(((BufferingApplicationStartup) this.applicationStartup).getReport());
 			}
 		}
 	}
@@ -681,6 +730,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			beanFactory.setTempClassLoader(new ContextTypeMatchClassLoader(beanFactory.getBeanClassLoader()));
 		}
 
+		// Record bean creation phases along with the refresh phases.
+		if (beanFactory instanceof AbstractBeanFactory) {
+			((AbstractBeanFactory) beanFactory).setApplicationStartup(getApplicationStartup());
+		}
+
 		//注册了bean工厂的内部的bean
 		if (!beanFactory.containsLocalBean(ENVIRONMENT_BEAN_NAME)) {
 			//环境
@@ -694,6 +748,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			//系统环境
 			beanFactory.registerSingleton(SYSTEM_ENVIRONMENT_BEAN_NAME, getEnvironment().getSystemEnvironment());
 		}
+		if (!beanFactory.containsLocalBean(APPLICATION_STARTUP_BEAN_NAME)) {
+			beanFactory.registerSingleton(APPLICATION_STARTUP_BEAN_NAME, getApplicationStartup());
+		}
 	}
 
 	/**
@@ -891,6 +948,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 					beanFactory.getBean(CONVERSION_SERVICE_BEAN_NAME, ConversionService.class));
 		}
 
+		// Pre-instantiate independent singletons in parallel if a bootstrap executor is defined.
+		if (beanFactory instanceof DefaultListableBeanFactory &&
+				beanFactory.containsBean(BOOTSTRAP_EXECUTOR_BEAN_NAME) &&
+				beanFactory.isTypeMatch(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class)) {
+			((DefaultListableBeanFactory) beanFactory).setBootstrapExecutor(
+					beanFactory.getBean(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class));
+		}
+
 		/**
 		 * public class MainConfig implements EmbeddedValueResolverAware{
 		 *
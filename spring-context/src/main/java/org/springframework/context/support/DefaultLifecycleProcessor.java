@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,7 +25,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -46,6 +50,10 @@ import org.springframework.util.Assert;
 /**
  * Default implementation of the {@link LifecycleProcessor} strategy.
  *
+ * <p>As of 5.0.15, the beans of each phase may be started and stopped concurrently
+ * through a {@linkplain #setTaskExecutor task executor}, with each phase taking
+ * as long as its slowest member rather than the sum of all of its members.
+ *
  * @author Mark Fisher
  * @author Juergen Hoeller
  * @since 3.0
@@ -56,6 +64,9 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 
 	private volatile long timeoutPerShutdownPhase = 30000;
 
+	@Nullable
+	private volatile Executor taskExecutor;
+
 	private volatile boolean running;
 
 	@Nullable
@@ -71,6 +82,27 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 		this.timeoutPerShutdownPhase = timeoutPerShutdownPhase;
 	}
 
+	/**
+	 * Specify an executor for starting and stopping the beans of a phase concurrently,
+	 * typically a thread pool with a bounded number of threads.
+	 * <p>Default is none, starting and stopping all beans one after the other in
+	 * the calling thread. With an executor, each bean is started or stopped in a
+	 * separate task: as soon as all of its dependencies have been started, or all
+	 * of its dependent beans have been stopped, respectively. The phases themselves
+	 * are still processed one after the other, and a bean's start failure still
+	 * fails the startup once the other beans of its phase have been processed.
+	 * As without an executor, a phase is only done once the stop methods of all
+	 * of its beans have returned; the {@linkplain #setTimeoutPerShutdownPhase
+	 * shutdown timeout} only applies to the asynchronous stop callbacks of
+	 * {@link SmartLifecycle} beans.
+	 * @since 5.0.15
+	 * @see org.springframework.beans.factory.config.ConfigurableBeanFactory#getDependenciesForBean
+	 * @see org.springframework.beans.factory.config.ConfigurableBeanFactory#getDependentBeans
+	 */
+	public void setTaskExecutor(@Nullable Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		if (!(beanFactory instanceof ConfigurableListableBeanFactory)) {
@@ -174,21 +206,51 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 			for (String dependency : dependenciesForBean) {
 				doStart(lifecycleBeans, dependency, autoStartupOnly);
 			}
-			if (!bean.isRunning() &&
-					(!autoStartupOnly || !(bean instanceof SmartLifecycle) || ((SmartLifecycle) bean).isAutoStartup())) {
-				if (logger.isDebugEnabled()) {
-					logger.debug("Starting bean '" + beanName + "' of type [" + bean.getClass().getName() + "]");
-				}
-				try {
-					bean.start();
-				}
-				catch (Throwable ex) {
-					throw new ApplicationContextException("Failed to start bean '" + beanName + "'", ex);
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Successfully started bean '" + beanName + "'");
+			startBean(beanName, bean, autoStartupOnly);
+		}
+	}
+
+	/**
+	 * Schedule the start of the specified bean on the given executor, once all
+	 * the beans that it depends on have been started.
+	 * @param lifecycleBeans a Map with bean name as key and Lifecycle instance as value
+	 * @param beanName the name of the bean to start
+	 * @param futures the start futures of the beans scheduled so far, by bean name
+	 */
+	private void scheduleStart(Map<String, ? extends Lifecycle> lifecycleBeans, String beanName,
+			boolean autoStartupOnly, Executor executor, Map<String, CompletableFuture<Void>> futures) {
+
+		Lifecycle bean = lifecycleBeans.remove(beanName);
+		if (bean != null && bean != this) {
+			String[] dependenciesForBean = getBeanFactory().getDependenciesForBean(beanName);
+			List<CompletableFuture<Void>> dependencyFutures = new ArrayList<>(dependenciesForBean.length);
+			for (String dependency : dependenciesForBean) {
+				scheduleStart(lifecycleBeans, dependency, autoStartupOnly, executor, futures);
+				CompletableFuture<Void> dependencyFuture = futures.get(dependency);
+				if (dependencyFuture != null) {
+					dependencyFutures.add(dependencyFuture);
 				}
 			}
+			futures.put(beanName, allOf(dependencyFutures).thenRunAsync(
+					() -> startBean(beanName, bean, autoStartupOnly), executor));
+		}
+	}
+
+	private void startBean(String beanName, Lifecycle bean, boolean autoStartupOnly) {
+		if (!bean.isRunning() &&
+				(!autoStartupOnly || !(bean instanceof SmartLifecycle) || ((SmartLifecycle) bean).isAutoStartup())) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Starting bean '" + beanName + "' of type [" + bean.getClass().getName() + "]");
+			}
+			try {
+				bean.start();
+			}
+			catch (Throwable ex) {
+				throw new ApplicationContextException("Failed to start bean '" + beanName + "'", ex);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Successfully started bean '" + beanName + "'");
+			}
 		}
 	}
 
@@ -228,46 +290,84 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 			for (String dependentBean : dependentBeans) {
 				doStop(lifecycleBeans, dependentBean, latch, countDownBeanNames);
 			}
-			try {
-				if (bean.isRunning()) {
-					if (bean instanceof SmartLifecycle) {
-						if (logger.isDebugEnabled()) {
-							logger.debug("Asking bean '" + beanName + "' of type [" +
-									bean.getClass().getName() + "] to stop");
-						}
-						countDownBeanNames.add(beanName);
-						((SmartLifecycle) bean).stop(() -> {
-							latch.countDown();
-							countDownBeanNames.remove(beanName);
-							if (logger.isDebugEnabled()) {
-								logger.debug("Bean '" + beanName + "' completed its stop procedure");
-							}
-						});
+			stopBean(beanName, bean, latch, countDownBeanNames);
+		}
+	}
+
+	/**
+	 * Schedule the stop of the specified bean on the given executor, once all
+	 * the beans that depend on it have been asked to stop.
+	 * @param lifecycleBeans a Map with bean name as key and Lifecycle instance as value
+	 * @param beanName the name of the bean to stop
+	 * @param futures the stop futures of the beans scheduled so far, by bean name
+	 */
+	private void scheduleStop(Map<String, ? extends Lifecycle> lifecycleBeans, final String beanName,
+			final CountDownLatch latch, final Set<String> countDownBeanNames, Executor executor,
+			Map<String, CompletableFuture<Void>> futures) {
+
+		Lifecycle bean = lifecycleBeans.remove(beanName);
+		if (bean != null) {
+			String[] dependentBeans = getBeanFactory().getDependentBeans(beanName);
+			List<CompletableFuture<Void>> dependentFutures = new ArrayList<>(dependentBeans.length);
+			for (String dependentBean : dependentBeans) {
+				scheduleStop(lifecycleBeans, dependentBean, latch, countDownBeanNames, executor, futures);
+				CompletableFuture<Void> dependentFuture = futures.get(dependentBean);
+				if (dependentFuture != null) {
+					dependentFutures.add(dependentFuture);
+				}
+			}
+			// Stop failures are logged, so proceed even if a dependent bean could not be stopped
+			futures.put(beanName, allOf(dependentFutures).exceptionally(ex -> null).thenRunAsync(
+					() -> stopBean(beanName, bean, latch, countDownBeanNames), executor));
+		}
+	}
+
+	private void stopBean(final String beanName, Lifecycle bean,
+			final CountDownLatch latch, final Set<String> countDownBeanNames) {
+
+		try {
+			if (bean.isRunning()) {
+				if (bean instanceof SmartLifecycle) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Asking bean '" + beanName + "' of type [" +
+								bean.getClass().getName() + "] to stop");
 					}
-					else {
+					countDownBeanNames.add(beanName);
+					((SmartLifecycle) bean).stop(() -> {
+						latch.countDown();
+						countDownBeanNames.remove(beanName);
 						if (logger.isDebugEnabled()) {
-							logger.debug("Stopping bean '" + beanName + "' of type [" +
-									bean.getClass().getName() + "]");
+							logger.debug("Bean '" + beanName + "' completed its stop procedure");
 						}
-						bean.stop();
-						if (logger.isDebugEnabled()) {
-							logger.debug("Successfully stopped bean '" + beanName + "'");
-						}
-					}
+					});
 				}
-				else if (bean instanceof SmartLifecycle) {
-					// Don't wait for beans that aren't running...
-					latch.countDown();
+				else {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Stopping bean '" + beanName + "' of type [" +
+								bean.getClass().getName() + "]");
+					}
+					bean.stop();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Successfully stopped bean '" + beanName + "'");
+					}
 				}
 			}
-			catch (Throwable ex) {
-				if (logger.isWarnEnabled()) {
-					logger.warn("Failed to stop bean '" + beanName + "'", ex);
-				}
+			else if (bean instanceof SmartLifecycle) {
+				// Don't wait for beans that aren't running...
+				latch.countDown();
+			}
+		}
+		catch (Throwable ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Failed to stop bean '" + beanName + "'", ex);
 			}
 		}
 	}
 
+	private static CompletableFuture<Void> allOf(List<CompletableFuture<Void>> futures) {
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+	}
+
 
 	// overridable hooks
 
@@ -357,11 +457,41 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 				logger.info("Starting beans in phase " + this.phase);
 			}
 			Collections.sort(this.members);
+			Executor executor = taskExecutor;
+			if (executor != null) {
+				startConcurrently(executor);
+				return;
+			}
 			for (LifecycleGroupMember member : this.members) {
 				doStart(this.lifecycleBeans, member.name, this.autoStartupOnly);
 			}
 		}
 
+		private void startConcurrently(Executor executor) {
+			Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+			for (LifecycleGroupMember member : this.members) {
+				scheduleStart(this.lifecycleBeans, member.name, this.autoStartupOnly, executor, futures);
+			}
+			try {
+				allOf(new ArrayList<>(futures.values())).join();
+			}
+			catch (CompletionException ex) {
+				// Rethrow the ApplicationContextException from the first failed start
+				for (CompletableFuture<Void> future : futures.values()) {
+					if (future.isCompletedExceptionally()) {
+						try {
+							future.join();
+						}
+						catch (CompletionException failure) {
+							Throwable cause = failure.getCause();
+							throw (cause instanceof RuntimeException ? (RuntimeException) cause : failure);
+						}
+					}
+				}
+				throw ex;
+			}
+		}
+
 		public void stop() {
 			if (this.members.isEmpty()) {
 				return;
@@ -373,9 +503,16 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 			CountDownLatch latch = new CountDownLatch(this.smartMemberCount);
 			Set<String> countDownBeanNames = Collections.synchronizedSet(new LinkedHashSet<>());
 			Set<String> lifecycleBeanNames = new HashSet<>(this.lifecycleBeans.keySet());
+			Executor executor = taskExecutor;
+			Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
 			for (LifecycleGroupMember member : this.members) {
 				if (lifecycleBeanNames.contains(member.name)) {
-					doStop(this.lifecycleBeans, member.name, latch, countDownBeanNames);
+					if (executor != null) {
+						scheduleStop(this.lifecycleBeans, member.name, latch, countDownBeanNames, executor, futures);
+					}
+					else {
+						doStop(this.lifecycleBeans, member.name, latch, countDownBeanNames);
+					}
 				}
 				else if (member.bean instanceof SmartLifecycle) {
 					// Already removed: must have been a dependent bean from another phase
@@ -383,6 +520,16 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 				}
 			}
 			try {
+				if (!futures.isEmpty()) {
+					// As in the sequential case, wait for all stop invocations to return before
+					// the next phase may begin: the timeout only applies to the stop callbacks
+					try {
+						allOf(new ArrayList<>(futures.values())).get();
+					}
+					catch (ExecutionException ex) {
+						// Failures logged by each stop task
+					}
+				}
 				latch.await(this.timeout, TimeUnit.MILLISECONDS);
 				if (latch.getCount() > 0 && !countDownBeanNames.isEmpty() && logger.isWarnEnabled()) {
 					logger.warn("Failed to shut down " + countDownBeanNames.size() + " bean" +
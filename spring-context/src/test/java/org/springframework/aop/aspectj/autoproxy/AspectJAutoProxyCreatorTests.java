@@ -19,6 +19,10 @@ package org.springframework.aop.aspectj.autoproxy;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -39,11 +43,13 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.MethodInvokingFactoryBean;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.NestedRuntimeException;
@@ -372,6 +378,49 @@ public class AspectJAutoProxyCreatorTests {
 	}
 
 
+	@Test(timeout = 30000)
+	public void testAspectsAppliedDuringParallelPreInstantiation() {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Set<Thread> creatingThreads = ConcurrentHashMap.newKeySet();
+			GenericApplicationContext ctx = new GenericApplicationContext();
+			ctx.getBeanFactory().registerSingleton(ConfigurableApplicationContext.BOOTSTRAP_EXECUTOR_BEAN_NAME, executor);
+			ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					if (bean instanceof TestBean) {
+						creatingThreads.add(Thread.currentThread());
+					}
+					return bean;
+				}
+			});
+			ctx.registerBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME,
+					new RootBeanDefinition(AnnotationAwareAspectJAutoProxyCreator.class));
+			ctx.registerBeanDefinition("increaseReturnValue", new RootBeanDefinition(IncreaseReturnValue.class));
+			ctx.registerBeanDefinition("multiplyReturnValueForMarker",
+					new RootBeanDefinition(MultiplyReturnValueForMarker.class));
+			for (int i = 0; i < 64; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(i % 2 == 0 ? TestBean.class : MarkerTestBean.class);
+				bd.getPropertyValues().add("age", i);
+				ctx.registerBeanDefinition("bean" + i, bd);
+			}
+			ctx.refresh();
+
+			assertTrue("Beans should have been created on the bootstrap executor",
+					creatingThreads.stream().anyMatch(thread -> thread != Thread.currentThread()));
+			for (int i = 0; i < 64; i++) {
+				ITestBean bean = (ITestBean) ctx.getBean("bean" + i);
+				assertTrue(AopUtils.isAopProxy(bean));
+				assertEquals(i % 2 == 0 ? i + 3 : i * 2 + 3, bean.getAge());
+			}
+			ctx.close();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
 	/**
 	 * Returns a new {@link ClassPathXmlApplicationContext} for the file ending in <var>fileSuffix</var>.
 	 */
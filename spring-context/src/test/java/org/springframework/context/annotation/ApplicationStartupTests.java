@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.Test;
+
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ApplicationStartup} instrumentation of context refresh
+ * and bean creation.
+ *
+ * @since 5.0.15
+ */
+public class ApplicationStartupTests {
+
+	@Test
+	public void stepsRecordedDuringRefresh() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup();
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setApplicationStartup(startup);
+		ctx.register(StartupConfig.class);
+		ctx.refresh();
+
+		assertSame(startup, ctx.getBean(ConfigurableApplicationContext.APPLICATION_STARTUP_BEAN_NAME));
+		assertSame(startup, ctx.getDefaultListableBeanFactory().getApplicationStartup());
+		assertTrue(ctx.getBean(InitializingBean.class).initialized);
+
+		String report = startup.getReport(Integer.MAX_VALUE);
+		assertTrue(report, report.contains("spring.context.refresh"));
+		assertTrue(report, report.contains("spring.context.beans.post-process"));
+		assertTrue(report, report.contains("spring.context.beandef-registry.post-process {postProcessor=" +
+				ConfigurationClassPostProcessor.class.getName() + "}"));
+		assertTrue(report, report.contains("spring.context.config-classes.parse"));
+		assertTrue(report, report.contains("spring.context.config-classes.enhance"));
+		assertTrue(report, report.contains("spring.beans.instantiate {beanName=initializingBean}"));
+		assertTrue(report, report.contains("spring.beans.instantiate.create-instance {beanName=initializingBean}"));
+		assertTrue(report, report.contains("spring.beans.instantiate.populate {beanName=initializingBean}"));
+		assertTrue(report, report.contains("spring.beans.instantiate.init {beanName=initializingBean}"));
+		assertTrue(report, report.contains("spring.beans.instantiate.post-process {beanName=initializingBean, " +
+				"postProcessor=" + CommonAnnotationBeanPostProcessor.class.getName() + ", phase=before-initialization}"));
+		ctx.close();
+	}
+
+	@Test
+	public void stepsEndedOnRefreshFailure() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup();
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setApplicationStartup(startup);
+		ctx.addBeanFactoryPostProcessor(beanFactory -> {
+			throw new FatalBeanException("Expected failure");
+		});
+		try {
+			ctx.refresh();
+			fail("Should have thrown FatalBeanException");
+		}
+		catch (FatalBeanException ex) {
+			assertEquals("Expected failure", ex.getMessage());
+		}
+
+		String report = startup.getReport(Integer.MAX_VALUE);
+		assertTrue(report, report.contains("spring.context.refresh"));
+		assertTrue(report, report.contains("spring.context.beans.post-process"));
+	}
+
+	@Test
+	public void noStepsRecordedByDefault() {
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(StartupConfig.class);
+		assertSame(ApplicationStartup.DEFAULT, ctx.getApplicationStartup());
+		assertSame(ApplicationStartup.DEFAULT, ctx.getDefaultListableBeanFactory().getApplicationStartup());
+		ctx.close();
+	}
+
+
+	@Configuration
+	static class StartupConfig {
+
+		@Bean
+		public InitializingBean initializingBean() {
+			return new InitializingBean();
+		}
+
+		@Bean
+		public DependentBean dependentBean() {
+			return new DependentBean();
+		}
+	}
+
+
+	static class InitializingBean {
+
+		boolean initialized;
+
+		@PostConstruct
+		public void init() {
+			this.initialized = true;
+		}
+	}
+
+
+	static class DependentBean {
+
+		@Autowired
+		InitializingBean initializingBean;
+	}
+
+}
@@ -18,8 +18,12 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.profilescan.DevComponent;
 import example.profilescan.ProfileAnnotatedComponent;
@@ -43,6 +47,8 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.index.CandidateComponentsTestClassLoader;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ClassPathResource;
@@ -90,6 +96,60 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		testDefault(provider, AnnotatedGenericBeanDefinition.class);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ForkJoinPool scanningPool = new ForkJoinPool(4);
+		try {
+			ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+			provider.setResourceLoader(new DefaultResourceLoader(
+					CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+			provider.setScanningPool(scanningPool);
+			testDefault(provider, ScannedGenericBeanDefinition.class);
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelScanRetainsOrderOfSequentialScan() {
+		ForkJoinPool scanningPool = new ForkJoinPool(4);
+		try {
+			ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+			provider.setResourceLoader(new DefaultResourceLoader(
+					CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+			List<String> expected = getBeanClassNames(provider.findCandidateComponents("example"));
+			assertTrue(expected.size() > 7);
+			provider.setScanningPool(scanningPool);
+			assertEquals(expected, getBeanClassNames(provider.findCandidateComponents("example")));
+			assertEquals(Collections.singletonList(BarComponent.class.getName()),
+					getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE + ".**.sub")));
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelScanEnabledThroughSpringProperty() {
+		SpringProperties.setFlag(ClassPathScanningCandidateComponentProvider.PARALLEL_SCAN_PROPERTY_NAME);
+		try {
+			ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+			assertSame(ForkJoinPool.commonPool(), provider.getScanningPool());
+			GenericApplicationContext context = new GenericApplicationContext();
+			ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context);
+			assertSame(ForkJoinPool.commonPool(), scanner.getScanningPool());
+			scanner.setResourceLoader(new DefaultResourceLoader(
+					CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+			scanner.scan(TEST_BASE_PACKAGE);
+			assertTrue(context.containsBeanDefinition("fooServiceImpl"));
+		}
+		finally {
+			SpringProperties.setProperty(ClassPathScanningCandidateComponentProvider.PARALLEL_SCAN_PROPERTY_NAME, null);
+		}
+		assertNull(new ClassPathScanningCandidateComponentProvider(true).getScanningPool());
+	}
+
 	private void testDefault(ClassPathScanningCandidateComponentProvider provider,
 			Class<? extends BeanDefinition> expectedBeanDefinitionType) {
 		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
@@ -501,6 +561,10 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		}
 	}
 
+	private List<String> getBeanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
+
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
 			if (beanClass.getName().equals(candidate.getBeanClassName())) {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for configuration class snapshots, as written and restored by
+ * {@link ConfigurationClassPostProcessor}.
+ *
+ * @since 5.0.15
+ */
+public class ConfigurationClassSnapshotTests {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File snapshotDirectory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.snapshotDirectory = this.temporaryFolder.newFolder("snapshot");
+		SpringProperties.setProperty(ConfigurationClassPostProcessor.SNAPSHOT_DIRECTORY_PROPERTY_NAME,
+				this.snapshotDirectory.getPath());
+		CountingRegistrar.count.set(0);
+	}
+
+	@After
+	public void reset() {
+		SpringProperties.setProperty(ConfigurationClassPostProcessor.SNAPSHOT_DIRECTORY_PROPERTY_NAME, null);
+	}
+
+
+	@Test
+	public void snapshotIsWrittenAndRestored() {
+		assertConfigClassContext(1);
+		assertEquals(1, listSnapshots().length);
+
+		assertConfigClassContext(1);
+		assertEquals(1, listSnapshots().length);
+	}
+
+	@Test
+	public void restoredDefinitionsKeepAnnotationMetadata() {
+		assertConfigClassContext(1);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ConfigClass.class);
+		assertEquals(1, CountingRegistrar.count.get());
+
+		BeanDefinition beanMethod = context.getBeanDefinition("testBean");
+		assertTrue(beanMethod instanceof AnnotatedBeanDefinition);
+		AnnotatedBeanDefinition abd = (AnnotatedBeanDefinition) beanMethod;
+		assertEquals(ConfigClass.class.getName(), abd.getMetadata().getClassName());
+		assertEquals("testBean", abd.getFactoryMethodMetadata().getMethodName());
+		assertTrue(abd.getFactoryMethodMetadata().isAnnotated(Bean.class.getName()));
+
+		BeanDefinition imported = context.getBeanDefinition(context.getBeanNamesForType(ImportedConfig.class)[0]);
+		assertTrue(imported instanceof AnnotatedBeanDefinition);
+		abd = (AnnotatedBeanDefinition) imported;
+		assertEquals(ImportedConfig.class.getName(), abd.getMetadata().getClassName());
+		assertTrue(abd.getMetadata().hasAnnotation(Configuration.class.getName()));
+		assertNull(abd.getFactoryMethodMetadata());
+		context.close();
+	}
+
+	@Test
+	public void snapshotIsNotRestoredForDifferentProfiles() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ConfigClass.class);
+		assertFalse(context.containsBean("profileBean"));
+		context.close();
+		assertEquals(1, CountingRegistrar.count.get());
+
+		context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().setActiveProfiles("snapshot");
+		context.register(ConfigClass.class);
+		context.refresh();
+		assertTrue(context.containsBean("profileBean"));
+		context.close();
+		assertEquals(2, CountingRegistrar.count.get());
+	}
+
+	@Test
+	public void snapshotIsNotWrittenForUnsupportedDefinition() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(SupplierConfig.class);
+		assertEquals("supplied", context.getBean("suppliedBean", TestBean.class).getName());
+		context.close();
+		assertEquals(0, listSnapshots().length);
+	}
+
+	@Test
+	public void snapshotIsNotUsedWithoutDirectory() {
+		SpringProperties.setProperty(ConfigurationClassPostProcessor.SNAPSHOT_DIRECTORY_PROPERTY_NAME, null);
+		assertConfigClassContext(1);
+		assertConfigClassContext(2);
+		assertEquals(0, listSnapshots().length);
+	}
+
+	private void assertConfigClassContext(int expectedRegistrarCount) {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ConfigClass.class);
+		assertEquals(expectedRegistrarCount, CountingRegistrar.count.get());
+
+		TestBean testBean = context.getBean("testBean", TestBean.class);
+		assertEquals("p1TestBean", testBean.getName());
+		assertSame(testBean, context.getBean("alias"));
+		assertSame(testBean, context.getBean(ConfigClass.class).testBean());
+		assertEquals("p1Value", context.getEnvironment().getProperty("from.p1"));
+		assertEquals("registered", context.getBean("registeredBean", TestBean.class).getName());
+		assertFalse(context.containsBean("profileBean"));
+
+		ImportedConfig importedConfig = context.getBean(ImportedConfig.class);
+		assertNotNull(importedConfig.importMetadata);
+		assertEquals(ConfigClass.class.getName(), importedConfig.importMetadata.getClassName());
+		assertSame(testBean, importedConfig.testBean);
+		context.close();
+	}
+
+	private File[] listSnapshots() {
+		File[] files = this.snapshotDirectory.listFiles((dir, name) -> name.endsWith(".snapshot"));
+		assertNotNull(files);
+		return files;
+	}
+
+
+	@Configuration
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	@Import({ImportedConfig.class, CountingRegistrar.class})
+	static class ConfigClass {
+
+		@Autowired
+		Environment environment;
+
+		@Bean(name = {"testBean", "alias"})
+		public TestBean testBean() {
+			return new TestBean(this.environment.getProperty("testbean.name"));
+		}
+
+		@Bean
+		@Profile("snapshot")
+		public TestBean profileBean() {
+			return new TestBean();
+		}
+	}
+
+
+	@Configuration
+	static class ImportedConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Autowired
+		TestBean testBean;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+	}
+
+
+	static class CountingRegistrar implements ImportBeanDefinitionRegistrar {
+
+		static final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+			count.incrementAndGet();
+			GenericBeanDefinition bd = new GenericBeanDefinition();
+			bd.setBeanClass(TestBean.class);
+			bd.getPropertyValues().add("name", "registered");
+			registry.registerBeanDefinition("registeredBean", bd);
+		}
+	}
+
+
+	@Configuration
+	@Import(SupplierRegistrar.class)
+	static class SupplierConfig {
+	}
+
+
+	static class SupplierRegistrar implements ImportBeanDefinitionRegistrar {
+
+		@Override
+		public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+			registry.registerBeanDefinition("suppliedBean",
+					new RootBeanDefinition(TestBean.class, () -> new TestBean("supplied")));
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -529,6 +529,19 @@ public class AnnotationDrivenEventListenerTests {
 		this.eventCollector.assertTotalEventsCount(4);
 	}
 
+	@Test
+	public void conditionMatchWithRepeatedEvaluation() {
+		load(ConditionalEventListener.class);
+		TestEventListener listener = this.context.getBean(ConditionalEventListener.class);
+
+		// Beyond the threshold for compiling the condition
+		for (int i = 0; i < 250; i++) {
+			this.context.publishEvent(i % 2 == 0 ? "OK" : "KO");
+		}
+		this.eventCollector.assertTotalEventsCount(125);
+		assertEquals(125, this.eventCollector.getEvents(listener).size());
+	}
+
 	@Test
 	public void conditionDoesNotMatch() {
 		long maxLong = Long.MAX_VALUE;
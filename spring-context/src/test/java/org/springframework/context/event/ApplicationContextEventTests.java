@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,20 @@
 
 package org.springframework.context.event;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Test;
@@ -176,6 +185,171 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		smc.multicastEvent(evt);
 	}
 
+	@Test
+	public void simpleApplicationEventMulticasterWithListenerQueue() {
+		BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(10);
+		MyOrderedListener1 listener = new MyOrderedListener1();
+		smc.addApplicationListener(listener);
+
+		ApplicationEvent event1 = new MyEvent(this);
+		ApplicationEvent event2 = new MyOtherEvent(this);
+		ApplicationEvent event3 = new MyEvent(this);
+		smc.multicastEvent(event1);
+		smc.multicastEvent(event2);
+		smc.multicastEvent(event3);
+		assertEquals(1, tasks.size());
+		assertTrue(listener.seenEvents.isEmpty());
+
+		tasks.remove().run();
+		assertEquals(Arrays.asList(event1, event2, event3), listener.seenEvents);
+		assertTrue(tasks.isEmpty());
+
+		smc.multicastEvent(event1);
+		assertEquals(1, tasks.size());
+		tasks.remove().run();
+		assertEquals(4, listener.seenEvents.size());
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWithFullListenerQueue() throws Exception {
+		BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(1);
+		MyOrderedListener1 listener = new MyOrderedListener1();
+		smc.addApplicationListener(listener);
+
+		ApplicationEvent event1 = new MyEvent(this);
+		ApplicationEvent event2 = new MyOtherEvent(this);
+		smc.multicastEvent(event1);
+		Thread publisher = new Thread(() -> smc.multicastEvent(event2));
+		publisher.start();
+		publisher.join(200);
+		assertTrue("Publisher should block while the listener queue is full", publisher.isAlive());
+
+		tasks.remove().run();
+		publisher.join(5000);
+		assertFalse(publisher.isAlive());
+		tasks.poll(5, TimeUnit.SECONDS).run();
+		assertEquals(Arrays.asList(event1, event2), listener.seenEvents);
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWithInterruptedPublisher() throws Exception {
+		BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(1);
+		MyOrderedListener1 listener = new MyOrderedListener1();
+		smc.addApplicationListener(listener);
+
+		ApplicationEvent event1 = new MyEvent(this);
+		ApplicationEvent event2 = new MyOtherEvent(this);
+		smc.multicastEvent(event1);
+		boolean[] interrupted = new boolean[1];
+		Thread publisher = new Thread(() -> {
+			smc.multicastEvent(event2);
+			interrupted[0] = Thread.currentThread().isInterrupted();
+		});
+		publisher.start();
+		publisher.join(200);
+		assertTrue("Publisher should block while the listener queue is full", publisher.isAlive());
+		publisher.interrupt();
+		publisher.join(5000);
+		assertFalse(publisher.isAlive());
+		assertTrue("Interrupt flag should be restored", interrupted[0]);
+		assertTrue("Listener must not be invoked on the publisher thread", listener.seenEvents.isEmpty());
+
+		tasks.remove().run();
+		assertEquals(Collections.singletonList(event1), listener.seenEvents);
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test(timeout = 10000)
+	public void simpleApplicationEventMulticasterWithListenerPublishingToFullQueue() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+			smc.setTaskExecutor(executor);
+			smc.setListenerQueueCapacity(1);
+			List<ApplicationEvent> seenEvents = new CopyOnWriteArrayList<>();
+			CountDownLatch latch = new CountDownLatch(6);
+			// Listener publishing several events to another listener with a full queue, on the only executor thread
+			smc.addApplicationListener(event -> {
+				if (event instanceof MyEvent) {
+					for (int i = 0; i < 3; i++) {
+						smc.multicastEvent(new MyOtherEvent(this));
+					}
+				}
+			});
+			smc.addApplicationListener(event -> {
+				if (event instanceof MyOtherEvent) {
+					seenEvents.add(event);
+					latch.countDown();
+				}
+			});
+
+			smc.multicastEvent(new MyEvent(this));
+			smc.multicastEvent(new MyEvent(this));
+			assertTrue("Events should have been delivered", latch.await(5, TimeUnit.SECONDS));
+			assertEquals(6, seenEvents.size());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterDiscardsQueueOfRemovedListener() throws Exception {
+		BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(1);
+		MyOrderedListener1 listener = new MyOrderedListener1();
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(new MyEvent(this));
+		Thread publisher = new Thread(() -> smc.multicastEvent(new MyOtherEvent(this)));
+		publisher.start();
+		publisher.join(200);
+		assertTrue("Publisher should block while the listener queue is full", publisher.isAlive());
+
+		smc.removeApplicationListener(listener);
+		publisher.join(5000);
+		assertFalse("Publisher should be released by the removal", publisher.isAlive());
+		tasks.remove().run();
+		assertTrue(listener.seenEvents.isEmpty());
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	public void listenersAddedAndRemovedAfterCaching() {
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		MyOrderedListener2 listener2 = new MyOrderedListener2(listener1);
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+		smc.multicastEvent(new MyEvent(this));
+		smc.multicastEvent(new MyOtherEvent(this));
+		assertEquals(2, smc.retrieverCache.size());
+
+		smc.addApplicationListener(listener2);
+		assertEquals(2, smc.retrieverCache.size());
+		smc.multicastEvent(new MyEvent(this));
+		smc.multicastEvent(new MyOtherEvent(this));
+		assertEquals(4, listener1.seenEvents.size());
+
+		smc.removeApplicationListener(listener2);
+		assertEquals(1, smc.retrieverCache.size());
+		smc.removeApplicationListener(listener1);
+		assertEquals(0, smc.retrieverCache.size());
+		smc.multicastEvent(new MyEvent(this));
+		assertEquals(4, listener1.seenEvents.size());
+	}
+
 	@Test
 	public void orderedListeners() {
 		MyOrderedListener1 listener1 = new MyOrderedListener1();
@@ -293,8 +467,9 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertTrue(listener1.seenEvents.contains(event3));
 		assertTrue(listener1.seenEvents.contains(event4));
 
+		// ContextRefreshedEvent retained despite the lazy listener added afterwards
 		AbstractApplicationEventMulticaster multicaster = context.getBean(AbstractApplicationEventMulticaster.class);
-		assertEquals(2, multicaster.retrieverCache.size());
+		assertEquals(3, multicaster.retrieverCache.size());
 
 		context.close();
 	}
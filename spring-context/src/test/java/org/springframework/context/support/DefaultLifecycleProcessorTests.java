@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,10 @@
 package org.springframework.context.support;
 
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -24,6 +28,7 @@ import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationContextException;
 import org.springframework.context.Lifecycle;
 import org.springframework.context.LifecycleProcessor;
 import org.springframework.context.SmartLifecycle;
@@ -568,6 +573,111 @@ public class DefaultLifecycleProcessorTests {
 		assertEquals(Integer.MIN_VALUE, getPhase(stoppedBeans.get(4)));
 	}
 
+	@Test
+	public void concurrentStartupAndShutdownWithinPhase() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CopyOnWriteArrayList<Lifecycle> startedBeans = new CopyOnWriteArrayList<>();
+			CopyOnWriteArrayList<Lifecycle> stoppedBeans = new CopyOnWriteArrayList<>();
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			BarrierSmartLifecycleBean bean1 = new BarrierSmartLifecycleBean(barrier, startedBeans, stoppedBeans);
+			BarrierSmartLifecycleBean bean2 = new BarrierSmartLifecycleBean(barrier, startedBeans, stoppedBeans);
+			TestSmartLifecycleBean dependent = new TestSmartLifecycleBean(0, 0, startedBeans, stoppedBeans);
+			TestSmartLifecycleBean otherPhase = new TestSmartLifecycleBean(1, 0, startedBeans, stoppedBeans);
+			RootBeanDefinition processor = new RootBeanDefinition(DefaultLifecycleProcessor.class);
+			processor.getPropertyValues().add("taskExecutor", executor);
+			StaticApplicationContext context = new StaticApplicationContext();
+			context.registerBeanDefinition("lifecycleProcessor", processor);
+			context.getBeanFactory().registerSingleton("bean1", bean1);
+			context.getBeanFactory().registerSingleton("bean2", bean2);
+			context.getBeanFactory().registerSingleton("dependent", dependent);
+			context.getBeanFactory().registerSingleton("otherPhase", otherPhase);
+			context.getBeanFactory().registerDependentBean("bean1", "dependent");
+
+			// Both barrier beans have to be started at the same time
+			context.refresh();
+			assertTrue(bean1.isRunning());
+			assertTrue(bean2.isRunning());
+			assertTrue(dependent.isRunning());
+			assertEquals(4, startedBeans.size());
+			assertTrue(startedBeans.indexOf(bean1) < startedBeans.indexOf(dependent));
+			assertSame(otherPhase, startedBeans.get(3));
+
+			barrier.reset();
+			context.stop();
+			assertFalse(bean1.isRunning());
+			assertFalse(bean2.isRunning());
+			assertFalse(dependent.isRunning());
+			assertEquals(4, stoppedBeans.size());
+			assertSame(otherPhase, stoppedBeans.get(0));
+			assertTrue(stoppedBeans.indexOf(dependent) < stoppedBeans.indexOf(bean1));
+			context.close();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void concurrentShutdownWaitsForBlockingStopBeyondTimeout() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CopyOnWriteArrayList<Lifecycle> stoppedBeans = new CopyOnWriteArrayList<>();
+			TestSmartLifecycleBean slowBean = new TestSmartLifecycleBean(1, 0, null, stoppedBeans) {
+				@Override
+				public void stop() {
+					try {
+						Thread.sleep(500);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					super.stop();
+				}
+			};
+			TestSmartLifecycleBean earlierPhase = TestSmartLifecycleBean.forShutdownTests(0, 0, stoppedBeans);
+			RootBeanDefinition processor = new RootBeanDefinition(DefaultLifecycleProcessor.class);
+			processor.getPropertyValues().add("taskExecutor", executor);
+			processor.getPropertyValues().add("timeoutPerShutdownPhase", 100);
+			StaticApplicationContext context = new StaticApplicationContext();
+			context.registerBeanDefinition("lifecycleProcessor", processor);
+			context.getBeanFactory().registerSingleton("slowBean", slowBean);
+			context.getBeanFactory().registerSingleton("earlierPhase", earlierPhase);
+			context.refresh();
+
+			// The earlier phase must not be stopped while the slow bean is still stopping
+			context.stop();
+			assertEquals(2, stoppedBeans.size());
+			assertSame(slowBean, stoppedBeans.get(0));
+			assertSame(earlierPhase, stoppedBeans.get(1));
+			context.close();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(expected = ApplicationContextException.class)
+	public void concurrentStartupWithFailingBean() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			RootBeanDefinition processor = new RootBeanDefinition(DefaultLifecycleProcessor.class);
+			processor.getPropertyValues().add("taskExecutor", executor);
+			StaticApplicationContext context = new StaticApplicationContext();
+			context.registerBeanDefinition("lifecycleProcessor", processor);
+			context.getBeanFactory().registerSingleton("bean", new DummySmartLifecycleBean() {
+				@Override
+				public void start() {
+					throw new IllegalStateException("Cannot start");
+				}
+			});
+			context.refresh();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 
 	private static int getPhase(Lifecycle lifecycle) {
 		return (lifecycle instanceof SmartLifecycle) ?
@@ -680,6 +790,40 @@ public class DefaultLifecycleProcessorTests {
 	}
 
 
+	private static class BarrierSmartLifecycleBean extends TestSmartLifecycleBean {
+
+		private final CyclicBarrier barrier;
+
+		BarrierSmartLifecycleBean(CyclicBarrier barrier,
+				CopyOnWriteArrayList<Lifecycle> startedBeans, CopyOnWriteArrayList<Lifecycle> stoppedBeans) {
+
+			super(0, 0, startedBeans, stoppedBeans);
+			this.barrier = barrier;
+		}
+
+		@Override
+		public void start() {
+			awaitBarrier();
+			super.start();
+		}
+
+		@Override
+		public void stop() {
+			awaitBarrier();
+			super.stop();
+		}
+
+		private void awaitBarrier() {
+			try {
+				this.barrier.await(5, TimeUnit.SECONDS);
+			}
+			catch (Exception ex) {
+				throw new IllegalStateException("Not invoked concurrently with the other bean", ex);
+			}
+		}
+	}
+
+
 	public static class DummySmartLifecycleBean implements SmartLifecycle {
 
 		public boolean running = false;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.LatencyHistogramInterceptor;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
@@ -55,6 +56,7 @@ import org.springframework.jmx.export.naming.SelfNaming;
 import org.springframework.jmx.support.ObjectNameManager;
 import org.springframework.jmx.support.RegistrationPolicy;
 import org.springframework.tests.aop.interceptor.NopInterceptor;
+import org.springframework.tests.sample.beans.ITestBean;
 import org.springframework.tests.sample.beans.TestBean;
 
 import static org.junit.Assert.*;
@@ -129,6 +131,30 @@ public class MBeanExporterTests extends AbstractMBeanServerTests {
 		}
 	}
 
+	@Test
+	public void testLatencyHistogramInterceptorExposedAsMBean() throws Exception {
+		LatencyHistogramInterceptor interceptor = new LatencyHistogramInterceptor();
+		ProxyFactory factory = new ProxyFactory(new TestBean());
+		factory.addAdvice(interceptor);
+		((ITestBean) factory.getProxy()).getAge();
+
+		MBeanExporter exporter = new MBeanExporter();
+		exporter.setBeans(Collections.singletonMap("spring:name=latency", interceptor));
+		exporter.setServer(server);
+		try {
+			start(exporter);
+			ObjectName oname = ObjectNameManager.getInstance("spring:name=latency");
+			assertTrue(server.isRegistered(oname));
+			String[] methods = (String[]) server.getAttribute(oname, "MonitoredMethods");
+			assertEquals(1, methods.length);
+			assertEquals(1L, server.invoke(oname, "getInvocationCount",
+					new Object[] {methods[0]}, new String[] {String.class.getName()}));
+		}
+		finally {
+			exporter.destroy();
+		}
+	}
+
 	@Test
 	public void testUserCreatedMBeanRegWithDynamicMBean() throws Exception {
 		Map<String, Object> map = new HashMap<>();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.core.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,10 +29,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -86,6 +89,15 @@ import org.springframework.util.MultiValueMap;
  * search algorithm manually traverses type and method hierarchies and thereby
  * implicitly supports annotation inheritance without a need for {@code @Inherited}.
  *
+ * <h3>Annotation Index</h3>
+ * <p>For classes, methods, fields and constructors, the names of all annotation
+ * types that are present or meta-present according to <em>get</em> and
+ * <em>find semantics</em> are collected in a single pass on first access and
+ * kept in a per-element index. Lookups of annotation types that are not in the
+ * index return right away, and merged, synthesized annotations are only computed
+ * once per element and annotation type. Lookups of standard Java annotation types
+ * (which are not searched on other standard Java annotations) bypass the index.
+ *
  * @author Phillip Webb
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -107,6 +119,9 @@ public class AnnotatedElementUtils {
 
 	private static final Processor<Boolean> alwaysTrueAnnotationProcessor = new AlwaysTrueBooleanAnnotationProcessor();
 
+	private static final Map<AnnotatedElement, AnnotationIndex> annotationIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * Build an adapted {@link AnnotatedElement} for the given annotations,
@@ -261,6 +276,10 @@ public class AnnotatedElementUtils {
 		if (element.isAnnotationPresent(annotationType)) {
 			return true;
 		}
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null) {
+			return index.isPresent(annotationType.getName());
+		}
 		return Boolean.TRUE.equals(searchWithGetSemantics(element, annotationType, null, alwaysTrueAnnotationProcessor));
 	}
 
@@ -277,6 +296,10 @@ public class AnnotatedElementUtils {
 	 * @return {@code true} if a matching annotation is present
 	 */
 	public static boolean isAnnotated(AnnotatedElement element, String annotationName) {
+		AnnotationIndex index = getAnnotationIndex(element, annotationName);
+		if (index != null) {
+			return index.isPresent(annotationName);
+		}
 		return Boolean.TRUE.equals(searchWithGetSemantics(element, null, annotationName, alwaysTrueAnnotationProcessor));
 	}
 
@@ -301,6 +324,10 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(
 			AnnotatedElement element, Class<? extends Annotation> annotationType) {
 
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null && !index.isPresent(annotationType.getName())) {
+			return null;
+		}
 		AnnotationAttributes attributes = searchWithGetSemantics(element, annotationType, null,
 				new MergedAnnotationAttributesProcessor());
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, false, false);
@@ -360,6 +387,10 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		AnnotationIndex index = getAnnotationIndex(element, annotationName);
+		if (index != null && !index.isPresent(annotationName)) {
+			return null;
+		}
 		AnnotationAttributes attributes = searchWithGetSemantics(element, null, annotationName,
 				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -386,6 +417,15 @@ public class AnnotatedElementUtils {
 	 */
 	@Nullable
 	public static <A extends Annotation> A getMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null) {
+			return index.getMergedAnnotation(element, annotationType);
+		}
+		return doGetMergedAnnotation(element, annotationType);
+	}
+
+	@Nullable
+	private static <A extends Annotation> A doGetMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
 		// Shortcut: directly present on the element, with no merging needed?
 		A annotation = element.getDeclaredAnnotation(annotationType);
 		if (annotation != null) {
@@ -418,6 +458,10 @@ public class AnnotatedElementUtils {
 	 * @see #findAllMergedAnnotations(AnnotatedElement, Class)
 	 */
 	public static <A extends Annotation> Set<A> getAllMergedAnnotations(AnnotatedElement element, Class<A> annotationType) {
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null && !index.isPresent(annotationType.getName())) {
+			return new LinkedHashSet<>();
+		}
 		MergedAnnotationAttributesProcessor processor = new MergedAnnotationAttributesProcessor(false, false, true);
 		searchWithGetSemantics(element, annotationType, null, processor);
 		return postProcessAndSynthesizeAggregatedResults(element, annotationType, processor.getAggregatedResults());
@@ -570,6 +614,10 @@ public class AnnotatedElementUtils {
 		if (element.isAnnotationPresent(annotationType)) {
 			return true;
 		}
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null) {
+			return index.isFindable(annotationType.getName());
+		}
 		return Boolean.TRUE.equals(searchWithFindSemantics(element, annotationType, null, alwaysTrueAnnotationProcessor));
 	}
 
@@ -604,6 +652,10 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			Class<? extends Annotation> annotationType, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null && !index.isFindable(annotationType.getName())) {
+			return null;
+		}
 		AnnotationAttributes attributes = searchWithFindSemantics(element, annotationType, null,
 				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -641,6 +693,10 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		AnnotationIndex index = getAnnotationIndex(element, annotationName);
+		if (index != null && !index.isFindable(annotationName)) {
+			return null;
+		}
 		AnnotationAttributes attributes = searchWithFindSemantics(element, null, annotationName,
 				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -667,6 +723,15 @@ public class AnnotatedElementUtils {
 	 */
 	@Nullable
 	public static <A extends Annotation> A findMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null) {
+			return index.findMergedAnnotation(element, annotationType);
+		}
+		return doFindMergedAnnotation(element, annotationType);
+	}
+
+	@Nullable
+	private static <A extends Annotation> A doFindMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
 		// Shortcut: directly present on the element, with no merging needed?
 		A annotation = element.getDeclaredAnnotation(annotationType);
 		if (annotation != null) {
@@ -698,6 +763,10 @@ public class AnnotatedElementUtils {
 	 * @see #getAllMergedAnnotations(AnnotatedElement, Class)
 	 */
 	public static <A extends Annotation> Set<A> findAllMergedAnnotations(AnnotatedElement element, Class<A> annotationType) {
+		AnnotationIndex index = getAnnotationIndex(element, annotationType.getName());
+		if (index != null && !index.isFindable(annotationType.getName())) {
+			return new LinkedHashSet<>();
+		}
 		MergedAnnotationAttributesProcessor processor = new MergedAnnotationAttributesProcessor(false, false, true);
 		searchWithFindSemantics(element, annotationType, null, processor);
 		return postProcessAndSynthesizeAggregatedResults(element, annotationType, processor.getAggregatedResults());
@@ -774,6 +843,38 @@ public class AnnotatedElementUtils {
 		return postProcessAndSynthesizeAggregatedResults(element, annotationType, processor.getAggregatedResults());
 	}
 
+	/**
+	 * Obtain the {@link AnnotationIndex} for the given element, if applicable
+	 * to lookups of the given annotation type.
+	 * @param element the annotated element
+	 * @param annotationName the fully qualified class name of the annotation type to find
+	 * @return the index, or {@code null} if the lookup needs to search the element
+	 * @since 5.0.15
+	 */
+	@Nullable
+	private static AnnotationIndex getAnnotationIndex(AnnotatedElement element, String annotationName) {
+		if (annotationName.startsWith("java") || !(element instanceof Class || element instanceof Member)) {
+			// Standard Java annotations are searched on other standard Java annotations as well,
+			// see hasSearchableMetaAnnotations; arbitrary elements may not be reliable cache keys.
+			return null;
+		}
+		AnnotationIndex index = annotationIndexCache.get(element);
+		if (index == null) {
+			index = new AnnotationIndex(element);
+			annotationIndexCache.put(element, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Clear the per-element annotation index.
+	 * @since 5.0.15
+	 * @see AnnotationUtils#clearCache()
+	 */
+	static void clearAnnotationIndexCache() {
+		annotationIndexCache.clear();
+	}
+
 	/**
 	 * Search for annotations of the specified {@code annotationName} or
 	 * {@code annotationType} on the specified {@code element}, following
@@ -1461,6 +1562,103 @@ public class AnnotatedElementUtils {
 	}
 
 
+	/**
+	 * {@link SimpleAnnotationProcessor} that collects the names of all annotation
+	 * types it is asked to {@linkplain #process(AnnotatedElement, Annotation, int)
+	 * process}, continuing the search through the entire annotation hierarchy.
+	 * @since 5.0.15
+	 */
+	private static class AnnotationTypeCollector extends SimpleAnnotationProcessor<Object> {
+
+		private final Set<String> annotationTypes = new HashSet<>();
+
+		public AnnotationTypeCollector() {
+			super(true);
+		}
+
+		@Override
+		@Nullable
+		public Object process(@Nullable AnnotatedElement annotatedElement, Annotation annotation, int metaDepth) {
+			this.annotationTypes.add(annotation.annotationType().getName());
+			return CONTINUE;
+		}
+
+		public Set<String> getAnnotationTypes() {
+			return this.annotationTypes;
+		}
+	}
+
+
+	/**
+	 * Index of the annotation types that are present on an element according
+	 * to <em>get semantics</em> and <em>find semantics</em>, along with the
+	 * merged annotations that have been requested for the element so far.
+	 * <p>Covers all annotation types that are not in the standard Java
+	 * packages, since the search algorithms only look for those within
+	 * annotations from the same packages.
+	 * @since 5.0.15
+	 */
+	private static class AnnotationIndex {
+
+		private final Set<String> presentTypes;
+
+		private final Set<String> findableTypes;
+
+		private final Map<Class<?>, Annotation> mergedAnnotations = new ConcurrentHashMap<>(4);
+
+		private final Map<Class<?>, Annotation> foundAnnotations = new ConcurrentHashMap<>(4);
+
+		public AnnotationIndex(AnnotatedElement element) {
+			AnnotationTypeCollector getCollector = new AnnotationTypeCollector();
+			searchWithGetSemantics(element, null, null, getCollector);
+			this.presentTypes = getCollector.getAnnotationTypes();
+			AnnotationTypeCollector findCollector = new AnnotationTypeCollector();
+			searchWithFindSemantics(element, null, null, findCollector);
+			this.findableTypes = findCollector.getAnnotationTypes();
+		}
+
+		public boolean isPresent(String annotationName) {
+			return this.presentTypes.contains(annotationName);
+		}
+
+		public boolean isFindable(String annotationName) {
+			return this.findableTypes.contains(annotationName);
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public <A extends Annotation> A getMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
+			if (!isPresent(annotationType.getName())) {
+				return null;
+			}
+			A annotation = (A) this.mergedAnnotations.get(annotationType);
+			if (annotation == null) {
+				annotation = doGetMergedAnnotation(element, annotationType);
+				if (annotation != null) {
+					this.mergedAnnotations.put(annotationType, annotation);
+				}
+			}
+			return annotation;
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public <A extends Annotation> A findMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
+			if (!isFindable(annotationType.getName())) {
+				return null;
+			}
+			A annotation = (A) this.foundAnnotations.get(annotationType);
+			if (annotation == null) {
+				annotation = doFindMergedAnnotation(element, annotationType);
+				if (annotation != null) {
+					this.foundAnnotations.put(annotationType, annotation);
+				}
+			}
+			return annotation;
+		}
+	}
+
+
 	/**
 	 * {@link Processor} that gets the {@code AnnotationAttributes} for the
 	 * target annotation during the {@link #process} phase and then merges
@@ -19,6 +19,7 @@ package org.springframework.core.convert.support;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.converter.GenericConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -48,6 +49,21 @@ abstract class ConversionUtils {
 		}
 	}
 
+	/**
+	 * Obtain a converter for repeated conversions between the given types,
+	 * resolved upfront if the given {@code ConversionService} supports it.
+	 * @since 5.0.15
+	 * @see GenericConversionService#resolveConverter
+	 */
+	public static Converter<Object, Object> getConverter(ConversionService conversionService,
+			TypeDescriptor sourceType, TypeDescriptor targetType) {
+
+		if (conversionService instanceof GenericConversionService) {
+			return ((GenericConversionService) conversionService).resolveConverter(sourceType, targetType);
+		}
+		return source -> conversionService.convert(source, sourceType, targetType);
+	}
+
 	public static boolean canConvertElements(@Nullable TypeDescriptor sourceElementType,
 			@Nullable TypeDescriptor targetElementType, ConversionService conversionService) {
 
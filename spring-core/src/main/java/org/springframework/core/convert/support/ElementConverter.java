@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.lang.Nullable;
+
+/**
+ * Converts the elements of a collection or array to a target element type,
+ * resolving the conversion once per source element class instead of looking
+ * it up again for every element. Not thread-safe: to be used for a single
+ * conversion of a collection or array.
+ *
+ * @since 5.0.15
+ * @see ConversionUtils#getConverter
+ */
+final class ElementConverter {
+
+	private final ConversionService conversionService;
+
+	private final TypeDescriptor sourceType;
+
+	private final TypeDescriptor targetElementType;
+
+	@Nullable
+	private Class<?> elementClass;
+
+	@Nullable
+	private Converter<Object, Object> converter;
+
+
+	/**
+	 * Create a new {@code ElementConverter}.
+	 * @param conversionService the conversion service to delegate to
+	 * @param sourceType the type of the source collection or array
+	 * @param targetElementType the element type to convert to
+	 */
+	public ElementConverter(ConversionService conversionService,
+			TypeDescriptor sourceType, TypeDescriptor targetElementType) {
+
+		this.conversionService = conversionService;
+		this.sourceType = sourceType;
+		this.targetElementType = targetElementType;
+	}
+
+
+	@Nullable
+	public Object convert(@Nullable Object sourceElement) {
+		if (sourceElement == null) {
+			return this.conversionService.convert(null, this.sourceType.getElementTypeDescriptor(), this.targetElementType);
+		}
+		Converter<Object, Object> converter = this.converter;
+		if (converter == null || sourceElement.getClass() != this.elementClass) {
+			TypeDescriptor sourceElementType = this.sourceType.elementTypeDescriptor(sourceElement);
+			converter = ConversionUtils.getConverter(this.conversionService, sourceElementType, this.targetElementType);
+			this.converter = converter;
+			this.elementClass = sourceElement.getClass();
+		}
+		return converter.convert(sourceElement);
+	}
+
+}
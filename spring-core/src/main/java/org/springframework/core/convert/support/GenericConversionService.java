@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -212,6 +212,37 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return convert(source, TypeDescriptor.forObject(source), targetType);
 	}
 
+	/**
+	 * Resolve a reusable converter for the given source type and target type,
+	 * looking up the applicable converter once instead of for every conversion.
+	 * <p>The returned converter behaves like {@link #convert(Object, TypeDescriptor, TypeDescriptor)}
+	 * for the given types, including the handling of {@code null} sources, based on
+	 * the converters registered at the time of this call. Plain {@link Converter}
+	 * and {@link ConverterFactory} registrations are invoked directly, with the
+	 * target converter of a {@code ConverterFactory} obtained only once.
+	 * @param sourceType context about the source type to convert from
+	 * @param targetType context about the target type to convert to
+	 * @return the resolved converter (never {@code null}), throwing a
+	 * {@link ConverterNotFoundException} on conversion if no suitable converter
+	 * has been found and the given value cannot be returned as-is
+	 * @since 5.0.15
+	 * @see #getConverter(TypeDescriptor, TypeDescriptor)
+	 */
+	public Converter<Object, Object> resolveConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		GenericConverter converter = getConverter(sourceType, targetType);
+		Converter<Object, ?> targetConverter = null;
+		if (converter instanceof ConverterAdapter) {
+			targetConverter = ((ConverterAdapter) converter).converter;
+		}
+		else if (converter instanceof ConverterFactoryAdapter) {
+			targetConverter = ((ConverterFactoryAdapter) converter).converterFactory.getConverter(
+					targetType.getObjectType());
+		}
+		return new ResolvedConverter(sourceType, targetType, converter, targetConverter);
+	}
+
 	@Override
 	public String toString() {
 		return this.converters.toString();
@@ -443,6 +474,66 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * {@link Converter} for a specific source type and target type pair,
+	 * as returned by {@link #resolveConverter}.
+	 */
+	private final class ResolvedConverter implements Converter<Object, Object> {
+
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor targetType;
+
+		@Nullable
+		private final GenericConverter converter;
+
+		@Nullable
+		private final Converter<Object, ?> targetConverter;
+
+		public ResolvedConverter(TypeDescriptor sourceType, TypeDescriptor targetType,
+				@Nullable GenericConverter converter, @Nullable Converter<Object, ?> targetConverter) {
+
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.converter = converter;
+			this.targetConverter = targetConverter;
+		}
+
+		@Override
+		@Nullable
+		public Object convert(@Nullable Object source) {
+			if (source != null && !this.sourceType.getObjectType().isInstance(source)) {
+				throw new IllegalArgumentException("Source to convert from must be an instance of [" +
+						this.sourceType + "]; instead it was a [" + source.getClass().getName() + "]");
+			}
+			if (this.converter == null) {
+				return handleConverterNotFound(source, this.sourceType, this.targetType);
+			}
+			Object result;
+			if (source != null && this.targetConverter != null) {
+				try {
+					result = this.targetConverter.convert(source);
+				}
+				catch (ConversionFailedException ex) {
+					throw ex;
+				}
+				catch (Throwable ex) {
+					throw new ConversionFailedException(this.sourceType, this.targetType, source, ex);
+				}
+			}
+			else {
+				result = ConversionUtils.invokeConverter(this.converter, source, this.sourceType, this.targetType);
+			}
+			return handleResult(this.sourceType, this.targetType, result);
+		}
+
+		@Override
+		public String toString() {
+			return (this.sourceType + " -> " + this.targetType + " : " + this.converter);
+		}
+	}
+
+
 	/**
 	 * Key for use with the converter cache.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import org.springframework.core.CollectionFactory;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.converter.ConditionalGenericConverter;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
@@ -76,8 +77,10 @@ final class StringToCollectionConverter implements ConditionalGenericConverter {
 			}
 		}
 		else {
+			Converter<Object, Object> elementConverter =
+					ConversionUtils.getConverter(this.conversionService, sourceType, elementDesc);
 			for (String field : fields) {
-				Object targetElement = this.conversionService.convert(field.trim(), sourceType, elementDesc);
+				Object targetElement = elementConverter.convert(field.trim());
 				target.add(targetElement);
 			}
 		}
@@ -66,6 +66,18 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 	 */
 	public static final String IGNORE_GETENV_PROPERTY_NAME = "spring.getenv.ignore";
 
+	/**
+	 * System property that instructs Spring to keep a snapshot of the resolved
+	 * properties for every environment, i.e. to enable the property snapshot
+	 * by default: {@value}.
+	 * <p>The default is "false". See {@link #setPropertySnapshotEnabled} for the
+	 * conditions under which the snapshot is safe to use.
+	 * @since 5.0.15
+	 * @see #setPropertySnapshotEnabled
+	 * @see SpringProperties#getFlag
+	 */
+	public static final String PROPERTY_SNAPSHOT_PROPERTY_NAME = "spring.env.snapshot";
+
 	/**
 	 * Name of property to set to specify active profiles: {@value}. Value may be comma
 	 * delimited.
@@ -109,7 +121,7 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 
 	private final MutablePropertySources propertySources = new MutablePropertySources(this.logger);
 
-	private final ConfigurablePropertyResolver propertyResolver =
+	private final PropertySourcesPropertyResolver propertyResolver =
 			new PropertySourcesPropertyResolver(this.propertySources);
 
 
@@ -121,6 +133,7 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 	 * @see #customizePropertySources(MutablePropertySources)
 	 */
 	public AbstractEnvironment() {
+		this.propertyResolver.setPropertySnapshotEnabled(SpringProperties.getFlag(PROPERTY_SNAPSHOT_PROPERTY_NAME));
 		customizePropertySources(this.propertySources);
 		if (logger.isDebugEnabled()) {
 			logger.debug("Initialized " + getClass().getSimpleName() + " with PropertySources " + this.propertySources);
@@ -448,6 +461,31 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 		return SpringProperties.getFlag(IGNORE_GETENV_PROPERTY_NAME);
 	}
 
+	/**
+	 * Specify whether to keep a snapshot of the resolved properties, turning repeated
+	 * lookups of the same key or placeholder text into a single hash lookup.
+	 * <p>The default is "false" unless the {@value #PROPERTY_SNAPSHOT_PROPERTY_NAME}
+	 * flag is set. The snapshot is invalidated whenever property sources are added,
+	 * removed or replaced, but changes within an individual property source (e.g.
+	 * {@link System#setProperty} calls) go unnoticed until
+	 * {@link #clearPropertySnapshot()} is called.
+	 * @since 5.0.15
+	 * @see PropertySourcesPropertyResolver#setPropertySnapshotEnabled
+	 */
+	public void setPropertySnapshotEnabled(boolean propertySnapshotEnabled) {
+		this.propertyResolver.setPropertySnapshotEnabled(propertySnapshotEnabled);
+	}
+
+	/**
+	 * Discard the current property snapshot, if any, e.g. after a change within
+	 * one of the property sources.
+	 * @since 5.0.15
+	 * @see #setPropertySnapshotEnabled
+	 */
+	public void clearPropertySnapshot() {
+		this.propertyResolver.clearPropertySnapshot();
+	}
+
 	@Override
 	public void merge(ConfigurableEnvironment parent) {
 		for (PropertySource<?> ps : parent.getPropertySources()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,20 @@
 
 package org.springframework.core.env;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.lang.Nullable;
 
 /**
  * {@link PropertyResolver} implementation that resolves property values against
  * an underlying set of {@link PropertySources}.
  *
+ * <p>As of 5.0.15, an optional {@linkplain #setPropertySnapshotEnabled property
+ * snapshot} keeps the outcome of each lookup and placeholder resolution, so that
+ * repeated resolution of the same key or text does not search every property
+ * source again.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.1
@@ -31,9 +39,17 @@ import org.springframework.lang.Nullable;
  */
 public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
+	private static final Object NO_VALUE = new Object();
+
+
 	@Nullable
 	private final PropertySources propertySources;
 
+	private volatile boolean propertySnapshotEnabled;
+
+	@Nullable
+	private volatile PropertySnapshot propertySnapshot;
+
 
 	/**
 	 * Create a new resolver against the given property sources.
@@ -44,6 +60,71 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Specify whether to keep a snapshot of the resolved properties: the value found
+	 * for each key as well as the outcome of each placeholder resolution, turning
+	 * repeated lookups into a single hash lookup.
+	 * <p>Default is "false". The snapshot is invalidated whenever property sources
+	 * are added, removed or replaced, as well as when the placeholder settings of
+	 * this resolver change. However, changes <i>within</i> an individual property
+	 * source (e.g. a mutable backing {@code Map}, or the JVM system properties)
+	 * are not detected: only switch this on if the content of the property sources
+	 * is effectively fixed once populated, or call {@link #clearPropertySnapshot()}
+	 * after such changes. Only applies to {@link MutablePropertySources} since
+	 * other {@link PropertySources} implementations do not expose modifications.
+	 * @since 5.0.15
+	 * @see MutablePropertySources#addFirst
+	 * @see MutablePropertySources#remove
+	 * @see MutablePropertySources#replace
+	 */
+	public void setPropertySnapshotEnabled(boolean propertySnapshotEnabled) {
+		this.propertySnapshotEnabled = propertySnapshotEnabled;
+		this.propertySnapshot = null;
+	}
+
+	/**
+	 * Return whether a snapshot of the resolved properties is kept.
+	 * @since 5.0.15
+	 */
+	public boolean isPropertySnapshotEnabled() {
+		return this.propertySnapshotEnabled;
+	}
+
+	/**
+	 * Discard the current property snapshot, if any, e.g. after a change within
+	 * one of the property sources. The snapshot is going to be rebuilt lazily.
+	 * @since 5.0.15
+	 * @see #setPropertySnapshotEnabled
+	 */
+	public void clearPropertySnapshot() {
+		this.propertySnapshot = null;
+	}
+
+	@Override
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		super.setPlaceholderPrefix(placeholderPrefix);
+		clearPropertySnapshot();
+	}
+
+	@Override
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		super.setPlaceholderSuffix(placeholderSuffix);
+		clearPropertySnapshot();
+	}
+
+	@Override
+	public void setValueSeparator(@Nullable String valueSeparator) {
+		super.setValueSeparator(valueSeparator);
+		clearPropertySnapshot();
+	}
+
+	@Override
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		super.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
+		clearPropertySnapshot();
+	}
+
+
 	@Override
 	public boolean containsProperty(String key) {
 		if (this.propertySources != null) {
@@ -74,8 +155,60 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return getProperty(key, String.class, false);
 	}
 
+	@Override
+	public String resolvePlaceholders(String text) {
+		PropertySnapshot snapshot = obtainPropertySnapshot();
+		if (snapshot == null) {
+			return super.resolvePlaceholders(text);
+		}
+		String resolved = snapshot.resolvedTexts.get(text);
+		if (resolved == null) {
+			resolved = super.resolvePlaceholders(text);
+			snapshot.resolvedTexts.put(text, resolved);
+		}
+		return resolved;
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		PropertySnapshot snapshot = obtainPropertySnapshot();
+		if (snapshot == null) {
+			return super.resolveRequiredPlaceholders(text);
+		}
+		// Unresolvable placeholders raise an exception and are therefore not kept
+		String resolved = snapshot.requiredResolvedTexts.get(text);
+		if (resolved == null) {
+			resolved = super.resolveRequiredPlaceholders(text);
+			snapshot.requiredResolvedTexts.put(text, resolved);
+		}
+		return resolved;
+	}
+
 	@Nullable
 	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+		PropertySnapshot snapshot = obtainPropertySnapshot();
+		if (snapshot != null) {
+			Object value = getPropertyValue(key, resolveNestedPlaceholders, snapshot);
+			return (value != null ? convertValueIfNecessary(value, targetValueType) : null);
+		}
+		Object value = findPropertyValue(key, resolveNestedPlaceholders);
+		return (value != null ? convertValueIfNecessary(value, targetValueType) : null);
+	}
+
+	@Nullable
+	private Object getPropertyValue(String key, boolean resolveNestedPlaceholders, PropertySnapshot snapshot) {
+		Map<String, Object> values = (resolveNestedPlaceholders ? snapshot.resolvedValues : snapshot.rawValues);
+		// No computeIfAbsent here: nested placeholders lead to recursive lookups
+		Object value = values.get(key);
+		if (value == null) {
+			value = findPropertyValue(key, resolveNestedPlaceholders);
+			values.put(key, (value != null ? value : NO_VALUE));
+		}
+		return (value != NO_VALUE ? value : null);
+	}
+
+	@Nullable
+	private Object findPropertyValue(String key, boolean resolveNestedPlaceholders) {
 		if (this.propertySources != null) {
 			for (PropertySource<?> propertySource : this.propertySources) {
 				if (logger.isTraceEnabled()) {
@@ -88,7 +221,7 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 						value = resolveNestedPlaceholders((String) value);
 					}
 					logKeyFound(key, propertySource, value);
-					return convertValueIfNecessary(value, targetValueType);
+					return value;
 				}
 			}
 		}
@@ -98,6 +231,24 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return null;
 	}
 
+	/**
+	 * Return the current property snapshot, creating a new one if the property
+	 * sources have been modified since, or {@code null} if not enabled.
+	 */
+	@Nullable
+	private PropertySnapshot obtainPropertySnapshot() {
+		if (!this.propertySnapshotEnabled || !(this.propertySources instanceof MutablePropertySources)) {
+			return null;
+		}
+		int modificationCount = ((MutablePropertySources) this.propertySources).getModificationCount();
+		PropertySnapshot snapshot = this.propertySnapshot;
+		if (snapshot == null || snapshot.modificationCount != modificationCount) {
+			snapshot = new PropertySnapshot(modificationCount);
+			this.propertySnapshot = snapshot;
+		}
+		return snapshot;
+	}
+
 	/**
 	 * Log the given key as found in the given {@link PropertySource}, resulting in
 	 * the given value.
@@ -117,4 +268,27 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		}
 	}
 
+
+
+	/**
+	 * Resolved property values and placeholder texts for a given state of the
+	 * property sources, with {@link #NO_VALUE} marking keys that are not present.
+	 */
+	private static class PropertySnapshot {
+
+		final int modificationCount;
+
+		final Map<String, Object> rawValues = new ConcurrentHashMap<>(64);
+
+		final Map<String, Object> resolvedValues = new ConcurrentHashMap<>(64);
+
+		final Map<String, String> resolvedTexts = new ConcurrentHashMap<>(64);
+
+		final Map<String, String> requiredResolvedTexts = new ConcurrentHashMap<>(64);
+
+		PropertySnapshot(int modificationCount) {
+			this.modificationCount = modificationCount;
+		}
+	}
+
 }
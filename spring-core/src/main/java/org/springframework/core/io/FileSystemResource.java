@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -36,7 +37,7 @@ import org.springframework.util.StringUtils;
 /**
  * {@link Resource} implementation for {@code java.io.File} handles.
  * Supports resolution as a {@code File} and also as a {@code URL}.
- * Implements the extended {@link WritableResource} interface.
+ * Implements the extended {@link WritableResource} and {@link MappableResource} interfaces.
  *
  * <p>Note: As of Spring Framework 5.0, this {@link Resource} implementation
  * uses NIO.2 API for read/write interactions. Nevertheless, in contrast to
@@ -48,7 +49,7 @@ import org.springframework.util.StringUtils;
  * @see java.io.File
  * @see java.nio.file.Files
  */
-public class FileSystemResource extends AbstractResource implements WritableResource {
+public class FileSystemResource extends AbstractResource implements WritableResource, MappableResource {
 
 	private final File file;
 
@@ -207,6 +208,22 @@ public class FileSystemResource extends AbstractResource implements WritableReso
 		return FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE);
 	}
 
+	/**
+	 * This implementation maps the given region of the underlying file
+	 * through a FileChannel, which is closed right after mapping.
+	 * @since 5.0.15
+	 * @see java.nio.channels.FileChannel#map
+	 */
+	@Override
+	public MappedByteBuffer map(long position, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(ex.getMessage());
+		}
+	}
+
 	/**
 	 * This implementation returns the underlying File's length.
 	 */
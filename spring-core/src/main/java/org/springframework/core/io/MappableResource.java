@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Extended interface for a resource whose content can be mapped into memory.
+ * Provides read-only {@link MappedByteBuffer} regions of the underlying file,
+ * as an alternative to copying the content through a stream or channel.
+ *
+ * @since 5.0.15
+ * @see java.nio.channels.FileChannel#map
+ * @see org.springframework.core.io.buffer.DataBufferUtils#readMapped
+ */
+public interface MappableResource extends Resource {
+
+	/**
+	 * Map the given region of the underlying file into memory, read-only.
+	 * <p>The mapping remains valid until the returned buffer is garbage
+	 * collected, independent of any channel used to create it.
+	 * @param position the position within the file at which the region starts
+	 * @param size the size of the region to map (at most {@link Integer#MAX_VALUE})
+	 * @return the mapped region
+	 * @throws java.io.FileNotFoundException if the underlying file doesn't exist
+	 * @throws IOException if the region could not be mapped
+	 */
+	MappedByteBuffer map(long position, long size) throws IOException;
+
+	/**
+	 * Map the entire content of the underlying file into memory, read-only.
+	 * <p>The default implementation delegates to {@link #map(long, long)}
+	 * with the current {@link #contentLength()}.
+	 * @return the mapped content
+	 * @throws java.io.FileNotFoundException if the underlying file doesn't exist
+	 * @throws IOException if the content could not be mapped
+	 */
+	default MappedByteBuffer map() throws IOException {
+		return map(0, contentLength());
+	}
+
+}
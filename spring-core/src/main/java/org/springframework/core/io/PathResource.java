@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
@@ -37,7 +39,7 @@ import org.springframework.util.Assert;
 /**
  * {@link Resource} implementation for {@code java.nio.file.Path} handles.
  * Supports resolution as File, and also as URL.
- * Implements the extended {@link WritableResource} interface.
+ * Implements the extended {@link WritableResource} and {@link MappableResource} interfaces.
  *
  * @author Philippe Marschall
  * @author Juergen Hoeller
@@ -46,7 +48,7 @@ import org.springframework.util.Assert;
  * @see java.nio.file.Files
  * @see FileSystemResource
  */
-public class PathResource extends AbstractResource implements WritableResource {
+public class PathResource extends AbstractResource implements WritableResource, MappableResource {
 
 	private final Path path;
 
@@ -220,6 +222,37 @@ public class PathResource extends AbstractResource implements WritableResource {
 		return Files.newByteChannel(this.path, StandardOpenOption.WRITE);
 	}
 
+	/**
+	 * This implementation maps the given region of the underlying file
+	 * through a FileChannel, which is closed right after mapping.
+	 * @since 5.0.15
+	 * @see java.nio.channels.FileChannel#map
+	 */
+	@Override
+	public MappedByteBuffer map(long position, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * This implementation maps the entire underlying file, as determined
+	 * by the size of the FileChannel used for mapping.
+	 * @since 5.0.15
+	 */
+	@Override
+	public MappedByteBuffer map() throws IOException {
+		try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		catch (NoSuchFileException ex) {
+			throw new FileNotFoundException(ex.getMessage());
+		}
+	}
+
 	/**
 	 * This implementation returns the underlying file's length.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,6 +43,7 @@ import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
 
+import org.springframework.core.io.MappableResource;
 import org.springframework.core.io.Resource;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -285,6 +286,78 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Map the content of the given {@code MappableResource} into memory and expose
+	 * it as a {@code Flux} of {@code DataBuffer}s, one per mapped region.
+	 * <p>The data buffers are {@linkplain DataBufferFactory#wrap(ByteBuffer) wrapped}
+	 * around read-only {@link java.nio.MappedByteBuffer}s, so the content is not
+	 * copied onto the heap. As each region is mapped separately, region sizes in
+	 * the range of megabytes are recommended.
+	 * @param resource the resource to map
+	 * @param dataBufferFactory the factory to wrap the mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a flux of data buffers over the mapped content
+	 * @since 5.0.15
+	 * @see MappableResource#map(long, long)
+	 */
+	public static Flux<DataBuffer> readMapped(
+			MappableResource resource, DataBufferFactory dataBufferFactory, int regionSize) {
+
+		return readMapped(resource, 0, Long.MAX_VALUE, dataBufferFactory, regionSize);
+	}
+
+	/**
+	 * Map the given region of the given {@code MappableResource} into memory and expose
+	 * it as a {@code Flux} of {@code DataBuffer}s, one per mapped region.
+	 * <p>The data buffers are {@linkplain DataBufferFactory#wrap(ByteBuffer) wrapped}
+	 * around read-only {@link java.nio.MappedByteBuffer}s, so the content is not
+	 * copied onto the heap. As each region is mapped separately, region sizes in
+	 * the range of megabytes are recommended.
+	 * @param resource the resource to map
+	 * @param position the position to start mapping from
+	 * @param count the maximum number of bytes to map, limited to the
+	 * content length of the resource
+	 * @param dataBufferFactory the factory to wrap the mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a flux of data buffers over the mapped content
+	 * @since 5.0.15
+	 * @see MappableResource#map(long, long)
+	 */
+	public static Flux<DataBuffer> readMapped(MappableResource resource, long position, long count,
+			DataBufferFactory dataBufferFactory, int regionSize) {
+
+		Assert.notNull(resource, "'resource' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(count >= 0, "'count' must be >= 0");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		return Flux.defer(() -> {
+			long end;
+			try {
+				long remaining = Math.max(resource.contentLength() - position, 0);
+				end = position + Math.min(count, remaining);
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+			return Flux.generate(() -> position, (regionPosition, sink) -> {
+				if (regionPosition >= end) {
+					sink.complete();
+					return regionPosition;
+				}
+				long size = Math.min(regionSize, end - regionPosition);
+				try {
+					sink.next(dataBufferFactory.wrap(resource.map(regionPosition, size)));
+				}
+				catch (IOException ex) {
+					sink.error(ex);
+				}
+				return regionPosition + size;
+			});
+		});
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
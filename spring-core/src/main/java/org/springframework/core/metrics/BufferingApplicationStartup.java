@@ -0,0 +1,222 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers {@link StartupStep steps}
+ * and records their execution time, providing a report of the most expensive
+ * steps for identifying what makes the startup of an application slow.
+ *
+ * <p>Steps started while another step is active on the same thread are considered
+ * as nested within that step: the time spent in nested steps counts towards the
+ * total time of the enclosing step but not towards its own "self" time. The report
+ * is sorted by self time, e.g. showing the time spent in the init method of a
+ * specific bean rather than the time spent on creating its entire dependency tree.
+ *
+ * <p>Buffering is bounded through a configurable capacity, with further steps
+ * still being timed (for the self time of their enclosing steps) but not buffered.
+ * This class is thread-safe, supporting steps on multiple threads at a time.
+ *
+ * @since 5.0.15
+ * @see org.springframework.context.support.AbstractApplicationContext#setApplicationStartup
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	/** Default maximum number of steps to buffer: 10000 */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/** Default maximum number of steps to include in the report: 30 */
+	public static final int DEFAULT_REPORT_SIZE = 30;
+
+
+	private final int capacity;
+
+	private final Queue<BufferedStartupStep> steps = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger stepCount = new AtomicInteger();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep = new NamedThreadLocal<>("Current startup step");
+
+
+	/**
+	 * Create a new BufferingApplicationStartup with the default capacity.
+	 * @see #DEFAULT_CAPACITY
+	 */
+	public BufferingApplicationStartup() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new BufferingApplicationStartup with the given capacity.
+	 * @param capacity the maximum number of steps to buffer
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		BufferedStartupStep step = new BufferedStartupStep(name, this.currentStep.get());
+		this.currentStep.set(step);
+		return step;
+	}
+
+	/**
+	 * Return the number of steps ended so far, including the ones that
+	 * have not been buffered due to the capacity having been reached.
+	 */
+	public int getStepCount() {
+		return this.stepCount.get();
+	}
+
+	/**
+	 * Remove all buffered steps.
+	 */
+	public void clear() {
+		this.steps.clear();
+		this.stepCount.set(0);
+	}
+
+	/**
+	 * Return a report of the {@link #DEFAULT_REPORT_SIZE} most expensive steps.
+	 * @see #getReport(int)
+	 */
+	public String getReport() {
+		return getReport(DEFAULT_REPORT_SIZE);
+	}
+
+	/**
+	 * Return a report of the most expensive steps buffered so far, sorted by the
+	 * time spent in the step itself (excluding nested steps), along with the total
+	 * time spent in each step and the tags of each step.
+	 * @param maxSteps the maximum number of steps to include
+	 * @return the human-readable report
+	 */
+	public String getReport(int maxSteps) {
+		List<BufferedStartupStep> sortedSteps = new ArrayList<>(this.steps);
+		sortedSteps.sort(Comparator.comparingLong(BufferedStartupStep::getSelfNanos).reversed());
+		int reportSize = Math.min(maxSteps, sortedSteps.size());
+		StringBuilder sb = new StringBuilder("Startup steps by self time (top ");
+		sb.append(reportSize).append(" of ").append(getStepCount()).append("):\n");
+		sb.append(String.format("%12s %12s  %s%n", "self [ms]", "total [ms]", "step"));
+		for (int i = 0; i < reportSize; i++) {
+			BufferedStartupStep step = sortedSteps.get(i);
+			sb.append(String.format("%12.3f %12.3f  %s", toMillis(step.getSelfNanos()),
+					toMillis(step.getDurationNanos()), step.getName()));
+			if (step.tags != null) {
+				sb.append(' ').append(step.tags);
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	private void record(BufferedStartupStep step) {
+		if (this.currentStep.get() == step) {
+			if (step.parent != null) {
+				this.currentStep.set(step.parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		if (this.stepCount.incrementAndGet() <= this.capacity) {
+			this.steps.add(step);
+		}
+	}
+
+
+	/**
+	 * Step with start and end time as well as the time spent in nested steps.
+	 */
+	private class BufferedStartupStep implements StartupStep {
+
+		private final String name;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final long startTime = System.nanoTime();
+
+		@Nullable
+		private Map<String, String> tags;
+
+		private volatile long duration = -1;
+
+		private volatile long nestedDuration;
+
+		BufferedStartupStep(String name, @Nullable BufferedStartupStep parent) {
+			this.name = name;
+			this.parent = parent;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(this.duration < 0, "Step has ended already");
+			if (this.tags == null) {
+				this.tags = new LinkedHashMap<>(4);
+			}
+			this.tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public void end() {
+			Assert.state(this.duration < 0, "Step has ended already");
+			this.duration = System.nanoTime() - this.startTime;
+			if (this.parent != null) {
+				// Only ever modified by the thread that the parent step is active on
+				this.parent.nestedDuration += this.duration;
+			}
+			record(this);
+		}
+
+		long getDurationNanos() {
+			return this.duration;
+		}
+
+		long getSelfNanos() {
+			return this.duration - this.nestedDuration;
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+/**
+ * Step recording metrics about a particular phase or action happening
+ * during the {@link ApplicationStartup}.
+ *
+ * <p>The lifecycle of a {@code StartupStep} goes as follows:
+ * <ol>
+ * <li>the step is created and starts by calling {@link ApplicationStartup#start(String)}
+ * and gets assigned its name
+ * <li>we can then attach information with {@link #tag(String, String)}
+ * during processing
+ * <li>we then need to mark the {@link #end()} of the step, typically
+ * from a {@code finally} block
+ * </ol>
+ *
+ * <p>Implementations can track the "execution time" or other metrics for steps,
+ * with steps started while another step is active on the same thread being
+ * considered as nested within the latter.
+ *
+ * @since 5.0.15
+ */
+public interface StartupStep {
+
+	/**
+	 * Return the name of the startup step.
+	 * <p>A step name describes the current action or phase. This technical
+	 * name should be "." namespaced and can be reused to describe other instances
+	 * of similar steps during application startup.
+	 */
+	String getName();
+
+	/**
+	 * Add a tag to the step, e.g. the name of the bean being processed.
+	 * @param key tag key
+	 * @param value tag value
+	 * @return this step, for fluent use
+	 */
+	StartupStep tag(String key, String value);
+
+	/**
+	 * Record the state of the step and possibly other metrics like execution time.
+	 * <p>Once ended, changes on the step state are not allowed.
+	 */
+	void end();
+
+}
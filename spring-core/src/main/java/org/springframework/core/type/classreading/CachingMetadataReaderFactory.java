@@ -44,6 +44,10 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	@Nullable
 	private Map<Resource, MetadataReader> metadataReaderCache;
 
+	/** Persistent cache for metadata which is not held in memory (anymore) */
+	@Nullable
+	private PersistentMetadataCache persistentCache = PersistentMetadataCache.forDefaultDirectory();
+
 
 	/**
 	 * Create a new CachingMetadataReaderFactory for the default class loader,
@@ -114,13 +118,38 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	/**
+	 * Specify a persistent cache to consult for metadata which is not cached
+	 * in memory, reusing metadata across restarts of the JVM for class files
+	 * which have not changed in the meantime.
+	 * <p>Default is the shared cache for the directory specified through the
+	 * {@value PersistentMetadataCache#CACHE_DIRECTORY_PROPERTY_NAME} property,
+	 * if any. Set this to {@code null} in order to not use a persistent cache.
+	 * @since 5.0.15
+	 * @see PersistentMetadataCache#forDirectory
+	 */
+	public void setPersistentCache(@Nullable PersistentMetadataCache persistentCache) {
+		this.persistentCache = persistentCache;
+	}
+
+	/**
+	 * Return the persistent cache to consult for metadata which is not cached
+	 * in memory, if any.
+	 * @since 5.0.15
+	 */
+	@Nullable
+	public PersistentMetadataCache getPersistentCache() {
+		return this.persistentCache;
+	}
+
+
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
 		if (this.metadataReaderCache instanceof ConcurrentMap) {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = doGetMetadataReader(resource);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
@@ -128,22 +157,43 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		else if (this.metadataReaderCache != null) {
 			synchronized (this.metadataReaderCache) {
 				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+				if (metadataReader != null) {
+					return metadataReader;
 				}
-				return metadataReader;
+			}
+			// Parse outside of the lock, allowing for concurrent reading of different classes...
+			MetadataReader metadataReader = doGetMetadataReader(resource);
+			synchronized (this.metadataReaderCache) {
+				MetadataReader existing = this.metadataReaderCache.putIfAbsent(resource, metadataReader);
+				return (existing != null ? existing : metadataReader);
 			}
 		}
 		else {
-			return super.getMetadataReader(resource);
+			return doGetMetadataReader(resource);
+		}
+	}
+
+	/**
+	 * Actually obtain a MetadataReader for the given resource, either from the
+	 * persistent cache (if any) or by reading the class file.
+	 */
+	private MetadataReader doGetMetadataReader(Resource resource) throws IOException {
+		PersistentMetadataCache persistentCache = this.persistentCache;
+		if (persistentCache != null) {
+			return persistentCache.getMetadataReader(resource, getResourceLoader().getClassLoader());
 		}
+		return super.getMetadataReader(resource);
 	}
 
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
+	 * <p>As of 5.0.15, this also flushes the {@link #setPersistentCache persistent cache}
+	 * (if any), storing all metadata read so far for use on subsequent JVM starts.
 	 */
 	public void clearCache() {
+		if (this.persistentCache != null) {
+			this.persistentCache.flush();
+		}
 		if (this.metadataReaderCache instanceof LocalResourceCache) {
 			synchronized (this.metadataReaderCache) {
 				this.metadataReaderCache.clear();
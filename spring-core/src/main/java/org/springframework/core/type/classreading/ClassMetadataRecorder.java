@@ -0,0 +1,582 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+
+/**
+ * ASM class visitor which delegates to a target visitor (typically an
+ * {@link AnnotationMetadataReadingVisitor}) while recording the events that the
+ * target is interested in, so that they can be {@link #replay replayed} later
+ * on without reading the class file again.
+ *
+ * <p>Only class declaration events as well as class-level and method-level
+ * annotations are recorded, in a compact binary form without any use of Java
+ * serialization. Annotation values are kept in their raw ASM representation,
+ * with enum constants and meta-annotations being resolved against the class
+ * loader of the target visitor on replay, just like for regular class reading.
+ *
+ * @since 5.0.15
+ * @see PersistentMetadataCache
+ */
+final class ClassMetadataRecorder extends ClassVisitor {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte END = 0;
+
+	private static final byte CLASS = 1;
+
+	private static final byte OUTER_CLASS = 2;
+
+	private static final byte INNER_CLASS = 3;
+
+	private static final byte CLASS_ANNOTATION = 4;
+
+	private static final byte METHOD = 5;
+
+	private static final byte METHOD_ANNOTATION = 6;
+
+	private static final byte VALUE = 1;
+
+	private static final byte ENUM = 2;
+
+	private static final byte NESTED_ANNOTATION = 3;
+
+	private static final byte ARRAY = 4;
+
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+	private final DataOutputStream out = new DataOutputStream(this.buffer);
+
+
+	public ClassMetadataRecorder(ClassVisitor target) {
+		super(SpringAsmInfo.ASM_VERSION, target);
+		write(() -> this.out.writeByte(FORMAT_VERSION));
+	}
+
+
+	@Override
+	public void visit(int version, int access, String name, @Nullable String signature,
+			@Nullable String superName, @Nullable String[] interfaces) {
+
+		super.visit(version, access, name, signature, superName, interfaces);
+		write(() -> {
+			this.out.writeByte(CLASS);
+			this.out.writeInt(access);
+			this.out.writeUTF(name);
+			writeNullableUTF(this.out, superName);
+			this.out.writeShort(interfaces != null ? interfaces.length : 0);
+			if (interfaces != null) {
+				for (String ifc : interfaces) {
+					this.out.writeUTF(ifc);
+				}
+			}
+		});
+	}
+
+	@Override
+	public void visitOuterClass(String owner, @Nullable String name, @Nullable String desc) {
+		super.visitOuterClass(owner, name, desc);
+		write(() -> {
+			this.out.writeByte(OUTER_CLASS);
+			this.out.writeUTF(owner);
+		});
+	}
+
+	@Override
+	public void visitInnerClass(String name, @Nullable String outerName, @Nullable String innerName, int access) {
+		super.visitInnerClass(name, outerName, innerName, access);
+		write(() -> {
+			this.out.writeByte(INNER_CLASS);
+			this.out.writeUTF(name);
+			writeNullableUTF(this.out, outerName);
+			writeNullableUTF(this.out, innerName);
+			this.out.writeInt(access);
+		});
+	}
+
+	@Override
+	@Nullable
+	public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+		AnnotationVisitor target = super.visitAnnotation(desc, visible);
+		if (target == null) {
+			return null;
+		}
+		write(() -> {
+			this.out.writeByte(CLASS_ANNOTATION);
+			this.out.writeUTF(desc);
+			this.out.writeBoolean(visible);
+		});
+		return new AnnotationRecorder(target);
+	}
+
+	@Override
+	@Nullable
+	public MethodVisitor visitMethod(int access, String name, String desc,
+			@Nullable String signature, @Nullable String[] exceptions) {
+
+		MethodVisitor target = super.visitMethod(access, name, desc, signature, exceptions);
+		return (target != null ? new MethodRecorder(target, access, name, desc) : null);
+	}
+
+	@Override
+	public void visitEnd() {
+		super.visitEnd();
+		write(() -> this.out.writeByte(END));
+	}
+
+	/**
+	 * Return the events recorded so far.
+	 */
+	public byte[] toByteArray() {
+		return this.buffer.toByteArray();
+	}
+
+
+	private void write(IoAction action) {
+		try {
+			action.run();
+		}
+		catch (IOException ex) {
+			// Cannot happen with a ByteArrayOutputStream
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+
+	/**
+	 * Replay the given recorded events against the given visitor.
+	 * @param data the events, as returned by {@link #toByteArray()}
+	 * @param target the visitor to replay the events against
+	 * @throws IOException if the given data is not in the expected format
+	 */
+	public static void replay(byte[] data, ClassVisitor target) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		if (in.readByte() != FORMAT_VERSION) {
+			throw new IOException("Unsupported metadata format version");
+		}
+		MethodVisitor methodVisitor = null;
+		while (true) {
+			byte tag = in.readByte();
+			switch (tag) {
+				case CLASS:
+					int access = in.readInt();
+					String name = in.readUTF();
+					String superName = readNullableUTF(in);
+					String[] interfaces = new String[in.readUnsignedShort()];
+					for (int i = 0; i < interfaces.length; i++) {
+						interfaces[i] = in.readUTF();
+					}
+					target.visit(0, access, name, null, superName, interfaces);
+					break;
+				case OUTER_CLASS:
+					target.visitOuterClass(in.readUTF(), null, null);
+					break;
+				case INNER_CLASS:
+					target.visitInnerClass(in.readUTF(), readNullableUTF(in), readNullableUTF(in), in.readInt());
+					break;
+				case CLASS_ANNOTATION:
+					replayAnnotation(in, target.visitAnnotation(in.readUTF(), in.readBoolean()));
+					break;
+				case METHOD:
+					methodVisitor = target.visitMethod(in.readInt(), in.readUTF(), in.readUTF(), null, null);
+					break;
+				case METHOD_ANNOTATION:
+					if (methodVisitor == null) {
+						throw new IOException("Method annotation without preceding method");
+					}
+					replayAnnotation(in, methodVisitor.visitAnnotation(in.readUTF(), in.readBoolean()));
+					break;
+				case END:
+					target.visitEnd();
+					return;
+				default:
+					throw new IOException("Unexpected metadata tag: " + tag);
+			}
+		}
+	}
+
+	private static void replayAnnotation(DataInputStream in, @Nullable AnnotationVisitor target) throws IOException {
+		while (true) {
+			byte tag = in.readByte();
+			switch (tag) {
+				case VALUE:
+					String name = readNullableUTF(in);
+					Object value = readValue(in);
+					if (target != null) {
+						target.visit(name, value);
+					}
+					break;
+				case ENUM:
+					name = readNullableUTF(in);
+					String desc = in.readUTF();
+					String enumValue = in.readUTF();
+					if (target != null) {
+						target.visitEnum(name, desc, enumValue);
+					}
+					break;
+				case NESTED_ANNOTATION:
+					name = readNullableUTF(in);
+					desc = in.readUTF();
+					replayAnnotation(in, target != null ? target.visitAnnotation(name, desc) : null);
+					break;
+				case ARRAY:
+					name = readNullableUTF(in);
+					replayAnnotation(in, target != null ? target.visitArray(name) : null);
+					break;
+				case END:
+					if (target != null) {
+						target.visitEnd();
+					}
+					return;
+				default:
+					throw new IOException("Unexpected annotation tag: " + tag);
+			}
+		}
+	}
+
+
+	private static void writeNullableUTF(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableUTF(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof String) {
+			out.writeByte('s');
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof Type) {
+			out.writeByte('c');
+			out.writeUTF(((Type) value).getDescriptor());
+		}
+		else if (value instanceof Integer) {
+			out.writeByte('I');
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte('J');
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte('Z');
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte('B');
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte('C');
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte('S');
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte('F');
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte('D');
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof int[]) {
+			int[] array = (int[]) value;
+			out.writeByte('i');
+			out.writeInt(array.length);
+			for (int element : array) {
+				out.writeInt(element);
+			}
+		}
+		else if (value instanceof long[]) {
+			long[] array = (long[]) value;
+			out.writeByte('j');
+			out.writeInt(array.length);
+			for (long element : array) {
+				out.writeLong(element);
+			}
+		}
+		else if (value instanceof boolean[]) {
+			boolean[] array = (boolean[]) value;
+			out.writeByte('z');
+			out.writeInt(array.length);
+			for (boolean element : array) {
+				out.writeBoolean(element);
+			}
+		}
+		else if (value instanceof byte[]) {
+			byte[] array = (byte[]) value;
+			out.writeByte('b');
+			out.writeInt(array.length);
+			out.write(array);
+		}
+		else if (value instanceof char[]) {
+			char[] array = (char[]) value;
+			out.writeByte('x');
+			out.writeInt(array.length);
+			for (char element : array) {
+				out.writeChar(element);
+			}
+		}
+		else if (value instanceof short[]) {
+			short[] array = (short[]) value;
+			out.writeByte('h');
+			out.writeInt(array.length);
+			for (short element : array) {
+				out.writeShort(element);
+			}
+		}
+		else if (value instanceof float[]) {
+			float[] array = (float[]) value;
+			out.writeByte('f');
+			out.writeInt(array.length);
+			for (float element : array) {
+				out.writeFloat(element);
+			}
+		}
+		else if (value instanceof double[]) {
+			double[] array = (double[]) value;
+			out.writeByte('d');
+			out.writeInt(array.length);
+			for (double element : array) {
+				out.writeDouble(element);
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported annotation value type: " + value.getClass().getName());
+		}
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+			case 's':
+				return in.readUTF();
+			case 'c':
+				return Type.getType(in.readUTF());
+			case 'I':
+				return in.readInt();
+			case 'J':
+				return in.readLong();
+			case 'Z':
+				return in.readBoolean();
+			case 'B':
+				return in.readByte();
+			case 'C':
+				return in.readChar();
+			case 'S':
+				return in.readShort();
+			case 'F':
+				return in.readFloat();
+			case 'D':
+				return in.readDouble();
+			case 'i':
+				int[] ints = new int[readArrayLength(in, 4)];
+				for (int i = 0; i < ints.length; i++) {
+					ints[i] = in.readInt();
+				}
+				return ints;
+			case 'j':
+				long[] longs = new long[readArrayLength(in, 8)];
+				for (int i = 0; i < longs.length; i++) {
+					longs[i] = in.readLong();
+				}
+				return longs;
+			case 'z':
+				boolean[] booleans = new boolean[readArrayLength(in, 1)];
+				for (int i = 0; i < booleans.length; i++) {
+					booleans[i] = in.readBoolean();
+				}
+				return booleans;
+			case 'b':
+				byte[] bytes = new byte[readArrayLength(in, 1)];
+				in.readFully(bytes);
+				return bytes;
+			case 'x':
+				char[] chars = new char[readArrayLength(in, 2)];
+				for (int i = 0; i < chars.length; i++) {
+					chars[i] = in.readChar();
+				}
+				return chars;
+			case 'h':
+				short[] shorts = new short[readArrayLength(in, 2)];
+				for (int i = 0; i < shorts.length; i++) {
+					shorts[i] = in.readShort();
+				}
+				return shorts;
+			case 'f':
+				float[] floats = new float[readArrayLength(in, 4)];
+				for (int i = 0; i < floats.length; i++) {
+					floats[i] = in.readFloat();
+				}
+				return floats;
+			case 'd':
+				double[] doubles = new double[readArrayLength(in, 8)];
+				for (int i = 0; i < doubles.length; i++) {
+					doubles[i] = in.readDouble();
+				}
+				return doubles;
+			default:
+				throw new IOException("Unexpected annotation value type: " + type);
+		}
+	}
+
+	private static int readArrayLength(DataInputStream in, int elementSize) throws IOException {
+		int length = in.readInt();
+		// Guard against corrupted data leading to excessive allocations
+		if (length < 0 || (long) length * elementSize > in.available()) {
+			throw new IOException("Invalid array length: " + length);
+		}
+		return length;
+	}
+
+
+	@FunctionalInterface
+	private interface IoAction {
+
+		void run() throws IOException;
+	}
+
+
+	/**
+	 * Method visitor which records the annotations that its target is interested in,
+	 * writing the method declaration on demand for the first such annotation.
+	 */
+	private class MethodRecorder extends MethodVisitor {
+
+		private final int access;
+
+		private final String name;
+
+		private final String desc;
+
+		private boolean declared;
+
+		public MethodRecorder(MethodVisitor target, int access, String name, String desc) {
+			super(SpringAsmInfo.ASM_VERSION, target);
+			this.access = access;
+			this.name = name;
+			this.desc = desc;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			AnnotationVisitor target = super.visitAnnotation(desc, visible);
+			if (target == null) {
+				return null;
+			}
+			write(() -> {
+				if (!this.declared) {
+					out.writeByte(METHOD);
+					out.writeInt(this.access);
+					out.writeUTF(this.name);
+					out.writeUTF(this.desc);
+					this.declared = true;
+				}
+				out.writeByte(METHOD_ANNOTATION);
+				out.writeUTF(desc);
+				out.writeBoolean(visible);
+			});
+			return new AnnotationRecorder(target);
+		}
+	}
+
+
+	/**
+	 * Annotation visitor which records all events passed on to its target,
+	 * including nested annotations and arrays.
+	 */
+	private class AnnotationRecorder extends AnnotationVisitor {
+
+		public AnnotationRecorder(AnnotationVisitor target) {
+			super(SpringAsmInfo.ASM_VERSION, target);
+		}
+
+		@Override
+		public void visit(@Nullable String name, Object value) {
+			super.visit(name, value);
+			write(() -> {
+				out.writeByte(VALUE);
+				writeNullableUTF(out, name);
+				writeValue(out, value);
+			});
+		}
+
+		@Override
+		public void visitEnum(@Nullable String name, String desc, String value) {
+			super.visitEnum(name, desc, value);
+			write(() -> {
+				out.writeByte(ENUM);
+				writeNullableUTF(out, name);
+				out.writeUTF(desc);
+				out.writeUTF(value);
+			});
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(@Nullable String name, String desc) {
+			AnnotationVisitor target = super.visitAnnotation(name, desc);
+			write(() -> {
+				out.writeByte(NESTED_ANNOTATION);
+				writeNullableUTF(out, name);
+				out.writeUTF(desc);
+			});
+			return new AnnotationRecorder(target != null ? target : new AnnotationVisitor(this.api) {});
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(@Nullable String name) {
+			AnnotationVisitor target = super.visitArray(name);
+			write(() -> {
+				out.writeByte(ARRAY);
+				writeNullableUTF(out, name);
+			});
+			return new AnnotationRecorder(target != null ? target : new AnnotationVisitor(this.api) {});
+		}
+
+		@Override
+		public void visitEnd() {
+			super.visitEnd();
+			write(() -> out.writeByte(END));
+		}
+	}
+
+}
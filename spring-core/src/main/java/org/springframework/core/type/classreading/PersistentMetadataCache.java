@@ -0,0 +1,441 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Persistent cache for class metadata as read by {@link SimpleMetadataReader},
+ * allowing for class files to be introspected once and reused across restarts
+ * of the JVM as long as the underlying archives and class files do not change.
+ *
+ * <p>Metadata is organized in segments per container: a segment per jar file,
+ * validated against the size and last-modified timestamp of the jar file as a
+ * whole, and a segment per directory for class files in the file system, with
+ * each entry validated against the size and last-modified timestamp of its
+ * class file. Every segment is stored in a separate file in the cache directory,
+ * written atomically on {@link #flush()}.
+ *
+ * <p>Only declaration-level metadata is stored, in a compact binary format without
+ * any use of Java serialization. Enum values and meta-annotations are resolved
+ * against the given ClassLoader whenever a {@link MetadataReader} is restored,
+ * just like for regular class file reading. Resources which cannot be traced back
+ * to a file (e.g. class files within nested archives) are never cached.
+ *
+ * <p>A {@link CachingMetadataReaderFactory} uses the cache in the directory
+ * specified through the {@value #CACHE_DIRECTORY_PROPERTY_NAME} property by
+ * default; alternatively, a specific cache can be configured through
+ * {@link CachingMetadataReaderFactory#setPersistentCache}.
+ *
+ * @since 5.0.15
+ * @see CachingMetadataReaderFactory#setPersistentCache
+ */
+public class PersistentMetadataCache {
+
+	/**
+	 * System property that specifies the directory for the persistent metadata cache
+	 * to be used by {@link CachingMetadataReaderFactory} instances by default.
+	 * Not set by default, i.e. no persistent cache being used.
+	 * @see #forDefaultDirectory()
+	 */
+	public static final String CACHE_DIRECTORY_PROPERTY_NAME = "spring.metadata.cache.dir";
+
+	private static final String SEGMENT_FILE_SUFFIX = ".metadata";
+
+	private static final int SEGMENT_FILE_MAGIC = 0x53504d43;
+
+	private static final int SEGMENT_FILE_VERSION = 1;
+
+	private static final Map<File, PersistentMetadataCache> sharedCaches = new ConcurrentHashMap<>(4);
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataCache.class);
+
+
+	private final File directory;
+
+	private final Map<File, Segment> segments = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new PersistentMetadataCache for the given directory.
+	 * <p>Note that any instances for the same directory work with their own state;
+	 * consider {@link #forDirectory} for sharing an instance within the JVM.
+	 * @param directory the directory to store metadata in
+	 * (will be created on {@link #flush()} if necessary)
+	 */
+	public PersistentMetadataCache(File directory) {
+		Assert.notNull(directory, "Cache directory must not be null");
+		this.directory = directory.getAbsoluteFile();
+	}
+
+
+	/**
+	 * Return the directory that this cache stores metadata in.
+	 */
+	public final File getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * Obtain a {@link MetadataReader} for the given class file resource,
+	 * from the cache if available and up-to-date, or by reading the class
+	 * file and caching its metadata otherwise.
+	 * @param resource the class file resource
+	 * @param classLoader the ClassLoader to resolve annotation values against
+	 * @return the MetadataReader for the given resource
+	 * @throws IOException in case of I/O failure when reading the class file
+	 */
+	public MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		Location location = getLocation(resource);
+		if (location == null) {
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+
+		Segment segment = obtainSegment(location);
+		Entry entry = segment.entries.get(location.entryName);
+		if (entry != null && entry.length == location.entryLength &&
+				entry.lastModified == location.entryLastModified) {
+			AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
+			try {
+				ClassMetadataRecorder.replay(entry.data, visitor);
+				return new SimpleMetadataReader(resource, visitor);
+			}
+			catch (IOException | RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Discarding corrupted metadata cache entry for " + resource + ": " + ex);
+				}
+			}
+		}
+
+		AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
+		ClassMetadataRecorder recorder = SimpleMetadataReader.readClass(resource, new ClassMetadataRecorder(visitor));
+		segment.entries.put(location.entryName,
+				new Entry(location.entryLength, location.entryLastModified, recorder.toByteArray()));
+		segment.dirty = true;
+		return new SimpleMetadataReader(resource, visitor);
+	}
+
+	/**
+	 * Write all metadata which has been added since the last flush to disk.
+	 * <p>Failures are logged but not propagated, since the cache is an
+	 * optimization only: it will simply be repopulated on the next run.
+	 */
+	public void flush() {
+		for (Segment segment : this.segments.values()) {
+			if (segment.dirty) {
+				synchronized (segment) {
+					if (segment.dirty) {
+						segment.dirty = false;
+						try {
+							writeSegment(segment);
+						}
+						catch (IOException | RuntimeException ex) {
+							if (logger.isWarnEnabled()) {
+								logger.warn("Failed to write metadata cache segment for " + segment.container +
+										" to " + this.directory + ": " + ex);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached metadata, in memory as well as on disk.
+	 */
+	public void clear() {
+		this.segments.clear();
+		File[] files = this.directory.listFiles((dir, name) -> name.endsWith(SEGMENT_FILE_SUFFIX));
+		if (files != null) {
+			for (File file : files) {
+				if (!file.delete() && logger.isDebugEnabled()) {
+					logger.debug("Could not delete metadata cache file " + file);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Determine the location of the given class file resource,
+	 * or {@code null} if it cannot be traced back to a file.
+	 */
+	@Nullable
+	private Location getLocation(Resource resource) {
+		try {
+			if (resource.isFile()) {
+				File file = resource.getFile().getAbsoluteFile();
+				File directory = file.getParentFile();
+				if (directory == null) {
+					return null;
+				}
+				return new Location(directory, 0, 0, file.getName(), file.length(), file.lastModified());
+			}
+			URL url = resource.getURL();
+			if (ResourceUtils.isJarURL(url)) {
+				URL jarFileUrl = ResourceUtils.extractJarFileURL(url);
+				if (ResourceUtils.isFileURL(jarFileUrl)) {
+					File jarFile = ResourceUtils.getFile(jarFileUrl).getAbsoluteFile();
+					String urlString = url.toExternalForm();
+					int separatorIndex = urlString.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+					if (separatorIndex != -1 && jarFile.isFile()) {
+						String entryName = urlString.substring(separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length());
+						return new Location(jarFile, jarFile.length(), jarFile.lastModified(), entryName, 0, 0);
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			// Not resolvable in the file system -> not cacheable
+		}
+		return null;
+	}
+
+	/**
+	 * Obtain the up-to-date segment for the container of the given location,
+	 * loading it from disk or resetting it when outdated.
+	 */
+	private Segment obtainSegment(Location location) {
+		Segment segment = this.segments.get(location.container);
+		if (segment == null || !segment.matches(location)) {
+			segment = this.segments.compute(location.container, (container, existing) -> {
+				if (existing != null && existing.matches(location)) {
+					return existing;
+				}
+				Segment loaded = (existing == null ? readSegment(container) : null);
+				if (loaded != null && loaded.matches(location)) {
+					return loaded;
+				}
+				Segment newSegment = new Segment(container, location.containerLength, location.containerLastModified);
+				// Write the reset segment to disk on the next flush, even if it remains empty
+				newSegment.dirty = (existing != null || loaded != null);
+				return newSegment;
+			});
+		}
+		return segment;
+	}
+
+	private File getSegmentFile(File container) {
+		String key = DigestUtils.md5DigestAsHex(container.getPath().getBytes(StandardCharsets.UTF_8));
+		return new File(this.directory, StringUtils.getFilename(container.getPath()) + "-" + key + SEGMENT_FILE_SUFFIX);
+	}
+
+	@Nullable
+	private Segment readSegment(File container) {
+		File file = getSegmentFile(container);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != SEGMENT_FILE_MAGIC || in.readInt() != SEGMENT_FILE_VERSION ||
+					!container.getPath().equals(in.readUTF())) {
+				return null;
+			}
+			Segment segment = new Segment(container, in.readLong(), in.readLong());
+			int entryCount = in.readInt();
+			long remaining = file.length();
+			for (int i = 0; i < entryCount; i++) {
+				String entryName = in.readUTF();
+				long length = in.readLong();
+				long lastModified = in.readLong();
+				int dataLength = in.readInt();
+				if (dataLength < 0 || dataLength > remaining) {
+					throw new IOException("Invalid entry length: " + dataLength);
+				}
+				byte[] data = new byte[dataLength];
+				in.readFully(data);
+				segment.entries.put(entryName, new Entry(length, lastModified, data));
+			}
+			return segment;
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable metadata cache file " + file + ": " + ex);
+			}
+			return null;
+		}
+	}
+
+	private void writeSegment(Segment segment) throws IOException {
+		if (!this.directory.isDirectory() && !this.directory.mkdirs() && !this.directory.isDirectory()) {
+			throw new IOException("Could not create cache directory");
+		}
+		File file = getSegmentFile(segment.container);
+		File tempFile = File.createTempFile(file.getName(), ".tmp", this.directory);
+		try {
+			Map<String, Entry> entries = new LinkedHashMap<>(segment.entries);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(SEGMENT_FILE_MAGIC);
+				out.writeInt(SEGMENT_FILE_VERSION);
+				out.writeUTF(segment.container.getPath());
+				out.writeLong(segment.containerLength);
+				out.writeLong(segment.containerLastModified);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeLong(entry.getValue().length);
+					out.writeLong(entry.getValue().lastModified);
+					out.writeInt(entry.getValue().data.length);
+					out.write(entry.getValue().data);
+				}
+			}
+			try {
+				Files.move(tempFile.toPath(), file.toPath(),
+						StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			if (tempFile.exists()) {
+				tempFile.delete();
+			}
+		}
+	}
+
+
+	/**
+	 * Return a shared PersistentMetadataCache instance for the given directory.
+	 * @param directory the directory to store metadata in
+	 * @return the shared cache instance (never {@code null})
+	 */
+	public static PersistentMetadataCache forDirectory(File directory) {
+		Assert.notNull(directory, "Cache directory must not be null");
+		return sharedCaches.computeIfAbsent(directory.getAbsoluteFile(), PersistentMetadataCache::new);
+	}
+
+	/**
+	 * Return a shared PersistentMetadataCache instance for the directory specified
+	 * through the {@value #CACHE_DIRECTORY_PROPERTY_NAME} property, if any.
+	 * @return the shared cache instance, or {@code null} if none configured
+	 * @see SpringProperties#getProperty
+	 */
+	@Nullable
+	public static PersistentMetadataCache forDefaultDirectory() {
+		String directory = SpringProperties.getProperty(CACHE_DIRECTORY_PROPERTY_NAME);
+		return (StringUtils.hasText(directory) ? forDirectory(new File(directory.trim())) : null);
+	}
+
+
+	/**
+	 * Location of a class file: its container (jar file or directory)
+	 * along with the validation stamps for the container and the entry.
+	 */
+	private static class Location {
+
+		final File container;
+
+		final long containerLength;
+
+		final long containerLastModified;
+
+		final String entryName;
+
+		final long entryLength;
+
+		final long entryLastModified;
+
+		Location(File container, long containerLength, long containerLastModified,
+				String entryName, long entryLength, long entryLastModified) {
+
+			this.container = container;
+			this.containerLength = containerLength;
+			this.containerLastModified = containerLastModified;
+			this.entryName = entryName;
+			this.entryLength = entryLength;
+			this.entryLastModified = entryLastModified;
+		}
+	}
+
+
+	/**
+	 * Cached metadata for a specific container.
+	 */
+	private static class Segment {
+
+		final File container;
+
+		final long containerLength;
+
+		final long containerLastModified;
+
+		final Map<String, Entry> entries = new ConcurrentHashMap<>(64);
+
+		volatile boolean dirty;
+
+		Segment(File container, long containerLength, long containerLastModified) {
+			this.container = container;
+			this.containerLength = containerLength;
+			this.containerLastModified = containerLastModified;
+		}
+
+		boolean matches(Location location) {
+			return (this.containerLength == location.containerLength &&
+					this.containerLastModified == location.containerLastModified);
+		}
+	}
+
+
+	/**
+	 * Cached metadata for a specific class file.
+	 */
+	private static class Entry {
+
+		final long length;
+
+		final long lastModified;
+
+		final byte[] data;
+
+		Entry(long length, long lastModified, byte[] data) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.data = data;
+		}
+	}
+
+}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
 import org.springframework.core.NestedIOException;
 import org.springframework.core.io.Resource;
 import org.springframework.core.type.AnnotationMetadata;
@@ -48,22 +49,15 @@ final class SimpleMetadataReader implements MetadataReader {
 
 
 	SimpleMetadataReader(Resource resource, @Nullable ClassLoader classLoader) throws IOException {
-		InputStream is = new BufferedInputStream(resource.getInputStream());
-		ClassReader classReader;
-		try {
-			classReader = new ClassReader(is);
-		}
-		catch (IllegalArgumentException ex) {
-			throw new NestedIOException("ASM ClassReader failed to parse class file - " +
-					"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
-		}
-		finally {
-			is.close();
-		}
-
-		AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
-		classReader.accept(visitor, ClassReader.SKIP_DEBUG);
+		this(resource, readClass(resource, new AnnotationMetadataReadingVisitor(classLoader)));
+	}
 
+	/**
+	 * Create a new SimpleMetadataReader for an already populated visitor,
+	 * e.g. restored from a {@link PersistentMetadataCache}.
+	 * @since 5.0.15
+	 */
+	SimpleMetadataReader(Resource resource, AnnotationMetadataReadingVisitor visitor) {
 		this.annotationMetadata = visitor;
 		// (since AnnotationMetadataReadingVisitor extends ClassMetadataReadingVisitor)
 		this.classMetadata = visitor;
@@ -86,4 +80,29 @@ final class SimpleMetadataReader implements MetadataReader {
 		return this.annotationMetadata;
 	}
 
+
+	/**
+	 * Parse the class file behind the given resource with the given visitor.
+	 * @param resource the class file resource
+	 * @param visitor the ASM visitor to populate
+	 * @return the given visitor, for fluent use in a constructor call
+	 * @since 5.0.15
+	 */
+	static <V extends ClassVisitor> V readClass(Resource resource, V visitor) throws IOException {
+		InputStream is = new BufferedInputStream(resource.getInputStream());
+		ClassReader classReader;
+		try {
+			classReader = new ClassReader(is);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new NestedIOException("ASM ClassReader failed to parse class file - " +
+					"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
+		}
+		finally {
+			is.close();
+		}
+		classReader.accept(visitor, ClassReader.SKIP_DEBUG);
+		return visitor;
+	}
+
 }
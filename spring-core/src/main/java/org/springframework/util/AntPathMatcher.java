@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,12 @@
 
 package org.springframework.util;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -75,7 +75,7 @@ public class AntPathMatcher implements PathMatcher {
 	/** Default path separator: "/" */
 	public static final String DEFAULT_PATH_SEPARATOR = "/";
 
-	private static final int CACHE_TURNOFF_THRESHOLD = 65536;
+	private static final int DEFAULT_CACHE_LIMIT = 65536;
 
 	private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{[^/]+?\\}");
 
@@ -90,12 +90,11 @@ public class AntPathMatcher implements PathMatcher {
 
 	private boolean trimTokens = false;
 
-	@Nullable
-	private volatile Boolean cachePatterns;
+	private volatile ConcurrentLruCache<String, String[]> tokenizedPatternCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, this::tokenizePath);
 
-	private final Map<String, String[]> tokenizedPatternCache = new ConcurrentHashMap<>(256);
-
-	final Map<String, AntPathStringMatcher> stringMatcherCache = new ConcurrentHashMap<>(256);
+	volatile ConcurrentLruCache<String, AntPathStringMatcher> stringMatcherCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, this::createStringMatcher);
 
 
 	/**
@@ -149,21 +148,17 @@ public class AntPathMatcher implements PathMatcher {
 	 * into this matcher's {@link #match} method. A value of {@code true}
 	 * activates an unlimited pattern cache; a value of {@code false} turns
 	 * the pattern cache off completely.
-	 * <p>Default is for the cache to be on, but with the variant to automatically
-	 * turn it off when encountering too many patterns to cache at runtime
-	 * (the threshold is 65536), assuming that arbitrary permutations of patterns
-	 * are coming in, with little chance for encountering a recurring pattern.
+	 * <p>Default is for the cache to be on, but bounded to the 65536 most
+	 * recently used patterns, so that arbitrary permutations of patterns
+	 * coming in at runtime cannot make it grow without limit while recurring
+	 * patterns keep being served from the cache.
 	 * @since 4.0.1
 	 * @see #getStringMatcher(String)
 	 */
 	public void setCachePatterns(boolean cachePatterns) {
-		this.cachePatterns = cachePatterns;
-	}
-
-	private void deactivatePatternCache() {
-		this.cachePatterns = false;
-		this.tokenizedPatternCache.clear();
-		this.stringMatcherCache.clear();
+		int cacheLimit = (cachePatterns ? Integer.MAX_VALUE : 0);
+		this.tokenizedPatternCache = new ConcurrentLruCache<>(cacheLimit, this::tokenizePath);
+		this.stringMatcherCache = new ConcurrentLruCache<>(cacheLimit, this::createStringMatcher);
 	}
 
 
@@ -379,24 +374,8 @@ public class AntPathMatcher implements PathMatcher {
 	 * @return the tokenized pattern parts
 	 */
 	protected String[] tokenizePattern(String pattern) {
-		String[] tokenized = null;
-		Boolean cachePatterns = this.cachePatterns;
-		if (cachePatterns == null || cachePatterns.booleanValue()) {
-			tokenized = this.tokenizedPatternCache.get(pattern);
-		}
-		if (tokenized == null) {
-			tokenized = tokenizePath(pattern);
-			if (cachePatterns == null && this.tokenizedPatternCache.size() >= CACHE_TURNOFF_THRESHOLD) {
-				// Try to adapt to the runtime situation that we're encountering:
-				// There are obviously too many different patterns coming in here...
-				// So let's turn off the cache since the patterns are unlikely to be reoccurring.
-				deactivatePatternCache();
-				return tokenized;
-			}
-			if (cachePatterns == null || cachePatterns.booleanValue()) {
-				this.tokenizedPatternCache.put(pattern, tokenized);
-			}
-		}
+		String[] tokenized = this.tokenizedPatternCache.get(pattern);
+		Assert.state(tokenized != null, "No tokenized pattern");
 		return tokenized;
 	}
 
@@ -426,36 +405,23 @@ public class AntPathMatcher implements PathMatcher {
 	 * <p>The default implementation checks this AntPathMatcher's internal cache
 	 * (see {@link #setCachePatterns}), creating a new AntPathStringMatcher instance
 	 * if no cached copy is found.
-	 * <p>When encountering too many patterns to cache at runtime (the threshold is 65536),
-	 * it turns the default cache off, assuming that arbitrary permutations of patterns
-	 * are coming in, with little chance for encountering a recurring pattern.
+	 * <p>The default cache is bounded to the 65536 most recently used patterns,
+	 * evicting the least recently used ones beyond that limit.
 	 * <p>This method may be overridden to implement a custom cache strategy.
 	 * @param pattern the pattern to match against (never {@code null})
 	 * @return a corresponding AntPathStringMatcher (never {@code null})
 	 * @see #setCachePatterns
 	 */
 	protected AntPathStringMatcher getStringMatcher(String pattern) {
-		AntPathStringMatcher matcher = null;
-		Boolean cachePatterns = this.cachePatterns;
-		if (cachePatterns == null || cachePatterns.booleanValue()) {
-			matcher = this.stringMatcherCache.get(pattern);
-		}
-		if (matcher == null) {
-			matcher = new AntPathStringMatcher(pattern, this.caseSensitive);
-			if (cachePatterns == null && this.stringMatcherCache.size() >= CACHE_TURNOFF_THRESHOLD) {
-				// Try to adapt to the runtime situation that we're encountering:
-				// There are obviously too many different patterns coming in here...
-				// So let's turn off the cache since the patterns are unlikely to be reoccurring.
-				deactivatePatternCache();
-				return matcher;
-			}
-			if (cachePatterns == null || cachePatterns.booleanValue()) {
-				this.stringMatcherCache.put(pattern, matcher);
-			}
-		}
+		AntPathStringMatcher matcher = this.stringMatcherCache.get(pattern);
+		Assert.state(matcher != null, "No AntPathStringMatcher");
 		return matcher;
 	}
 
+	private AntPathStringMatcher createStringMatcher(String pattern) {
+		return new AntPathStringMatcher(pattern, this.caseSensitive);
+	}
+
 	/**
 	 * Given a pattern and a full path, determine the pattern-mapped part. <p>For example: <ul>
 	 * <li>'{@code /docs/cvs/commit.html}' and '{@code /docs/cvs/commit.html} -> ''</li>
@@ -618,9 +584,14 @@ public class AntPathMatcher implements PathMatcher {
 
 
 	/**
-	 * Tests whether or not a string matches against a pattern via a {@link Pattern}.
+	 * Tests whether or not a string matches against a pattern.
 	 * <p>The pattern may contain special characters: '*' means zero or more characters; '?' means one and
 	 * only one character; '{' and '}' indicate a URI template pattern. For example <tt>/users/{user}</tt>.
+	 * <p>Patterns are compiled once into a sequence of literal, single-character and
+	 * sequence parts which are matched directly against the string, with the same
+	 * semantics as the equivalent regular expression. Only URI template variables
+	 * with a custom regular expression (e.g. <tt>{id:[a-z]+}</tt>) are matched via a
+	 * {@link Pattern}.
 	 */
 	protected static class AntPathStringMatcher {
 
@@ -628,8 +599,14 @@ public class AntPathMatcher implements PathMatcher {
 
 		private static final String DEFAULT_VARIABLE_PATTERN = "(.*)";
 
+		private final boolean caseSensitive;
+
+		@Nullable
 		private final Pattern pattern;
 
+		@Nullable
+		private final Part[] parts;
+
 		private final List<String> variableNames = new LinkedList<>();
 
 		public AntPathStringMatcher(String pattern) {
@@ -637,22 +614,31 @@ public class AntPathMatcher implements PathMatcher {
 		}
 
 		public AntPathStringMatcher(String pattern, boolean caseSensitive) {
+			this.caseSensitive = caseSensitive;
 			StringBuilder patternBuilder = new StringBuilder();
+			List<Part> parts = new ArrayList<>();
+			boolean customVariablePattern = false;
 			Matcher matcher = GLOB_PATTERN.matcher(pattern);
 			int end = 0;
 			while (matcher.find()) {
 				patternBuilder.append(quote(pattern, end, matcher.start()));
+				if (end < matcher.start()) {
+					parts.add(new Part(Part.LITERAL, pattern.substring(end, matcher.start()), -1));
+				}
 				String match = matcher.group();
 				if ("?".equals(match)) {
 					patternBuilder.append('.');
+					parts.add(new Part(Part.ANY_CHAR, match, -1));
 				}
 				else if ("*".equals(match)) {
 					patternBuilder.append(".*");
+					parts.add(new Part(Part.ANY_SEQUENCE, match, -1));
 				}
 				else if (match.startsWith("{") && match.endsWith("}")) {
 					int colonIdx = match.indexOf(':');
 					if (colonIdx == -1) {
 						patternBuilder.append(DEFAULT_VARIABLE_PATTERN);
+						parts.add(new Part(Part.ANY_SEQUENCE, matcher.group(1), this.variableNames.size()));
 						this.variableNames.add(matcher.group(1));
 					}
 					else {
@@ -662,13 +648,24 @@ public class AntPathMatcher implements PathMatcher {
 						patternBuilder.append(')');
 						String variableName = match.substring(1, colonIdx);
 						this.variableNames.add(variableName);
+						customVariablePattern = true;
 					}
 				}
 				end = matcher.end();
 			}
 			patternBuilder.append(quote(pattern, end, pattern.length()));
-			this.pattern = (caseSensitive ? Pattern.compile(patternBuilder.toString()) :
-					Pattern.compile(patternBuilder.toString(), Pattern.CASE_INSENSITIVE));
+			if (end < pattern.length()) {
+				parts.add(new Part(Part.LITERAL, pattern.substring(end), -1));
+			}
+			if (customVariablePattern) {
+				this.pattern = (caseSensitive ? Pattern.compile(patternBuilder.toString()) :
+						Pattern.compile(patternBuilder.toString(), Pattern.CASE_INSENSITIVE));
+				this.parts = null;
+			}
+			else {
+				this.pattern = null;
+				this.parts = parts.toArray(new Part[0]);
+			}
 		}
 
 		private String quote(String s, int start, int end) {
@@ -683,6 +680,22 @@ public class AntPathMatcher implements PathMatcher {
 		 * @return {@code true} if the string matches against the pattern, or {@code false} otherwise.
 		 */
 		public boolean matchStrings(String str, @Nullable Map<String, String> uriTemplateVariables) {
+			Part[] parts = this.parts;
+			if (parts != null) {
+				if (uriTemplateVariables == null || this.variableNames.isEmpty()) {
+					return matchParts(parts, str, 0, 0, null);
+				}
+				int[] bounds = new int[this.variableNames.size() * 2];
+				if (!matchParts(parts, str, 0, 0, bounds)) {
+					return false;
+				}
+				for (int i = 0; i < this.variableNames.size(); i++) {
+					uriTemplateVariables.put(this.variableNames.get(i), str.substring(bounds[i * 2], bounds[i * 2 + 1]));
+				}
+				return true;
+			}
+
+			Assert.state(this.pattern != null, "No pattern");
 			Matcher matcher = this.pattern.matcher(str);
 			if (matcher.matches()) {
 				if (uriTemplateVariables != null) {
@@ -705,6 +718,113 @@ public class AntPathMatcher implements PathMatcher {
 				return false;
 			}
 		}
+
+		/**
+		 * Match the given parts against the string from the given position on.
+		 * <p>Sequences are matched greedily, backing off one character at a time,
+		 * so that variable bounds are the same as with a regular expression.
+		 * @param bounds the start and end index of each variable, to be populated
+		 * on a successful match (or {@code null} if not needed)
+		 */
+		private boolean matchParts(Part[] parts, String str, int partIdx, int pos, @Nullable int[] bounds) {
+			while (partIdx < parts.length) {
+				Part part = parts[partIdx];
+				if (part.kind == Part.LITERAL) {
+					if (!matchLiteral(part.text, str, pos)) {
+						return false;
+					}
+					pos += part.text.length();
+				}
+				else if (part.kind == Part.ANY_CHAR) {
+					if (pos >= str.length() || isLineTerminator(str.charAt(pos))) {
+						return false;
+					}
+					pos++;
+				}
+				else {
+					// As with '.*', a sequence cannot extend beyond a line terminator
+					int max = pos;
+					while (max < str.length() && !isLineTerminator(str.charAt(max))) {
+						max++;
+					}
+					if (partIdx == parts.length - 1) {
+						if (max != str.length()) {
+							return false;
+						}
+						setBounds(bounds, part, pos, max);
+						return true;
+					}
+					for (int end = max; end >= pos; end--) {
+						if (matchParts(parts, str, partIdx + 1, end, bounds)) {
+							setBounds(bounds, part, pos, end);
+							return true;
+						}
+					}
+					return false;
+				}
+				partIdx++;
+			}
+			return (pos == str.length());
+		}
+
+		private boolean matchLiteral(String literal, String str, int pos) {
+			if (this.caseSensitive) {
+				return str.startsWith(literal, pos);
+			}
+			if (pos + literal.length() > str.length()) {
+				return false;
+			}
+			// Same as Pattern.CASE_INSENSITIVE: case-insensitive for US-ASCII characters only
+			for (int i = 0; i < literal.length(); i++) {
+				char c1 = literal.charAt(i);
+				char c2 = str.charAt(pos + i);
+				if (c1 != c2 && toLowerCaseAscii(c1) != toLowerCaseAscii(c2)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static char toLowerCaseAscii(char c) {
+			return (c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+		}
+
+		private static boolean isLineTerminator(char c) {
+			return (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029');
+		}
+
+		private static void setBounds(@Nullable int[] bounds, Part part, int start, int end) {
+			if (bounds != null && part.variableIndex >= 0) {
+				bounds[part.variableIndex * 2] = start;
+				bounds[part.variableIndex * 2 + 1] = end;
+			}
+		}
+
+
+		/**
+		 * A compiled part of a pattern: literal text, a single character wildcard,
+		 * or a sequence wildcard which may be bound to a URI template variable.
+		 */
+		private static final class Part {
+
+			static final int LITERAL = 0;
+
+			static final int ANY_CHAR = 1;
+
+			static final int ANY_SEQUENCE = 2;
+
+			final int kind;
+
+			final String text;
+
+			final int variableIndex;
+
+			Part(int kind, String text, int variableIndex) {
+				this.kind = kind;
+				this.text = text;
+				this.variableIndex = variableIndex;
+			}
+		}
 	}
 
 
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Simple bounded LRU cache, computing missing values through a generator
+ * function and evicting the least recently used entries once the size limit
+ * has been reached.
+ *
+ * <p>Entries are held in a {@link ConcurrentHashMap}, so cache hits are served
+ * without taking a lock. The least-recently-used order is maintained in a
+ * separate access-ordered list: reads are recorded in lock-striped, lossy
+ * buffers, and additions and removals in a concurrent queue. Both get applied
+ * to the list in batches by whichever thread acquires the eviction lock
+ * through {@code tryLock}, without any thread ever waiting for that lock.
+ * Under heavy concurrent reads, some accesses may not be recorded, so the
+ * eviction order is an approximation of the least-recently-used order.
+ *
+ * <p>The generator function is invoked outside of any lock: concurrent misses
+ * for the same key may compute the value more than once, but only the first
+ * value stored is retained and returned.
+ *
+ * <p>Keys must not be {@code null}. Values returned as {@code null} by the
+ * generator function are passed on to the caller but not cached.
+ *
+ * @since 5.0.15
+ * @param <K> the type of the key used for cache retrieval
+ * @param <V> the type of the cached values
+ * @see ConcurrentReferenceHashMap
+ */
+public class ConcurrentLruCache<K, V> {
+
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	private static final int MAXIMUM_READ_BUFFERS = 64;
+
+	private static final int READ_BUFFER_SIZE = 32;
+
+	private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+	/**
+	 * Number of reads recorded in a buffer after which the buffers get drained.
+	 */
+	private static final int READ_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+
+	private final int sizeLimit;
+
+	private final Function<K, V> generator;
+
+	private final ConcurrentMap<K, Node<K, V>> cache;
+
+	/**
+	 * Buffers of recorded reads, selected by the id of the reading thread.
+	 */
+	private final ReadBuffer<K, V>[] readBuffers;
+
+	/**
+	 * Pending additions and removals of nodes, to be applied to the eviction list.
+	 */
+	private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	/**
+	 * Entries in least-recently-used order, guarded by the eviction lock.
+	 */
+	private final EvictionList<K, V> evictionList = new EvictionList<>();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+
+	/**
+	 * Create a new {@code ConcurrentLruCache} with the given size limit.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param generator a function to generate a new value for a given key
+	 */
+	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator) {
+		this(sizeLimit, DEFAULT_CONCURRENCY_LEVEL, generator);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentLruCache} with the given size limit.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param concurrencyLevel the expected number of threads that will
+	 * concurrently access the cache, determining the number of buffers
+	 * that record cache hits
+	 * @param generator a function to generate a new value for a given key
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentLruCache(int sizeLimit, int concurrencyLevel, Function<K, V> generator) {
+		Assert.isTrue(sizeLimit >= 0, "Cache size limit must not be negative");
+		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
+		Assert.notNull(generator, "Generator function must not be null");
+		this.sizeLimit = sizeLimit;
+		this.generator = generator;
+		this.cache = new ConcurrentHashMap<>(Math.min(sizeLimit, 256), 0.75f, concurrencyLevel);
+
+		int bufferCount = 1;
+		while (bufferCount < Math.min(concurrencyLevel, MAXIMUM_READ_BUFFERS)) {
+			bufferCount <<= 1;
+		}
+		this.readBuffers = new ReadBuffer[bufferCount];
+		for (int i = 0; i < bufferCount; i++) {
+			this.readBuffers[i] = new ReadBuffer<>();
+		}
+	}
+
+
+	/**
+	 * Retrieve an entry from the cache, potentially triggering generation
+	 * of the value.
+	 * @param key the key to retrieve the entry for
+	 * @return the cached or newly generated value
+	 */
+	@Nullable
+	public V get(K key) {
+		if (this.sizeLimit == 0) {
+			this.missCount.increment();
+			return this.generator.apply(key);
+		}
+		Node<K, V> node = this.cache.get(key);
+		if (node != null) {
+			this.hitCount.increment();
+			recordRead(node);
+			return node.value;
+		}
+		this.missCount.increment();
+		V value = this.generator.apply(key);
+		if (value == null) {
+			return null;
+		}
+		Node<K, V> newNode = new Node<>(key, value);
+		Node<K, V> existing = this.cache.putIfAbsent(key, newNode);
+		if (existing != null) {
+			recordRead(existing);
+			return existing.value;
+		}
+		this.writeBuffer.add(() -> {
+			if (newNode.alive) {
+				this.evictionList.addLast(newNode);
+				evictIfNecessary();
+			}
+		});
+		drainBuffers();
+		return value;
+	}
+
+	/**
+	 * Determine whether the given key is present in this cache,
+	 * without affecting its least-recently-used position.
+	 * @param key the key to check for
+	 * @return {@code true} if the key is present, {@code false} if there was no matching key
+	 */
+	public boolean contains(K key) {
+		return this.cache.containsKey(key);
+	}
+
+	/**
+	 * Immediately remove the given key and any associated value.
+	 * @param key the key to evict the entry for
+	 * @return {@code true} if the key was present before, {@code false} if there was no matching key
+	 */
+	public boolean remove(K key) {
+		Node<K, V> node = this.cache.remove(key);
+		if (node == null) {
+			return false;
+		}
+		node.alive = false;
+		this.writeBuffer.add(() -> this.evictionList.remove(node));
+		drainBuffers();
+		return true;
+	}
+
+	/**
+	 * Immediately remove all entries from this cache.
+	 */
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			drainReadBuffers();
+			drainWriteBuffer();
+			Node<K, V> node;
+			while ((node = this.evictionList.pollFirst()) != null) {
+				this.cache.remove(node.key, node);
+				node.alive = false;
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the current size of the cache.
+	 * @see #sizeLimit()
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value).
+	 * @see #size()
+	 */
+	public int sizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Return the number of lookups which found a cached value.
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups which had to generate a value.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Record a read of the given node in the buffer of the current thread,
+	 * draining the buffers once enough reads have been recorded.
+	 */
+	private void recordRead(Node<K, V> node) {
+		ReadBuffer<K, V> buffer =
+				this.readBuffers[(int) Thread.currentThread().getId() & (this.readBuffers.length - 1)];
+		long index = buffer.writeIndex.getAndIncrement();
+		buffer.nodes.lazySet((int) (index & READ_BUFFER_MASK), node);
+		if (((index + 1) & (READ_DRAIN_THRESHOLD - 1)) == 0) {
+			drainBuffers();
+		}
+	}
+
+	/**
+	 * Apply recorded reads and pending writes if the eviction lock is available,
+	 * repeating as long as writes are pending since their threads may have
+	 * failed to acquire the lock while it was held by the current thread.
+	 */
+	private void drainBuffers() {
+		do {
+			if (!this.evictionLock.tryLock()) {
+				// Another thread is draining and will pick up pending writes
+				return;
+			}
+			try {
+				drainReadBuffers();
+				drainWriteBuffer();
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+		while (!this.writeBuffer.isEmpty());
+	}
+
+	private void drainReadBuffers() {
+		for (ReadBuffer<K, V> buffer : this.readBuffers) {
+			long end = buffer.writeIndex.get();
+			// Reads overwritten by the time we get here are lost, as accepted for an approximate order
+			long start = Math.max(buffer.readIndex, end - READ_BUFFER_SIZE);
+			for (long index = start; index < end; index++) {
+				Node<K, V> node = buffer.nodes.getAndSet((int) (index & READ_BUFFER_MASK), null);
+				if (node != null && node.alive) {
+					this.evictionList.moveToLast(node);
+				}
+			}
+			buffer.readIndex = end;
+		}
+	}
+
+	private void drainWriteBuffer() {
+		Runnable task;
+		while ((task = this.writeBuffer.poll()) != null) {
+			task.run();
+		}
+	}
+
+	private void evictIfNecessary() {
+		while (this.evictionList.size > this.sizeLimit) {
+			Node<K, V> eldest = this.evictionList.pollFirst();
+			if (eldest == null) {
+				return;
+			}
+			this.cache.remove(eldest.key, eldest);
+			eldest.alive = false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size = " + size() + ", sizeLimit = " + this.sizeLimit +
+				", hits = " + hitCount() + ", misses = " + missCount() + "]";
+	}
+
+
+	/**
+	 * A cache entry, linked into the eviction list while alive.
+	 */
+	private static final class Node<K, V> {
+
+		final K key;
+
+		final V value;
+
+		volatile boolean alive = true;
+
+		// Guarded by the eviction lock
+		@Nullable
+		Node<K, V> prev;
+
+		// Guarded by the eviction lock
+		@Nullable
+		Node<K, V> next;
+
+		// Guarded by the eviction lock
+		boolean linked;
+
+		Node(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+
+	/**
+	 * Ring buffer of recorded reads for a subset of threads.
+	 */
+	private static final class ReadBuffer<K, V> {
+
+		final AtomicReferenceArray<Node<K, V>> nodes = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+		final AtomicLong writeIndex = new AtomicLong();
+
+		// Guarded by the eviction lock
+		long readIndex;
+	}
+
+
+	/**
+	 * Doubly-linked list of nodes in least-recently-used order,
+	 * guarded by the eviction lock.
+	 */
+	private static final class EvictionList<K, V> {
+
+		@Nullable
+		private Node<K, V> first;
+
+		@Nullable
+		private Node<K, V> last;
+
+		int size;
+
+		void addLast(Node<K, V> node) {
+			if (node.linked) {
+				return;
+			}
+			node.prev = this.last;
+			node.next = null;
+			if (this.last != null) {
+				this.last.next = node;
+			}
+			else {
+				this.first = node;
+			}
+			this.last = node;
+			node.linked = true;
+			this.size++;
+		}
+
+		void moveToLast(Node<K, V> node) {
+			if (node.linked && node != this.last) {
+				remove(node);
+				addLast(node);
+			}
+		}
+
+		@Nullable
+		Node<K, V> pollFirst() {
+			Node<K, V> node = this.first;
+			if (node != null) {
+				remove(node);
+			}
+			return node;
+		}
+
+		void remove(Node<K, V> node) {
+			if (!node.linked) {
+				return;
+			}
+			if (node.prev != null) {
+				node.prev.next = node.next;
+			}
+			else {
+				this.first = node.next;
+			}
+			if (node.next != null) {
+				node.next.prev = node.prev;
+			}
+			else {
+				this.last = node.prev;
+			}
+			node.prev = null;
+			node.next = null;
+			node.linked = false;
+			this.size--;
+		}
+	}
+
+}
@@ -108,6 +108,29 @@ public class ResolvableTypeTests {
 		assertFalse(type.isAssignableFrom(ArrayList.class));
 	}
 
+	@Test
+	public void forClassIsShared() throws Exception {
+		ResolvableType type = ResolvableType.forClass(ExtendsList.class);
+		assertThat(ResolvableType.forClass(ExtendsList.class), sameInstance(type));
+		assertThat(ResolvableType.forType(ExtendsList.class), sameInstance(type));
+		assertThat(ResolvableType.forClass(ExtendsList.class).getSuperType(), sameInstance(type.getSuperType()));
+		assertThat(ResolvableType.forClass(null), sameInstance(ResolvableType.forClass(Object.class)));
+	}
+
+	@Test
+	public void forTypeWithoutSourceIsShared() throws Exception {
+		Type genericType = Fields.class.getField("stringList").getGenericType();
+		ResolvableType type = ResolvableType.forType(genericType);
+		assertThat(ResolvableType.forType(genericType), sameInstance(type));
+		assertThat(type.getGeneric(0), sameInstance(ResolvableType.forClass(String.class)));
+		assertTrue(type.isAssignableFrom(ResolvableType.forType(genericType)));
+
+		ResolvableType fieldType = ResolvableType.forField(Fields.class.getField("stringList"));
+		assertThat(fieldType, equalTo(ResolvableType.forField(Fields.class.getField("stringList"))));
+		assertThat(fieldType, not(sameInstance(ResolvableType.forField(Fields.class.getField("stringList")))));
+		assertThat(fieldType.getSource(), equalTo(Fields.class.getField("stringList")));
+	}
+
 	@Test
 	public void forClassWithNull() throws Exception {
 		ResolvableType type = ResolvableType.forClass(null);
@@ -796,6 +796,36 @@ public class AnnotatedElementUtilsTests {
 		assertNotNull(order);
 	}
 
+	@Test
+	public void mergedAnnotationsAreIndexedPerElement() throws Exception {
+		Method method = ConcreteClassWithInheritedAnnotation.class.getMethod("handle");
+		Transactional transactional = findMergedAnnotation(method, Transactional.class);
+		assertNotNull(transactional);
+		assertSame(transactional, findMergedAnnotation(method, Transactional.class));
+		assertSame(transactional, findMergedAnnotation(
+				ConcreteClassWithInheritedAnnotation.class.getMethod("handle"), Transactional.class));
+		assertNull("get semantics do not search the method hierarchy", getMergedAnnotation(method, Transactional.class));
+		assertTrue(hasAnnotation(method, Transactional.class));
+		assertFalse(isAnnotated(method, Transactional.class));
+
+		AnnotationUtils.clearCache();
+		Transactional transactionalAfterClear = findMergedAnnotation(method, Transactional.class);
+		assertNotSame(transactional, transactionalAfterClear);
+		assertEquals(transactional, transactionalAfterClear);
+	}
+
+	@Test
+	public void indexedLookupsForAbsentAnnotation() {
+		assertFalse(isAnnotated(NonAnnotatedClass.class, Transactional.class));
+		assertFalse(hasAnnotation(NonAnnotatedClass.class, Transactional.class));
+		assertNull(getMergedAnnotationAttributes(NonAnnotatedClass.class, TX_NAME));
+		assertNull(findMergedAnnotationAttributes(NonAnnotatedClass.class, Transactional.class));
+		assertNull(getMergedAnnotation(NonAnnotatedClass.class, Transactional.class));
+		assertNull(findMergedAnnotation(NonAnnotatedClass.class, Transactional.class));
+		assertTrue(getAllMergedAnnotations(NonAnnotatedClass.class, Transactional.class).isEmpty());
+		assertTrue(findAllMergedAnnotations(NonAnnotatedClass.class, Transactional.class).isEmpty());
+	}
+
 
 	// -------------------------------------------------------------------------
 
@@ -640,6 +640,56 @@ public class GenericConversionServiceTests {
 				conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("integerCollection"))));
 	}
 
+	@Test
+	public void resolveConverter() {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		Converter<Object, Object> converter = conversionService.resolveConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(int.class));
+		assertEquals(3, converter.convert("3"));
+		assertEquals(42, converter.convert(" 42 "));
+		try {
+			converter.convert("x");
+			fail("Should have thrown ConversionFailedException");
+		}
+		catch (ConversionFailedException ex) {
+			assertThat(ex.getCause(), instanceOf(NumberFormatException.class));
+		}
+		try {
+			converter.convert(null);
+			fail("Should have thrown ConversionFailedException");
+		}
+		catch (ConversionFailedException ex) {
+			// expected: null cannot be assigned to a primitive type
+		}
+	}
+
+	@Test
+	public void resolveConverterWithoutMatchingConverter() {
+		Converter<Object, Object> converter = conversionService.resolveConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		assertNull(converter.convert(null));
+		try {
+			converter.convert("3");
+			fail("Should have thrown ConverterNotFoundException");
+		}
+		catch (ConverterNotFoundException ex) {
+			// expected
+		}
+
+		String source = "test";
+		converter = conversionService.resolveConverter(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(CharSequence.class));
+		assertSame(source, converter.convert(source));
+	}
+
+	@Test
+	public void convertCollectionWithMixedElementTypes() throws Exception {
+		DefaultConversionService.addDefaultConverters(conversionService);
+		List<Object> source = Arrays.asList("1", 2L, null, "3", 4);
+		assertEquals(Arrays.asList(1, 2, null, 3, 4), conversionService.convert(
+				source, TypeDescriptor.forObject(source), new TypeDescriptor(getClass().getField("list"))));
+	}
+
 
 	@ExampleAnnotation(active = true)
 	public String annotatedString;
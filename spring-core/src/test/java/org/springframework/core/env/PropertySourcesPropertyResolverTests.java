@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -367,4 +367,92 @@ public class PropertySourcesPropertyResolverTests {
 		}
 	}
 
+	@Test
+	public void propertySnapshot() {
+		MutablePropertySources sources = new MutablePropertySources();
+		MockPropertySource ps1 = new MockPropertySource("ps1").withProperty("pName", "ps1Value");
+		sources.addFirst(ps1);
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(sources);
+		resolver.setPropertySnapshotEnabled(true);
+		assertThat(resolver.getProperty("pName"), equalTo("ps1Value"));
+		assertThat(resolver.getProperty("other"), nullValue());
+
+		// changes within a property source are not detected...
+		ps1.setProperty("pName", "changedValue");
+		ps1.setProperty("other", "otherValue");
+		assertThat(resolver.getProperty("pName"), equalTo("ps1Value"));
+		assertThat(resolver.getProperty("other"), nullValue());
+		// ...until the snapshot gets cleared
+		resolver.clearPropertySnapshot();
+		assertThat(resolver.getProperty("pName"), equalTo("changedValue"));
+		assertThat(resolver.getProperty("other"), equalTo("otherValue"));
+
+		// structural changes invalidate the snapshot right away
+		sources.addFirst(new MockPropertySource("ps2").withProperty("pName", "ps2Value"));
+		assertThat(resolver.getProperty("pName"), equalTo("ps2Value"));
+		sources.replace("ps2", new MockPropertySource("ps2").withProperty("pName", "replacedValue"));
+		assertThat(resolver.getProperty("pName"), equalTo("replacedValue"));
+		sources.remove("ps2");
+		assertThat(resolver.getProperty("pName"), equalTo("changedValue"));
+		assertThat(resolver.getProperty("missing", "myDefault"), equalTo("myDefault"));
+	}
+
+	@Test
+	public void propertySnapshotWithPlaceholders() {
+		MutablePropertySources sources = new MutablePropertySources();
+		MockPropertySource ps1 = new MockPropertySource("ps1")
+				.withProperty("p1", "v1")
+				.withProperty("p2", "${p1}:${bogus}");
+		sources.addFirst(ps1);
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(sources);
+		resolver.setPropertySnapshotEnabled(true);
+
+		assertThat(resolver.resolvePlaceholders("${p1}:${bogus}"), equalTo("v1:${bogus}"));
+		assertThat(resolver.resolveRequiredPlaceholders("${p1}"), equalTo("v1"));
+		try {
+			resolver.getProperty("p2");
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected
+		}
+		try {
+			resolver.resolveRequiredPlaceholders("${p1}:${bogus}");
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected - and still expected on repeated resolution
+		}
+		try {
+			resolver.resolveRequiredPlaceholders("${p1}:${bogus}");
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected
+		}
+
+		// a change of placeholder settings invalidates the snapshot
+		resolver.setIgnoreUnresolvableNestedPlaceholders(true);
+		assertThat(resolver.getProperty("p2"), equalTo("v1:${bogus}"));
+
+		ps1.setProperty("p1", "changed");
+		assertThat(resolver.resolveRequiredPlaceholders("${p1}"), equalTo("v1"));
+		sources.addLast(new MockPropertySource("ps2").withProperty("bogus", "v2"));
+		assertThat(resolver.resolveRequiredPlaceholders("${p1}"), equalTo("changed"));
+		assertThat(resolver.getProperty("p2"), equalTo("changed:v2"));
+	}
+
+	@Test
+	public void propertySnapshotOnEnvironment() {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.setPropertySnapshotEnabled(true);
+		MockPropertySource ps1 = new MockPropertySource("ps1").withProperty("pName", "ps1Value");
+		environment.getPropertySources().addFirst(ps1);
+		assertThat(environment.resolvePlaceholders("${pName}"), equalTo("ps1Value"));
+		ps1.setProperty("pName", "changedValue");
+		assertThat(environment.resolvePlaceholders("${pName}"), equalTo("ps1Value"));
+		environment.clearPropertySnapshot();
+		assertThat(environment.resolvePlaceholders("${pName}"), equalTo("changedValue"));
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -330,6 +330,25 @@ public class PathResourceTests {
 		resource.readableChannel();
 	}
 
+	@Test
+	public void map() throws IOException {
+		PathResource resource = new PathResource(TEST_FILE);
+		ByteBuffer buffer = resource.map();
+		assertThat((long) buffer.remaining(), is(resource.contentLength()));
+		assertTrue(buffer.isReadOnly());
+
+		ByteBuffer region = resource.map(1, 2);
+		assertThat(region.remaining(), is(2));
+		assertThat(region.get(0), is(buffer.get(1)));
+	}
+
+	@Test
+	public void mapDoesNotExist() throws IOException {
+		PathResource resource = new PathResource(NON_EXISTING_FILE);
+		thrown.expect(FileNotFoundException.class);
+		resource.map();
+	}
+
 	@Test
 	public void getWritableChannel() throws IOException {
 		PathResource resource = new PathResource(temporaryFolder.newFile("test").toPath());
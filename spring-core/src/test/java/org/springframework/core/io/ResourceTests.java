@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -264,6 +264,20 @@ public class ResourceTests {
 		}
 	}
 
+	@Test
+	public void testMapOnFileSystemResource() throws IOException {
+		FileSystemResource resource = new FileSystemResource(getClass().getResource("Resource.class").getFile());
+		ByteBuffer buffer = resource.map();
+		assertEquals(resource.contentLength(), buffer.remaining());
+		assertEquals((byte) 0xCA, buffer.get(0));
+		assertEquals((byte) 0xFE, resource.map(1, 1).get());
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testMapNotFoundOnFileSystemResource() throws IOException {
+		new FileSystemResource(getClass().getResource("Resource.class").getFile() + "X").map();
+	}
+
 	@Test(expected = FileNotFoundException.class)
 	public void testInputStreamNotFoundOnFileSystemResource() throws IOException {
 		new FileSystemResource(getClass().getResource("Resource.class").getFile()).createRelative("X").getInputStream();
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BufferingApplicationStartup}.
+ *
+ * @since 5.0.15
+ */
+public class BufferingApplicationStartupTests {
+
+	@Test
+	public void defaultStartupDoesNotRecordSteps() {
+		StartupStep step = ApplicationStartup.DEFAULT.start("spring.test").tag("key", "value");
+		assertSame(step, ApplicationStartup.DEFAULT.start("spring.other"));
+		step.end();
+		step.end();
+	}
+
+	@Test
+	public void reportSortedBySelfTime() throws Exception {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup();
+		StartupStep outer = startup.start("spring.test.outer").tag("beanName", "outer");
+		StartupStep inner = startup.start("spring.test.inner").tag("beanName", "inner");
+		Thread.sleep(50);
+		inner.end();
+		outer.end();
+		assertEquals(2, startup.getStepCount());
+
+		String report = startup.getReport();
+		assertTrue(report, report.startsWith("Startup steps by self time (top 2 of 2)"));
+		int innerIndex = report.indexOf("spring.test.inner {beanName=inner}");
+		int outerIndex = report.indexOf("spring.test.outer {beanName=outer}");
+		assertTrue(report, innerIndex > 0);
+		assertTrue(report, outerIndex > innerIndex);
+	}
+
+	@Test
+	public void stepsAfterNestedStepBelongToParent() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup();
+		StartupStep outer = startup.start("spring.test.outer");
+		startup.start("spring.test.first").end();
+		startup.start("spring.test.second").end();
+		outer.end();
+		StartupStep next = startup.start("spring.test.next");
+		next.end();
+		assertEquals(4, startup.getStepCount());
+	}
+
+	@Test
+	public void reportLimitedToMaxSteps() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup();
+		for (int i = 0; i < 5; i++) {
+			startup.start("spring.test.step").end();
+		}
+		String report = startup.getReport(2);
+		assertTrue(report, report.startsWith("Startup steps by self time (top 2 of 5)"));
+		assertEquals(2, report.split("spring.test.step", -1).length - 1);
+	}
+
+	@Test
+	public void capacityLimitsBufferedSteps() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(2);
+		for (int i = 0; i < 5; i++) {
+			startup.start("spring.test.step").end();
+		}
+		assertEquals(5, startup.getStepCount());
+		assertTrue(startup.getReport().startsWith("Startup steps by self time (top 2 of 5)"));
+		startup.clear();
+		assertEquals(0, startup.getStepCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void stepCannotBeEndedTwice() {
+		StartupStep step = new BufferingApplicationStartup().start("spring.test");
+		step.end();
+		step.end();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void endedStepCannotBeTagged() {
+		StartupStep step = new BufferingApplicationStartup().start("spring.test");
+		step.end();
+		step.tag("key", "value");
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.MultiValueMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PersistentMetadataCache}.
+ *
+ * @since 5.0.15
+ */
+public class PersistentMetadataCacheTests {
+
+	private static final String ANNOTATED_CLASS =
+			"org/springframework/core/type/AnnotationMetadataTests$AnnotatedComponent.class";
+
+	private static final String OTHER_CLASS =
+			"org/springframework/core/type/AnnotationMetadataTests$AnnotatedComponentSubClass.class";
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final ClassLoader classLoader = getClass().getClassLoader();
+
+	private File cacheDirectory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.cacheDirectory = this.temporaryFolder.newFolder("cache");
+	}
+
+
+	@Test
+	public void restoredMetadataMatchesClassFile() throws IOException {
+		Resource resource = new ClassPathResource(ANNOTATED_CLASS);
+		PersistentMetadataCache cache = new PersistentMetadataCache(this.cacheDirectory);
+		assertMetadataEquals(new SimpleMetadataReader(resource, this.classLoader),
+				cache.getMetadataReader(resource, this.classLoader));
+		cache.flush();
+
+		PersistentMetadataCache restoredCache = new PersistentMetadataCache(this.cacheDirectory);
+		assertMetadataEquals(new SimpleMetadataReader(resource, this.classLoader),
+				restoredCache.getMetadataReader(resource, this.classLoader));
+	}
+
+	@Test
+	public void unchangedClassFileIsNotReadAgain() throws IOException {
+		File classFile = copyClassFile(ANNOTATED_CLASS, this.temporaryFolder.newFile("Component.class"));
+		Resource resource = new FileSystemResource(classFile);
+		PersistentMetadataCache cache = new PersistentMetadataCache(this.cacheDirectory);
+		cache.getMetadataReader(resource, this.classLoader);
+		cache.flush();
+
+		// Garbage with same size and timestamp: only readable from the cache
+		long lastModified = classFile.lastModified();
+		byte[] garbage = new byte[(int) classFile.length()];
+		Arrays.fill(garbage, (byte) 1);
+		FileCopyUtils.copy(garbage, classFile);
+		assertTrue(classFile.setLastModified(lastModified));
+
+		MetadataReader metadataReader =
+				new PersistentMetadataCache(this.cacheDirectory).getMetadataReader(resource, this.classLoader);
+		assertEquals("org.springframework.core.type.AnnotationMetadataTests$AnnotatedComponent",
+				metadataReader.getClassMetadata().getClassName());
+		assertSame(resource, metadataReader.getResource());
+	}
+
+	@Test
+	public void modifiedClassFileIsReadAgain() throws IOException {
+		File classFile = copyClassFile(ANNOTATED_CLASS, this.temporaryFolder.newFile("Component.class"));
+		Resource resource = new FileSystemResource(classFile);
+		PersistentMetadataCache cache = new PersistentMetadataCache(this.cacheDirectory);
+		cache.getMetadataReader(resource, this.classLoader);
+		cache.flush();
+
+		long lastModified = classFile.lastModified();
+		copyClassFile(OTHER_CLASS, classFile);
+		assertTrue(classFile.setLastModified(lastModified + 2000));
+
+		MetadataReader metadataReader =
+				new PersistentMetadataCache(this.cacheDirectory).getMetadataReader(resource, this.classLoader);
+		assertEquals("org.springframework.core.type.AnnotationMetadataTests$AnnotatedComponentSubClass",
+				metadataReader.getClassMetadata().getClassName());
+	}
+
+	@Test
+	public void jarEntriesInvalidatedWithJarFile() throws IOException {
+		File jarFile = this.temporaryFolder.newFile("classes.jar");
+		writeJar(jarFile, ANNOTATED_CLASS);
+		Resource resource = new UrlResource("jar:" + jarFile.toURI() + "!/" + ANNOTATED_CLASS);
+		PersistentMetadataCache cache = new PersistentMetadataCache(this.cacheDirectory);
+		assertMetadataEquals(new SimpleMetadataReader(resource, this.classLoader),
+				cache.getMetadataReader(resource, this.classLoader));
+		cache.flush();
+		assertMetadataEquals(new SimpleMetadataReader(resource, this.classLoader),
+				new PersistentMetadataCache(this.cacheDirectory).getMetadataReader(resource, this.classLoader));
+
+		// Same entry name, different class file content
+		long lastModified = jarFile.lastModified();
+		writeJar(jarFile, OTHER_CLASS, ANNOTATED_CLASS);
+		assertTrue(jarFile.setLastModified(lastModified + 2000));
+		MetadataReader metadataReader =
+				new PersistentMetadataCache(this.cacheDirectory).getMetadataReader(resource, this.classLoader);
+		assertEquals("org.springframework.core.type.AnnotationMetadataTests$AnnotatedComponentSubClass",
+				metadataReader.getClassMetadata().getClassName());
+	}
+
+	@Test
+	public void corruptedCacheFileIsIgnored() throws IOException {
+		Resource resource = new ClassPathResource(ANNOTATED_CLASS);
+		PersistentMetadataCache cache = new PersistentMetadataCache(this.cacheDirectory);
+		cache.getMetadataReader(resource, this.classLoader);
+		cache.flush();
+
+		File[] files = this.cacheDirectory.listFiles();
+		assertNotNull(files);
+		assertEquals(1, files.length);
+		byte[] content = FileCopyUtils.copyToByteArray(files[0]);
+		FileCopyUtils.copy(Arrays.copyOf(content, content.length / 2), files[0]);
+
+		assertMetadataEquals(new SimpleMetadataReader(resource, this.classLoader),
+				new PersistentMetadataCache(this.cacheDirectory).getMetadataReader(resource, this.classLoader));
+	}
+
+	@Test
+	public void cachingMetadataReaderFactoryFlushesOnClearCache() throws IOException {
+		CachingMetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(this.classLoader);
+		metadataReaderFactory.setPersistentCache(PersistentMetadataCache.forDirectory(this.cacheDirectory));
+		metadataReaderFactory.getMetadataReader(ANNOTATED_CLASS.replace('/', '.').replace(".class", ""));
+		assertEquals(0, this.cacheDirectory.list().length);
+
+		metadataReaderFactory.clearCache();
+		assertEquals(1, this.cacheDirectory.list().length);
+	}
+
+
+	private File copyClassFile(String classFile, File target) throws IOException {
+		FileCopyUtils.copy(FileCopyUtils.copyToByteArray(new ClassPathResource(classFile).getInputStream()), target);
+		return target;
+	}
+
+	private void writeJar(File jarFile, String classFile, String entryName) throws IOException {
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+			out.putNextEntry(new ZipEntry(entryName));
+			out.write(FileCopyUtils.copyToByteArray(new ClassPathResource(classFile).getInputStream()));
+			out.closeEntry();
+		}
+	}
+
+	private void writeJar(File jarFile, String classFile) throws IOException {
+		writeJar(jarFile, classFile, classFile);
+	}
+
+	private void assertMetadataEquals(MetadataReader expectedReader, MetadataReader actualReader) {
+		AnnotationMetadata expected = expectedReader.getAnnotationMetadata();
+		AnnotationMetadata actual = actualReader.getAnnotationMetadata();
+		assertEquals(expected.getClassName(), actual.getClassName());
+		assertEquals(expected.getSuperClassName(), actual.getSuperClassName());
+		assertArrayEquals(expected.getInterfaceNames(), actual.getInterfaceNames());
+		assertArrayEquals(expected.getMemberClassNames(), actual.getMemberClassNames());
+		assertEquals(expected.getEnclosingClassName(), actual.getEnclosingClassName());
+		assertEquals(expected.isIndependent(), actual.isIndependent());
+		assertEquals(expected.isConcrete(), actual.isConcrete());
+		assertEquals(expected.getAnnotationTypes(), actual.getAnnotationTypes());
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertEquals(expected.getMetaAnnotationTypes(annotationType), actual.getMetaAnnotationTypes(annotationType));
+			assertEquals(String.valueOf(expected.getAnnotationAttributes(annotationType, true)),
+					String.valueOf(actual.getAnnotationAttributes(annotationType, true)));
+			MultiValueMap<String, Object> expectedAttributes = expected.getAllAnnotationAttributes(annotationType, true);
+			MultiValueMap<String, Object> actualAttributes = actual.getAllAnnotationAttributes(annotationType, true);
+			assertNotNull(actualAttributes);
+			assertEquals(expectedAttributes.keySet(), actualAttributes.keySet());
+			expectedAttributes.forEach((name, values) -> assertEquals(
+					Arrays.deepToString(values.toArray()), Arrays.deepToString(actualAttributes.get(name).toArray())));
+		}
+		for (String annotationType : new String[] {"org.springframework.core.type.TestAutowired",
+				"org.springframework.core.type.AnnotationMetadataTests$DirectAnnotation"}) {
+			assertEquals(expected.hasAnnotatedMethods(annotationType), actual.hasAnnotatedMethods(annotationType));
+			assertEquals(expected.getAnnotatedMethods(annotationType).size(),
+					actual.getAnnotatedMethods(annotationType).size());
+			for (MethodMetadata method : actual.getAnnotatedMethods(annotationType)) {
+				assertEquals(annotationType.endsWith("TestAutowired") ? "doWork" : "meta", method.getMethodName());
+				assertNotNull(method.getAnnotationAttributes(annotationType));
+			}
+		}
+	}
+
+}
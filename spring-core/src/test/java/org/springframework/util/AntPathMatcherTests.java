@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -601,6 +603,45 @@ public class AntPathMatcherTests {
 		assertFalse(pathMatcher.match("/group/{groupName}/members", "/Group/  Sales/Members"));
 	}
 
+	@Test
+	public void extractUriTemplateVariablesGreedily() {
+		Map<String, String> result = pathMatcher.extractUriTemplateVariables("/{name}-{version}.jar", "/spring-core-5.0.jar");
+		assertEquals("spring-core", result.get("name"));
+		assertEquals("5.0", result.get("version"));
+
+		result = pathMatcher.extractUriTemplateVariables("/{first}{second}", "/value");
+		assertEquals("value", result.get("first"));
+		assertEquals("", result.get("second"));
+
+		result = pathMatcher.extractUriTemplateVariables("/*-{id}?", "/a-b-c1");
+		assertEquals(1, result.size());
+		assertEquals("c", result.get("id"));
+	}
+
+	@Test
+	public void compiledMatcherConsistentWithRegex() {
+		String[] patterns = {"a*b", "*a*", "?b*", "a?*?", "*.*", "a{x}b", "{x}{y}", "{x}.{y}", "A*b", "a\\Eb", "a.b", "**"};
+		String[] strings = {"", "a", "ab", "aab", "abb", "abab", "ba", "b.a", "a.b", "axb", "Axb", "a\\Eb", "a\nb", "abc"};
+		for (boolean caseSensitive : new boolean[] {true, false}) {
+			for (String pattern : patterns) {
+				AntPathMatcher.AntPathStringMatcher matcher = new AntPathMatcher.AntPathStringMatcher(pattern, caseSensitive);
+				String regex = pattern.replace(".", "\\.").replace("\\E", "\\\\E").replace("?", ".").replace("*", ".*")
+						.replace("{x}", "(.*)").replace("{y}", "(.*)");
+				Pattern compiled = (caseSensitive ? Pattern.compile(regex) :
+						Pattern.compile(regex, Pattern.CASE_INSENSITIVE));
+				for (String str : strings) {
+					Matcher regexMatcher = compiled.matcher(str);
+					Map<String, String> variables = new LinkedHashMap<>();
+					boolean matches = regexMatcher.matches();
+					assertEquals(pattern + " vs " + str, matches, matcher.matchStrings(str, variables));
+					if (matches && regexMatcher.groupCount() > 0) {
+						assertEquals(pattern + " vs " + str, regexMatcher.group(1), variables.get("x"));
+					}
+				}
+			}
+		}
+	}
+
 	@Test  // SPR-13286
 	public void caseInsensitive() {
 		pathMatcher.setCaseSensitive(false);
@@ -615,11 +656,23 @@ public class AntPathMatcherTests {
 		match();
 		assertTrue(pathMatcher.stringMatcherCache.size() > 20);
 
-		for (int i = 0; i < 65536; i++) {
-			pathMatcher.match("test" + i, "test");
+		for (int i = 0; i < 131072; i++) {
+			pathMatcher.match("test" + i, "test" + i);
 		}
-		// Cache turned off because it went beyond the threshold
-		assertTrue(pathMatcher.stringMatcherCache.isEmpty());
+		// Cache stays bounded, evicting the least recently used patterns
+		assertEquals(65536, pathMatcher.stringMatcherCache.size());
+		assertTrue(pathMatcher.stringMatcherCache.contains("test131071"));
+		assertFalse(pathMatcher.stringMatcherCache.contains("test0"));
+	}
+
+	@Test
+	public void defaultCacheSettingKeepsRecurringPatterns() {
+		for (int i = 0; i < 100000; i++) {
+			pathMatcher.match("/recurring/{id}", "/recurring/" + i);
+			pathMatcher.match("test" + i, "test" + i);
+		}
+		assertTrue(pathMatcher.stringMatcherCache.contains("{id}"));
+		assertTrue(pathMatcher.stringMatcherCache.size() <= 65536);
 	}
 
 	@Test
@@ -671,7 +724,7 @@ public class AntPathMatcherTests {
 	public void cachePatternsSetToFalse() {
 		pathMatcher.setCachePatterns(false);
 		match();
-		assertTrue(pathMatcher.stringMatcherCache.isEmpty());
+		assertEquals(0, pathMatcher.stringMatcherCache.size());
 	}
 
 	@Test
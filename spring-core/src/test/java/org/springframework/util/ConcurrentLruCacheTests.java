@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ConcurrentLruCache}.
+ *
+ * @since 5.0.15
+ */
+public class ConcurrentLruCacheTests {
+
+	private final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, key -> key + "value");
+
+
+	@Test
+	public void getAndSize() {
+		assertEquals(2, this.cache.sizeLimit());
+		assertEquals(0, this.cache.size());
+		assertEquals("k1value", this.cache.get("k1"));
+		assertEquals(1, this.cache.size());
+		assertTrue(this.cache.contains("k1"));
+		assertEquals("k2value", this.cache.get("k2"));
+		assertEquals(2, this.cache.size());
+		assertTrue(this.cache.contains("k1"));
+		assertTrue(this.cache.contains("k2"));
+		assertEquals("k3value", this.cache.get("k3"));
+		assertEquals(2, this.cache.size());
+		assertFalse(this.cache.contains("k1"));
+		assertTrue(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void removeAndSize() {
+		assertEquals("k1value", this.cache.get("k1"));
+		assertEquals("k2value", this.cache.get("k2"));
+		assertEquals(2, this.cache.size());
+		assertTrue(this.cache.remove("k2"));
+		assertFalse(this.cache.remove("k2"));
+		assertEquals(1, this.cache.size());
+		assertEquals("k3value", this.cache.get("k3"));
+		assertEquals(2, this.cache.size());
+		assertTrue(this.cache.contains("k1"));
+		assertFalse(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k1");
+		this.cache.get("k3");
+		assertTrue(this.cache.contains("k1"));
+		assertFalse(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void hitAndMissCounts() {
+		this.cache.get("k1");
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k1");
+		assertEquals(2, this.cache.hitCount());
+		assertEquals(2, this.cache.missCount());
+
+		this.cache.clear();
+		assertEquals(0, this.cache.size());
+		this.cache.get("k1");
+		assertEquals(3, this.cache.missCount());
+	}
+
+	@Test
+	public void zeroSizeLimitDisablesCaching() {
+		AtomicInteger counter = new AtomicInteger();
+		ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache<>(0, key -> counter.incrementAndGet());
+		assertEquals(Integer.valueOf(1), cache.get("k1"));
+		assertEquals(Integer.valueOf(2), cache.get("k1"));
+		assertEquals(0, cache.size());
+		assertFalse(cache.contains("k1"));
+	}
+
+	@Test
+	public void nullValuesAreNotCached() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, key -> null);
+		assertNull(cache.get("k1"));
+		assertFalse(cache.contains("k1"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void sizeLimitIsEnforcedForManyEntries() {
+		ConcurrentLruCache<Integer, String> cache = new ConcurrentLruCache<>(1024, 16, String::valueOf);
+		for (int i = 0; i < 100000; i++) {
+			assertEquals(String.valueOf(i), cache.get(i));
+		}
+		assertTrue(cache.size() <= 1024);
+		assertTrue(cache.contains(99999));
+		assertFalse(cache.contains(0));
+	}
+
+	@Test
+	public void frequentlyReadEntryIsRetained() {
+		ConcurrentLruCache<Integer, String> cache = new ConcurrentLruCache<>(16, String::valueOf);
+		for (int i = 0; i < 1000; i++) {
+			cache.get(0);
+			cache.get(i);
+		}
+		assertEquals(16, cache.size());
+		assertTrue(cache.contains(0));
+		assertTrue(cache.contains(999));
+		assertFalse(cache.contains(1));
+	}
+
+	@Test
+	public void sizeLimitIsEnforcedAfterConcurrentAccess() throws Exception {
+		ConcurrentLruCache<Integer, String> cache = new ConcurrentLruCache<>(32, String::valueOf);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int offset = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 20000; i++) {
+						int key = (i % 4 == 0 ? i % 8 : offset * 100000 + i);
+						assertEquals(String.valueOf(key), cache.get(key));
+						if (i % 1000 == 0) {
+							cache.remove(key);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		// Any pending additions get applied on the next write
+		cache.get(-1);
+		assertTrue(cache.size() <= 32);
+		assertTrue(cache.contains(-1));
+	}
+
+	@Test
+	public void concurrentAccessReturnsSingleCachedValue() throws Exception {
+		ConcurrentLruCache<Integer, Object> cache = new ConcurrentLruCache<>(64, key -> new Object());
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				futures.add(executor.submit(() -> cache.get(1)));
+			}
+			Object value = cache.get(1);
+			for (Future<Object> future : futures) {
+				assertSame(value, future.get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+}